@@ -0,0 +1,111 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.util.TelegramUpdateDecoder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 基准测试共用的请求数据和应用上下文
+ * <p>
+ * 请求体按Telegram实际推送的结构构造（包含from、chat、entities等解码时需要跳过的字段），
+ * 应用上下文使用生产配置，只关闭Web容器并把日志级别调到WARN，避免日志输出掩盖热路径本身的开销。
+ */
+public final class BenchmarkFixtures {
+
+    public static final String SECRET_TOKEN = "BENCHMARK_SECRET_TOKEN_32_CHARS_MIN";
+
+    public static final String TELEGRAM_IP = "149.154.167.220";
+
+    public static final String TELEGRAM_IPV6 = "2001:b28:f23d:f001::a";
+
+    public static final String FOREIGN_IP = "203.0.113.77";
+
+    /**
+     * application.yml 中配置的Telegram服务器IP段
+     */
+    public static final List<String> ALLOWED_IPS = List.of(
+            "149.154.160.0/20", "91.108.4.0/22",
+            "2001:67c:4e8::/48", "2001:b28:f23c::/48", "2001:b28:f23d::/48", "2001:b28:f23f::/48");
+
+    public static final long USER_ID = 123456789L;
+
+    private static final String MESSAGE_TEMPLATE = """
+            {"update_id":%d,"message":{"message_id":%d,\
+            "from":{"id":%d,"is_bot":false,"first_name":"Demo","last_name":"User","username":"demo_user","language_code":"zh-hans"},\
+            "chat":{"id":%d,"first_name":"Demo","last_name":"User","username":"demo_user","type":"private"},\
+            "date":%d,"text":"%s","entities":[{"offset":0,"length":%d,"type":"bot_command"}]}}""";
+
+    private static final String CALLBACK_TEMPLATE = """
+            {"update_id":%d,"callback_query":{"id":"4382bfdwdsb323b2d9","chat_instance":"-6892538215123958410",\
+            "from":{"id":%d,"is_bot":false,"first_name":"Demo","username":"demo_user","language_code":"zh-hans"},\
+            "message":{"message_id":%d,"from":{"id":7000000001,"is_bot":true,"first_name":"Demo Bot","username":"demo_bot"},\
+            "chat":{"id":%d,"first_name":"Demo","username":"demo_user","type":"private"},"date":%d,"text":"请选择操作"},\
+            "data":"%s"}}""";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 私聊命令消息的请求体，date 为当前时间，可以通过时间戳验证
+     */
+    public static byte[] messageBody(long updateId, String text) {
+        int commandLength = text.indexOf(' ') > 0 ? text.indexOf(' ') : text.length();
+        return String.format(MESSAGE_TEMPLATE, updateId, updateId % 100000, USER_ID, USER_ID,
+                System.currentTimeMillis() / 1000, text, commandLength).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 内联键盘回调的请求体
+     */
+    public static byte[] callbackBody(long updateId, String data) {
+        return String.format(CALLBACK_TEMPLATE, updateId, USER_ID, updateId % 100000, USER_ID,
+                System.currentTimeMillis() / 1000, data).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static TelegramUpdate decode(byte[] body) {
+        return TelegramUpdateDecoder.decode(body);
+    }
+
+    /**
+     * 把已解码的update换成新的 update_id，用于绕过防重放验证反复执行同一请求
+     */
+    public static TelegramUpdate withUpdateId(TelegramUpdate update, long updateId) {
+        return new TelegramUpdate(updateId, update.type(), update.userId(), update.chatId(), update.messageId(),
+                update.text(), update.date(), update.fromBot(), update.callbackQueryId());
+    }
+
+    /**
+     * Telegram服务器发来的Webhook请求（请求体由调用方单独传入）
+     */
+    public static MockHttpServletRequest webhookRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/bot/rest/webhook");
+        request.setRemoteAddr(TELEGRAM_IP);
+        request.setContentType("application/json");
+        request.addHeader("X-Telegram-Bot-Api-Secret-Token", SECRET_TOKEN);
+        return request;
+    }
+
+    /**
+     * 启动不含Web容器的应用上下文
+     * 频率限制放宽到基准测试不会触发的程度，其余配置与生产一致
+     */
+    public static ConfigurableApplicationContext startContext() {
+        // 以命令行参数传入，优先级高于 application.yml
+        return new SpringApplicationBuilder(TelegramBotApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run("--telegram.bot.secret-token=" + SECRET_TOKEN,
+                        "--telegram.bot.rate-limit.ip-requests-per-minute=0",
+                        "--telegram.bot.rate-limit.user-requests-per-minute=0",
+                        "--telegram.bot.rate-limit.commands.balance.max-requests=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.demo.telegram.bot=WARN");
+    }
+}
@@ -0,0 +1,62 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.handler.TelegramCommandHandler;
+import com.demo.telegram.bot.handler.TelegramCommandHandlerFactory;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各命令处理器生成回复文本的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandHandlerBenchmark {
+
+    @Param({"/start", "/help", "/balance", "/unknown"})
+    private String text;
+
+    private ConfigurableApplicationContext context;
+
+    private TelegramCommandHandler handler;
+
+    private TelegramCommand command;
+
+    private TelegramUpdate update;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkFixtures.startContext();
+        command = TelegramCommand.parse(text);
+        handler = context.getBean(TelegramCommandHandlerFactory.class).resolve(command).handler();
+        update = BenchmarkFixtures.decode(BenchmarkFixtures.messageBody(1, text));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String handle() {
+        return handler.handle(BenchmarkFixtures.USER_ID, command, update);
+    }
+}
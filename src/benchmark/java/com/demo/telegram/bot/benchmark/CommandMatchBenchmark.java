@@ -0,0 +1,67 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.util.CommandNameTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命令匹配与解析
+ * 前缀树中除内置命令外另有若干合成命令，用于确认查找耗时不随命令数量增长
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandMatchBenchmark {
+
+    @Param({"/start", "/balance", "/help@demo_bot", "/balance USDT 30d", "/unknown", "hello world"})
+    private String text;
+
+    @Param({"0", "300"})
+    private int extraCommands;
+
+    private CommandNameTrie commandNames;
+
+    @Setup
+    public void setup() {
+        List<String> names = new ArrayList<>(List.of("start", "help", "balance"));
+        for (int i = 0; i < extraCommands; i++) {
+            names.add("cmd_" + i);
+        }
+        commandNames = CommandNameTrie.of(names);
+    }
+
+    /**
+     * 与 TelegramCommandHandlerFactory#match 相同的匹配过程
+     */
+    @Benchmark
+    public int matchCommand() {
+        int length = text.length();
+        int start = TelegramCommand.skipWhitespace(text, 0, length);
+        if (start >= length || text.charAt(start) != '/') {
+            return CommandNameTrie.NOT_FOUND;
+        }
+        return commandNames.find(text, start + 1, TelegramCommand.nameEnd(text, start + 1, length));
+    }
+
+    @Benchmark
+    public TelegramCommand parseCommand() {
+        return TelegramCommand.parse(text);
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.util.IpAllowList;
+import com.demo.telegram.bot.util.IpUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IP白名单匹配：每次编译CIDR列表与使用启动时预编译的白名单对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IpAllowListBenchmark {
+
+    @Param({BenchmarkFixtures.TELEGRAM_IP, BenchmarkFixtures.TELEGRAM_IPV6, BenchmarkFixtures.FOREIGN_IP})
+    private String ip;
+
+    private IpAllowList allowList;
+
+    @Setup
+    public void setup() {
+        allowList = IpAllowList.compile(BenchmarkFixtures.ALLOWED_IPS);
+    }
+
+    @Benchmark
+    public boolean isIpAllowedFromList() {
+        return IpUtil.isIpAllowed(ip, IpAllowList.compile(BenchmarkFixtures.ALLOWED_IPS));
+    }
+
+    @Benchmark
+    public boolean isIpAllowedPrecompiled() {
+        return IpUtil.isIpAllowed(ip, allowList);
+    }
+
+    @Benchmark
+    public long rateLimitKey() {
+        return IpUtil.toRateLimitKey(ip);
+    }
+}
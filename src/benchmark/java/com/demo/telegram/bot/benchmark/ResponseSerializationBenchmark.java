@@ -0,0 +1,137 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.util.TelegramBotResponseConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook响应序列化：直接使用Spring MVC的ObjectMapper，以及实际写出响应的 {@link TelegramBotResponseConverter}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private ObjectMapper objectMapper;
+
+    private TelegramBotResponse sendMessage;
+
+    private TelegramBotResponse staticMessage;
+
+    private TelegramBotResponse empty;
+
+    private TelegramBotResponseConverter converter;
+
+    private final ReusableOutputMessage output = new ReusableOutputMessage();
+
+    @Setup
+    public void setup() {
+        context = BenchmarkFixtures.startContext();
+        objectMapper = context.getBean(ObjectMapper.class);
+        // 与 /help 回复相同规模的HTML消息
+        sendMessage = TelegramBotResponse.sendMessage(BenchmarkFixtures.USER_ID, """
+                <b>显示帮助信息</b>
+
+                🤖 <b>Demo版本功能说明:</b>
+                • 所有功能都可直接使用
+                • 显示的数据均为模拟演示数据
+                • 用于展示Telegram机器人架构
+
+                📋 <b>可用命令:</b>
+                /start - 欢迎消息和功能介绍
+                /help - 显示此帮助信息
+                /balance - 余额查询（模拟数据）
+                """);
+        staticMessage = TelegramBotResponse.sendStaticMessage(BenchmarkFixtures.USER_ID, sendMessage.getText());
+        empty = TelegramBotResponse.empty();
+        converter = new TelegramBotResponseConverter(objectMapper);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializeSendMessage() throws Exception {
+        return objectMapper.writeValueAsBytes(sendMessage);
+    }
+
+    @Benchmark
+    public byte[] serializeEmpty() throws Exception {
+        return objectMapper.writeValueAsBytes(empty);
+    }
+
+    @Benchmark
+    public ReusableOutputMessage writeSendMessage() throws Exception {
+        return write(sendMessage);
+    }
+
+    /**
+     * 固定回复，写出缓存的字节段
+     */
+    @Benchmark
+    public ReusableOutputMessage writeStaticMessage() throws Exception {
+        return write(staticMessage);
+    }
+
+    @Benchmark
+    public ReusableOutputMessage writeEmpty() throws Exception {
+        return write(empty);
+    }
+
+    private ReusableOutputMessage write(TelegramBotResponse response) throws Exception {
+        output.reset();
+        converter.write(response, MediaType.APPLICATION_JSON, output);
+        return output;
+    }
+
+    /**
+     * 复用的输出消息，排除测试桩本身的分配，只测量转换器的开销
+     */
+    private static final class ReusableOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(4096);
+
+        void reset() {
+            headers.clear();
+            body.reset();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.demo.telegram.bot.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 冷启动基准：启动时间和首个请求延迟
+ * <p>
+ * 每种构建方式启动若干次新进程，分别测量：
+ * <ul>
+ *     <li>启动时间：从创建进程到健康检查首次返回200</li>
+ *     <li>首个请求：健康检查通过后第一个Webhook请求（/help）的往返时间，包含首次执行的类加载和解释执行</li>
+ *     <li>第二个请求：紧接着的第二个Webhook请求，作为对照</li>
+ *     <li>RSS：第二个请求后进程的常驻内存</li>
+ * </ul>
+ * 构建方式：
+ * <ul>
+ *     <li>fatjar：Spring Boot可执行jar（java -jar fatjar/*-exec.jar），即当前的部署方式</li>
+ *     <li>jvm：解压布局（应用jar + lib/），不启用AOT</li>
+ *     <li>aot：解压布局，-Dspring.aot.enabled=true</li>
+ *     <li>cds：aot + AppCDS归档（-XX:SharedArchiveFile）</li>
+ *     <li>native：GraalVM native可执行文件</li>
+ * </ul>
+ * 前四种由 mvn -Paot package 生成，native由 mvn -Pnative native:compile 生成，文件不存在的方式跳过。
+ * <p>
+ * 运行：mvn -Paot package && mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.main=com.demo.telegram.bot.benchmark.StartupBenchmark -Dbenchmark.args="--runs=5"
+ * <p>
+ * 参数：
+ * <ul>
+ *     <li>--runs 每种方式的启动次数，默认5</li>
+ *     <li>--modes 逗号分隔的构建方式，默认全部</li>
+ *     <li>--target-dir 构建输出目录，默认 target</li>
+ *     <li>--port 应用端口，默认18090</li>
+ *     <li>其余以 --telegram. --server. --spring. --logging. 开头的参数原样传给应用</li>
+ * </ul>
+ */
+public final class StartupBenchmark {
+
+    private static final String ARTIFACT = "telegram-bot-java-sample-1.0.0";
+
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(120);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--telegram.") || arg.startsWith("--server.")
+                    || arg.startsWith("--spring.") || arg.startsWith("--logging.")) {
+                appArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "fatjar,jvm,aot,cds,native").split(","));
+        Path targetDir = Path.of(options.getOrDefault("target-dir", "target")).toAbsolutePath();
+        int port = Integer.parseInt(options.getOrDefault("port", "18090"));
+        String secretToken = UUID.randomUUID().toString().replace("-", "");
+        List<String> defaults = List.of(
+                "--server.port=" + port,
+                "--telegram.bot.secret-token=" + secretToken,
+                "--telegram.bot.allowed-ips=",
+                "--logging.level.com.demo.telegram.bot=WARN");
+        appArgs.addAll(0, defaults);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+
+        System.out.printf("冷启动基准: runs=%d, modes=%s, targetDir=%s%n", runs, modes, targetDir);
+        System.out.printf("%-8s %14s %14s %14s %14s %10s%n",
+                "mode", "startup(ms)", "min(ms)", "1st req(ms)", "2nd req(ms)", "RSS(MB)");
+        for (String mode : modes) {
+            List<String> command = command(mode.trim(), targetDir);
+            if (command == null) {
+                System.out.printf("%-8s 跳过：构建产物不存在%n", mode);
+                continue;
+            }
+            command.addAll(appArgs);
+            long[] startup = new long[runs];
+            long[] first = new long[runs];
+            long[] second = new long[runs];
+            long[] rss = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long[] result = runOnce(command, client, port, secretToken,
+                        targetDir.resolve("startup").resolve(mode + "-" + i + ".log"));
+                startup[i] = result[0];
+                first[i] = result[1];
+                second[i] = result[2];
+                rss[i] = result[3];
+            }
+            System.out.printf("%-8s %14.1f %14.1f %14.2f %14.2f %10d%n", mode, median(startup) / 1e6,
+                    Arrays.stream(startup).min().orElse(0) / 1e6, median(first) / 1e6, median(second) / 1e6,
+                    median(rss) / 1024);
+        }
+    }
+
+    /**
+     * 启动命令，构建产物不存在时返回null
+     */
+    private static List<String> command(String mode, Path targetDir) {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Path fatJar = targetDir.resolve("fatjar").resolve(ARTIFACT + "-exec.jar");
+        Path jar = targetDir.resolve(ARTIFACT + ".jar");
+        Path archive = targetDir.resolve("application.jsa");
+        Path lib = targetDir.resolve("lib");
+        List<String> command = new ArrayList<>();
+        switch (mode) {
+            case "fatjar" -> {
+                if (!Files.exists(fatJar)) {
+                    return null;
+                }
+                command.addAll(List.of(java, "-jar", fatJar.toString()));
+            }
+            case "jvm", "aot", "cds" -> {
+                if (!Files.exists(jar) || !Files.isDirectory(lib) || ("cds".equals(mode) && !Files.exists(archive))) {
+                    return null;
+                }
+                command.add(java);
+                if (!"jvm".equals(mode)) {
+                    command.add("-Dspring.aot.enabled=true");
+                }
+                if ("cds".equals(mode)) {
+                    command.add("-XX:SharedArchiveFile=" + archive);
+                    command.add("-Xlog:cds=off");
+                }
+                command.addAll(List.of("-jar", jar.toString()));
+            }
+            case "native" -> {
+                Path executable = targetDir.resolve(ARTIFACT);
+                if (!Files.isExecutable(executable)) {
+                    return null;
+                }
+                command.add(executable.toString());
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        return command;
+    }
+
+    /**
+     * 启动一次并测量
+     *
+     * @return 启动时间、首个请求、第二个请求（纳秒），RSS（KB）
+     */
+    private static long[] runOnce(List<String> command, HttpClient client, int port, String secretToken, Path log)
+            throws IOException, InterruptedException {
+        Files.createDirectories(log.getParent());
+        URI health = URI.create("http://127.0.0.1:" + port + "/bot/rest/health");
+        URI webhook = URI.create("http://127.0.0.1:" + port + "/bot/rest/webhook");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            while (!isUp(client, health)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited during startup, see " + log);
+                }
+                if (System.nanoTime() - start > STARTUP_TIMEOUT_NANOS) {
+                    throw new IllegalStateException("Application did not start in time, see " + log);
+                }
+                Thread.sleep(2);
+            }
+            long startup = System.nanoTime() - start;
+            long first = timeWebhook(client, webhook, secretToken, 1);
+            long second = timeWebhook(client, webhook, secretToken, 2);
+            return new long[]{startup, first, second, rssKb(process.pid())};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(15, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean isUp(HttpClient client, URI health) throws InterruptedException {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(1)).GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long timeWebhook(HttpClient client, URI webhook, String secretToken, int n)
+            throws IOException, InterruptedException {
+        long now = System.currentTimeMillis() / 1000;
+        String body = "{\"update_id\":" + (now * 10 + n) + ",\"message\":{\"message_id\":" + n
+                + ",\"from\":{\"id\":" + (1000 + n) + ",\"is_bot\":false,\"first_name\":\"Bench\"},"
+                + "\"chat\":{\"id\":" + (1000 + n) + ",\"type\":\"private\"},\"date\":" + now + ",\"text\":\"/help\"}}";
+        HttpRequest request = HttpRequest.newBuilder(webhook)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("X-Telegram-Bot-Api-Secret-Token", secretToken)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+        if (response.statusCode() != 200 || !response.body().contains("sendMessage")) {
+            throw new IllegalStateException("Unexpected webhook response: " + response.statusCode() + " "
+                    + response.body());
+        }
+        return elapsed;
+    }
+
+    /**
+     * 进程常驻内存（Linux /proc），其他系统返回0
+     */
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 非Linux系统
+        }
+        return 0;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,82 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.client.RespClient;
+import com.demo.telegram.bot.state.impl.InMemoryKeyValueStore;
+import com.demo.telegram.bot.state.impl.RespKeyValueServer;
+import com.demo.telegram.bot.state.impl.RespKeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 共享状态的限流计数：本节点分片（进程内）与远程分片（回环地址上的RESP服务，流水线批量写出）对比
+ * 多线程并发时远程分片的命令合并写出，平均每批命令数见基准结束时的输出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class StateStoreBenchmark {
+
+    private static final long TTL_MILLIS = 60_000;
+
+    private InMemoryKeyValueStore local;
+
+    private RespKeyValueServer server;
+
+    private RespClient client;
+
+    private RespKeyValueStore remote;
+
+    @Setup
+    public void setup() throws IOException {
+        local = new InMemoryKeyValueStore();
+        server = new RespKeyValueServer(new InMemoryKeyValueStore(), "127.0.0.1", 0, null);
+        server.start();
+        client = new RespClient("benchmark", "127.0.0.1", server.getPort(), 1000, 256, 100_000, null);
+        remote = new RespKeyValueStore(client);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.out.printf("%nRESP commands=%d, batches=%d, avg batch=%.1f%n", client.getCommandCount(),
+                client.getBatchCount(), (double) client.getCommandCount() / Math.max(1, client.getBatchCount()));
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public long localIncrement() {
+        return local.increment(key(), TTL_MILLIS).join();
+    }
+
+    @Benchmark
+    public long remoteIncrement() {
+        return remote.increment(key(), TTL_MILLIS).join();
+    }
+
+    @Benchmark
+    public boolean remoteSetIfAbsent() {
+        return remote.setIfAbsent("u:" + ThreadLocalRandom.current().nextLong(), TTL_MILLIS).join();
+    }
+
+    private static String key() {
+        return "r:user:" + ThreadLocalRandom.current().nextInt(10_000);
+    }
+}
@@ -0,0 +1,156 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.model.TelegramCommand;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 压测用的混合update语料
+ * <p>
+ * 按权重随机生成命令、普通文本、内联键盘回调、编辑消息和超长消息，结构与Telegram实际推送一致。
+ * 用户从固定规模的用户池中随机选取，使单用户请求频率低于默认的用户频率限制。
+ */
+public final class UpdateCorpus {
+
+    /**
+     * 压测场景
+     */
+    public enum Scenario {
+        START("/start", Kind.MESSAGE, 10),
+        HELP("/help", Kind.MESSAGE, 15),
+        BALANCE("/balance", Kind.MESSAGE, 20),
+        BALANCE_WITH_ARGS("/balance USDT 30d", Kind.MESSAGE, 5),
+        GROUP_HELP("/help@demo_bot", Kind.GROUP_MESSAGE, 5),
+        UNKNOWN_COMMAND("/unknown", Kind.MESSAGE, 5),
+        PLAIN_TEXT("你好，请问怎么查询余额？", Kind.MESSAGE, 15),
+        CALLBACK_HELP("/help", Kind.CALLBACK_QUERY, 10),
+        CALLBACK_BALANCE("/balance", Kind.CALLBACK_QUERY, 5),
+        EDITED_MESSAGE("/balance", Kind.EDITED_MESSAGE, 5),
+        OVERSIZED_MESSAGE(null, Kind.MESSAGE, 5);
+
+        private final String text;
+
+        private final Kind kind;
+
+        private final int weight;
+
+        Scenario(String text, Kind kind, int weight) {
+            this.text = text;
+            this.kind = kind;
+            this.weight = weight;
+        }
+
+        /**
+         * 该场景的消息文本中的命令名，不是命令消息时为 none
+         */
+        public String command() {
+            TelegramCommand command = TelegramCommand.parse(text);
+            return command != null ? command.getName().toLowerCase(Locale.ROOT) : "none";
+        }
+    }
+
+    private enum Kind {
+        MESSAGE, GROUP_MESSAGE, EDITED_MESSAGE, CALLBACK_QUERY
+    }
+
+    /**
+     * 超过Telegram单条消息上限（4096字符）的文本
+     */
+    private static final String OVERSIZED_TEXT = "长".repeat(5000);
+
+    private static final Scenario[] SCENARIOS = Scenario.values();
+
+    private static final int TOTAL_WEIGHT;
+
+    static {
+        int total = 0;
+        for (Scenario scenario : SCENARIOS) {
+            total += scenario.weight;
+        }
+        TOTAL_WEIGHT = total;
+    }
+
+    private final int userPoolSize;
+
+    public UpdateCorpus(int userPoolSize) {
+        this.userPoolSize = Math.max(1, userPoolSize);
+    }
+
+    /**
+     * 按权重随机选择场景
+     */
+    public Scenario nextScenario() {
+        int value = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (Scenario scenario : SCENARIOS) {
+            value -= scenario.weight;
+            if (value < 0) {
+                return scenario;
+            }
+        }
+        return SCENARIOS[SCENARIOS.length - 1];
+    }
+
+    /**
+     * 生成指定场景的请求体
+     */
+    public byte[] body(Scenario scenario, long updateId) {
+        long userId = 100_000_000L + ThreadLocalRandom.current().nextInt(userPoolSize);
+        long date = System.currentTimeMillis() / 1000;
+        String text = scenario.text != null ? scenario.text : OVERSIZED_TEXT;
+
+        StringBuilder json = new StringBuilder(text.length() + 512);
+        json.append("{\"update_id\":").append(updateId).append(',');
+        switch (scenario.kind) {
+            case CALLBACK_QUERY -> {
+                json.append("\"callback_query\":{\"id\":\"").append(Long.toHexString(updateId * 31 + userId))
+                        .append("\",\"chat_instance\":\"-6892538215123958410\",");
+                appendUser(json, userId);
+                json.append(",\"message\":{\"message_id\":").append(updateId % 100000)
+                        .append(",\"from\":{\"id\":7000000001,\"is_bot\":true,\"first_name\":\"Demo Bot\",\"username\":\"demo_bot\"},");
+                appendChat(json, userId, false);
+                json.append(",\"date\":").append(date).append(",\"text\":\"请选择操作\"},\"data\":\"")
+                        .append(text).append("\"}}");
+            }
+            case GROUP_MESSAGE -> appendMessage(json, "message", updateId, userId, date, text, true);
+            case EDITED_MESSAGE -> appendMessage(json, "edited_message", updateId, userId, date, text, false);
+            default -> appendMessage(json, "message", updateId, userId, date, text, false);
+        }
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendMessage(StringBuilder json, String field, long updateId, long userId, long date,
+                                      String text, boolean group) {
+        json.append('"').append(field).append("\":{\"message_id\":").append(updateId % 100000).append(',');
+        appendUser(json, userId);
+        json.append(',');
+        appendChat(json, userId, group);
+        json.append(",\"date\":").append(date);
+        if (field.equals("edited_message")) {
+            json.append(",\"edit_date\":").append(date);
+        }
+        json.append(",\"text\":\"").append(text).append('"');
+        if (text.startsWith("/")) {
+            int length = text.indexOf(' ') > 0 ? text.indexOf(' ') : text.length();
+            json.append(",\"entities\":[{\"offset\":0,\"length\":").append(length).append(",\"type\":\"bot_command\"}]");
+        }
+        json.append("}}");
+    }
+
+    private static void appendUser(StringBuilder json, long userId) {
+        json.append("\"from\":{\"id\":").append(userId)
+                .append(",\"is_bot\":false,\"first_name\":\"Load\",\"last_name\":\"Test\",\"username\":\"load_")
+                .append(userId).append("\",\"language_code\":\"zh-hans\"}");
+    }
+
+    private static void appendChat(StringBuilder json, long userId, boolean group) {
+        if (group) {
+            json.append("\"chat\":{\"id\":-100").append(userId % 1000)
+                    .append(",\"title\":\"Load Test Group\",\"type\":\"supergroup\"}");
+        } else {
+            json.append("\"chat\":{\"id\":").append(userId)
+                    .append(",\"first_name\":\"Load\",\"username\":\"load_").append(userId).append("\",\"type\":\"private\"}");
+        }
+    }
+}
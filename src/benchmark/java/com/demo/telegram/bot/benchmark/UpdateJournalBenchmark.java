@@ -0,0 +1,68 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.util.UpdateJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * update日志追加：只写入页缓存 与 每条记录单独落盘 对比
+ * 组提交时一次落盘覆盖等待期间追加的所有记录，每条记录分摊的落盘开销介于两者之间
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateJournalBenchmark {
+
+    private static final byte[] PAYLOAD = ("{\"update_id\":123456789,\"message\":{\"message_id\":1,"
+            + "\"from\":{\"id\":42,\"is_bot\":false},\"chat\":{\"id\":42,\"type\":\"private\"},"
+            + "\"date\":1700000000,\"text\":\"/balance\"}}").getBytes(StandardCharsets.UTF_8);
+
+    private Path directory;
+
+    private UpdateJournal journal;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new UpdateJournal(directory, 64 * 1024 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        return journal.append(System.currentTimeMillis(), "default", PAYLOAD);
+    }
+
+    @Benchmark
+    public long appendAndForce() throws IOException {
+        journal.append(System.currentTimeMillis(), "default", PAYLOAD);
+        return journal.force();
+    }
+}
@@ -0,0 +1,358 @@
+package com.demo.telegram.bot.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Webhook入口对比：Spring MVC（Tomcat） vs WebFlux（Netty）
+ * <p>
+ * 每种入口启动一个新进程（同一份类路径，只切换 spring.main.web-application-type），依次执行两个阶段：
+ * <ul>
+ *     <li>慢连接：打开 --connections 个连接，每个连接发送请求头和一半请求体后停顿 --hold 秒再发送剩余部分，
+ *     模拟大量慢速上传的连接。停顿期间另一个客户端持续发送正常的Webhook请求，记录其延迟，
+ *     并记录服务端线程数和常驻内存。MVC入口读取请求体时占用容器线程，线程耗尽后正常请求排队到停顿结束；
+ *     响应式入口读取请求体不占用线程，正常请求不受影响</li>
+ *     <li>吞吐：--concurrency 个客户端线程闭环发送正常请求 --duration 秒，对比两种入口的CPU开销</li>
+ * </ul>
+ * 本地运行时压测端与应用共用CPU，吞吐阶段的结果只用于两种入口之间的相对比较。
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.demo.telegram.bot.benchmark.WebhookIngressBenchmark
+ * -Dbenchmark.args="--connections=2000 --hold=10"
+ * <p>
+ * 参数：
+ * <ul>
+ *     <li>--modes 逗号分隔的入口，默认 servlet,reactive</li>
+ *     <li>--connections 慢连接数，默认2000</li>
+ *     <li>--hold 慢连接停顿时长（秒），默认10，应小于Tomcat的连接超时（默认60秒）</li>
+ *     <li>--concurrency 吞吐阶段的客户端线程数，默认32</li>
+ *     <li>--duration 吞吐阶段时长（秒），默认15</li>
+ *     <li>--port 应用端口，默认18091</li>
+ *     <li>其余以 --telegram. --server. --spring. --logging. 开头的参数原样传给应用</li>
+ * </ul>
+ * 请求的 X-Forwarded-For 轮换使用 149.154.160.0/20 中的地址，用户ID和update_id各不相同，不会触发频率限制和去重。
+ */
+public final class WebhookIngressBenchmark {
+
+    private static final int TELEGRAM_SUBNET_SIZE = 4096;
+
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(120);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private WebhookIngressBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--telegram.") || arg.startsWith("--server.")
+                    || arg.startsWith("--spring.") || arg.startsWith("--logging.")) {
+                appArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "servlet,reactive").split(","));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "2000"));
+        int holdSeconds = Integer.parseInt(options.getOrDefault("hold", "10"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "15"));
+        int port = Integer.parseInt(options.getOrDefault("port", "18091"));
+        String secretToken = UUID.randomUUID().toString().replace("-", "");
+        SEQUENCE.set(System.currentTimeMillis() * 1000);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("Webhook入口对比: modes=%s, connections=%d, hold=%ds, concurrency=%d, duration=%ds%n",
+                modes, connections, holdSeconds, concurrency, durationSeconds);
+        List<String> report = new ArrayList<>();
+        for (String mode : modes) {
+            mode = mode.trim();
+            List<String> command = new ArrayList<>(List.of(
+                    ProcessHandle.current().info().command().orElse("java"),
+                    "-cp", System.getProperty("java.class.path"),
+                    "com.demo.telegram.bot.TelegramBotApplication",
+                    "--spring.main.web-application-type=" + mode,
+                    "--server.port=" + port,
+                    "--telegram.bot.secret-token=" + secretToken,
+                    "--logging.level.com.demo.telegram.bot=WARN"));
+            command.addAll(appArgs);
+            Path log = Path.of("target", "ingress", mode + ".log");
+            Files.createDirectories(log.getParent());
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            try {
+                URI webhook = URI.create("http://127.0.0.1:" + port + "/bot/rest/webhook");
+                awaitStartup(process, client, URI.create("http://127.0.0.1:" + port + "/bot/rest/health"), log);
+                // 预热：类加载、JIT和各类缓存
+                runClosedLoop(client, webhook, secretToken, concurrency, 5);
+
+                SlowResult slow = runSlowConnections(process.pid(), client, webhook, secretToken, port,
+                        connections, holdSeconds);
+                System.out.printf("%s: 慢连接 %d/%d 完成, 正常请求 %d 个, p50=%.1fms, max=%.1fms%n", mode,
+                        slow.completed, connections, slow.probes, slow.probeP50Millis, slow.probeMaxMillis);
+                ThroughputResult throughput = runClosedLoop(client, webhook, secretToken, concurrency, durationSeconds);
+                report.add(String.format("%-9s %8d/%-6d %8d %12.1f %12.1f %9d %9d %12.0f %10.2f %10.2f",
+                        mode, slow.completed, connections, slow.probes, slow.probeP50Millis, slow.probeMaxMillis,
+                        slow.threads, slow.rssKb / 1024, throughput.requestsPerSecond,
+                        throughput.p50Millis, throughput.p99Millis));
+            } finally {
+                process.destroy();
+                if (!process.waitFor(15, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-9s %15s %8s %12s %12s %9s %9s %12s %10s %10s%n", "mode", "slow ok/total",
+                "probes", "probe p50", "probe max", "threads", "RSS(MB)", "req/s", "p50(ms)", "p99(ms)");
+        report.forEach(System.out::println);
+        System.out.println("probes：慢连接停顿期间发出的正常请求数；threads、RSS：停顿期间服务端进程的线程数和常驻内存");
+    }
+
+    private static void awaitStartup(Process process, HttpClient client, URI health, Path log)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        while (true) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(1)).GET().build();
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // 尚未启动
+            }
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited during startup, see " + log);
+            }
+            if (System.nanoTime() - start > STARTUP_TIMEOUT_NANOS) {
+                throw new IllegalStateException("Application did not start in time, see " + log);
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * 慢连接阶段
+     */
+    private static SlowResult runSlowConnections(long pid, HttpClient client, URI webhook, String secretToken,
+                                                 int port, int connections, int holdSeconds) throws Exception {
+        List<Socket> sockets = new ArrayList<>(connections);
+        List<byte[]> remaining = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            byte[] body = update().getBytes(StandardCharsets.UTF_8);
+            String head = "POST /bot/rest/webhook HTTP/1.1\r\n"
+                    + "Host: 127.0.0.1:" + port + "\r\n"
+                    + "Content-Type: application/json\r\n"
+                    + "Content-Length: " + body.length + "\r\n"
+                    + "X-Telegram-Bot-Api-Secret-Token: " + secretToken + "\r\n"
+                    + "X-Forwarded-For: " + forwardedFor() + "\r\n"
+                    + "Connection: close\r\n\r\n";
+            Socket socket = new Socket();
+            socket.connect(new InetSocketAddress("127.0.0.1", port), 10_000);
+            socket.setSoTimeout((holdSeconds + 60) * 1000);
+            OutputStream out = socket.getOutputStream();
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.write(body, 0, body.length / 2);
+            out.flush();
+            sockets.add(socket);
+            remaining.add(Arrays.copyOfRange(body, body.length / 2, body.length));
+        }
+
+        // 停顿期间另一个线程持续发送正常请求，停顿结束时正在等待的请求按实际完成时间计算延迟
+        long holdEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(holdSeconds);
+        List<Long> probeNanos = new ArrayList<>();
+        Thread prober = new Thread(() -> {
+            while (System.nanoTime() < holdEnd) {
+                long start = System.nanoTime();
+                try {
+                    sendWebhook(client, webhook, secretToken, Duration.ofSeconds(holdSeconds + 30));
+                    synchronized (probeNanos) {
+                        probeNanos.add(System.nanoTime() - start);
+                    }
+                    Thread.sleep(20);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("正常请求失败: " + e);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "ingress-prober");
+        prober.start();
+        Thread.sleep(Math.min(1000, TimeUnit.SECONDS.toMillis(holdSeconds) / 2));
+        long[] status = processStatus(pid);
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, holdEnd - System.nanoTime()));
+
+        // 先补完所有连接的请求体，再依次读取响应，与各自独立上传完成的慢速客户端一致
+        for (int i = 0; i < connections; i++) {
+            try {
+                OutputStream out = sockets.get(i).getOutputStream();
+                out.write(remaining.get(i));
+                out.flush();
+            } catch (IOException e) {
+                // 连接已被服务端关闭，读取响应时计为失败
+            }
+        }
+        int completed = 0;
+        for (Socket socket : sockets) {
+            try (socket) {
+                if (readResponse(socket.getInputStream())) {
+                    completed++;
+                }
+            } catch (IOException e) {
+                // 连接被服务端关闭或超时，计为失败
+            }
+        }
+        prober.join();
+
+        long[] sorted;
+        synchronized (probeNanos) {
+            sorted = probeNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        return new SlowResult(completed, sorted.length,
+                sorted.length > 0 ? sorted[sorted.length / 2] / 1e6 : 0,
+                sorted.length > 0 ? sorted[sorted.length - 1] / 1e6 : 0, status[0], status[1]);
+    }
+
+    /**
+     * 读取 Connection: close 的响应直到连接关闭
+     *
+     * @return 是否为包含回复的200响应
+     */
+    private static boolean readResponse(InputStream in) throws IOException {
+        String response = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        return response.startsWith("HTTP/1.1 200") && response.contains("sendMessage");
+    }
+
+    /**
+     * 吞吐阶段：每个线程收到响应后立即发送下一个请求
+     */
+    private static ThroughputResult runClosedLoop(HttpClient client, URI webhook, String secretToken,
+                                                  int concurrency, int durationSeconds) throws Exception {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        List<long[]> latencies = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        sendWebhook(client, webhook, secretToken, Duration.ofSeconds(30));
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            for (Future<long[]> future : futures) {
+                latencies.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (all.length == 0) {
+            return new ThroughputResult(0, 0, 0);
+        }
+        return new ThroughputResult(all.length / (double) durationSeconds, all[all.length / 2] / 1e6,
+                all[(int) Math.min(all.length - 1, Math.ceil(all.length * 0.99) - 1)] / 1e6);
+    }
+
+    private static void sendWebhook(HttpClient client, URI webhook, String secretToken, Duration timeout)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(webhook)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-Telegram-Bot-Api-Secret-Token", secretToken)
+                .header("X-Forwarded-For", forwardedFor())
+                .POST(HttpRequest.BodyPublishers.ofString(update()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200 || !response.body().contains("sendMessage")) {
+            throw new IllegalStateException("Unexpected webhook response: " + response.statusCode() + " "
+                    + response.body());
+        }
+    }
+
+    /**
+     * 每次调用生成不同update_id和用户的 /start 消息
+     */
+    private static String update() {
+        long sequence = SEQUENCE.incrementAndGet();
+        long userId = 1_000_000 + sequence % 100_000_000;
+        long now = System.currentTimeMillis() / 1000;
+        return "{\"update_id\":" + sequence + ",\"message\":{\"message_id\":" + (sequence & 0xffff)
+                + ",\"from\":{\"id\":" + userId + ",\"is_bot\":false,\"first_name\":\"Bench\"},"
+                + "\"chat\":{\"id\":" + userId + ",\"type\":\"private\"},\"date\":" + now + ",\"text\":\"/start\"}}";
+    }
+
+    private static String forwardedFor() {
+        int host = (int) (SEQUENCE.get() % TELEGRAM_SUBNET_SIZE);
+        return "149.154." + (160 + (host >> 8)) + "." + (host & 0xff);
+    }
+
+    /**
+     * 进程线程数和常驻内存（KB），读取Linux /proc，其他系统返回0
+     */
+    private static long[] processStatus(long pid) {
+        long[] status = new long[2];
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("Threads:")) {
+                    status[0] = Long.parseLong(line.replaceAll("[^0-9]", ""));
+                } else if (line.startsWith("VmRSS:")) {
+                    status[1] = Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 非Linux系统
+        }
+        return status;
+    }
+
+    private record SlowResult(int completed, int probes, double probeP50Millis, double probeMaxMillis,
+                              long threads, long rssKb) {
+    }
+
+    private record ThroughputResult(double requestsPerSecond, double p50Millis, double p99Millis) {
+    }
+}
@@ -0,0 +1,281 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Webhook端到端压测
+ * <p>
+ * 默认在本进程内启动完整应用（Tomcat、真实验证链、真实Secret Token），也可以通过 --target 压测已部署的实例。
+ * 请求按固定速率开环发出，不等待上一个请求返回；延迟从计划发送时间开始计算，
+ * 服务端变慢导致的排队时间会计入延迟，不会因为发送端跟着变慢而被低估（coordinated omission）。
+ * 本地启动时压测端与应用共用CPU，测量单实例容量上限时应使用 --target 从另一台机器发压。
+ * <p>
+ * 运行：mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.demo.telegram.bot.benchmark.WebhookLoadGenerator
+ * -Dbenchmark.args="--rate=2000 --duration=60"
+ * <p>
+ * 参数：
+ * <ul>
+ *     <li>--rate 每秒请求数，默认1000</li>
+ *     <li>--duration 统计时长（秒），默认30</li>
+ *     <li>--warmup 预热时长（秒），预热期间的结果不计入统计，默认10</li>
+ *     <li>--users 用户池大小，默认50000</li>
+ *     <li>--target Webhook地址，设置后不启动本地应用</li>
+ *     <li>--secret-token 压测外部实例时使用的Secret Token</li>
+ *     <li>--output 结果文件（CSV），默认 target/loadtest/webhook-load-时间.csv</li>
+ *     <li>其余以 --telegram. --server. --spring. --logging. 开头的参数原样传给本地启动的应用</li>
+ * </ul>
+ * 请求的 X-Forwarded-For 轮换使用 149.154.160.0/20 中的地址，既能通过IP白名单，
+ * 又能把单IP请求频率压到默认的IP频率限制（100次/分钟）以下，因此速率上限约为6800次/秒。
+ */
+public final class WebhookLoadGenerator {
+
+    private static final int TELEGRAM_SUBNET_SIZE = 4096;
+
+    private WebhookLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--telegram.") || arg.startsWith("--server.")
+                    || arg.startsWith("--spring.") || arg.startsWith("--logging.")) {
+                appArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        int rate = Integer.parseInt(options.getOrDefault("rate", "1000"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int users = Integer.parseInt(options.getOrDefault("users", "50000"));
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path output = Path.of(options.getOrDefault("output", "target/loadtest/webhook-load-" + runId + ".csv"));
+
+        ConfigurableApplicationContext context = null;
+        String target = options.get("target");
+        String secretToken = options.get("secret-token");
+        if (target == null) {
+            secretToken = UUID.randomUUID().toString().replace("-", "");
+            List<String> defaults = List.of(
+                    "--server.port=0",
+                    "--telegram.bot.secret-token=" + secretToken,
+                    // 每个请求的INFO日志会让压测变成测日志，默认只输出WARN，可以通过 --logging.level.* 覆盖
+                    "--logging.level.com.demo.telegram.bot=WARN");
+            appArgs.addAll(0, defaults);
+            context = new SpringApplicationBuilder(TelegramBotApplication.class)
+                    .logStartupInfo(false)
+                    .run(appArgs.toArray(new String[0]));
+            target = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port") + "/bot/rest/webhook";
+        }
+
+        System.out.printf("Webhook压测: target=%s, rate=%d/s, warmup=%ds, duration=%ds, users=%d%n",
+                target, rate, warmup, duration, users);
+        try {
+            Map<UpdateCorpus.Scenario, LatencyRecorder> results =
+                    run(URI.create(target), secretToken, rate, warmup, duration, new UpdateCorpus(users));
+            writeReport(results, runId, rate, duration, output);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static Map<UpdateCorpus.Scenario, LatencyRecorder> run(URI target, String secretToken, int rate,
+                                                                 int warmupSeconds, int durationSeconds,
+                                                                 UpdateCorpus corpus) throws InterruptedException {
+        ExecutorService callbackExecutor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(callbackExecutor)
+                .build();
+
+        Map<UpdateCorpus.Scenario, LatencyRecorder> results = new EnumMap<>(UpdateCorpus.Scenario.class);
+        for (UpdateCorpus.Scenario scenario : UpdateCorpus.Scenario.values()) {
+            results.put(scenario, new LatencyRecorder());
+        }
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+        long total = (long) rate * (warmupSeconds + durationSeconds);
+        long warmupRequests = (long) rate * warmupSeconds;
+        long updateIdBase = System.currentTimeMillis() * 1000;
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (i == warmupRequests) {
+                System.out.println("预热完成，开始统计");
+            }
+
+            UpdateCorpus.Scenario scenario = corpus.nextScenario();
+            HttpRequest.Builder request = HttpRequest.newBuilder(target)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("X-Forwarded-For", telegramAddress(i))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(corpus.body(scenario, updateIdBase + i)));
+            if (secretToken != null) {
+                request.header("X-Telegram-Bot-Api-Secret-Token", secretToken);
+            }
+
+            LatencyRecorder recorder = i >= warmupRequests ? results.get(scenario) : null;
+            inFlight.incrementAndGet();
+            client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        if (recorder != null) {
+                            boolean ok = error == null && response.statusCode() == 200;
+                            boolean replied = ok && response.body().contains("\"method\":\"");
+                            recorder.record(System.nanoTime() - intended, ok, replied);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+
+        // 等待所有请求返回
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        callbackExecutor.shutdownNow();
+        return results;
+    }
+
+    /**
+     * 149.154.160.0/20 中的第 n 个地址
+     */
+    private static String telegramAddress(long n) {
+        int host = (int) (n % TELEGRAM_SUBNET_SIZE);
+        return "149.154." + (160 + (host >>> 8)) + "." + (host & 0xFF);
+    }
+
+    private static void writeReport(Map<UpdateCorpus.Scenario, LatencyRecorder> results, String runId, int rate,
+                                    int durationSeconds, Path output) throws IOException {
+        Map<String, LatencyRecorder> byCommand = new TreeMap<>();
+        LatencyRecorder overall = new LatencyRecorder();
+        results.forEach((scenario, recorder) -> {
+            byCommand.computeIfAbsent(scenario.command(), key -> new LatencyRecorder()).merge(recorder);
+            overall.merge(recorder);
+        });
+
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            csv.println("run_id,target_rate,group,name,requests,errors,replies,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms");
+            System.out.printf("%-10s %-18s %9s %7s %8s %10s %9s %9s %9s %9s%n",
+                    "group", "name", "requests", "errors", "replies", "rps", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+            results.forEach((scenario, recorder) ->
+                    report(csv, runId, rate, durationSeconds, "scenario", scenario.name(), recorder));
+            byCommand.forEach((command, recorder) ->
+                    report(csv, runId, rate, durationSeconds, "command", command, recorder));
+            report(csv, runId, rate, durationSeconds, "total", "ALL", overall);
+        }
+        System.out.println("压测结果已写入: " + output.toAbsolutePath());
+    }
+
+    private static void report(PrintWriter csv, String runId, int rate, int durationSeconds,
+                               String group, String name, LatencyRecorder recorder) {
+        long[] sorted = recorder.sortedLatencies();
+        double throughput = (double) sorted.length / durationSeconds;
+        double p50 = percentileMillis(sorted, 0.50);
+        double p99 = percentileMillis(sorted, 0.99);
+        double p999 = percentileMillis(sorted, 0.999);
+        double max = sorted.length > 0 ? sorted[sorted.length - 1] / 1_000_000.0 : 0;
+        csv.printf("%s,%d,%s,%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n", runId, rate, group, name, sorted.length,
+                recorder.errors, recorder.replies, throughput, p50, p99, p999, max);
+        System.out.printf("%-10s %-18s %9d %7d %8d %10.1f %9.3f %9.3f %9.3f %9.3f%n", group, name, sorted.length,
+                recorder.errors, recorder.replies, throughput, p50, p99, p999, max);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+    }
+
+    /**
+     * 单个场景的延迟记录，保存全部样本以计算精确百分位
+     */
+    private static final class LatencyRecorder {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long errors;
+
+        private long replies;
+
+        synchronized void record(long latencyNanos, boolean ok, boolean replied) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+            if (replied) {
+                replies++;
+            }
+        }
+
+        synchronized void merge(LatencyRecorder other) {
+            long[] samples;
+            synchronized (other) {
+                samples = Arrays.copyOf(other.latencies, other.count);
+                errors += other.errors;
+                replies += other.replies;
+            }
+            for (long sample : samples) {
+                record(sample, true, false);
+            }
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import com.demo.telegram.bot.service.TelegramBotWebhookService;
+import com.demo.telegram.bot.util.TelegramWebhookValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook端到端处理：与控制器相同的 解码 → 验证 → processWebhook → 序列化 流程（不含HTTP容器）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookProcessingBenchmark {
+
+    @Param({"/start", "/help", "/balance", "/unknown", "callback:/help"})
+    private String text;
+
+    private ConfigurableApplicationContext context;
+
+    private TelegramWebhookValidator validator;
+
+    private TelegramBotWebhookService webhookService;
+
+    private ObjectMapper objectMapper;
+
+    private MockHttpServletRequest request;
+
+    private TelegramBotContext bot;
+
+    private TelegramUpdate update;
+
+    /**
+     * 预先生成的请求体，循环解码
+     */
+    private byte[][] bodies;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkFixtures.startContext();
+        validator = context.getBean(TelegramWebhookValidator.class);
+        webhookService = context.getBean(TelegramBotWebhookService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        request = BenchmarkFixtures.webhookRequest();
+        bot = context.getBean(TelegramBotRegistry.class).getDefault();
+
+        bodies = new byte[4096][];
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i] = text.startsWith("callback:")
+                    ? BenchmarkFixtures.callbackBody(i + 1, text.substring("callback:".length()))
+                    : BenchmarkFixtures.messageBody(i + 1, text);
+        }
+        update = BenchmarkFixtures.decode(bodies[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 只执行业务处理（命令解析、处理器、构造响应）
+     */
+    @Benchmark
+    public TelegramBotResponse processWebhook() {
+        return webhookService.processWebhook(update);
+    }
+
+    /**
+     * 完整的请求处理，解码后把 update_id 换成递增值，避免请求体循环使用时命中防重放缓存
+     */
+    @Benchmark
+    public byte[] handleWebhook() throws Exception {
+        int index = next++ & (bodies.length - 1);
+        TelegramUpdate decoded = BenchmarkFixtures.decode(bodies[index]);
+        decoded = BenchmarkFixtures.withUpdateId(decoded, next);
+
+        TelegramRequestParam param = new TelegramRequestParam();
+        param.setBot(bot);
+        param.setUpdate(decoded);
+        param.setHeaders(request::getHeader);
+        param.setClientIp(BenchmarkFixtures.TELEGRAM_IP);
+        validator.validateWebhook(param);
+
+        TelegramBotResponse response = webhookService.processWebhook(bot, decoded, null);
+        validator.recordResponse(bot, decoded, response);
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
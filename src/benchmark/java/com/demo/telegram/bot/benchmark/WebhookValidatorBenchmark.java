@@ -0,0 +1,97 @@
+package com.demo.telegram.bot.benchmark;
+
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import com.demo.telegram.bot.util.TelegramWebhookValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整的Webhook验证链：IP白名单、格式、Secret Token、防重放、频率限制、内容和时间戳
+ * 每次调用使用新的 update_id，防重放验证走首次出现的路径
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookValidatorBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private TelegramWebhookValidator validator;
+
+    private MockHttpServletRequest request;
+
+    private TelegramBotContext bot;
+
+    private TelegramUpdate message;
+
+    private TelegramUpdate callback;
+
+    private TelegramUpdate replayed;
+
+    private long nextUpdateId = 1;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkFixtures.startContext();
+        validator = context.getBean(TelegramWebhookValidator.class);
+        request = BenchmarkFixtures.webhookRequest();
+        bot = context.getBean(TelegramBotRegistry.class).getDefault();
+        message = BenchmarkFixtures.decode(BenchmarkFixtures.messageBody(0, "/balance"));
+        callback = BenchmarkFixtures.decode(BenchmarkFixtures.callbackBody(0, "/help"));
+        // 预先登记一个update，基准测试中反复提交它模拟Telegram重试（每个基准方法在独立的fork中运行）
+        replayed = BenchmarkFixtures.withUpdateId(message, 0);
+        validate(replayed, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TelegramRequestParam validateMessage() {
+        return validate(message, nextUpdateId++);
+    }
+
+    @Benchmark
+    public TelegramRequestParam validateCallbackQuery() {
+        return validate(callback, nextUpdateId++);
+    }
+
+    /**
+     * Telegram重试已处理过的update，走防重放缓存命中的路径
+     */
+    @Benchmark
+    public TelegramRequestParam validateReplay() {
+        return validate(replayed, replayed.updateId());
+    }
+
+    private TelegramRequestParam validate(TelegramUpdate template, long updateId) {
+        TelegramRequestParam param = new TelegramRequestParam();
+        param.setBot(bot);
+        param.setUpdate(template.updateId() == updateId ? template : BenchmarkFixtures.withUpdateId(template, updateId));
+        param.setHeaders(request::getHeader);
+        param.setClientIp(BenchmarkFixtures.TELEGRAM_IP);
+        validator.validateWebhook(param);
+        return param;
+    }
+}
@@ -1,12 +1,15 @@
 package com.demo.telegram.bot;
 
+import com.demo.telegram.bot.config.TelegramBotRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Telegram Bot Sample Application
  */
 @SpringBootApplication
+@ImportRuntimeHints(TelegramBotRuntimeHints.class)
 public class TelegramBotApplication {
     public static void main(String[] args) {
         SpringApplication.run(TelegramBotApplication.class, args);
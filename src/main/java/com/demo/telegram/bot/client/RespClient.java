@@ -0,0 +1,367 @@
+package com.demo.telegram.bot.client;
+
+import com.demo.telegram.bot.util.RespCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 流水线RESP客户端
+ * <p>
+ * 每个客户端只使用一条连接：调用方线程把编码好的命令放入队列后立即返回 future，写线程每次取出队列中
+ * 所有命令（最多 maxBatchSize 条）连续写出后只刷新一次，并发请求的命令合并为一次系统调用；
+ * 读线程按发送顺序读取响应并依次完成 future，不等前一条命令的响应就发送下一条。
+ * <p>
+ * 配置了密码时每条新连接先写出 AUTH，不等待它的响应就继续写出之后的命令，认证不增加往返。
+ * <p>
+ * 连接断开时等待中的命令立即失败，之后的命令在重连间隔内直接失败，由调用方改用本地状态，
+ * 不会因为分片不可用而阻塞请求。
+ */
+public class RespClient implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RespClient.class);
+
+    private static final long RECONNECT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String name;
+
+    private final String host;
+
+    private final int port;
+
+    private final int connectTimeoutMillis;
+
+    private final int maxBatchSize;
+
+    private final int maxPending;
+
+    private final String password;
+
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * 已提交、尚未完成的命令数（含队列中和已写出的）
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final LongAdder commands = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    /**
+     * 当前连接，只由写线程读写
+     */
+    private Connection connection;
+
+    /**
+     * 连接失败后下次允许重连的时间，只由写线程读写
+     */
+    private long reconnectAt;
+
+    private boolean available = true;
+
+    /**
+     * @param name                 名称，用于线程名和日志
+     * @param connectTimeoutMillis 连接超时
+     * @param maxBatchSize         每次写出的最大命令数
+     * @param maxPending           未完成命令上限，超出时新命令直接失败
+     * @param password             密码，null或空表示不认证
+     */
+    public RespClient(String name, String host, int port, int connectTimeoutMillis, int maxBatchSize,
+                      int maxPending, String password) {
+        this.name = name;
+        this.host = host;
+        this.port = port;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxPending = maxPending;
+        this.password = password == null || password.isEmpty() ? null : password;
+        this.writer = new Thread(this::writeLoop, "resp-writer-" + name);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 发送一条命令
+     *
+     * @return 响应：简单字符串为 String，整数为 Long，批量字符串为 byte[]（nil为null）；
+     * 服务端返回错误或连接不可用时以 {@link RespException} 失败
+     */
+    public CompletableFuture<Object> execute(String... args) {
+        CompletableFuture<Object> reply = new CompletableFuture<>();
+        if (closed) {
+            reply.completeExceptionally(new RespException("RESP client closed: " + name));
+            return reply;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            reply.completeExceptionally(new RespException("Too many pending RESP commands: " + name));
+            return reply;
+        }
+        byte[][] encoded = new byte[args.length][];
+        for (int i = 0; i < args.length; i++) {
+            encoded[i] = args[i].getBytes(StandardCharsets.UTF_8);
+        }
+        queue.add(new Command(encoded, reply));
+        return reply;
+    }
+
+    private void writeLoop() {
+        List<Command> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            Connection current = connect();
+            if (current != null) {
+                current.write(batch);
+            } else {
+                RespException unavailable = new RespException("RESP server unavailable: " + name);
+                batch.forEach(command -> command.fail(unavailable));
+            }
+            batch.clear();
+        }
+
+        RespException closedException = new RespException("RESP client closed: " + name);
+        Command command;
+        while ((command = queue.poll()) != null) {
+            command.fail(closedException);
+        }
+        if (connection != null) {
+            connection.close(null);
+        }
+    }
+
+    /**
+     * 返回可用的连接，断开时按重连间隔重新连接
+     *
+     * @return 连接不可用时返回null
+     */
+    private Connection connect() {
+        if (connection != null && !connection.closed) {
+            return connection;
+        }
+        connection = null;
+        long now = System.nanoTime();
+        if (reconnectAt != 0 && now - reconnectAt < 0) {
+            return null;
+        }
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            connection = new Connection(socket);
+            if (password != null) {
+                authenticate(connection);
+            }
+            reconnectAt = 0;
+            available = true;
+            logger.info("已连接RESP服务: name={}, address={}:{}", name, host, port);
+            return connection;
+        } catch (IOException e) {
+            closeQuietly(socket);
+            reconnectAt = now + RECONNECT_INTERVAL_NANOS;
+            if (available) {
+                available = false;
+                logger.warn("连接RESP服务失败: name={}, address={}:{}, error={}", name, host, port, e.toString());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 在新连接上先写出 AUTH，认证失败时之后的命令由服务端返回错误，调用方改用本地状态
+     */
+    private void authenticate(Connection current) {
+        CompletableFuture<Object> reply = new CompletableFuture<>();
+        reply.whenComplete((value, error) -> {
+            if (error != null && !closed) {
+                logger.warn("RESP服务认证失败: name={}, address={}:{}, error={}", name, host, port, error.getMessage());
+            }
+        });
+        pending.incrementAndGet();
+        current.write(List.of(new Command(new byte[][]{
+                "AUTH".getBytes(StandardCharsets.US_ASCII), password.getBytes(StandardCharsets.UTF_8)}, reply)));
+    }
+
+    /**
+     * 已写出的命令数
+     */
+    public long getCommandCount() {
+        return commands.sum();
+    }
+
+    /**
+     * 写出次数，命令数 / 写出次数为平均每批命令数
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * 未完成的命令数
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // 关闭失败不影响后续重连
+        }
+    }
+
+    private final class Command {
+
+        private final byte[][] args;
+
+        private final CompletableFuture<Object> reply;
+
+        Command(byte[][] args, CompletableFuture<Object> reply) {
+            this.args = args;
+            this.reply = reply;
+        }
+
+        void complete(Object value) {
+            pending.decrementAndGet();
+            if (value instanceof RespCodec.ErrorReply error) {
+                reply.completeExceptionally(new RespException(error.message()));
+            } else {
+                reply.complete(value);
+            }
+        }
+
+        void fail(Throwable cause) {
+            pending.decrementAndGet();
+            reply.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 单条连接：写线程写出命令，连接自己的读线程按顺序匹配响应
+     */
+    private final class Connection {
+
+        private final Socket socket;
+
+        private final OutputStream out;
+
+        private final InputStream in;
+
+        /**
+         * 已写出、等待响应的命令，按发送顺序排列
+         */
+        private final Queue<Command> inFlight = new ConcurrentLinkedQueue<>();
+
+        private volatile boolean closed;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+            this.in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+            Thread reader = new Thread(this::readLoop, "resp-reader-" + name);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        void write(List<Command> batch) {
+            int written = 0;
+            try {
+                for (Command command : batch) {
+                    // 先登记再写出，响应不会早于登记到达
+                    inFlight.add(command);
+                    written++;
+                    RespCodec.writeCommand(out, command.args);
+                }
+                out.flush();
+                commands.add(batch.size());
+                batches.increment();
+            } catch (IOException e) {
+                close(e);
+                RespException lost = new RespException("RESP connection lost: " + name, e);
+                for (int i = written; i < batch.size(); i++) {
+                    batch.get(i).fail(lost);
+                }
+            }
+            if (closed) {
+                // 读线程可能在登记之前已经关闭连接
+                failInFlight(null);
+            }
+        }
+
+        private void readLoop() {
+            try {
+                while (true) {
+                    Object reply = RespCodec.read(in);
+                    Command command = inFlight.poll();
+                    if (command == null) {
+                        throw new IOException("Unexpected RESP reply");
+                    }
+                    command.complete(reply);
+                }
+            } catch (IOException e) {
+                close(e);
+            }
+        }
+
+        void close(IOException cause) {
+            if (!closed) {
+                closed = true;
+                closeQuietly(socket);
+                if (cause != null && !RespClient.this.closed) {
+                    logger.warn("RESP连接断开: name={}, error={}", name, cause.toString());
+                }
+            }
+            failInFlight(cause);
+        }
+
+        private void failInFlight(IOException cause) {
+            RespException lost = new RespException("RESP connection lost: " + name, cause);
+            Command command;
+            while ((command = inFlight.poll()) != null) {
+                command.fail(lost);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.demo.telegram.bot.client;
+
+/**
+ * RESP调用异常（连接不可用、等待队列已满或服务端返回错误）
+ */
+public class RespException extends RuntimeException {
+
+    private static final long serialVersionUID = 6120348917523049861L;
+
+    public RespException(String message) {
+        super(message);
+    }
+
+    public RespException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.telegram.bot.client;
+
+/**
+ * Telegram Bot API调用异常
+ */
+public class TelegramApiException extends RuntimeException {
+
+    private static final long serialVersionUID = -2930264381523547181L;
+
+    /**
+     * 调用的Bot API方法
+     */
+    private final String method;
+
+    /**
+     * Bot API错误码（error_code），网络错误时为0
+     */
+    private final int errorCode;
+
+    /**
+     * 触发频率限制时Telegram要求等待的秒数（parameters.retry_after）
+     */
+    private final Integer retryAfter;
+
+    public TelegramApiException(String method, int errorCode, String description, Integer retryAfter) {
+        super("Bot API " + method + " failed: " + errorCode + " " + description);
+        this.method = method;
+        this.errorCode = errorCode;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    public Integer getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,352 @@
+package com.demo.telegram.bot.client;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.PolledUpdate;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.util.TelegramUpdateDecoder;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Telegram Bot API客户端
+ * 用于不经过Webhook响应、主动调用Bot API发送消息。
+ * 底层复用同一个keep-alive连接池，发送类调用经 {@link TelegramSendScheduler} 按Telegram频率限制调度，
+ * 以 {@link CompletableFuture} 异步返回结果。
+ * 多Bot部署时按Bot ID选择Token和调度器（频率限制按Bot计算），不带Bot ID的方法使用默认Bot
+ */
+@Component
+public class TelegramBotApiClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramBotApiClient.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 复用连接的HTTP客户端（JDK HttpClient内部维护keep-alive连接池）
+     */
+    private HttpClient httpClient;
+
+    /**
+     * 序列化请求时忽略null字段
+     */
+    private ObjectMapper requestMapper;
+
+    /**
+     * Bot ID -> Token和发送调度器，启动后只读
+     */
+    private Map<String, BotEndpoint> endpoints;
+
+    private BotEndpoint defaultEndpoint;
+
+    @PostConstruct
+    public void init() {
+        TelegramBotConfig.ApiConfig api = telegramBotConfig.getApi();
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(api.getConnectTimeoutMillis()))
+                .build();
+        requestMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        Map<String, BotEndpoint> configured = new HashMap<>();
+        defaultEndpoint = new BotEndpoint(TelegramBotConfig.DEFAULT_BOT_ID, telegramBotConfig.getBotToken());
+        configured.put(TelegramBotConfig.DEFAULT_BOT_ID, defaultEndpoint);
+        telegramBotConfig.getBots().forEach((botId, bot) -> configured.put(botId, new BotEndpoint(botId, bot.getBotToken())));
+        endpoints = Map.copyOf(configured);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (BotEndpoint endpoint : endpoints.values()) {
+            endpoint.shutdown();
+        }
+    }
+
+    /**
+     * 按频率限制调度发送响应对应的方法（如 sendMessage）
+     *
+     * @return 异步结果，成功时为Bot API返回的 result 字段，失败时为 {@link TelegramApiException}
+     */
+    public CompletableFuture<Object> send(TelegramBotResponse response) {
+        return send(defaultEndpoint, response);
+    }
+
+    /**
+     * 以指定Bot的身份按频率限制调度发送
+     *
+     * @param botId Bot ID
+     */
+    public CompletableFuture<Object> send(String botId, TelegramBotResponse response) {
+        return send(endpoint(botId), response);
+    }
+
+    private CompletableFuture<Object> send(BotEndpoint endpoint, TelegramBotResponse response) {
+        if (response == null || response.getMethod() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        byte[] body;
+        try {
+            body = requestMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(
+                    new TelegramApiException(response.getMethod(), 0, "序列化请求失败: " + e.getMessage(), null));
+        }
+        String method = response.getMethod();
+        return endpoint.scheduler().submit(response.getChatId(), () -> callAsync(endpoint, method, body));
+    }
+
+    /**
+     * 同步发送，等待调度和调用完成
+     *
+     * @return Bot API返回的 result 字段
+     * @throws TelegramApiException 调用失败
+     */
+    public Object execute(TelegramBotResponse response) {
+        try {
+            return send(response).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException(response.getMethod(), 0, "请求被中断", null);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TelegramApiException apiException) {
+                throw apiException;
+            }
+            throw new TelegramApiException(response.getMethod(), 0, String.valueOf(e.getCause()), null);
+        }
+    }
+
+    /**
+     * 待调度发送的消息数（所有Bot合计）
+     */
+    public int getPendingSends() {
+        int pending = 0;
+        for (BotEndpoint endpoint : endpoints.values()) {
+            pending += endpoint.getPending();
+        }
+        return pending;
+    }
+
+    /**
+     * 异步调用Bot API方法（不经过频率调度）
+     */
+    public CompletableFuture<Object> callAsync(String method, byte[] body) {
+        return callAsync(defaultEndpoint, method, body);
+    }
+
+    /**
+     * 以指定Bot的身份异步调用Bot API方法（不经过频率调度）
+     *
+     * @param botId Bot ID
+     */
+    public CompletableFuture<Object> callAsync(String botId, String method, byte[] body) {
+        return callAsync(endpoint(botId), method, body);
+    }
+
+    private CompletableFuture<Object> callAsync(BotEndpoint endpoint, String method, byte[] body) {
+        HttpRequest request = HttpRequest.newBuilder(methodUri(endpoint.token, method))
+                .timeout(Duration.ofMillis(telegramBotConfig.getApi().getRequestTimeoutMillis()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> parseResult(method, response.statusCode(), response.body()));
+    }
+
+    /**
+     * 同步调用Bot API方法（不经过频率调度）
+     *
+     * @param method Bot API方法名
+     * @param body   JSON请求体
+     * @return Bot API返回的 result 字段
+     * @throws TelegramApiException 调用失败
+     */
+    public Object call(String method, byte[] body) {
+        HttpRequest request = HttpRequest.newBuilder(methodUri(defaultEndpoint.token, method))
+                .timeout(Duration.ofMillis(telegramBotConfig.getApi().getRequestTimeoutMillis()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        HttpResponse<byte[]> httpResponse;
+        try {
+            httpResponse = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new TelegramApiException(method, 0, "请求失败: " + e.getMessage(), null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TelegramApiException(method, 0, "请求被中断", null);
+        }
+        return parseResult(method, httpResponse.statusCode(), httpResponse.body());
+    }
+
+    /**
+     * 异步长轮询获取update
+     *
+     * @param offset         第一个要获取的update_id，小于该值的update视为已确认
+     * @param limit          最多获取数量
+     * @param timeoutSeconds 长轮询超时（秒）
+     * @param allowedUpdates 接收的update类型
+     * @return 按update_id排序的update及其原始JSON
+     */
+    public CompletableFuture<List<PolledUpdate>> getUpdatesAsync(long offset, int limit, int timeoutSeconds,
+                                                                 List<String> allowedUpdates) {
+        JSONObject body = new JSONObject();
+        body.put("offset", offset);
+        body.put("limit", limit);
+        body.put("timeout", timeoutSeconds);
+        body.put("allowed_updates", allowedUpdates);
+
+        HttpRequest request = HttpRequest.newBuilder(methodUri(defaultEndpoint.token, "getUpdates"))
+                .timeout(Duration.ofSeconds(timeoutSeconds)
+                        .plusMillis(telegramBotConfig.getApi().getRequestTimeoutMillis()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.toJSONBytes(body)))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> decodeUpdates(response.statusCode(), response.body()));
+    }
+
+    /**
+     * 流式解码 getUpdates 响应，update直接解码为 {@link TelegramUpdate}，同时保留原始JSON
+     * 单个update无法解码时以 {@link PolledUpdate#malformed()} 返回，不影响同一批次的其他update
+     */
+    static List<PolledUpdate> decodeUpdates(int statusCode, byte[] body) {
+        if (statusCode == 200) {
+            try (JsonParser parser = TelegramUpdateDecoder.createParser(body)) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    boolean ok = false;
+                    List<PolledUpdate> updates = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        if ("ok".equals(name)) {
+                            ok = value == JsonToken.VALUE_TRUE;
+                        } else if ("result".equals(name)) {
+                            updates = TelegramUpdateDecoder.decodeArray(parser, body);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    if (ok && updates != null) {
+                        return updates;
+                    }
+                }
+            } catch (IOException e) {
+                // 响应本身不是合法的JSON，按失败的调用重试，不能当作空批次
+                logger.warn("getUpdates响应无法解析: {}", e.toString());
+                throw new TelegramApiException("getUpdates", statusCode, "Malformed getUpdates response", null);
+            }
+        }
+        parseResult("getUpdates", statusCode, body);
+        return List.of();
+    }
+
+    URI methodUri(String botToken, String method) {
+        return URI.create(telegramBotConfig.getApi().getBaseUrl() + "/bot" + botToken + "/" + method);
+    }
+
+    private BotEndpoint endpoint(String botId) {
+        BotEndpoint endpoint = endpoints.get(botId);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("Unknown bot: " + botId);
+        }
+        return endpoint;
+    }
+
+    /**
+     * 解析Bot API响应：{"ok":true,"result":...} 或 {"ok":false,"error_code":429,"description":...,"parameters":{"retry_after":3}}
+     */
+    static Object parseResult(String method, int statusCode, byte[] body) {
+        JSONObject json;
+        try {
+            json = JSON.parseObject(body);
+        } catch (Exception e) {
+            json = null;
+        }
+        if (json != null && Boolean.TRUE.equals(json.getBoolean("ok"))) {
+            return json.get("result");
+        }
+
+        String description = json != null ? json.getString("description") : null;
+        Integer errorCode = json != null ? json.getInteger("error_code") : null;
+        JSONObject parameters = json != null ? json.getJSONObject("parameters") : null;
+        Integer retryAfter = parameters != null ? parameters.getInteger("retry_after") : null;
+        logger.warn("Bot API调用失败: method={}, status={}, errorCode={}, description={}",
+                method, statusCode, errorCode, description);
+        if (retryAfter == null && statusCode == 429) {
+            retryAfter = 1;
+        }
+        throw new TelegramApiException(method, errorCode != null ? errorCode : statusCode, description, retryAfter);
+    }
+
+    /**
+     * 单个Bot的Token和发送调度器
+     * 调度器在该Bot首次发送时创建，只通过Webhook响应回复的Bot不占用调度线程
+     */
+    private final class BotEndpoint {
+
+        private final String botId;
+
+        private final String token;
+
+        private volatile TelegramSendScheduler scheduler;
+
+        private BotEndpoint(String botId, String token) {
+            this.botId = botId;
+            this.token = token;
+        }
+
+        TelegramSendScheduler scheduler() {
+            TelegramSendScheduler current = scheduler;
+            if (current == null) {
+                synchronized (this) {
+                    current = scheduler;
+                    if (current == null) {
+                        TelegramBotConfig.ApiConfig api = telegramBotConfig.getApi();
+                        current = new TelegramSendScheduler("telegram-send-scheduler-" + botId,
+                                api.getGlobalMessagesPerSecond(), api.getChatMessagesPerSecond(),
+                                api.getGroupMessagesPerMinute(), api.getMaxRetries(), api.getMaxPendingSends());
+                        scheduler = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        int getPending() {
+            TelegramSendScheduler current = scheduler;
+            return current != null ? current.getPending() : 0;
+        }
+
+        synchronized void shutdown() {
+            if (scheduler != null) {
+                scheduler.shutdown();
+            }
+        }
+    }
+}
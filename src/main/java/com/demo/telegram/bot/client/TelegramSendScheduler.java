@@ -0,0 +1,296 @@
+package com.demo.telegram.bot.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Telegram发送调度器
+ * <p>
+ * 按Telegram的频率限制调度出站消息：全局约30条/秒，同一私聊约1条/秒，同一群组约20条/分钟。
+ * 这些限制按Bot计算，每个Bot使用独立的调度器。
+ * 每个聊天一条有序队列，同一聊天同时只有一个请求在途，保证消息顺序；
+ * 收到429时按 retry_after 暂停该聊天并把消息放回队首重试。
+ * 所有状态由调度器自身加锁保护，出站速率很低（每秒几十条），单锁不会成为瓶颈。
+ */
+class TelegramSendScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramSendScheduler.class);
+
+    /**
+     * 没有chat_id的调用（如 answerCallbackQuery）使用的队列键
+     */
+    private static final long NO_CHAT = Long.MIN_VALUE;
+
+    /**
+     * 空闲队列清理间隔
+     */
+    private static final long CLEANUP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final long globalIntervalNanos;
+
+    private final long privateChatIntervalNanos;
+
+    private final long groupChatIntervalNanos;
+
+    private final int maxRetries;
+
+    private final int maxPending;
+
+    private final Map<Long, ChatLane> lanes = new HashMap<>();
+
+    /**
+     * 有待发送消息且当前可调度的聊天，按可发送时间排序
+     */
+    private final PriorityQueue<ChatLane> ready =
+            new PriorityQueue<>((a, b) -> Long.compare(a.readyAtNanos, b.readyAtNanos));
+
+    private final Thread dispatcher;
+
+    private long globalNextNanos = System.nanoTime();
+
+    private long lastCleanupNanos = System.nanoTime();
+
+    private int pending;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param name 调度线程名称
+     */
+    TelegramSendScheduler(String name, int globalPerSecond, int privateChatPerSecond, int groupChatPerMinute,
+                          int maxRetries, int maxPending) {
+        this.globalIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, globalPerSecond);
+        this.privateChatIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, privateChatPerSecond);
+        this.groupChatIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, groupChatPerMinute);
+        this.maxRetries = maxRetries;
+        this.maxPending = maxPending;
+        this.dispatcher = new Thread(this::dispatchLoop, name);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * 提交一次发送
+     *
+     * @param chatId  目标聊天，为null表示不受单聊天限制
+     * @param attempt 执行一次实际调用，每次重试都会重新调用
+     * @return 最终调用结果
+     */
+    CompletableFuture<Object> submit(Long chatId, Supplier<CompletableFuture<Object>> attempt) {
+        ScheduledSend send = new ScheduledSend(attempt);
+        synchronized (this) {
+            if (!running) {
+                send.result.completeExceptionally(new IllegalStateException("Send scheduler is stopped"));
+                return send.result;
+            }
+            if (pending >= maxPending) {
+                send.result.completeExceptionally(new TelegramApiException("send", 0, "发送队列已满", null));
+                return send.result;
+            }
+            long key = chatId != null ? chatId : NO_CHAT;
+            ChatLane lane = lanes.computeIfAbsent(key, ChatLane::new);
+            lane.queue.addLast(send);
+            pending++;
+            scheduleIfIdle(lane, System.nanoTime());
+            notifyAll();
+        }
+        return send.result;
+    }
+
+    /**
+     * 待发送消息数
+     */
+    synchronized int getPending() {
+        return pending;
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            running = false;
+            for (ChatLane lane : lanes.values()) {
+                for (ScheduledSend send : lane.queue) {
+                    send.result.completeExceptionally(new IllegalStateException("Send scheduler is stopped"));
+                }
+                lane.queue.clear();
+            }
+            ready.clear();
+            pending = 0;
+            notifyAll();
+        }
+        dispatcher.interrupt();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            ScheduledSend send;
+            ChatLane lane;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (now - lastCleanupNanos > CLEANUP_INTERVAL_NANOS) {
+                    removeIdleLanes(now);
+                    lastCleanupNanos = now;
+                }
+
+                lane = ready.peek();
+                if (lane == null) {
+                    waitNanos(CLEANUP_INTERVAL_NANOS);
+                    continue;
+                }
+                long readyAt = Math.max(lane.readyAtNanos, globalNextNanos);
+                if (readyAt - now > 0) {
+                    waitNanos(readyAt - now);
+                    continue;
+                }
+
+                ready.poll();
+                lane.queued = false;
+                send = lane.queue.pollFirst();
+                if (send == null) {
+                    continue;
+                }
+                lane.inFlight = true;
+                globalNextNanos = now + globalIntervalNanos;
+                lane.nextAllowedNanos = now + intervalOf(lane.chatId);
+            }
+            execute(lane, send);
+        }
+    }
+
+    private void execute(ChatLane lane, ScheduledSend send) {
+        CompletableFuture<Object> call;
+        try {
+            call = send.attempt.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((result, error) -> onComplete(lane, send, result, error));
+    }
+
+    private void onComplete(ChatLane lane, ScheduledSend send, Object result, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        boolean retry = false;
+        synchronized (this) {
+            lane.inFlight = false;
+            long now = System.nanoTime();
+            if (cause instanceof TelegramApiException apiException && apiException.getRetryAfter() != null
+                    && send.attempts < maxRetries && running) {
+                // 触发频率限制：暂停该聊天，消息放回队首
+                send.attempts++;
+                lane.nextAllowedNanos = Math.max(lane.nextAllowedNanos,
+                        now + TimeUnit.SECONDS.toNanos(apiException.getRetryAfter()));
+                if (lane.chatId == NO_CHAT) {
+                    globalNextNanos = Math.max(globalNextNanos, lane.nextAllowedNanos);
+                }
+                lane.queue.addFirst(send);
+                retry = true;
+                logger.warn("Telegram频率限制: chatId={}, retryAfter={}s, attempt={}",
+                        lane.chatId == NO_CHAT ? null : lane.chatId, apiException.getRetryAfter(), send.attempts);
+            } else {
+                pending--;
+            }
+            scheduleIfIdle(lane, now);
+            notifyAll();
+        }
+
+        if (retry) {
+            return;
+        }
+        if (cause != null) {
+            send.result.completeExceptionally(cause);
+        } else {
+            send.result.complete(result);
+        }
+    }
+
+    /**
+     * 聊天没有在途请求且有待发送消息时放入就绪队列
+     */
+    private void scheduleIfIdle(ChatLane lane, long now) {
+        if (lane.inFlight || lane.queued || lane.queue.isEmpty()) {
+            return;
+        }
+        lane.readyAtNanos = lane.nextAllowedNanos - now > 0 ? lane.nextAllowedNanos : now;
+        lane.queued = true;
+        ready.add(lane);
+    }
+
+    private void removeIdleLanes(long now) {
+        Iterator<ChatLane> iterator = lanes.values().iterator();
+        while (iterator.hasNext()) {
+            ChatLane lane = iterator.next();
+            if (!lane.inFlight && !lane.queued && lane.queue.isEmpty() && now - lane.nextAllowedNanos > 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private long intervalOf(long chatId) {
+        if (chatId == NO_CHAT) {
+            return 0;
+        }
+        return chatId < 0 ? groupChatIntervalNanos : privateChatIntervalNanos;
+    }
+
+    private void waitNanos(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.timedWait(this, nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * 单个聊天的发送队列
+     */
+    private static final class ChatLane {
+
+        private final long chatId;
+
+        private final ArrayDeque<ScheduledSend> queue = new ArrayDeque<>();
+
+        /**
+         * 该聊天下一条消息最早可发送时间
+         */
+        private long nextAllowedNanos = System.nanoTime();
+
+        /**
+         * 在就绪队列中的排序时间
+         */
+        private long readyAtNanos;
+
+        private boolean queued;
+
+        private boolean inFlight;
+
+        private ChatLane(long chatId) {
+            this.chatId = chatId;
+        }
+    }
+
+    /**
+     * 一次待发送的调用
+     */
+    private static final class ScheduledSend {
+
+        private final Supplier<CompletableFuture<Object>> attempt;
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private int attempts;
+
+        private ScheduledSend(Supplier<CompletableFuture<Object>> attempt) {
+            this.attempt = attempt;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.demo.telegram.bot.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Telegram Bot配置类
@@ -12,11 +15,21 @@ import java.util.List;
 @ConfigurationProperties(prefix = "telegram.bot")
 public class TelegramBotConfig {
 
+    /**
+     * 默认Bot（顶层配置）的ID
+     */
+    public static final String DEFAULT_BOT_ID = "default";
+
     /**
      * Bot Token
      */
     private String botToken;
 
+    /**
+     * Bot用户名（不含@），用于识别群组中 /command@botname 形式的命令，为空时不校验
+     */
+    private String botUsername;
+
     /**
      * Webhook安全密钥
      */
@@ -37,6 +50,67 @@ public class TelegramBotConfig {
      */
     private BindingConfig binding = new BindingConfig();
 
+    /**
+     * 防重放配置
+     */
+    private AntiReplayConfig antiReplay = new AntiReplayConfig();
+
+    /**
+     * Bot API调用配置
+     */
+    private ApiConfig api = new ApiConfig();
+
+    /**
+     * 异步处理配置
+     */
+    private AsyncConfig async = new AsyncConfig();
+
+    /**
+     * 长轮询（getUpdates）配置
+     */
+    private PollingConfig polling = new PollingConfig();
+
+    /**
+     * 请求日志配置
+     */
+    private RequestLogConfig requestLog = new RequestLogConfig();
+
+    /**
+     * Webhook验证配置
+     */
+    private ValidationConfig validation = new ValidationConfig();
+
+    /**
+     * 余额查询配置
+     */
+    private BalanceConfig balance = new BalanceConfig();
+
+    /**
+     * 去重、限流状态存储配置
+     */
+    private StateConfig state = new StateConfig();
+
+    /**
+     * update日志配置
+     */
+    private JournalConfig journal = new JournalConfig();
+
+    /**
+     * 群发配置
+     */
+    private BroadcastConfig broadcast = new BroadcastConfig();
+
+    /**
+     * 响应式Webhook入口配置
+     */
+    private ReactiveConfig reactive = new ReactiveConfig();
+
+    /**
+     * 同一进程中的其他Bot，key为Bot ID（Webhook地址 /bot/rest/webhook/{botId}）
+     * 上面的顶层配置为默认Bot，对应 /bot/rest/webhook
+     */
+    private Map<String, BotConfig> bots = new LinkedHashMap<>();
+
     // Getters and Setters
     public String getBotToken() {
         return botToken;
@@ -46,6 +120,14 @@ public class TelegramBotConfig {
         this.botToken = botToken;
     }
 
+    public String getBotUsername() {
+        return botUsername;
+    }
+
+    public void setBotUsername(String botUsername) {
+        this.botUsername = botUsername;
+    }
+
     public String getSecretToken() {
         return secretToken;
     }
@@ -78,20 +160,122 @@ public class TelegramBotConfig {
         this.binding = binding;
     }
 
+    public AntiReplayConfig getAntiReplay() {
+        return antiReplay;
+    }
+
+    public void setAntiReplay(AntiReplayConfig antiReplay) {
+        this.antiReplay = antiReplay;
+    }
+
+    public ApiConfig getApi() {
+        return api;
+    }
+
+    public void setApi(ApiConfig api) {
+        this.api = api;
+    }
+
+    public AsyncConfig getAsync() {
+        return async;
+    }
+
+    public void setAsync(AsyncConfig async) {
+        this.async = async;
+    }
+
+    public PollingConfig getPolling() {
+        return polling;
+    }
+
+    public void setPolling(PollingConfig polling) {
+        this.polling = polling;
+    }
+
+    public RequestLogConfig getRequestLog() {
+        return requestLog;
+    }
+
+    public void setRequestLog(RequestLogConfig requestLog) {
+        this.requestLog = requestLog;
+    }
+
+    public ValidationConfig getValidation() {
+        return validation;
+    }
+
+    public void setValidation(ValidationConfig validation) {
+        this.validation = validation;
+    }
+
+    public BalanceConfig getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BalanceConfig balance) {
+        this.balance = balance;
+    }
+
+    public StateConfig getState() {
+        return state;
+    }
+
+    public void setState(StateConfig state) {
+        this.state = state;
+    }
+
+    public JournalConfig getJournal() {
+        return journal;
+    }
+
+    public void setJournal(JournalConfig journal) {
+        this.journal = journal;
+    }
+
+    public BroadcastConfig getBroadcast() {
+        return broadcast;
+    }
+
+    public void setBroadcast(BroadcastConfig broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    public ReactiveConfig getReactive() {
+        return reactive;
+    }
+
+    public void setReactive(ReactiveConfig reactive) {
+        this.reactive = reactive;
+    }
+
+    public Map<String, BotConfig> getBots() {
+        return bots;
+    }
+
+    public void setBots(Map<String, BotConfig> bots) {
+        this.bots = bots;
+    }
+
     /**
      * 频率限制配置
      */
     public static class RateLimitConfig {
         /**
-         * IP每分钟最大请求数
+         * IP每分钟最大请求数，默认0（不限制）
+         * Webhook请求来自Telegram的少数服务器IP，超限的update返回200后不会被重试，按IP限流会丢失正常update
          */
-        private int ipRequestsPerMinute = 100;
+        private int ipRequestsPerMinute = 0;
 
         /**
          * 用户每分钟最大请求数
          */
         private int userRequestsPerMinute = 20;
 
+        /**
+         * 特定命令的频率限制，key为命令名（如 balance、bind）
+         */
+        private Map<String, CommandRateLimitConfig> commands = new LinkedHashMap<>();
+
         // Getters and Setters
         public int getIpRequestsPerMinute() {
             return ipRequestsPerMinute;
@@ -108,6 +292,46 @@ public class TelegramBotConfig {
         public void setUserRequestsPerMinute(int userRequestsPerMinute) {
             this.userRequestsPerMinute = userRequestsPerMinute;
         }
+
+        public Map<String, CommandRateLimitConfig> getCommands() {
+            return commands;
+        }
+
+        public void setCommands(Map<String, CommandRateLimitConfig> commands) {
+            this.commands = commands;
+        }
+    }
+
+    /**
+     * 单个命令的频率限制配置
+     */
+    public static class CommandRateLimitConfig {
+        /**
+         * 时间窗口内最大请求数
+         */
+        private int maxRequests;
+
+        /**
+         * 时间窗口（分钟）
+         */
+        private int timeWindow = 1;
+
+        // Getters and Setters
+        public int getMaxRequests() {
+            return maxRequests;
+        }
+
+        public void setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        public int getTimeWindow() {
+            return timeWindow;
+        }
+
+        public void setTimeWindow(int timeWindow) {
+            this.timeWindow = timeWindow;
+        }
     }
 
     /**
@@ -129,6 +353,21 @@ public class TelegramBotConfig {
          */
         private int codeLengthMax = 30;
 
+        /**
+         * 绑定码存储的初始容量，超出时自动扩容
+         */
+        private int initialCapacity = 1024;
+
+        /**
+         * 绑定码持久化文件路径，配置后重启时恢复未过期的绑定码；不配置时只保存在内存中
+         */
+        private String persistenceFile;
+
+        /**
+         * 业务系统调用 POST /bot/rest/bind/redeem 时在 X-Bind-Api-Token 请求头中携带的令牌，未配置时该接口不可用
+         */
+        private String apiToken;
+
         // Getters and Setters
         public int getCodeExpiryMinutes() {
             return codeExpiryMinutes;
@@ -153,5 +392,1029 @@ public class TelegramBotConfig {
         public void setCodeLengthMax(int codeLengthMax) {
             this.codeLengthMax = codeLengthMax;
         }
+
+        public int getInitialCapacity() {
+            return initialCapacity;
+        }
+
+        public void setInitialCapacity(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+        }
+
+        public String getPersistenceFile() {
+            return persistenceFile;
+        }
+
+        public void setPersistenceFile(String persistenceFile) {
+            this.persistenceFile = persistenceFile;
+        }
+
+        public String getApiToken() {
+            return apiToken;
+        }
+
+        public void setApiToken(String apiToken) {
+            this.apiToken = apiToken;
+        }
+    }
+
+    /**
+     * 防重放配置
+     */
+    public static class AntiReplayConfig {
+        /**
+         * update_id 去重滑动窗口大小（向上取整为2的幂）
+         */
+        private int windowSize = 4096;
+
+        /**
+         * 窗口之外迟到 update_id 的溢出集合容量
+         */
+        private int overflowSize = 1024;
+
+        // Getters and Setters
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getOverflowSize() {
+            return overflowSize;
+        }
+
+        public void setOverflowSize(int overflowSize) {
+            this.overflowSize = overflowSize;
+        }
+    }
+
+    /**
+     * Bot API调用配置
+     */
+    public static class ApiConfig {
+        /**
+         * Bot API地址，测试时可指向本地模拟服务
+         */
+        private String baseUrl = "https://api.telegram.org";
+
+        /**
+         * 连接超时（毫秒）
+         */
+        private int connectTimeoutMillis = 5000;
+
+        /**
+         * 请求超时（毫秒）
+         */
+        private int requestTimeoutMillis = 10000;
+
+        /**
+         * 全局每秒最多发送消息数
+         */
+        private int globalMessagesPerSecond = 30;
+
+        /**
+         * 同一私聊每秒最多发送消息数
+         */
+        private int chatMessagesPerSecond = 1;
+
+        /**
+         * 同一群组每分钟最多发送消息数
+         */
+        private int groupMessagesPerMinute = 20;
+
+        /**
+         * 收到429后的最大重试次数
+         */
+        private int maxRetries = 3;
+
+        /**
+         * 待发送消息上限，超出时直接失败
+         */
+        private int maxPendingSends = 100000;
+
+        /**
+         * 启动后是否按已注册的命令调用 setMyCommands 同步命令菜单
+         */
+        private boolean syncCommands = false;
+
+        // Getters and Setters
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public int getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+
+        public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public int getRequestTimeoutMillis() {
+            return requestTimeoutMillis;
+        }
+
+        public void setRequestTimeoutMillis(int requestTimeoutMillis) {
+            this.requestTimeoutMillis = requestTimeoutMillis;
+        }
+
+        public int getGlobalMessagesPerSecond() {
+            return globalMessagesPerSecond;
+        }
+
+        public void setGlobalMessagesPerSecond(int globalMessagesPerSecond) {
+            this.globalMessagesPerSecond = globalMessagesPerSecond;
+        }
+
+        public int getChatMessagesPerSecond() {
+            return chatMessagesPerSecond;
+        }
+
+        public void setChatMessagesPerSecond(int chatMessagesPerSecond) {
+            this.chatMessagesPerSecond = chatMessagesPerSecond;
+        }
+
+        public int getGroupMessagesPerMinute() {
+            return groupMessagesPerMinute;
+        }
+
+        public void setGroupMessagesPerMinute(int groupMessagesPerMinute) {
+            this.groupMessagesPerMinute = groupMessagesPerMinute;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public int getMaxPendingSends() {
+            return maxPendingSends;
+        }
+
+        public void setMaxPendingSends(int maxPendingSends) {
+            this.maxPendingSends = maxPendingSends;
+        }
+
+        public boolean isSyncCommands() {
+            return syncCommands;
+        }
+
+        public void setSyncCommands(boolean syncCommands) {
+            this.syncCommands = syncCommands;
+        }
+    }
+
+    /**
+     * 异步处理配置
+     */
+    public static class AsyncConfig {
+        /**
+         * 是否启用异步模式：验证通过后入队并立即返回200，由工作线程处理并通过Bot API回复
+         */
+        private boolean enabled = false;
+
+        /**
+         * 内部队列容量（所有聊天合计）
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * 单个聊天最多排队的update数
+         */
+        private int mailboxCapacity = 100;
+
+        /**
+         * 工作线程数
+         */
+        private int workerThreads = 8;
+
+        /**
+         * 是否使用虚拟线程执行（忽略workerThreads）
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * 队列已满时的处理策略
+         */
+        private DropPolicy dropPolicy = DropPolicy.REJECT;
+
+        /**
+         * 单个Bot最多排队的update数，不大于0表示只受queueCapacity限制
+         */
+        private int botQueueCapacity = 0;
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMailboxCapacity() {
+            return mailboxCapacity;
+        }
+
+        public void setMailboxCapacity(int mailboxCapacity) {
+            this.mailboxCapacity = mailboxCapacity;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public DropPolicy getDropPolicy() {
+            return dropPolicy;
+        }
+
+        public void setDropPolicy(DropPolicy dropPolicy) {
+            this.dropPolicy = dropPolicy;
+        }
+
+        public int getBotQueueCapacity() {
+            return botQueueCapacity;
+        }
+
+        public void setBotQueueCapacity(int botQueueCapacity) {
+            this.botQueueCapacity = botQueueCapacity;
+        }
+
+        /**
+         * 队列已满时的处理策略
+         */
+        public enum DropPolicy {
+            /**
+             * 返回503，由Telegram稍后重试
+             */
+            REJECT,
+
+            /**
+             * 丢弃新到的update
+             */
+            DROP_NEWEST,
+
+            /**
+             * 丢弃同一聊天队列中最早的update，新update入队
+             */
+            DROP_OLDEST,
+
+            /**
+             * 在请求线程中同步处理并通过Webhook响应回复
+             */
+            CALLER_RUNS
+        }
+    }
+
+    /**
+     * 长轮询（getUpdates）配置
+     */
+    public static class PollingConfig {
+        /**
+         * 是否启用长轮询接收update（与Webhook互斥，启用前需删除Webhook）
+         */
+        private boolean enabled = false;
+
+        /**
+         * 长轮询超时（秒）
+         */
+        private int timeoutSeconds = 30;
+
+        /**
+         * 每批最多获取的update数量（1-100）
+         */
+        private int limit = 100;
+
+        /**
+         * 接收的update类型
+         */
+        private List<String> allowedUpdates = List.of("message", "callback_query");
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(int timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public List<String> getAllowedUpdates() {
+            return allowedUpdates;
+        }
+
+        public void setAllowedUpdates(List<String> allowedUpdates) {
+            this.allowedUpdates = allowedUpdates;
+        }
+    }
+
+    /**
+     * 请求日志配置：每个update处理结束后输出一条汇总日志
+     */
+    public static class RequestLogConfig {
+        /**
+         * 成功处理的update的采样比例（0-1），失败、被拒绝和慢请求始终输出
+         */
+        private double successSampleRate = 0.1;
+
+        /**
+         * 慢请求阈值（毫秒），处理耗时超过该值的update始终输出，不大于0表示不单独判断
+         */
+        private long slowThresholdMillis = 1000;
+
+        // Getters and Setters
+        public double getSuccessSampleRate() {
+            return successSampleRate;
+        }
+
+        public void setSuccessSampleRate(double successSampleRate) {
+            this.successSampleRate = successSampleRate;
+        }
+
+        public long getSlowThresholdMillis() {
+            return slowThresholdMillis;
+        }
+
+        public void setSlowThresholdMillis(long slowThresholdMillis) {
+            this.slowThresholdMillis = slowThresholdMillis;
+        }
+    }
+
+    /**
+     * Webhook验证配置
+     */
+    public static class ValidationConfig {
+        /**
+         * 各验证步骤的开关（步骤名称 -> 是否启用），未配置的步骤默认启用
+         */
+        private Map<String, Boolean> steps = new LinkedHashMap<>();
+
+        /**
+         * Webhook请求体大小上限（字节），超过时在解码之前拒绝（body-size步骤）
+         */
+        private int maxBodyBytes = 1024 * 1024;
+
+        // Getters and Setters
+        public Map<String, Boolean> getSteps() {
+            return steps;
+        }
+
+        public void setSteps(Map<String, Boolean> steps) {
+            this.steps = steps;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+
+    /**
+     * 余额查询配置：余额缓存在本地，过了刷新时间仍先返回旧值并在后台刷新，超过过期时间才同步查询
+     */
+    public static class BalanceConfig {
+        /**
+         * 缓存的最大用户数，超出时淘汰最久未查询的用户
+         */
+        private int cacheMaxSize = 10000;
+
+        /**
+         * 缓存余额超过该时间（秒）后，查询时在后台刷新
+         */
+        private long refreshAfterSeconds = 10;
+
+        /**
+         * 缓存余额超过该时间（秒）后不再返回，须不小于 refreshAfterSeconds
+         */
+        private long expireAfterSeconds = 60;
+
+        /**
+         * 后台刷新线程数
+         */
+        private int refreshThreads = 2;
+
+        /**
+         * 等待后台刷新的用户数上限，超出时放弃刷新，旧值过期后同步查询
+         */
+        private int refreshQueueCapacity = 1000;
+
+        /**
+         * 模拟余额数据源的查询延迟（毫秒）
+         */
+        private long demoLatencyMillis = 0;
+
+        // Getters and Setters
+        public int getCacheMaxSize() {
+            return cacheMaxSize;
+        }
+
+        public void setCacheMaxSize(int cacheMaxSize) {
+            this.cacheMaxSize = cacheMaxSize;
+        }
+
+        public long getRefreshAfterSeconds() {
+            return refreshAfterSeconds;
+        }
+
+        public void setRefreshAfterSeconds(long refreshAfterSeconds) {
+            this.refreshAfterSeconds = refreshAfterSeconds;
+        }
+
+        public long getExpireAfterSeconds() {
+            return expireAfterSeconds;
+        }
+
+        public void setExpireAfterSeconds(long expireAfterSeconds) {
+            this.expireAfterSeconds = expireAfterSeconds;
+        }
+
+        public int getRefreshThreads() {
+            return refreshThreads;
+        }
+
+        public void setRefreshThreads(int refreshThreads) {
+            this.refreshThreads = refreshThreads;
+        }
+
+        public int getRefreshQueueCapacity() {
+            return refreshQueueCapacity;
+        }
+
+        public void setRefreshQueueCapacity(int refreshQueueCapacity) {
+            this.refreshQueueCapacity = refreshQueueCapacity;
+        }
+
+        public long getDemoLatencyMillis() {
+            return demoLatencyMillis;
+        }
+
+        public void setDemoLatencyMillis(long demoLatencyMillis) {
+            this.demoLatencyMillis = demoLatencyMillis;
+        }
+    }
+
+    /**
+     * update日志配置：通过验证的Webhook请求体先写入本地日志，异步模式下落盘后才返回200，
+     * 进程崩溃时未处理完的update在下次启动时重新处理
+     */
+    public static class JournalConfig {
+        /**
+         * 是否启用
+         */
+        private boolean enabled = false;
+
+        /**
+         * 日志目录
+         */
+        private String directory = "data/journal";
+
+        /**
+         * 段文件大小（MB），写满后新建一段
+         */
+        private int segmentSizeMb = 64;
+
+        /**
+         * 所有段的总大小上限（MB），超出时删除已处理完的最早的段
+         */
+        private long maxTotalSizeMb = 1024;
+
+        /**
+         * 没有请求等待落盘时的定时落盘间隔（毫秒）
+         */
+        private long flushIntervalMillis = 200;
+
+        /**
+         * 异步模式下等待落盘的最长时间（毫秒），超时后仍然返回200
+         */
+        private long syncTimeoutMillis = 1000;
+
+        /**
+         * 启动时是否重新处理上次未处理完的update
+         */
+        private boolean recover = true;
+
+        /**
+         * 按时间段重放日志（POST /bot/rest/journal/replay）使用的令牌，未配置时该接口不可用
+         */
+        private String replayToken;
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSizeMb() {
+            return segmentSizeMb;
+        }
+
+        public void setSegmentSizeMb(int segmentSizeMb) {
+            this.segmentSizeMb = segmentSizeMb;
+        }
+
+        public long getMaxTotalSizeMb() {
+            return maxTotalSizeMb;
+        }
+
+        public void setMaxTotalSizeMb(long maxTotalSizeMb) {
+            this.maxTotalSizeMb = maxTotalSizeMb;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public long getSyncTimeoutMillis() {
+            return syncTimeoutMillis;
+        }
+
+        public void setSyncTimeoutMillis(long syncTimeoutMillis) {
+            this.syncTimeoutMillis = syncTimeoutMillis;
+        }
+
+        public boolean isRecover() {
+            return recover;
+        }
+
+        public void setRecover(boolean recover) {
+            this.recover = recover;
+        }
+
+        public String getReplayToken() {
+            return replayToken;
+        }
+
+        public void setReplayToken(String replayToken) {
+            this.replayToken = replayToken;
+        }
+    }
+
+    /**
+     * 去重、限流状态存储配置
+     * <p>
+     * LOCAL 时状态保存在各进程内；多副本部署在负载均衡之后时使用 SHARED，按聊天ID一致性哈希把状态分片到各节点，
+     * 本节点持有的分片在进程内访问，其他分片通过RESP协议（与Redis兼容）访问
+     */
+    public static class StateConfig {
+        /**
+         * 存储类型
+         */
+        private StoreType type = StoreType.LOCAL;
+
+        /**
+         * 本节点ID，须为nodes中的一项，该节点的分片在进程内访问并在其地址的端口上为其他节点提供服务；
+         * 未配置时所有分片都通过网络访问（如直接指向Redis）
+         */
+        private String nodeId;
+
+        /**
+         * 状态分片节点
+         */
+        private List<StateNodeConfig> nodes = new ArrayList<>();
+
+        /**
+         * 每个节点在哈希环上的虚拟节点数
+         */
+        private int virtualNodes = 160;
+
+        /**
+         * 等待远程分片响应的超时（毫秒），超时后改用本进程内的状态
+         */
+        private long timeoutMillis = 50;
+
+        /**
+         * 连接远程分片的超时（毫秒）
+         */
+        private int connectTimeoutMillis = 1000;
+
+        /**
+         * 每次写出的最大命令数，并发请求的命令合并后一次写出
+         */
+        private int maxBatchSize = 256;
+
+        /**
+         * 每个远程分片等待响应的最大命令数，超出时直接改用本进程内的状态
+         */
+        private int maxPending = 10000;
+
+        /**
+         * update_id登记的保留时间（秒）
+         */
+        private long updateTtlSeconds = 3600;
+
+        /**
+         * 节点之间共享的密码：本节点的分片服务要求连接先以 AUTH 认证，连接远程分片（包括Redis的 requirepass）时发送；
+         * 未配置时不认证，只应在隔离的内网中使用
+         */
+        private String password;
+
+        // Getters and Setters
+        public StoreType getType() {
+            return type;
+        }
+
+        public void setType(StoreType type) {
+            this.type = type;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public List<StateNodeConfig> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<StateNodeConfig> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public int getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+
+        public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+
+        public long getUpdateTtlSeconds() {
+            return updateTtlSeconds;
+        }
+
+        public void setUpdateTtlSeconds(long updateTtlSeconds) {
+            this.updateTtlSeconds = updateTtlSeconds;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        /**
+         * 状态存储类型
+         */
+        public enum StoreType {
+            /**
+             * 保存在本进程内
+             */
+            LOCAL,
+
+            /**
+             * 按聊天ID分片到多个节点
+             */
+            SHARED
+        }
+    }
+
+    /**
+     * 状态分片节点
+     */
+    public static class StateNodeConfig {
+        /**
+         * 节点ID，参与一致性哈希，更换地址时保持不变则分片归属不变
+         */
+        private String id;
+
+        /**
+         * 节点地址（host:port），本节点的分片服务绑定在该地址上
+         */
+        private String address;
+
+        // Getters and Setters
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+    }
+
+    /**
+     * 群发配置：向订阅者集合逐个发送消息，发送速率受 api 中的频率限制约束
+     */
+    public static class BroadcastConfig {
+        /**
+         * 是否启用
+         */
+        private boolean enabled = false;
+
+        /**
+         * 业务系统调用 /bot/rest/broadcast 接口时在 X-Broadcast-Api-Token 请求头中携带的令牌，未配置时接口不可用
+         */
+        private String apiToken;
+
+        /**
+         * 订阅者集合目录，每个集合一个文件 {名称}.txt，每行一个chat_id
+         */
+        private String subscriberDirectory = "data/subscribers";
+
+        /**
+         * 群发任务及进度的保存目录
+         */
+        private String jobDirectory = "data/broadcast";
+
+        /**
+         * 每个任务同时交给发送调度器的消息数上限，取全局每秒发送数左右即可达到满速，
+         * 同时保证Webhook回复不会排在大量群发消息之后
+         */
+        private int maxInFlight = 30;
+
+        /**
+         * 进度保存间隔（毫秒）
+         */
+        private long checkpointIntervalMillis = 1000;
+
+        // Getters and Setters
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getApiToken() {
+            return apiToken;
+        }
+
+        public void setApiToken(String apiToken) {
+            this.apiToken = apiToken;
+        }
+
+        public String getSubscriberDirectory() {
+            return subscriberDirectory;
+        }
+
+        public void setSubscriberDirectory(String subscriberDirectory) {
+            this.subscriberDirectory = subscriberDirectory;
+        }
+
+        public String getJobDirectory() {
+            return jobDirectory;
+        }
+
+        public void setJobDirectory(String jobDirectory) {
+            this.jobDirectory = jobDirectory;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public long getCheckpointIntervalMillis() {
+            return checkpointIntervalMillis;
+        }
+
+        public void setCheckpointIntervalMillis(long checkpointIntervalMillis) {
+            this.checkpointIntervalMillis = checkpointIntervalMillis;
+        }
+    }
+
+    /**
+     * 响应式Webhook入口配置，spring.main.web-application-type=reactive 时生效
+     * 请求体由Netty事件循环非阻塞读取，读完后交给处理线程池执行验证和命令处理
+     */
+    public static class ReactiveConfig {
+        /**
+         * 执行验证链和命令处理器的线程数
+         * 设为0时直接在Netty事件循环上处理，只适用于处理过程不阻塞的部署：
+         * 本地状态存储、未启用update日志、/balance 数据源不阻塞
+         */
+        private int workerThreads = 32;
+
+        /**
+         * 已读完请求体、等待处理线程的请求数上限，超出时返回503由Telegram重试
+         */
+        private int maxPending = 10000;
+
+        // Getters and Setters
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getMaxPending() {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending) {
+            this.maxPending = maxPending;
+        }
+    }
+
+    /**
+     * 单个Bot的配置，未配置的IP白名单、频率限制和防重放参数沿用顶层（默认Bot）的配置
+     * 限流器、去重窗口等状态每个Bot独立，互不占用
+     */
+    public static class BotConfig {
+        /**
+         * Bot Token
+         */
+        private String botToken;
+
+        /**
+         * Bot用户名（不含@）
+         */
+        private String botUsername;
+
+        /**
+         * Webhook安全密钥
+         */
+        private String secretToken;
+
+        /**
+         * 允许的IP列表
+         */
+        private List<String> allowedIps;
+
+        /**
+         * 频率限制配置
+         */
+        private RateLimitConfig rateLimit;
+
+        /**
+         * 防重放配置
+         */
+        private AntiReplayConfig antiReplay;
+
+        /**
+         * 启用的命令（主命令名），为空表示启用所有已注册的命令；未启用的命令由兜底处理器处理
+         */
+        private List<String> commands = new ArrayList<>();
+
+        // Getters and Setters
+        public String getBotToken() {
+            return botToken;
+        }
+
+        public void setBotToken(String botToken) {
+            this.botToken = botToken;
+        }
+
+        public String getBotUsername() {
+            return botUsername;
+        }
+
+        public void setBotUsername(String botUsername) {
+            this.botUsername = botUsername;
+        }
+
+        public String getSecretToken() {
+            return secretToken;
+        }
+
+        public void setSecretToken(String secretToken) {
+            this.secretToken = secretToken;
+        }
+
+        public List<String> getAllowedIps() {
+            return allowedIps;
+        }
+
+        public void setAllowedIps(List<String> allowedIps) {
+            this.allowedIps = allowedIps;
+        }
+
+        public RateLimitConfig getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(RateLimitConfig rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public AntiReplayConfig getAntiReplay() {
+            return antiReplay;
+        }
+
+        public void setAntiReplay(AntiReplayConfig antiReplay) {
+            this.antiReplay = antiReplay;
+        }
+
+        public List<String> getCommands() {
+            return commands;
+        }
+
+        public void setCommands(List<String> commands) {
+            this.commands = commands;
+        }
     }
 }
@@ -0,0 +1,58 @@
+package com.demo.telegram.bot.config;
+
+import com.demo.telegram.bot.model.BroadcastJob;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.util.RingBufferAsyncAppender;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * GraalVM native-image 运行时提示
+ * <p>
+ * Spring AOT 已为Bean、控制器方法签名和 {@link TelegramBotConfig} 的属性绑定生成提示，这里补充它推断不到的部分：
+ * <ul>
+ *     <li>不经过控制器方法签名、直接由 ObjectMapper 读写的类型（Bot API请求、预编码响应、群发任务文件）</li>
+ *     <li>配置类的嵌套类型和枚举，Map值类型的嵌套配置（bots）在构建时无法从属性推断</li>
+ *     <li>fastjson：只序列化Map、List，解析为JSONObject，需要这些类型的构造器</li>
+ *     <li>logback-spring.xml 中按类名实例化的自定义Appender</li>
+ * </ul>
+ */
+public class TelegramBotRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] FASTJSON_TYPES = {
+            "com.alibaba.fastjson.JSONObject",
+            "com.alibaba.fastjson.JSONArray",
+            "com.alibaba.fastjson2.JSONObject",
+            "com.alibaba.fastjson2.JSONArray"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        bindings.registerReflectionHints(hints.reflection(), TelegramBotResponse.class, BroadcastJob.class);
+
+        hints.reflection().registerType(TelegramBotConfig.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+        for (Class<?> nested : TelegramBotConfig.class.getDeclaredClasses()) {
+            hints.reflection().registerType(nested, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+            for (Class<?> inner : nested.getDeclaredClasses()) {
+                hints.reflection().registerType(inner, MemberCategory.INVOKE_PUBLIC_METHODS,
+                        MemberCategory.DECLARED_FIELDS);
+            }
+        }
+
+        for (String type : FASTJSON_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("fastjson.properties");
+        hints.resources().registerPattern("fastjson2.properties");
+
+        hints.reflection().registerType(RingBufferAsyncAppender.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
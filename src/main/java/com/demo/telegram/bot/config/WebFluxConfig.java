@@ -0,0 +1,44 @@
+package com.demo.telegram.bot.config;
+
+import com.demo.telegram.bot.util.TelegramBotResponseConverter;
+import com.demo.telegram.bot.util.TelegramBotResponseEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Spring WebFlux配置，spring.main.web-application-type=reactive 时生效
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class WebFluxConfig implements WebFluxConfigurer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 使用Netty作为响应式服务器
+     * 类路径上同时有Tomcat（Spring MVC入口使用）时，Spring Boot默认会用Tomcat运行WebFlux，请求体读取仍经过Servlet适配
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<NettyServerCustomizer> customizers) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        customizers.orderedStream().forEach(factory::addServerCustomizers);
+        return factory;
+    }
+
+    /**
+     * Webhook响应使用与Spring MVC相同的预编码写出逻辑，排在默认的Jackson编码器之前
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new TelegramBotResponseEncoder(new TelegramBotResponseConverter(objectMapper)));
+    }
+}
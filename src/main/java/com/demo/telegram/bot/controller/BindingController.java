@@ -0,0 +1,62 @@
+package com.demo.telegram.bot.controller;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.service.BindingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * 账户绑定接口，供业务系统兑换用户在Bot中获取的绑定码
+ */
+@RestController
+@RequestMapping("/bot/rest/bind")
+public class BindingController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BindingController.class);
+
+    private static final String API_TOKEN_HEADER = "X-Bind-Api-Token";
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+    @Autowired
+    private BindingService bindingService;
+
+    /**
+     * 兑换绑定码
+     *
+     * @param body {"code": "绑定码"}
+     * @return 成功时返回 {"telegramUserId": 用户ID}，绑定码无效时返回404和错误码
+     */
+    @PostMapping("/redeem")
+    public ResponseEntity<?> redeem(@RequestHeader(value = API_TOKEN_HEADER, required = false) String apiToken,
+                                    @RequestBody Map<String, String> body) {
+        String expected = telegramBotConfig.getBinding().getApiToken();
+        if (expected == null || expected.isBlank()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (apiToken == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                apiToken.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("绑定接口令牌验证失败");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("code", TelegramWebhookException.BIND_API_TOKEN_INVALID));
+        }
+
+        String code = body.get("code");
+        Long telegramUserId = code != null ? bindingService.redeem(code.trim()) : null;
+        if (telegramUserId == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("code", TelegramWebhookException.BIND_CODE_INVALID));
+        }
+        logger.info("绑定码兑换成功: telegramUserId={}", telegramUserId);
+        return ResponseEntity.ok(Map.of("telegramUserId", telegramUserId));
+    }
+}
@@ -0,0 +1,55 @@
+package com.demo.telegram.bot.controller;
+
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 健康检查、状态和命令列表接口，Spring MVC和响应式入口下都可用
+ */
+@RestController
+@RequestMapping("/bot/rest/")
+public class BotStatusController {
+
+    @Autowired
+    private TelegramBotRegistry botRegistry;
+
+    /**
+     * 健康检查端点
+     */
+    @GetMapping("/health")
+    public ResponseEntity<String> health() {
+        return ResponseEntity.ok("Telegram Bot is running");
+    }
+
+    /**
+     * 默认Bot启用的命令，即 setMyCommands 请求体
+     */
+    @GetMapping("/commands")
+    public ResponseEntity<?> commands() {
+        return ResponseEntity.ok(botRegistry.getDefault().getMyCommands());
+    }
+
+    /**
+     * 指定Bot启用的命令
+     */
+    @GetMapping("/commands/{botId}")
+    public ResponseEntity<?> commands(@PathVariable String botId) {
+        TelegramBotContext bot = botRegistry.get(botId);
+        return bot != null ? ResponseEntity.ok(bot.getMyCommands()) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 状态检查端点
+     */
+    @GetMapping("/status")
+    public ResponseEntity<?> status() {
+        return ResponseEntity.ok(java.util.Map.of(
+                "status", "running",
+                "timestamp", System.currentTimeMillis(),
+                "version", "1.0.0"
+        ));
+    }
+}
@@ -0,0 +1,126 @@
+package com.demo.telegram.bot.controller;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.BroadcastJob;
+import com.demo.telegram.bot.service.BroadcastService;
+import com.demo.telegram.bot.service.SubscriberSource;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * 群发接口，供业务系统创建群发任务并查询进度
+ */
+@RestController
+@RequestMapping("/bot/rest/broadcast")
+public class BroadcastController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastController.class);
+
+    private static final String API_TOKEN_HEADER = "X-Broadcast-Api-Token";
+
+    /**
+     * sendMessage 消息正文长度上限
+     */
+    private static final int MAX_TEXT_LENGTH = 4096;
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+    @Autowired
+    private BroadcastService broadcastService;
+    @Autowired
+    private SubscriberSource subscriberSource;
+    @Autowired
+    private TelegramBotRegistry botRegistry;
+
+    /**
+     * 创建群发任务
+     *
+     * @param body {"subscribers": "订阅者集合名称", "text": "消息正文（HTML）", "bot": "Bot ID，可选，默认为默认Bot"}
+     * @return 任务进度
+     */
+    @PostMapping
+    public ResponseEntity<?> create(@RequestHeader(value = API_TOKEN_HEADER, required = false) String apiToken,
+                                    @RequestBody Map<String, String> body) throws IOException {
+        ResponseEntity<?> denied = authorize(apiToken);
+        if (denied != null) {
+            return denied;
+        }
+        String bot = body.getOrDefault("bot", TelegramBotConfig.DEFAULT_BOT_ID);
+        String subscribers = body.get("subscribers");
+        String text = body.get("text");
+        if (botRegistry.get(bot) == null || !subscriberSource.exists(subscribers)
+                || text == null || text.isBlank() || text.length() > MAX_TEXT_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("code", TelegramWebhookException.BROADCAST_REQUEST_INVALID));
+        }
+        BroadcastJob job = broadcastService.create(bot, subscribers, text);
+        return ResponseEntity.ok(broadcastService.progress(job.getId()));
+    }
+
+    /**
+     * 所有任务的进度
+     */
+    @GetMapping
+    public ResponseEntity<?> list(@RequestHeader(value = API_TOKEN_HEADER, required = false) String apiToken) {
+        ResponseEntity<?> denied = authorize(apiToken);
+        return denied != null ? denied : ResponseEntity.ok(broadcastService.progress());
+    }
+
+    /**
+     * 任务进度：已发送、屏蔽、失败数，发送速率和预计剩余时间（秒）
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> progress(@RequestHeader(value = API_TOKEN_HEADER, required = false) String apiToken,
+                                      @PathVariable String id) {
+        ResponseEntity<?> denied = authorize(apiToken);
+        if (denied != null) {
+            return denied;
+        }
+        Map<String, Object> progress = broadcastService.progress(id);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 取消任务
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<?> cancel(@RequestHeader(value = API_TOKEN_HEADER, required = false) String apiToken,
+                                    @PathVariable String id) {
+        ResponseEntity<?> denied = authorize(apiToken);
+        if (denied != null) {
+            return denied;
+        }
+        if (!broadcastService.cancel(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        logger.info("取消群发任务: id={}", id);
+        return ResponseEntity.ok(broadcastService.progress(id));
+    }
+
+    /**
+     * 未启用群发或未配置令牌时返回404，令牌不匹配时返回401，验证通过返回null
+     */
+    private ResponseEntity<?> authorize(String apiToken) {
+        String expected = telegramBotConfig.getBroadcast().getApiToken();
+        if (!broadcastService.isEnabled() || expected == null || expected.isBlank()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (apiToken == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                apiToken.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("群发接口令牌验证失败");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("code", TelegramWebhookException.BROADCAST_API_TOKEN_INVALID));
+        }
+        return null;
+    }
+}
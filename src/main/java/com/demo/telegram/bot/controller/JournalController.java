@@ -0,0 +1,85 @@
+package com.demo.telegram.bot.controller;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.service.UpdateJournalReplayer;
+import com.demo.telegram.bot.service.UpdateJournalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * update日志接口，供性能测试重放日志中的流量
+ */
+@RestController
+@RequestMapping("/bot/rest/journal")
+public class JournalController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalController.class);
+
+    private static final String REPLAY_TOKEN_HEADER = "X-Journal-Replay-Token";
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+    @Autowired
+    private UpdateJournalService journalService;
+    @Autowired
+    private UpdateJournalReplayer journalReplayer;
+
+    /**
+     * 提交重放任务：在后台以最快速度重放时间范围内的update，命令处理器不产生副作用、不发送回复
+     *
+     * @param from 起始时间（含），毫秒时间戳，默认为最早
+     * @param to   结束时间（不含），毫秒时间戳，默认为当前
+     * @return 202和任务状态（含任务ID）；未启用日志或未配置令牌时返回404
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<?> replay(@RequestHeader(value = REPLAY_TOKEN_HEADER, required = false) String token,
+                                    @RequestParam(required = false, defaultValue = "0") long from,
+                                    @RequestParam(required = false) Long to) {
+        ResponseEntity<?> denied = authorize(token);
+        if (denied != null) {
+            return denied;
+        }
+        String id = journalReplayer.submitReplay(from, to != null ? to : System.currentTimeMillis());
+        return ResponseEntity.accepted().body(journalReplayer.replayProgress(id));
+    }
+
+    /**
+     * 重放任务的状态和统计：记录数、处理数、耗时和吞吐
+     */
+    @GetMapping("/replay/{id}")
+    public ResponseEntity<?> replayProgress(@RequestHeader(value = REPLAY_TOKEN_HEADER, required = false) String token,
+                                            @PathVariable String id) {
+        ResponseEntity<?> denied = authorize(token);
+        if (denied != null) {
+            return denied;
+        }
+        Map<String, Object> progress = journalReplayer.replayProgress(id);
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 未启用日志或未配置令牌时返回404，令牌不匹配时返回401，验证通过返回null
+     */
+    private ResponseEntity<?> authorize(String token) {
+        String expected = telegramBotConfig.getJournal().getReplayToken();
+        if (!journalService.isEnabled() || expected == null || expected.isBlank()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (token == null || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("日志重放接口令牌验证失败");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("code", TelegramWebhookException.JOURNAL_REPLAY_TOKEN_INVALID));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.demo.telegram.bot.controller;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import com.demo.telegram.bot.service.TelegramWebhookReceiver;
+import com.demo.telegram.bot.util.IpUtil;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.TelegramBotMetrics.Outcome;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Telegram Bot Webhook控制器（Spring WebFlux + Netty），spring.main.web-application-type=reactive 时启用
+ * <p>
+ * 请求体由Netty事件循环非阻塞读取，读取期间不占用线程，慢连接和大量并发连接只占用连接本身的内存。
+ * 请求体读完后交给处理线程池，执行与 {@link TelegramBotController} 相同的 {@link TelegramWebhookReceiver} 流程
+ * （验证链、去重、update日志、异步分发或同步处理），响应由 {@link com.demo.telegram.bot.util.TelegramBotResponseEncoder}
+ * 直接编码到Netty缓冲区写回。
+ * <p>
+ * 验证和命令处理中可能阻塞的步骤（共享状态存储、等待update日志落盘、/balance 数据源）都在处理线程池中执行，
+ * 不会阻塞事件循环；处理线程池排队已满时返回503，Telegram稍后重试。
+ */
+@RestController
+@RequestMapping("/bot/rest/")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTelegramBotController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTelegramBotController.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+    @Autowired
+    private TelegramWebhookReceiver webhookReceiver;
+    @Autowired
+    private TelegramBotMetrics metrics;
+    @Autowired
+    private TelegramBotRegistry botRegistry;
+
+    /**
+     * 处理线程池，worker-threads为0时为null，直接在事件循环上处理
+     */
+    private ThreadPoolExecutor workerExecutor;
+
+    private Scheduler workerScheduler;
+
+    @PostConstruct
+    public void init() {
+        TelegramBotConfig.ReactiveConfig reactive = telegramBotConfig.getReactive();
+        if (reactive.getWorkerThreads() > 0) {
+            AtomicInteger counter = new AtomicInteger();
+            workerExecutor = new ThreadPoolExecutor(reactive.getWorkerThreads(), reactive.getWorkerThreads(),
+                    0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, reactive.getMaxPending())),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "webhook-worker-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            workerScheduler = Schedulers.fromExecutorService(workerExecutor, "webhook-worker");
+            metrics.gauge("telegram.webhook.reactive.pending", "等待处理线程的Webhook请求数",
+                    workerExecutor, executor -> executor.getQueue().size());
+        }
+        logger.info("响应式Webhook入口已启用: workerThreads={}, maxPending={}",
+                reactive.getWorkerThreads(), reactive.getMaxPending());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workerScheduler != null) {
+            workerScheduler.dispose();
+        }
+    }
+
+    /**
+     * 处理默认Bot的Telegram Webhook请求
+     *
+     * @param body Telegram发送的Webhook数据（原始请求体，非阻塞读取完成后解码一次）
+     * @return 响应结果
+     */
+    @PostMapping("/webhook")
+    public Mono<ResponseEntity<TelegramBotResponse>> handleWebhook(ServerHttpRequest request,
+                                                                   @RequestBody Mono<byte[]> body) {
+        return handleWebhook(botRegistry.getDefault(), request, body);
+    }
+
+    /**
+     * 处理指定Bot的Telegram Webhook请求
+     *
+     * @param botId 配置中的Bot ID
+     * @return 响应结果；Bot ID未配置时返回404
+     */
+    @PostMapping("/webhook/{botId}")
+    public Mono<ResponseEntity<TelegramBotResponse>> handleWebhook(@PathVariable String botId,
+                                                                   ServerHttpRequest request,
+                                                                   @RequestBody Mono<byte[]> body) {
+        TelegramBotContext bot = botRegistry.get(botId);
+        if (bot == null) {
+            metrics.recordUnrouted();
+            logger.warn("收到未配置Bot的Webhook请求: botId={}, ip={}", botId, IpUtil.getClientIp(request));
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return handleWebhook(bot, request, body);
+    }
+
+    private Mono<ResponseEntity<TelegramBotResponse>> handleWebhook(TelegramBotContext bot, ServerHttpRequest request,
+                                                                    Mono<byte[]> body) {
+        String clientIp = IpUtil.getClientIp(request);
+        HttpHeaders headers = request.getHeaders();
+        if (workerScheduler == null) {
+            return body.map(bytes -> webhookReceiver.receive(bot, clientIp, headers::getFirst, bytes));
+        }
+        return body
+                .flatMap(bytes -> Mono.fromCallable(() -> webhookReceiver.receive(bot, clientIp, headers::getFirst, bytes))
+                        .subscribeOn(workerScheduler))
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    // 尚未验证，没有去重登记需要撤销
+                    metrics.requestFinished(bot.getMeters(), Outcome.OVERLOADED, metrics.requestStarted());
+                    return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+                });
+    }
+}
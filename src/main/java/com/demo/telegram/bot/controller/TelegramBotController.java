@@ -1,83 +1,72 @@
 package com.demo.telegram.bot.controller;
 
 import com.demo.telegram.bot.model.TelegramBotResponse;
-import com.demo.telegram.bot.model.TelegramRequestParam;
 import com.demo.telegram.bot.util.IpUtil;
-import com.demo.telegram.bot.util.TelegramWebhookValidator;
-import com.alibaba.fastjson.JSONObject;
-import com.demo.telegram.bot.service.TelegramBotWebhookService;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import com.demo.telegram.bot.service.TelegramWebhookReceiver;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
- * Telegram Bot Webhook控制器
+ * Telegram Bot Webhook控制器（Spring MVC）
+ * <p>
+ * 请求体由Servlet容器在请求线程中读取，读取和处理期间占用一个容器线程。
+ * spring.main.web-application-type=reactive 时改由 {@link ReactiveTelegramBotController} 接收。
  */
 @RestController
 @RequestMapping("/bot/rest/")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TelegramBotController {
 
     private static final Logger logger = LoggerFactory.getLogger(TelegramBotController.class);
 
     @Autowired
-    private TelegramBotWebhookService webhookService;
+    private TelegramWebhookReceiver webhookReceiver;
     @Autowired
-    private TelegramWebhookValidator telegramWebhookValidator;
+    private TelegramBotMetrics metrics;
+    @Autowired
+    private TelegramBotRegistry botRegistry;
 
     /**
-     * 处理Telegram Bot Webhook请求
+     * 处理默认Bot的Telegram Webhook请求
      *
-     * @param webhook Telegram发送的Webhook数据
+     * @param body Telegram发送的Webhook数据（原始请求体，流式解码一次）
      * @return 响应结果
      */
     @PostMapping("/webhook")
     @ResponseBody
-    public TelegramBotResponse handleWebhook(HttpServletRequest request, @RequestBody JSONObject webhook) {
-        try {
-            logger.info("收到Telegram webhook请求: updateId={}", webhook.getLong("update_id"));
-            String clientIp = IpUtil.getClientIp(request);
-            TelegramRequestParam param = new TelegramRequestParam();
-            param.setBody(webhook);
-            param.setRequest(request);
-            param.setClientIp(clientIp);
-            // telegram 请求信息验证
-            telegramWebhookValidator.validateWebhook(param);
-
-            // 处理webhook请求
-            TelegramBotResponse response = webhookService.processWebhook(webhook);
-
-            logger.info("Webhook处理完成: responseMethod={}, hasText={}",
-                    response.getMethod(), response.getText() != null);
-            // 返回响应
-            return response;
-
-        } catch (Exception e) {
-            logger.error("处理Telegram webhook异常", e);
-            // 返回空响应，HTTP 200状态码告知Telegram处理完成
-            return TelegramBotResponse.empty();
-        }
+    public ResponseEntity<TelegramBotResponse> handleWebhook(HttpServletRequest request, @RequestBody byte[] body) {
+        return handleWebhook(botRegistry.getDefault(), request, body);
     }
 
     /**
-     * 健康检查端点
+     * 处理指定Bot的Telegram Webhook请求（setWebhook时为每个Bot设置各自的地址）
+     *
+     * @param botId 配置中的Bot ID
+     * @return 响应结果；Bot ID未配置时返回404
      */
-    @GetMapping("/health")
-    public ResponseEntity<String> health() {
-        return ResponseEntity.ok("Telegram Bot is running");
+    @PostMapping("/webhook/{botId}")
+    @ResponseBody
+    public ResponseEntity<TelegramBotResponse> handleWebhook(@PathVariable String botId, HttpServletRequest request,
+                                                             @RequestBody byte[] body) {
+        TelegramBotContext bot = botRegistry.get(botId);
+        if (bot == null) {
+            metrics.recordUnrouted();
+            logger.warn("收到未配置Bot的Webhook请求: botId={}, ip={}", botId, IpUtil.getClientIp(request));
+            return ResponseEntity.notFound().build();
+        }
+        return handleWebhook(bot, request, body);
     }
 
-    /**
-     * 状态检查端点
-     */
-    @GetMapping("/status")
-    public ResponseEntity<?> status() {
-        return ResponseEntity.ok(java.util.Map.of(
-                "status", "running",
-                "timestamp", System.currentTimeMillis(),
-                "version", "1.0.0"
-        ));
+    private ResponseEntity<TelegramBotResponse> handleWebhook(TelegramBotContext bot, HttpServletRequest request,
+                                                              byte[] body) {
+        return webhookReceiver.receive(bot, IpUtil.getClientIp(request), request::getHeader, body);
     }
 }
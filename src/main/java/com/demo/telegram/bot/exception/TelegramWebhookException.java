@@ -83,6 +83,30 @@ public class TelegramWebhookException extends RuntimeException {
      * 生成绑定码过于频繁，请1小时后重试
      */
     public static final String BIND_CODE_RATE_LIMIT = "TW0015";
+    /**
+     * 绑定码不存在、已使用或已过期
+     */
+    public static final String BIND_CODE_INVALID = "TW0016";
+    /**
+     * 绑定接口令牌验证失败
+     */
+    public static final String BIND_API_TOKEN_INVALID = "TW0017";
+    /**
+     * 日志重放接口令牌验证失败
+     */
+    public static final String JOURNAL_REPLAY_TOKEN_INVALID = "TW0018";
+    /**
+     * 群发接口令牌验证失败
+     */
+    public static final String BROADCAST_API_TOKEN_INVALID = "TW0019";
+    /**
+     * 群发请求参数无效（Bot或订阅者集合不存在、消息为空或过长）
+     */
+    public static final String BROADCAST_REQUEST_INVALID = "TW0020";
+    /**
+     * Webhook请求体超过大小上限
+     */
+    public static final String REQUEST_BODY_TOO_LARGE = "TW0021";
 
     public static final String ERROR_CODE_MSG = "System Error";
 
@@ -0,0 +1,48 @@
+package com.demo.telegram.bot.handler;
+
+import org.springframework.aot.hint.annotation.Reflective;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明命令处理器处理的命令
+ * <p>
+ * 标注在 {@link TelegramCommandHandler} 实现类上，启动时由 {@link TelegramCommandHandlerFactory} 收集，
+ * 同时用于生成 /help 命令列表和Bot API setMyCommands 菜单。新增命令只需新增一个标注了该注解的处理器Bean。
+ * 标注了 {@link Reflective}，native-image 构建时保留处理器类上的注解。
+ */
+@Documented
+@Reflective
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BotCommand {
+
+    /**
+     * 命令名（不含'/'，只能包含字母、数字和下划线），第一个为主命令名，其余为别名
+     */
+    String[] value() default {};
+
+    /**
+     * 命令说明，显示在 /help 和命令菜单中
+     */
+    String description() default "";
+
+    /**
+     * 在 /help 和命令菜单中的排序，数值小的在前
+     */
+    int order() default 0;
+
+    /**
+     * 是否在 /help 和命令菜单中隐藏
+     */
+    boolean hidden() default false;
+
+    /**
+     * 是否为未知命令的兜底处理器，有且只能有一个
+     */
+    boolean fallback() default false;
+}
@@ -0,0 +1,29 @@
+package com.demo.telegram.bot.handler;
+
+import java.util.List;
+
+/**
+ * 已注册的命令
+ *
+ * @param index       在分发表中的下标
+ * @param name        主命令名（不含'/'）；兜底处理器为 {@link TelegramCommandHandlerFactory#FALLBACK_NAME}
+ * @param aliases     别名
+ * @param description 命令说明
+ * @param hidden      是否在 /help 和命令菜单中隐藏
+ * @param handler     命令处理器
+ */
+public record CommandDefinition(
+        int index,
+        String name,
+        List<String> aliases,
+        String description,
+        boolean hidden,
+        TelegramCommandHandler handler) {
+
+    /**
+     * 回复文本是否固定
+     */
+    public boolean isStaticReply() {
+        return handler.isStaticReply();
+    }
+}
@@ -1,6 +1,8 @@
 package com.demo.telegram.bot.handler;
 
-import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
 
 /**
  * Telegram命令处理器接口
@@ -11,9 +13,36 @@ public interface TelegramCommandHandler {
      * 处理命令
      *
      * @param telegramUserId Telegram用户ID
-     * @param messageText    消息文本
-     * @param webhook        完整的webhook数据
+     * @param command        解析后的命令（命令名、参数）
+     * @param update         解析后的Update数据
      * @return 响应文本
      */
-    String handle(Long telegramUserId, String messageText, JSONObject webhook);
+    String handle(Long telegramUserId, TelegramCommand command, TelegramUpdate update);
+
+    /**
+     * 处理发给指定Bot的命令，回复与Bot有关（如 /help 只列出该Bot启用的命令）的处理器覆盖此方法
+     *
+     * @param bot 接收update的Bot
+     */
+    default String handle(TelegramBotContext bot, Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+        return handle(telegramUserId, command, update);
+    }
+
+    /**
+     * 重放日志流量时处理命令：生成与 handle 同样形式的回复，但不产生副作用（不保存数据、不调用外部数据源）
+     * 默认与 handle 相同，有副作用的处理器覆盖此方法
+     *
+     * @param bot 接收update的Bot
+     */
+    default String handleDryRun(TelegramBotContext bot, Long telegramUserId, TelegramCommand command,
+                                TelegramUpdate update) {
+        return handle(bot, telegramUserId, command, update);
+    }
+
+    /**
+     * 回复文本是否固定（与用户、参数无关），固定回复的响应序列化结果会被缓存复用
+     */
+    default boolean isStaticReply() {
+        return false;
+    }
 }
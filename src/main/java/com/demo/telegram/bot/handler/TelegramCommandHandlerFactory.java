@@ -1,89 +1,309 @@
 package com.demo.telegram.bot.handler;
 
-import com.demo.telegram.bot.handler.impl.BalanceCommandHandler;
-import com.demo.telegram.bot.handler.impl.HelpCommandHandler;
-import com.demo.telegram.bot.handler.impl.InvalidCommandHandler;
-import com.demo.telegram.bot.handler.impl.StartCommandHandler;
-import com.demo.telegram.bot.model.TelegramOperationType;
-import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.util.CommandNameTrie;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Telegram命令处理器工厂
+ * <p>
+ * 启动时收集所有标注了 {@link BotCommand} 的处理器Bean，构建只读的分发表：命令名（含别名）经前缀树映射为数组下标，
+ * 按下标取出命令和计时器，分发耗时与命令数量无关，运行期不加锁。同时生成 /help 命令列表和 setMyCommands 菜单。
  */
 @Component
 public class TelegramCommandHandlerFactory {
 
     private static final Logger logger = LoggerFactory.getLogger(TelegramCommandHandlerFactory.class);
 
-    @Autowired
-    private StartCommandHandler startCommandHandler;
+    /**
+     * 兜底处理器的命令名，用于日志和指标
+     */
+    public static final String FALLBACK_NAME = "unknown";
 
-    @Autowired
-    private HelpCommandHandler helpCommandHandler;
+    /**
+     * Bot API对命令名的要求：1-32位小写字母、数字或下划线
+     */
+    private static final Pattern COMMAND_NAME = Pattern.compile("[a-z0-9_]{1,32}");
+
+    /**
+     * Bot API对命令说明的长度限制
+     */
+    private static final int MAX_DESCRIPTION_LENGTH = 256;
 
     @Autowired
-    private BalanceCommandHandler balanceCommandHandler;
+    private List<TelegramCommandHandler> handlers;
 
     @Autowired
-    private InvalidCommandHandler invalidCommandHandler;
+    private TelegramBotMetrics metrics;
+
+    /**
+     * 按下标排列的命令，最后一个为兜底处理器
+     */
+    private CommandDefinition[] definitions;
+
+    private Timer[] timers;
+
+    /**
+     * 命令名和别名 -> keyTargets 下标
+     */
+    private CommandNameTrie commandNames;
+
+    /**
+     * 前缀树结果对应的命令下标
+     */
+    private int[] keyTargets;
 
+    private CommandDefinition fallback;
 
-    private final Map<TelegramOperationType, TelegramCommandHandler> handlerMap = new HashMap<>();
+    private String helpListing;
+
+    private Map<String, Object> myCommands;
 
     @PostConstruct
     public void init() {
-        // 注册命令处理器
-        registerHandler(TelegramOperationType.START, startCommandHandler);
-        registerHandler(TelegramOperationType.HELP, helpCommandHandler);
-        registerHandler(TelegramOperationType.BALANCE, balanceCommandHandler);
-        registerHandler(TelegramOperationType.INVALID, invalidCommandHandler);
+        List<Registration> registrations = new ArrayList<>();
+        TelegramCommandHandler fallbackHandler = null;
+        for (TelegramCommandHandler handler : handlers) {
+            Class<?> handlerClass = AopUtils.getTargetClass(handler);
+            BotCommand annotation = AnnotatedElementUtils.findMergedAnnotation(handlerClass, BotCommand.class);
+            if (annotation == null) {
+                throw new IllegalStateException("Command handler is not annotated with @BotCommand: " + handlerClass.getName());
+            }
+            if (annotation.fallback()) {
+                if (fallbackHandler != null) {
+                    throw new IllegalStateException("More than one fallback command handler: "
+                            + AopUtils.getTargetClass(fallbackHandler).getName() + ", " + handlerClass.getName());
+                }
+                fallbackHandler = handler;
+                continue;
+            }
+            if (annotation.value().length == 0) {
+                throw new IllegalStateException("@BotCommand declares no command: " + handlerClass.getName());
+            }
+            registrations.add(new Registration(annotation, handler));
+        }
+        if (fallbackHandler == null) {
+            throw new IllegalStateException("No fallback command handler registered");
+        }
+        registrations.sort(Comparator.comparingInt((Registration registration) -> registration.annotation.order())
+                .thenComparing(registration -> registration.annotation.value()[0]));
 
-        logger.info("Telegram命令处理器工厂初始化完成，注册了 {} 个处理器", handlerMap.size());
+        definitions = new CommandDefinition[registrations.size() + 1];
+        timers = new Timer[definitions.length];
+        List<String> keys = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < registrations.size(); i++) {
+            BotCommand annotation = registrations.get(i).annotation;
+            String[] names = annotation.value();
+            for (String name : names) {
+                if (!COMMAND_NAME.matcher(name).matches()) {
+                    throw new IllegalStateException("Invalid command name '" + name + "' on "
+                            + AopUtils.getTargetClass(registrations.get(i).handler).getName());
+                }
+                if (!seen.add(name)) {
+                    throw new IllegalStateException("Duplicate command name: " + name);
+                }
+                keys.add(name);
+                targets.add(i);
+            }
+            if (annotation.description().length() > MAX_DESCRIPTION_LENGTH) {
+                throw new IllegalStateException("Command description too long: " + names[0]);
+            }
+            definitions[i] = new CommandDefinition(i, names[0], List.of(names).subList(1, names.length),
+                    annotation.description(), annotation.hidden(), registrations.get(i).handler);
+        }
+        fallback = new CommandDefinition(registrations.size(), FALLBACK_NAME, List.of(), "", true, fallbackHandler);
+        definitions[fallback.index()] = fallback;
+        for (CommandDefinition definition : definitions) {
+            timers[definition.index()] = metrics.commandTimer(definition.name());
+        }
+
+        commandNames = CommandNameTrie.of(keys);
+        keyTargets = targets.stream().mapToInt(Integer::intValue).toArray();
+        helpListing = helpListingOf(Arrays.asList(definitions));
+        myCommands = myCommandsOf(Arrays.asList(definitions));
+
+        logger.info("Telegram命令处理器工厂初始化完成，注册了 {} 个命令: {}", registrations.size(), keys);
     }
 
     /**
-     * 注册命令处理器
+     * 生成 /help 命令列表，每行一个命令，跳过隐藏的命令
+     *
+     * @param commands 按 {@link #getDefinitions()} 顺序排列的命令
      */
-    private void registerHandler(TelegramOperationType operationType, TelegramCommandHandler handler) {
-        handlerMap.put(operationType, handler);
-        logger.debug("注册命令处理器: {} -> {}", operationType, handler.getClass().getSimpleName());
+    public String helpListingOf(List<CommandDefinition> commands) {
+        StringBuilder builder = new StringBuilder();
+        for (CommandDefinition definition : commands) {
+            if (definition.hidden()) {
+                continue;
+            }
+            builder.append('/').append(definition.name());
+            if (!definition.description().isEmpty()) {
+                builder.append(" - ").append(definition.description());
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
     }
 
     /**
-     * 处理命令
+     * 生成 setMyCommands 请求体，跳过隐藏的命令
+     *
+     * @param commands 按 {@link #getDefinitions()} 顺序排列的命令
+     */
+    public Map<String, Object> myCommandsOf(List<CommandDefinition> commands) {
+        List<Map<String, String>> menu = new ArrayList<>();
+        for (CommandDefinition definition : commands) {
+            if (definition.hidden()) {
+                continue;
+            }
+            Map<String, String> command = new LinkedHashMap<>();
+            command.put("command", definition.name());
+            command.put("description", definition.description().isEmpty() ? definition.name() : definition.description());
+            menu.add(command);
+        }
+        return Map.of("commands", List.copyOf(menu));
+    }
+
+    /**
+     * 按命令名查找命令，未注册的命令返回兜底处理器
+     */
+    public CommandDefinition resolve(TelegramCommand command) {
+        return resolve(command.getText(), command.getNameStart(), command.getNameEnd());
+    }
+
+    /**
+     * 按 text[from, to) 中的命令名（不含'/'）查找命令，未注册的命令返回兜底处理器
      */
-    public String handle(TelegramOperationType operationType, Long telegramUserId, String messageText, JSONObject webhook) {
-        TelegramCommandHandler handler = handlerMap.get(operationType);
-        if (handler == null) {
-            logger.warn("未找到命令处理器: {}", operationType);
-            handler = invalidCommandHandler;
+    public CommandDefinition resolve(CharSequence text, int from, int to) {
+        int key = commandNames.find(text, from, to);
+        return key == CommandNameTrie.NOT_FOUND ? fallback : definitions[keyTargets[key]];
+    }
+
+    /**
+     * 根据消息文本匹配命令，不是命令消息或命令未注册时返回兜底处理器
+     * 命令名须完整匹配（/balancexyz 不会匹配 /balance），忽略 @botname 后缀和参数，匹配过程不产生对象分配
+     */
+    public CommandDefinition match(String messageText) {
+        if (messageText == null) {
+            return fallback;
+        }
+
+        int length = messageText.length();
+        int start = TelegramCommand.skipWhitespace(messageText, 0, length);
+        if (start >= length || messageText.charAt(start) != '/') {
+            return fallback;
         }
+        int nameEnd = TelegramCommand.nameEnd(messageText, start + 1, length);
+        return resolve(messageText, start + 1, nameEnd);
+    }
 
+    /**
+     * 按主命令名或别名精确查找已注册的命令
+     *
+     * @return 未注册时返回null
+     */
+    public CommandDefinition find(String name) {
+        int key = commandNames.find(name, 0, name.length());
+        return key == CommandNameTrie.NOT_FOUND ? null : definitions[keyTargets[key]];
+    }
+
+    /**
+     * 处理命令
+     *
+     * @param bot 接收update的Bot
+     */
+    public String handle(TelegramBotContext bot, CommandDefinition definition, TelegramCommand command,
+                         Long telegramUserId, TelegramUpdate update) {
+        return handle(bot, definition, command, telegramUserId, update, false);
+    }
+
+    /**
+     * 处理命令
+     *
+     * @param bot    接收update的Bot
+     * @param dryRun 是否为重放：调用 {@link TelegramCommandHandler#handleDryRun}，不计入命令处理耗时指标
+     */
+    public String handle(TelegramBotContext bot, CommandDefinition definition, TelegramCommand command,
+                         Long telegramUserId, TelegramUpdate update, boolean dryRun) {
+        long start = System.nanoTime();
         try {
-            String response = handler.handle(telegramUserId, messageText, webhook);
-            logger.info("命令处理完成: operationType={}, telegramUserId={}, responseLength={}",
-                    operationType, telegramUserId, response != null ? response.length() : 0);
+            TelegramCommandHandler handler = definition.handler();
+            String response = dryRun
+                    ? handler.handleDryRun(bot, telegramUserId, command, update)
+                    : handler.handle(bot, telegramUserId, command, update);
+            logger.debug("命令处理完成: command={}, telegramUserId={}, responseLength={}",
+                    definition.name(), telegramUserId, response != null ? response.length() : 0);
 
             return response;
 
         } catch (Exception e) {
-            logger.error("命令处理异常: operationType={}, telegramUserId={}", operationType, telegramUserId, e);
+            logger.error("命令处理异常: command={}, telegramUserId={}", definition.name(), telegramUserId, e);
             return "❌ 处理命令时发生错误，请稍后重试";
+        } finally {
+            if (!dryRun) {
+                timers[definition.index()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         }
     }
 
     /**
-     * 获取所有已注册的命令处理器
+     * 已注册的命令（含兜底处理器，位于最后），按 /help 中的顺序排列
      */
-    public Map<TelegramOperationType, TelegramCommandHandler> getAllHandlers() {
-        return new HashMap<>(handlerMap);
+    public List<CommandDefinition> getDefinitions() {
+        return Arrays.asList(definitions.clone());
+    }
+
+    /**
+     * 兜底处理器，处理未注册（或当前Bot未启用）的命令
+     */
+    public CommandDefinition getFallback() {
+        return fallback;
+    }
+
+    /**
+     * 已注册命令的数量（不含兜底处理器）
+     */
+    public int getCommandCount() {
+        return definitions.length - 1;
+    }
+
+    /**
+     * /help 中的命令列表（所有已注册的命令），每行一个命令
+     */
+    public String getHelpListing() {
+        return helpListing;
+    }
+
+    /**
+     * Bot API setMyCommands 请求体（所有已注册的命令）
+     */
+    public Map<String, Object> getMyCommands() {
+        return myCommands;
+    }
+
+    private record Registration(BotCommand annotation, TelegramCommandHandler handler) {
     }
 }
@@ -1,46 +1,76 @@
 package com.demo.telegram.bot.handler.impl;
 
-import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.handler.BotCommand;
+import com.demo.telegram.bot.model.AccountBalance;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.BalanceService;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.util.MessageTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDateTime;
 
 /**
  * 余额查询命令处理器 - Demo版本
  */
 @Component
+@BotCommand(value = "balance", description = "余额查询（模拟数据）", order = 30)
 public class BalanceCommandHandler extends AbstractTelegramCommandHandler {
 
-    @Override
-    public String handle(Long telegramUserId, String messageText, JSONObject webhook) {
-        // Demo: 直接返回模拟数据，无需用户绑定验证
+    private static final MessageTemplate BALANCE_RESULT = MessageTemplate.compile("""
+            💰 <b>余额查询结果</b>
+
+            🆔 用户ID: <code>{0}</code>
+            🏷️ 账户类型: <code>演示账户</code>
+
+            💵 可用余额: <code>¥{1:money}</code>
+            ❄️ 冻结余额: <code>¥{2:money}</code>
+            💎 总余额: <code>¥{3:money}</code>
+
+            ⏰ 查询时间: {4:datetime}
+            📊 这是模拟数据，仅用于演示
 
-        // 生成模拟余额数据
-        BigDecimal availableBalance = new BigDecimal(Math.random() * 100000).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal frozenBalance = new BigDecimal(Math.random() * 10000).setScale(2, RoundingMode.HALF_UP);
-        BigDecimal totalBalance = availableBalance.add(frozenBalance);
+            💡 发送 /help 查看更多命令
+            """);
 
-        return String.format("""
-                💰 <b>余额查询结果</b>
+    @Autowired
+    private BalanceService balanceService;
 
-                🆔 用户ID: <code>%d</code>
-                🏷️ 账户类型: <code>演示账户</code>
+    @Override
+    public String handle(Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+        // Demo: 无需用户绑定验证
+        AccountBalance balance;
+        try {
+            balance = balanceService.getBalance(telegramUserId);
+        } catch (RuntimeException e) {
+            logger.warn("余额查询失败: telegramUserId={}", telegramUserId, e);
+            return formatErrorMessage("余额查询失败，请稍后重试");
+        }
 
-                💵 可用余额: <code>¥%,.2f</code>
-                ❄️ 冻结余额: <code>¥%,.2f</code>
-                💎 总余额: <code>¥%,.2f</code>
+        // 查询时间为数据源返回该余额的时间，命中缓存时早于当前时间
+        return render(telegramUserId, balance);
+    }
 
-                ⏰ 查询时间: %s
-                📊 这是模拟数据，仅用于演示
+    /**
+     * 重放时不查询余额数据源，按零余额生成回复
+     */
+    @Override
+    public String handleDryRun(TelegramBotContext bot, Long telegramUserId, TelegramCommand command,
+                               TelegramUpdate update) {
+        return render(telegramUserId, new AccountBalance(telegramUserId, BigDecimal.ZERO, BigDecimal.ZERO,
+                LocalDateTime.now()));
+    }
 
-                💡 发送 /help 查看更多命令
-                """,
+    private String render(Long telegramUserId, AccountBalance balance) {
+        return BALANCE_RESULT.render(
                 telegramUserId,
-                availableBalance,
-                frozenBalance,
-                totalBalance,
-                java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+                balance.available(),
+                balance.frozen(),
+                balance.total(),
+                balance.queriedAt()
         );
     }
 }
@@ -0,0 +1,59 @@
+package com.demo.telegram.bot.handler.impl;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.handler.BotCommand;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.BindingService;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.util.MessageTemplate;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 账户绑定命令处理器
+ * 生成一次性绑定码，用户在业务系统中提交后完成绑定
+ */
+@Component
+@BotCommand(value = "bind", description = "生成账户绑定码", order = 40)
+public class BindCommandHandler extends AbstractTelegramCommandHandler {
+
+    private static final MessageTemplate BIND_CODE = MessageTemplate.compile("""
+            🔗 <b>账户绑定码</b>
+
+            <code>{0}</code>
+
+            ⏰ 有效期 {1} 分钟，只能使用一次
+            💡 请在业务系统的绑定页面中提交该绑定码，不要发送给他人
+            """);
+
+    @Autowired
+    private BindingService bindingService;
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    /**
+     * 重放时回复中使用的占位绑定码（按配置的最短长度），不生成也不保存真实绑定码
+     */
+    private String dryRunCode;
+
+    @PostConstruct
+    public void init() {
+        dryRunCode = "0".repeat(telegramBotConfig.getBinding().getCodeLengthMin());
+    }
+
+    @Override
+    public String handle(Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+        String code = bindingService.generate(telegramUserId);
+        logger.info("生成绑定码: telegramUserId={}", telegramUserId);
+        return BIND_CODE.render(code, bindingService.getExpiryMinutes());
+    }
+
+    @Override
+    public String handleDryRun(TelegramBotContext bot, Long telegramUserId, TelegramCommand command,
+                               TelegramUpdate update) {
+        return BIND_CODE.render(dryRunCode, bindingService.getExpiryMinutes());
+    }
+}
@@ -1,17 +1,78 @@
 package com.demo.telegram.bot.handler.impl;
 
-import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.handler.BotCommand;
+import com.demo.telegram.bot.handler.TelegramCommandHandlerFactory;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.util.MessageTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 帮助命令处理器
+ * 命令列表由 {@link TelegramCommandHandlerFactory} 根据已注册的命令生成，多Bot部署时只列出当前Bot启用的命令
  */
 @Component
+@BotCommand(value = "help", description = "显示此帮助信息", order = 20)
 public class HelpCommandHandler extends AbstractTelegramCommandHandler {
 
+    private static final MessageTemplate HELP_INFO = MessageTemplate.compile("""
+            <b>显示帮助信息</b>
+
+            🤖 <b>Demo版本功能说明:</b>
+            • 所有功能都可直接使用
+            • 显示的数据均为模拟演示数据
+            • 用于展示Telegram机器人架构
+
+            📋 <b>可用命令:</b>
+            {0}
+            💡 <b>提示:</b>
+            • 发送任何命令都会正常响应
+            • 这是完全无状态的Demo版本
+            """);
+
+    /**
+     * 工厂依赖所有处理器，这里延迟获取以避免循环依赖
+     */
+    @Autowired
+    private ObjectProvider<TelegramCommandHandlerFactory> commandHandlerFactory;
+
+    /**
+     * 命令注册后内容固定，首次调用时生成
+     */
+    private volatile String helpInfo;
+
+    /**
+     * Bot ID -> 该Bot的帮助信息，首次调用时生成
+     */
+    private final Map<String, String> botHelpInfo = new ConcurrentHashMap<>();
+
+    @Override
+    public String handle(Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+        String text = helpInfo;
+        if (text == null) {
+            text = HELP_INFO.render(commandHandlerFactory.getObject().getHelpListing());
+            helpInfo = text;
+        }
+        return text;
+    }
+
     @Override
-    public String handle(Long telegramUserId, String messageText, JSONObject webhook) {
-        return generateHelpInfo();
+    public String handle(TelegramBotContext bot, Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+        String text = botHelpInfo.get(bot.getId());
+        if (text == null) {
+            text = botHelpInfo.computeIfAbsent(bot.getId(), id -> HELP_INFO.render(bot.getHelpListing()));
+        }
+        return text;
     }
 
+    @Override
+    public boolean isStaticReply() {
+        return true;
+    }
 }
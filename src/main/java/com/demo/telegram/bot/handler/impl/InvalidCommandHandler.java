@@ -1,21 +1,31 @@
 package com.demo.telegram.bot.handler.impl;
 
-import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.handler.BotCommand;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.util.MessageTemplate;
 import org.springframework.stereotype.Component;
 
 /**
  * 无效命令处理器
  */
 @Component
+@BotCommand(fallback = true)
 public class InvalidCommandHandler extends AbstractTelegramCommandHandler {
 
-    @Override
-    public String handle(Long telegramUserId, String messageText, JSONObject webhook) {
-        return formatErrorMessage("""
-                ❓ 未知的命令
+    private static final MessageTemplate UNKNOWN_COMMAND = ERROR_MESSAGE.bind("""
+            ❓ 未知的命令
+
+            💡 发送 /help 查看完整命令列表
+            """);
 
-                💡 发送 /help 查看完整命令列表
-                """);
+    @Override
+    public String handle(Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+        return UNKNOWN_COMMAND.render();
     }
 
+    @Override
+    public boolean isStaticReply() {
+        return true;
+    }
 }
@@ -1,33 +1,44 @@
 package com.demo.telegram.bot.handler.impl;
 
-import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.handler.BotCommand;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.util.MessageTemplate;
 import org.springframework.stereotype.Component;
 
 /**
  * 开始命令处理器 - Demo版本
  */
 @Component
+@BotCommand(value = "start", description = "欢迎消息和功能介绍", order = 10)
 public class StartCommandHandler extends AbstractTelegramCommandHandler {
 
-    @Override
-    public String handle(Long telegramUserId, String messageText, JSONObject webhook) {
-        return formatInfoMessage("""
-                🤖 欢迎使用Telegram机器人Demo！
+    private static final MessageTemplate WELCOME = INFO_MESSAGE.bind("""
+            🤖 欢迎使用Telegram机器人Demo！
+
+            这是一个基于Spring Boot的Telegram机器人示例项目。
+
+            📋 <b>功能特色:</b>
+            • 命令处理系统
+            • 模块化架构
+            • JDK 21文本块支持
+            • 无状态设计
 
-                这是一个基于Spring Boot的Telegram机器人示例项目。
+            🚀 <b>快速开始:</b>
+            • 发送 /help 查看所有命令
+            • 发送 /balance 查询余额（模拟数据）
+            • 所有功能都可直接使用！
 
-                📋 <b>功能特色:</b>
-                • 命令处理系统
-                • 模块化架构
-                • JDK 21文本块支持
-                • 无状态设计
+            💡 发送 /help 查看所有可用命令
+            """);
 
-                🚀 <b>快速开始:</b>
-                • 发送 /help 查看所有命令
-                • 发送 /balance 查询余额（模拟数据）
-                • 所有功能都可直接使用！
+    @Override
+    public String handle(Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+        return WELCOME.render();
+    }
 
-                💡 发送 /help 查看所有可用命令
-                """);
+    @Override
+    public boolean isStaticReply() {
+        return true;
     }
 }
@@ -0,0 +1,26 @@
+package com.demo.telegram.bot.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 用户账户余额
+ *
+ * @param userId    Telegram用户ID
+ * @param available 可用余额
+ * @param frozen    冻结余额
+ * @param queriedAt 从账务系统查询到该余额的时间
+ */
+public record AccountBalance(
+        long userId,
+        BigDecimal available,
+        BigDecimal frozen,
+        LocalDateTime queriedAt) {
+
+    /**
+     * 总余额
+     */
+    public BigDecimal total() {
+        return available.add(frozen);
+    }
+}
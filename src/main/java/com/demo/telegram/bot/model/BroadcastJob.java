@@ -0,0 +1,207 @@
+package com.demo.telegram.bot.model;
+
+/**
+ * 群发任务
+ * <p>
+ * 由 {@link com.demo.telegram.bot.service.BroadcastService} 创建并定期保存为JSON文件，重启后从检查点继续发送。
+ * 发送完成的顺序与读取顺序不同，检查点之后已发送的订阅者在重启后会再发送一次；保存的计数只包含检查点之前的订阅者，
+ * 重新发送的订阅者不会重复计数。
+ * <p>
+ * 任务线程更新状态、检查点和计数，查询进度的请求线程读取，这些字段为volatile。
+ */
+public class BroadcastJob {
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        /**
+         * 发送中（包括重启后等待继续发送）
+         */
+        RUNNING,
+
+        /**
+         * 已发送到集合末尾
+         */
+        COMPLETED,
+
+        /**
+         * 已取消
+         */
+        CANCELLED,
+
+        /**
+         * 读取订阅者失败
+         */
+        FAILED
+    }
+
+    /**
+     * 任务ID
+     */
+    private String id;
+
+    /**
+     * 发送消息的Bot ID
+     */
+    private String bot;
+
+    /**
+     * 订阅者集合名称
+     */
+    private String subscribers;
+
+    /**
+     * 消息正文（HTML格式）
+     */
+    private String text;
+
+    /**
+     * 任务状态
+     */
+    private volatile Status status;
+
+    /**
+     * 集合中的订阅者数量（创建任务时统计）
+     */
+    private long total;
+
+    /**
+     * 订阅者数据源中的位置，之前的订阅者都已发送（检查点）
+     */
+    private volatile long position;
+
+    /**
+     * 发送成功数
+     */
+    private volatile long sent;
+
+    /**
+     * 用户已屏蔽Bot或已停用（403）的订阅者数
+     */
+    private volatile long blocked;
+
+    /**
+     * 其他原因发送失败数
+     */
+    private volatile long failed;
+
+    /**
+     * 创建时间（毫秒时间戳）
+     */
+    private long createdAt;
+
+    /**
+     * 首次开始发送时间
+     */
+    private volatile Long startedAt;
+
+    /**
+     * 结束时间
+     */
+    private volatile Long finishedAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getBot() {
+        return bot;
+    }
+
+    public void setBot(String bot) {
+        this.bot = bot;
+    }
+
+    public String getSubscribers() {
+        return subscribers;
+    }
+
+    public void setSubscribers(String subscribers) {
+        this.subscribers = subscribers;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public void setSent(long sent) {
+        this.sent = sent;
+    }
+
+    public long getBlocked() {
+        return blocked;
+    }
+
+    public void setBlocked(long blocked) {
+        this.blocked = blocked;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.demo.telegram.bot.model;
+
+/**
+ * 长轮询（getUpdates）获取的Update
+ *
+ * @param update    解码后的Update；无法解码时只带 update_id（可能为null），类型为 {@link TelegramUpdateType#UNKNOWN}
+ * @param payload   该Update在响应中的原始JSON，与Webhook请求体格式相同，写入update日志
+ * @param malformed 该Update无法解码，不做处理，只用于推进确认偏移量
+ */
+public record PolledUpdate(TelegramUpdate update, byte[] payload, boolean malformed) {
+
+    public PolledUpdate(TelegramUpdate update, byte[] payload) {
+        this(update, payload, false);
+    }
+
+    /**
+     * 无法解码的Update
+     */
+    public static PolledUpdate malformed(Long updateId, byte[] payload) {
+        return new PolledUpdate(new TelegramUpdate(updateId, TelegramUpdateType.UNKNOWN, null, null, null, null,
+                null, false, null), payload, true);
+    }
+}
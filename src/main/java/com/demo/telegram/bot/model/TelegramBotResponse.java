@@ -1,5 +1,6 @@
 package com.demo.telegram.bot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -56,6 +57,12 @@ public class TelegramBotResponse {
     @JsonProperty("disable_notification")
     private Boolean disableNotification;
 
+    /**
+     * 回复内容是否与请求无关（除chat_id外对所有用户相同），为true时序列化结果可以缓存复用
+     */
+    @JsonIgnore
+    private boolean staticReply;
+
     public TelegramBotResponse() {
     }
 
@@ -129,6 +136,24 @@ public class TelegramBotResponse {
         this.disableNotification = disableNotification;
     }
 
+    @JsonIgnore
+    public boolean isStaticReply() {
+        return staticReply;
+    }
+
+    public void setStaticReply(boolean staticReply) {
+        this.staticReply = staticReply;
+    }
+
+    /**
+     * 是否为空响应
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return method == null && chatId == null && text == null && parseMode == null && messageId == null
+                && callbackQueryId == null && disableWebPagePreview == null && disableNotification == null;
+    }
+
     /**
      * 创建简单的发送消息响应
      */
@@ -138,6 +163,15 @@ public class TelegramBotResponse {
         return response;
     }
 
+    /**
+     * 创建内容固定的发送消息响应
+     */
+    public static TelegramBotResponse sendStaticMessage(Long chatId, String text) {
+        TelegramBotResponse response = sendMessage(chatId, text);
+        response.setStaticReply(true);
+        return response;
+    }
+
     /**
      * 创建空响应 (用于webhook处理完成但不需要回复的情况)
      */
@@ -0,0 +1,198 @@
+package com.demo.telegram.bot.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 解析后的Telegram命令
+ * 消息文本只扫描一次，记录命令名、@botname 后缀和参数在原文中的位置；
+ * 路由和 @botname 判断直接比较原文，命令名、参数字符串和参数列表在处理器首次读取时才创建
+ */
+public class TelegramCommand {
+
+    /**
+     * 消息原文
+     */
+    private final String text;
+
+    /**
+     * 命令名（不含'/'和@botname）在原文中的范围 [nameStart, nameEnd)
+     */
+    private final int nameStart;
+
+    private final int nameEnd;
+
+    /**
+     * 群组中 /command@botname 形式的目标Bot用户名的范围，未指定时两者相等
+     */
+    private final int usernameStart;
+
+    private final int usernameEnd;
+
+    /**
+     * 命令之后的参数原文（已去除首尾空白）的范围
+     */
+    private final int argumentsStart;
+
+    private final int argumentsEnd;
+
+    private String name;
+
+    private String arguments;
+
+    /**
+     * 按空白拆分的参数列表
+     */
+    private List<String> args;
+
+    private TelegramCommand(String text, int nameStart, int nameEnd, int usernameStart, int usernameEnd,
+                            int argumentsStart, int argumentsEnd) {
+        this.text = text;
+        this.nameStart = nameStart;
+        this.nameEnd = nameEnd;
+        this.usernameStart = usernameStart;
+        this.usernameEnd = usernameEnd;
+        this.argumentsStart = argumentsStart;
+        this.argumentsEnd = argumentsEnd;
+    }
+
+    /**
+     * 解析消息文本，只记录各部分的位置，不复制字符串
+     *
+     * @return 不是命令消息（不以'/'开头）时返回null
+     */
+    public static TelegramCommand parse(String messageText) {
+        if (messageText == null) {
+            return null;
+        }
+
+        int length = messageText.length();
+        int start = skipWhitespace(messageText, 0, length);
+        if (start >= length || messageText.charAt(start) != '/') {
+            return null;
+        }
+
+        int nameStart = start + 1;
+        int nameEnd = nameEnd(messageText, nameStart, length);
+        int position = nameEnd;
+
+        int usernameStart = position;
+        if (position < length && messageText.charAt(position) == '@') {
+            usernameStart = position + 1;
+            position = usernameStart;
+            while (position < length && !Character.isWhitespace(messageText.charAt(position))) {
+                position++;
+            }
+        }
+        int usernameEnd = position;
+
+        int argumentsStart = skipWhitespace(messageText, position, length);
+        int argumentsEnd = length;
+        while (argumentsEnd > argumentsStart && Character.isWhitespace(messageText.charAt(argumentsEnd - 1))) {
+            argumentsEnd--;
+        }
+
+        return new TelegramCommand(messageText, nameStart, nameEnd, usernameStart, usernameEnd,
+                argumentsStart, argumentsEnd);
+    }
+
+    /**
+     * 命令是否发给指定的Bot
+     * 未带 @botname 后缀或未配置Bot用户名时视为发给本Bot
+     */
+    public boolean isAddressedTo(String username) {
+        if (usernameStart == usernameEnd || username == null || username.isBlank()) {
+            return true;
+        }
+        int expectedStart = username.startsWith("@") ? 1 : 0;
+        int expectedLength = username.length() - expectedStart;
+        return usernameEnd - usernameStart == expectedLength
+                && text.regionMatches(true, usernameStart, username, expectedStart, expectedLength);
+    }
+
+    public static int skipWhitespace(CharSequence text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * 命令名结束位置：遇到空白或'@'为止
+     */
+    public static int nameEnd(CharSequence text, int from, int to) {
+        while (from < to) {
+            char c = text.charAt(from);
+            if (c == '@' || Character.isWhitespace(c)) {
+                break;
+            }
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * 消息原文，与 {@link #getNameStart()}、{@link #getNameEnd()} 一起用于不复制字符串的命令查找
+     */
+    public String getText() {
+        return text;
+    }
+
+    public int getNameStart() {
+        return nameStart;
+    }
+
+    public int getNameEnd() {
+        return nameEnd;
+    }
+
+    public String getName() {
+        if (name == null) {
+            name = text.substring(nameStart, nameEnd);
+        }
+        return name;
+    }
+
+    public String getBotUsername() {
+        return usernameStart == usernameEnd ? null : text.substring(usernameStart, usernameEnd);
+    }
+
+    public String getArguments() {
+        if (arguments == null) {
+            arguments = text.substring(argumentsStart, argumentsEnd);
+        }
+        return arguments;
+    }
+
+    public List<String> getArgs() {
+        if (args == null) {
+            args = splitArgs();
+        }
+        return args;
+    }
+
+    private List<String> splitArgs() {
+        if (argumentsStart >= argumentsEnd) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>(4);
+        int i = argumentsStart;
+        while (i < argumentsEnd) {
+            int tokenEnd = i;
+            while (tokenEnd < argumentsEnd && !Character.isWhitespace(text.charAt(tokenEnd))) {
+                tokenEnd++;
+            }
+            tokens.add(text.substring(i, tokenEnd));
+            i = skipWhitespace(text, tokenEnd, argumentsEnd);
+        }
+        return Collections.unmodifiableList(tokens);
+    }
+
+    @Override
+    public String toString() {
+        String botUsername = getBotUsername();
+        return "/" + getName() + (botUsername != null ? "@" + botUsername : "")
+                + (argumentsStart == argumentsEnd ? "" : " " + getArguments());
+    }
+}
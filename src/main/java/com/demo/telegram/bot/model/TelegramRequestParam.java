@@ -1,38 +1,68 @@
 package com.demo.telegram.bot.model;
 
-import com.alibaba.fastjson.JSONObject;
-import jakarta.servlet.http.HttpServletRequest;
+import com.demo.telegram.bot.service.TelegramBotContext;
+
+import java.util.function.UnaryOperator;
 
 public class TelegramRequestParam {
 
     /**
-     * 请求内容
+     * 接收请求的Bot，验证步骤使用其中的密钥、白名单、去重窗口和限流器
+     */
+    private TelegramBotContext bot;
+
+    /**
+     * 解析后的请求内容
      */
-    private JSONObject body;
+    private TelegramUpdate update;
 
     /**
-     * 请求头信息
+     * 请求头信息，按名称（不区分大小写）查找请求头的值
+     * Servlet和响应式入口各自适配，验证步骤不依赖具体的Web栈
      */
-    private HttpServletRequest request;
+    private UnaryOperator<String> headers;
     /**
      * 客户端 IP
      */
     private String clientIp;
 
-    public JSONObject getBody() {
-        return body;
+    /**
+     * 原始请求体字节数，解码之前的验证步骤据此拒绝过大的请求
+     */
+    private int bodyLength;
+
+    /**
+     * 重复update对应的缓存响应，不为空时表示该update已处理过
+     */
+    private TelegramBotResponse replayResponse;
+
+    /**
+     * update处理记录，验证耗时计入其中
+     */
+    private TelegramUpdateEvent event;
+
+    public TelegramBotContext getBot() {
+        return bot;
+    }
+
+    public void setBot(TelegramBotContext bot) {
+        this.bot = bot;
     }
 
-    public void setBody(JSONObject body) {
-        this.body = body;
+    public TelegramUpdate getUpdate() {
+        return update;
     }
 
-    public HttpServletRequest getRequest() {
-        return request;
+    public void setUpdate(TelegramUpdate update) {
+        this.update = update;
     }
 
-    public void setRequest(HttpServletRequest request) {
-        this.request = request;
+    public String getHeader(String name) {
+        return headers != null ? headers.apply(name) : null;
+    }
+
+    public void setHeaders(UnaryOperator<String> headers) {
+        this.headers = headers;
     }
 
     public String getClientIp() {
@@ -42,4 +72,28 @@ public class TelegramRequestParam {
     public void setClientIp(String clientIp) {
         this.clientIp = clientIp;
     }
+
+    public int getBodyLength() {
+        return bodyLength;
+    }
+
+    public void setBodyLength(int bodyLength) {
+        this.bodyLength = bodyLength;
+    }
+
+    public TelegramBotResponse getReplayResponse() {
+        return replayResponse;
+    }
+
+    public void setReplayResponse(TelegramBotResponse replayResponse) {
+        this.replayResponse = replayResponse;
+    }
+
+    public TelegramUpdateEvent getEvent() {
+        return event;
+    }
+
+    public void setEvent(TelegramUpdateEvent event) {
+        this.event = event;
+    }
 }
@@ -0,0 +1,41 @@
+package com.demo.telegram.bot.model;
+
+/**
+ * 解析后的Telegram Update
+ * 请求体只解析一次，验证器、服务和命令处理器都直接使用这里的字段，不再反复查找JSON树
+ *
+ * @param updateId        update_id，缺失时为null
+ * @param type            Update类型
+ * @param userId          发送者用户ID（message.from.id 或 callback_query.from.id 等）
+ * @param chatId          聊天ID（message.chat.id 或 callback_query.message.chat.id）
+ * @param messageId       消息ID
+ * @param text            消息文本（message.text 或 callback_query.data 或 inline_query.query）
+ * @param date            消息时间戳（秒）
+ * @param fromBot         发送者是否为机器人
+ * @param callbackQueryId 回调查询ID
+ */
+public record TelegramUpdate(
+        Long updateId,
+        TelegramUpdateType type,
+        Long userId,
+        Long chatId,
+        Integer messageId,
+        String text,
+        Long date,
+        boolean fromBot,
+        String callbackQueryId) {
+
+    /**
+     * 是否为新消息类型的Update
+     */
+    public boolean isMessage() {
+        return type == TelegramUpdateType.MESSAGE;
+    }
+
+    /**
+     * 是否为需要命令处理的Update（新消息或回调查询）
+     */
+    public boolean isCommandSource() {
+        return type == TelegramUpdateType.MESSAGE || type == TelegramUpdateType.CALLBACK_QUERY;
+    }
+}
@@ -0,0 +1,203 @@
+package com.demo.telegram.bot.model;
+
+import com.demo.telegram.bot.util.TelegramBotMetrics.Outcome;
+
+/**
+ * 单个update的处理记录
+ * <p>
+ * 在控制器（或长轮询）创建，沿 验证 → 分发 → 命令处理 各环节填充，处理结束后由
+ * {@link com.demo.telegram.bot.util.UpdateEventLogger} 汇总输出一条日志。
+ * 同一时刻只由一个线程填充（异步模式下入队后交给工作线程），不需要同步。
+ * 只记录消息长度，不记录消息正文。
+ */
+public class TelegramUpdateEvent {
+
+    /**
+     * update来源
+     */
+    public enum Source {
+        WEBHOOK, POLLING,
+
+        /**
+         * 启动时从update日志重新处理
+         */
+        JOURNAL
+    }
+
+    private final Source source;
+
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * 接收update的Bot ID
+     */
+    private String bot;
+
+    private Long updateId;
+
+    private TelegramUpdateType updateType;
+
+    private String clientIp;
+
+    private Long userId;
+
+    private Long chatId;
+
+    private int textLength;
+
+    /**
+     * 处理的命令名，未注册的命令为兜底处理器的名称
+     */
+    private String command;
+
+    private Outcome outcome;
+
+    private String errorCode;
+
+    private String responseMethod;
+
+    private long validationNanos;
+
+    private long queueNanos;
+
+    private long handlerNanos;
+
+    /**
+     * update在日志中的偏移量，未写入日志时为-1
+     */
+    private long journalOffset = -1;
+
+    public TelegramUpdateEvent(Source source) {
+        this.source = source;
+    }
+
+    /**
+     * 记录解码后的update基本信息
+     */
+    public void setUpdate(TelegramUpdate update) {
+        this.updateId = update.updateId();
+        this.updateType = update.type();
+        this.userId = update.userId();
+        this.chatId = update.chatId();
+        this.textLength = update.text() != null ? update.text().length() : 0;
+    }
+
+    public void addValidationNanos(long nanos) {
+        validationNanos += nanos;
+    }
+
+    /**
+     * 自创建起经过的时间（纳秒）
+     */
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 是否为需要始终输出的失败记录
+     */
+    public boolean isFailure() {
+        return errorCode != null
+                || outcome == Outcome.REJECTED || outcome == Outcome.OVERLOADED || outcome == Outcome.FAILED;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public String getBot() {
+        return bot;
+    }
+
+    public void setBot(String bot) {
+        this.bot = bot;
+    }
+
+    public Long getUpdateId() {
+        return updateId;
+    }
+
+    public TelegramUpdateType getUpdateType() {
+        return updateType;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    public void setClientIp(String clientIp) {
+        this.clientIp = clientIp;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getChatId() {
+        return chatId;
+    }
+
+    public int getTextLength() {
+        return textLength;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getResponseMethod() {
+        return responseMethod;
+    }
+
+    public void setResponseMethod(String responseMethod) {
+        this.responseMethod = responseMethod;
+    }
+
+    public long getValidationNanos() {
+        return validationNanos;
+    }
+
+    public long getQueueNanos() {
+        return queueNanos;
+    }
+
+    public void setQueueNanos(long queueNanos) {
+        this.queueNanos = queueNanos;
+    }
+
+    public long getHandlerNanos() {
+        return handlerNanos;
+    }
+
+    public void setHandlerNanos(long handlerNanos) {
+        this.handlerNanos = handlerNanos;
+    }
+
+    public long getJournalOffset() {
+        return journalOffset;
+    }
+
+    public void setJournalOffset(long journalOffset) {
+        this.journalOffset = journalOffset;
+    }
+}
@@ -0,0 +1,44 @@
+package com.demo.telegram.bot.model;
+
+/**
+ * Telegram Update类型枚举
+ */
+public enum TelegramUpdateType {
+    /**
+     * 新消息
+     */
+    MESSAGE("message"),
+
+    /**
+     * 编辑过的消息
+     */
+    EDITED_MESSAGE("edited_message"),
+
+    /**
+     * 内联键盘回调
+     */
+    CALLBACK_QUERY("callback_query"),
+
+    /**
+     * 内联查询
+     */
+    INLINE_QUERY("inline_query"),
+
+    /**
+     * 不支持的类型
+     */
+    UNKNOWN(null);
+
+    private final String field;
+
+    TelegramUpdateType(String field) {
+        this.field = field;
+    }
+
+    /**
+     * Update JSON中对应的字段名
+     */
+    public String getField() {
+        return field;
+    }
+}
@@ -0,0 +1,20 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.model.AccountBalance;
+
+/**
+ * 余额数据源
+ * <p>
+ * 对接账务系统时新增一个实现Bean并标注 {@link org.springframework.context.annotation.Primary}，
+ * 调用方通过 {@link BalanceService} 访问，缓存和并发请求合并由 {@link BalanceService} 负责，实现类只需同步查询。
+ */
+public interface BalanceProvider {
+
+    /**
+     * 查询用户余额
+     *
+     * @param telegramUserId Telegram用户ID
+     * @throws RuntimeException 查询失败
+     */
+    AccountBalance getBalance(long telegramUserId);
+}
@@ -0,0 +1,94 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.AccountBalance;
+import com.demo.telegram.bot.util.RefreshingCache;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 余额查询服务
+ * <p>
+ * 在 {@link BalanceProvider} 前加一层本地缓存（见 {@link RefreshingCache}）：同一用户的并发查询合并为一次数据源调用，
+ * 缓存余额过了刷新时间仍直接返回并在后台刷新，数据源变慢时查询延迟不受影响，只有过期或首次查询时才同步等待。
+ */
+@Service
+public class BalanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceService.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private BalanceProvider balanceProvider;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    private RefreshingCache<AccountBalance> cache;
+
+    @PostConstruct
+    public void init() {
+        TelegramBotConfig.BalanceConfig balance = telegramBotConfig.getBalance();
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, balance.getRefreshThreads());
+        refreshExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, balance.getRefreshQueueCapacity())), runnable -> {
+            Thread thread = new Thread(runnable, "balance-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        cache = new RefreshingCache<>(balance.getCacheMaxSize(), balance.getRefreshAfterSeconds(),
+                balance.getExpireAfterSeconds(), TimeUnit.SECONDS, balanceProvider::getBalance, refreshExecutor);
+
+        metrics.gauge("telegram.balance.cache.size", "缓存的用户余额数", cache, RefreshingCache::size);
+        metrics.functionCounter("telegram.balance.cache.requests", "余额查询次数", cache,
+                RefreshingCache::getHitCount, "result", "hit");
+        metrics.functionCounter("telegram.balance.cache.requests", "余额查询次数", cache,
+                RefreshingCache::getStaleHitCount, "result", "stale");
+        metrics.functionCounter("telegram.balance.cache.requests", "余额查询次数", cache,
+                RefreshingCache::getMissCount, "result", "miss");
+        metrics.functionCounter("telegram.balance.cache.requests", "余额查询次数", cache,
+                RefreshingCache::getCoalescedCount, "result", "coalesced");
+        metrics.functionCounter("telegram.balance.load.failures", "余额数据源查询失败次数", cache,
+                RefreshingCache::getLoadFailureCount);
+
+        logger.info("余额缓存初始化完成: provider={}, maxSize={}, refreshAfter={}s, expireAfter={}s",
+                balanceProvider.getClass().getSimpleName(), balance.getCacheMaxSize(),
+                balance.getRefreshAfterSeconds(), balance.getExpireAfterSeconds());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 查询用户余额，优先返回缓存
+     *
+     * @throws RuntimeException 需要同步查询且数据源查询失败
+     */
+    public AccountBalance getBalance(long telegramUserId) {
+        return cache.get(telegramUserId);
+    }
+
+    /**
+     * 余额变动后使缓存失效，下次查询重新加载
+     */
+    public void invalidate(long telegramUserId) {
+        cache.invalidate(telegramUserId);
+    }
+}
@@ -0,0 +1,37 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.util.BindingCodeStore;
+
+import java.util.function.Consumer;
+
+/**
+ * 绑定码持久化适配器
+ * <p>
+ * {@link BindingService} 在生成和使用绑定码后由单个写线程按操作顺序调用（不持有绑定码存储的锁），
+ * 启动时通过 {@link #load} 恢复未过期的绑定码。
+ * 过期不单独通知，实现类在 {@link #compact} 时按当前内容重写即可丢弃过期数据。未配置实现时绑定码只保存在内存中。
+ */
+public interface BindingCodePersistence {
+
+    /**
+     * 载入保存的绑定码（可能含已过期的绑定码，由调用方过滤）
+     */
+    void load(BindingCodeStore.Visitor visitor);
+
+    /**
+     * 记录新生成的绑定码
+     */
+    void saved(String code, long telegramUserId, long expiresAt);
+
+    /**
+     * 记录已使用的绑定码
+     */
+    void removed(String code);
+
+    /**
+     * 按存储的当前内容重写持久化数据
+     *
+     * @param snapshot 遍历当前所有未过期绑定码
+     */
+    void compact(Consumer<BindingCodeStore.Visitor> snapshot);
+}
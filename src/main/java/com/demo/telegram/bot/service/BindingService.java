@@ -0,0 +1,239 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.util.BindingCodeStore;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 账户绑定服务
+ * <p>
+ * 用户在Bot中发送 /bind 获取一次性绑定码，在业务系统中提交该绑定码，业务系统通过
+ * POST /bot/rest/bind/redeem 换取对应的Telegram用户ID完成绑定。
+ * 绑定码保存在 {@link BindingCodeStore} 中，每秒推进一次时间轮移除过期的绑定码；
+ * 配置了 {@link BindingCodePersistence} 时，锁内只把记录按顺序放入写线程的队列，文件写入和重写都在锁外进行；
+ * 重启后恢复未过期的绑定码，进程崩溃时可能丢失队列中尚未写出的记录。
+ */
+@Service
+public class BindingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BindingService.class);
+
+    /**
+     * 追加的持久化记录超过该数量且超过存活绑定码的2倍时重写持久化数据
+     */
+    private static final int COMPACT_THRESHOLD = 10000;
+
+    /**
+     * 关闭时等待写线程写完队列中记录的时间
+     */
+    private static final long WRITER_SHUTDOWN_SECONDS = 10;
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    @Autowired
+    private ObjectProvider<BindingCodePersistence> persistenceProvider;
+
+    private BindingCodePersistence persistence;
+
+    private BindingCodeStore store;
+
+    private ScheduledExecutorService ticker;
+
+    /**
+     * 持久化写线程，未配置持久化时为null；任务在 store 锁内提交，执行顺序与锁内的操作顺序一致
+     */
+    private ExecutorService writer;
+
+    private long expirySeconds;
+
+    /**
+     * 以下计数均在 store 锁内修改
+     */
+    private long generated;
+
+    private long redeemed;
+
+    private long expired;
+
+    private long appendedSinceCompact;
+
+    @PostConstruct
+    public void init() {
+        TelegramBotConfig.BindingConfig binding = telegramBotConfig.getBinding();
+        expirySeconds = Duration.ofMinutes(binding.getCodeExpiryMinutes()).toSeconds();
+        long now = nowSecond();
+        store = new BindingCodeStore(binding.getCodeLengthMin(), binding.getCodeLengthMax(), now,
+                binding.getInitialCapacity());
+
+        persistence = persistenceProvider.getIfAvailable();
+        if (persistence != null) {
+            int[] skipped = new int[1];
+            persistence.load((code, telegramUserId, expiresAt) -> {
+                if (expiresAt <= now || !store.put(code, telegramUserId, expiresAt)) {
+                    skipped[0]++;
+                }
+            });
+            persistence.compact(store::forEach);
+            logger.info("绑定码已恢复: codes={}, skipped={}", store.size(), skipped[0]);
+
+            writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "binding-code-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binding-code-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+
+        metrics.gauge("telegram.binding.codes", "未过期的绑定码数", this, service -> service.size());
+        metrics.functionCounter("telegram.binding.codes.events", "绑定码事件数", this,
+                service -> service.generated, "event", "generated");
+        metrics.functionCounter("telegram.binding.codes.events", "绑定码事件数", this,
+                service -> service.redeemed, "event", "redeemed");
+        metrics.functionCounter("telegram.binding.codes.events", "绑定码事件数", this,
+                service -> service.expired, "event", "expired");
+
+        logger.info("绑定服务初始化完成: expiryMinutes={}, codeLength={}-{}, persistence={}",
+                binding.getCodeExpiryMinutes(), binding.getCodeLengthMin(), binding.getCodeLengthMax(),
+                persistence != null ? persistence.getClass().getSimpleName() : "none");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        if (persistence != null) {
+            synchronized (store) {
+                store.advance(nowSecond());
+                compact();
+                writer.shutdown();
+            }
+            try {
+                if (!writer.awaitTermination(WRITER_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warn("绑定码持久化未在{}秒内写完", WRITER_SHUTDOWN_SECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 为用户生成绑定码
+     */
+    public String generate(long telegramUserId) {
+        synchronized (store) {
+            long expiresAt = nowSecond() + expirySeconds;
+            String code = store.generate(telegramUserId, expiresAt);
+            generated++;
+            if (persistence != null) {
+                write(() -> persistence.saved(code, telegramUserId, expiresAt));
+                appendedSinceCompact++;
+            }
+            return code;
+        }
+    }
+
+    /**
+     * 使用绑定码，成功后绑定码失效
+     *
+     * @return 绑定码对应的Telegram用户ID，绑定码不存在或已过期时返回null
+     */
+    public Long redeem(String code) {
+        synchronized (store) {
+            long telegramUserId = store.redeem(code, nowSecond());
+            if (telegramUserId == BindingCodeStore.NOT_FOUND) {
+                return null;
+            }
+            redeemed++;
+            if (persistence != null) {
+                write(() -> persistence.removed(code));
+                appendedSinceCompact++;
+            }
+            return telegramUserId;
+        }
+    }
+
+    /**
+     * 绑定码有效期（分钟）
+     */
+    public long getExpiryMinutes() {
+        return TimeUnit.SECONDS.toMinutes(expirySeconds);
+    }
+
+    /**
+     * 未过期的绑定码数量
+     */
+    public int size() {
+        synchronized (store) {
+            return store.size();
+        }
+    }
+
+    private void tick() {
+        try {
+            synchronized (store) {
+                expired += store.advance(nowSecond());
+                if (persistence != null && appendedSinceCompact > COMPACT_THRESHOLD
+                        && appendedSinceCompact > 2L * store.size()) {
+                    compact();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("推进绑定码时间轮异常", e);
+        }
+    }
+
+    /**
+     * 在锁内复制当前内容，由写线程在之前排队的记录之后重写持久化数据
+     */
+    private void compact() {
+        BindingCodeStore.Snapshot snapshot = store.snapshot();
+        write(() -> persistence.compact(snapshot::forEach));
+        appendedSinceCompact = 0;
+    }
+
+    /**
+     * 在 store 锁内调用，保证写线程按操作顺序写入
+     */
+    private void write(Runnable record) {
+        try {
+            writer.execute(() -> {
+                try {
+                    record.run();
+                } catch (RuntimeException e) {
+                    logger.error("写入绑定码持久化数据异常", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 已关闭，之后生成的绑定码只保存在内存中
+            logger.debug("绑定码持久化写线程已关闭，忽略记录");
+        }
+    }
+
+    private static long nowSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
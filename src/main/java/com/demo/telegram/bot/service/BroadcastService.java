@@ -0,0 +1,471 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.client.TelegramApiException;
+import com.demo.telegram.bot.client.TelegramBotApiClient;
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.BroadcastJob;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * 群发服务
+ * <p>
+ * 每个任务由一个线程从 {@link SubscriberSource} 流式读取订阅者，交给 {@link TelegramBotApiClient} 的发送调度器，
+ * 全局和单聊天的频率限制（含429重试）由调度器统一执行。同时交给调度器的消息数不超过 max-in-flight：
+ * 调度器在全局限速下满速发送，而Webhook回复之前最多排着 max-in-flight 条群发消息。
+ * <p>
+ * 未发送完成的最小读取位置作为检查点随任务定期保存，重启后从检查点继续发送，不会从头重发。
+ * 网络错误和Telegram服务端错误延迟重试，403（用户屏蔽Bot）单独计数，其他错误计为失败。
+ */
+@Service
+public class BroadcastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastService.class);
+
+    private static final String JOB_SUFFIX = ".json";
+
+    /**
+     * 网络错误、Telegram服务端错误的重试次数和间隔
+     */
+    private static final int MAX_TRANSIENT_RETRIES = 3;
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotApiClient botApiClient;
+
+    @Autowired
+    private SubscriberSource subscriberSource;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Path directory;
+
+    /**
+     * 任务ID -> 任务，包括已结束的任务
+     */
+    private final Map<String, BroadcastJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 任务ID -> 正在发送的任务
+     */
+    private final Map<String, Runner> runners = new ConcurrentHashMap<>();
+
+    private final LongAdder sent = new LongAdder();
+
+    private final LongAdder blocked = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        TelegramBotConfig.BroadcastConfig config = telegramBotConfig.getBroadcast();
+        if (!config.isEnabled()) {
+            return;
+        }
+        directory = Path.of(config.getJobDirectory()).toAbsolutePath();
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().endsWith(JOB_SUFFIX)).toList()) {
+                BroadcastJob job = objectMapper.readValue(file.toFile(), BroadcastJob.class);
+                jobs.put(job.getId(), job);
+            }
+        }
+
+        metrics.functionCounter("telegram.broadcast.messages", "群发消息数", sent, LongAdder::sum, "result", "sent");
+        metrics.functionCounter("telegram.broadcast.messages", "群发消息数", blocked, LongAdder::sum,
+                "result", "blocked");
+        metrics.functionCounter("telegram.broadcast.messages", "群发消息数", failed, LongAdder::sum, "result", "failed");
+        metrics.gauge("telegram.broadcast.active", "正在发送的群发任务数", runners, Map::size);
+        logger.info("群发服务初始化完成: jobDirectory={}, jobs={}, maxInFlight={}",
+                directory, jobs.size(), config.getMaxInFlight());
+    }
+
+    /**
+     * 启动完成后继续发送上次未完成的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        for (BroadcastJob job : jobs.values()) {
+            if (job.getStatus() == BroadcastJob.Status.RUNNING) {
+                logger.info("继续发送群发任务: id={}, position={}", job.getId(), job.getPosition());
+                start(job);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        List<Runner> active = new ArrayList<>(runners.values());
+        for (Runner runner : active) {
+            runner.stopping = true;
+            runner.thread.interrupt();
+        }
+        for (Runner runner : active) {
+            runner.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * 创建群发任务并开始发送
+     *
+     * @param bot         发送消息的Bot ID
+     * @param subscribers 订阅者集合名称，调用方已确认存在
+     * @param text        消息正文（HTML格式）
+     */
+    public BroadcastJob create(String bot, String subscribers, String text) throws IOException {
+        BroadcastJob job = new BroadcastJob();
+        job.setId(UUID.randomUUID().toString().replace("-", "").substring(0, 16));
+        job.setBot(bot);
+        job.setSubscribers(subscribers);
+        job.setText(text);
+        job.setStatus(BroadcastJob.Status.RUNNING);
+        job.setTotal(subscriberSource.count(subscribers));
+        job.setCreatedAt(System.currentTimeMillis());
+        save(job);
+        jobs.put(job.getId(), job);
+        logger.info("创建群发任务: id={}, bot={}, subscribers={}, total={}", job.getId(), bot, subscribers,
+                job.getTotal());
+        start(job);
+        return job;
+    }
+
+    /**
+     * 取消正在发送的任务，已交给调度器的消息仍会发出
+     *
+     * @return 任务不存在时返回false
+     */
+    public boolean cancel(String id) {
+        if (!jobs.containsKey(id)) {
+            return false;
+        }
+        Runner runner = runners.get(id);
+        if (runner != null) {
+            runner.cancelled = true;
+            runner.thread.interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * 任务进度：已处理数、发送速率和预计剩余时间
+     *
+     * @return 任务不存在时返回null
+     */
+    public Map<String, Object> progress(String id) {
+        BroadcastJob job = jobs.get(id);
+        if (job == null) {
+            return null;
+        }
+        Runner runner = runners.get(id);
+        long sentCount = runner != null ? runner.sent.sum() : job.getSent();
+        long blockedCount = runner != null ? runner.blocked.sum() : job.getBlocked();
+        long failedCount = runner != null ? runner.failed.sum() : job.getFailed();
+        long processed = sentCount + blockedCount + failedCount;
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("id", job.getId());
+        progress.put("bot", job.getBot());
+        progress.put("subscribers", job.getSubscribers());
+        progress.put("status", job.getStatus());
+        progress.put("total", job.getTotal());
+        progress.put("processed", processed);
+        progress.put("sent", sentCount);
+        progress.put("blocked", blockedCount);
+        progress.put("failed", failedCount);
+        progress.put("percent", job.getTotal() > 0
+                ? Math.min(100.0, Math.round(processed * 1000.0 / job.getTotal()) / 10.0) : 100.0);
+        if (runner != null) {
+            double rate = runner.rate();
+            progress.put("messagesPerSecond", Math.round(rate * 10) / 10.0);
+            progress.put("etaSeconds", rate > 0 ? Math.round(Math.max(0, job.getTotal() - processed) / rate) : null);
+        }
+        progress.put("createdAt", job.getCreatedAt());
+        progress.put("startedAt", job.getStartedAt());
+        progress.put("finishedAt", job.getFinishedAt());
+        return progress;
+    }
+
+    /**
+     * 所有任务的进度，按创建时间倒序
+     */
+    public List<Map<String, Object>> progress() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparingLong(BroadcastJob::getCreatedAt).reversed())
+                .map(job -> progress(job.getId()))
+                .toList();
+    }
+
+    private void start(BroadcastJob job) {
+        Runner runner = new Runner(job, telegramBotConfig.getBroadcast());
+        runners.put(job.getId(), runner);
+        runner.thread.start();
+    }
+
+    /**
+     * 写入临时文件后原子替换
+     */
+    private synchronized void save(BroadcastJob job) {
+        Path file = directory.resolve(job.getId() + JOB_SUFFIX);
+        Path temp = directory.resolve(job.getId() + JOB_SUFFIX + ".tmp");
+        try {
+            objectMapper.writeValue(temp.toFile(), job);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("保存群发任务失败: id={}", job.getId(), e);
+        }
+    }
+
+    /**
+     * 单个订阅者的发送结果
+     */
+    private enum Result {
+        PENDING, SENT, BLOCKED, FAILED
+    }
+
+    /**
+     * 单个任务的发送线程
+     */
+    private final class Runner implements Runnable {
+
+        private final BroadcastJob job;
+
+        private final Thread thread;
+
+        private final int maxInFlight;
+
+        private final long checkpointIntervalNanos;
+
+        /**
+         * 限制同时交给调度器的消息数
+         */
+        private final Semaphore window;
+
+        /**
+         * 已交给调度器的订阅者的读取位置 -> 发送结果（未完成时为PENDING）
+         * 检查点从头部移出已完成的订阅者，遇到第一个未完成的订阅者为止
+         */
+        private final ConcurrentSkipListMap<Long, Result> inFlight = new ConcurrentSkipListMap<>();
+
+        /**
+         * 实时计数，包括检查点之后已完成的订阅者，用于查询进度和发送速率
+         */
+        private final LongAdder sent = new LongAdder();
+
+        private final LongAdder blocked = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        /**
+         * 检查点之前的订阅者的计数，与保存的位置一致，重启后从这里继续计数（只由任务线程访问）
+         */
+        private long checkpointSent;
+
+        private long checkpointBlocked;
+
+        private long checkpointFailed;
+
+        /**
+         * 本次运行开始时已处理的数量和时间，用于计算发送速率
+         */
+        private final long processedAtStart;
+
+        private final long startNanos = System.nanoTime();
+
+        /**
+         * 已读取到的位置
+         */
+        private long readPosition;
+
+        private volatile boolean cancelled;
+
+        private volatile boolean stopping;
+
+        private Runner(BroadcastJob job, TelegramBotConfig.BroadcastConfig config) {
+            this.job = job;
+            this.maxInFlight = Math.max(1, config.getMaxInFlight());
+            this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getCheckpointIntervalMillis()));
+            this.window = new Semaphore(maxInFlight);
+            this.readPosition = job.getPosition();
+            this.checkpointSent = job.getSent();
+            this.checkpointBlocked = job.getBlocked();
+            this.checkpointFailed = job.getFailed();
+            sent.add(checkpointSent);
+            blocked.add(checkpointBlocked);
+            failed.add(checkpointFailed);
+            this.processedAtStart = job.getSent() + job.getBlocked() + job.getFailed();
+            this.thread = new Thread(this, "broadcast-" + job.getId());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            if (job.getStartedAt() == null) {
+                job.setStartedAt(System.currentTimeMillis());
+            }
+            BroadcastJob.Status status = BroadcastJob.Status.COMPLETED;
+            long lastCheckpoint = System.nanoTime();
+            try (SubscriberSource.Cursor cursor = subscriberSource.open(job.getSubscribers(), job.getPosition())) {
+                while (!cancelled && !stopping) {
+                    long position = cursor.position();
+                    if (!cursor.next()) {
+                        break;
+                    }
+                    // 等待窗口空出期间按间隔保存检查点
+                    while (!window.tryAcquire(checkpointIntervalNanos, TimeUnit.NANOSECONDS)) {
+                        checkpoint();
+                        lastCheckpoint = System.nanoTime();
+                    }
+                    // 先登记再推进读取位置，检查点不会越过未完成的订阅者
+                    inFlight.put(position, Result.PENDING);
+                    readPosition = cursor.position();
+                    send(cursor.chatId(), position, 0);
+                    if (System.nanoTime() - lastCheckpoint >= checkpointIntervalNanos) {
+                        checkpoint();
+                        lastCheckpoint = System.nanoTime();
+                    }
+                }
+                // 等待已交给调度器的消息发送完成
+                while (!window.tryAcquire(maxInFlight, checkpointIntervalNanos, TimeUnit.NANOSECONDS)) {
+                    checkpoint();
+                }
+            } catch (InterruptedException e) {
+                // 取消或停止：已交给调度器的消息由调度器继续发送或在停止时失败，检查点不越过它们
+            } catch (IOException | RuntimeException e) {
+                logger.error("群发任务读取订阅者失败: id={}, subscribers={}", job.getId(), job.getSubscribers(), e);
+                status = BroadcastJob.Status.FAILED;
+            } finally {
+                if (cancelled) {
+                    status = BroadcastJob.Status.CANCELLED;
+                } else if (stopping) {
+                    // 进程停止，重启后继续发送
+                    status = BroadcastJob.Status.RUNNING;
+                }
+                job.setStatus(status);
+                if (status != BroadcastJob.Status.RUNNING) {
+                    job.setFinishedAt(System.currentTimeMillis());
+                }
+                checkpoint();
+                runners.remove(job.getId());
+                logger.info("群发任务结束: id={}, status={}, sent={}, blocked={}, failed={}",
+                        job.getId(), status, sent.sum(), blocked.sum(), failed.sum());
+            }
+        }
+
+        private void send(long chatId, long position, int attempt) {
+            botApiClient.send(job.getBot(), TelegramBotResponse.sendMessage(chatId, job.getText()))
+                    .whenComplete((result, error) -> onComplete(chatId, position, attempt, error));
+        }
+
+        private void onComplete(long chatId, long position, int attempt, Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            Result result;
+            if (cause == null) {
+                result = Result.SENT;
+                sent.increment();
+                BroadcastService.this.sent.increment();
+            } else if (cause instanceof TelegramApiException apiException && apiException.getErrorCode() == 403) {
+                result = Result.BLOCKED;
+                blocked.increment();
+                BroadcastService.this.blocked.increment();
+            } else if (cause instanceof IllegalStateException && stopping) {
+                // 调度器已停止，保留在未完成集合中，重启后重新发送
+                window.release();
+                return;
+            } else if (isTransient(cause) && attempt < MAX_TRANSIENT_RETRIES && !stopping) {
+                CompletableFuture.delayedExecutor(RETRY_DELAY_MILLIS * (attempt + 1), TimeUnit.MILLISECONDS)
+                        .execute(() -> send(chatId, position, attempt + 1));
+                return;
+            } else {
+                result = Result.FAILED;
+                failed.increment();
+                BroadcastService.this.failed.increment();
+                logger.debug("群发消息发送失败: id={}, chatId={}, error={}", job.getId(), chatId, cause.toString());
+            }
+            inFlight.put(position, result);
+            window.release();
+        }
+
+        /**
+         * 保存检查点：最小的未完成位置，没有未完成的订阅者时为已读取到的位置
+         * <p>
+         * 保存的计数只包含该位置之前的订阅者。之后已完成的订阅者重启后会重新发送，届时再计数，不会重复计入。
+         */
+        private void checkpoint() {
+            long read = readPosition;
+            Map.Entry<Long, Result> first;
+            // 已完成的条目不再被修改，从头部移出并计入检查点
+            while ((first = inFlight.firstEntry()) != null && first.getValue() != Result.PENDING) {
+                switch (first.getValue()) {
+                    case SENT -> checkpointSent++;
+                    case BLOCKED -> checkpointBlocked++;
+                    default -> checkpointFailed++;
+                }
+                inFlight.remove(first.getKey());
+            }
+            job.setPosition(first != null ? first.getKey() : read);
+            job.setSent(checkpointSent);
+            job.setBlocked(checkpointBlocked);
+            job.setFailed(checkpointFailed);
+            save(job);
+        }
+
+        /**
+         * 本次运行的平均发送速率（条/秒）
+         */
+        private double rate() {
+            long processed = sent.sum() + blocked.sum() + failed.sum() - processedAtStart;
+            long elapsed = System.nanoTime() - startNanos;
+            return elapsed > 0 ? processed * 1e9 / elapsed : 0;
+        }
+
+        /**
+         * 网络错误（无错误码）、Telegram服务端错误
+         */
+        private boolean isTransient(Throwable cause) {
+            if (cause instanceof TelegramApiException apiException) {
+                return apiException.getErrorCode() == 0 || apiException.getErrorCode() >= 500;
+            }
+            return cause instanceof IOException;
+        }
+    }
+}
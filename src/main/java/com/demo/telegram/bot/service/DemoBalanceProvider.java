@@ -0,0 +1,43 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.AccountBalance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 模拟余额数据源 - Demo版本
+ * 生成随机余额，可配置模拟的查询延迟用于观察缓存效果
+ */
+@Component
+public class DemoBalanceProvider implements BalanceProvider {
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Override
+    public AccountBalance getBalance(long telegramUserId) {
+        long latencyMillis = telegramBotConfig.getBalance().getDemoLatencyMillis();
+        if (latencyMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("余额查询被中断", e);
+            }
+        }
+
+        // 以分为单位生成，保留两位小数
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new AccountBalance(
+                telegramUserId,
+                BigDecimal.valueOf(random.nextLong(10_000_000), 2),
+                BigDecimal.valueOf(random.nextLong(1_000_000), 2),
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,169 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.util.BindingCodeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 基于本地文件的绑定码持久化
+ * <p>
+ * 生成和使用绑定码时向文件追加一条记录，启动时按顺序重放得到未使用的绑定码，随后写入临时文件并原子替换，
+ * 文件大小只与未过期的绑定码数量有关。进程崩溃时最后一条记录可能不完整，重放到该处为止。
+ * 配置 telegram.bot.binding.persistence-file 后启用。
+ */
+@Component
+@ConditionalOnProperty(prefix = "telegram.bot.binding", name = "persistence-file")
+public class FileBindingCodePersistence implements BindingCodePersistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileBindingCodePersistence.class);
+
+    private static final byte SAVED = 'S';
+
+    private static final byte REMOVED = 'R';
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    private Path file;
+
+    private DataOutputStream output;
+
+    @PostConstruct
+    public void init() throws IOException {
+        file = Path.of(telegramBotConfig.getBinding().getPersistenceFile()).toAbsolutePath();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        logger.info("绑定码持久化文件: {}", file);
+    }
+
+    @Override
+    public synchronized void load(BindingCodeStore.Visitor visitor) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        Map<String, long[]> codes = new LinkedHashMap<>();
+        int records = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                byte type = input.readByte();
+                String code = input.readUTF();
+                if (type == SAVED) {
+                    codes.put(code, new long[]{input.readLong(), input.readLong()});
+                } else if (type == REMOVED) {
+                    codes.remove(code);
+                } else {
+                    logger.warn("绑定码持久化文件损坏，停止重放: records={}", records);
+                    break;
+                }
+                records++;
+            }
+        } catch (EOFException e) {
+            // 文件结束或最后一条记录不完整
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取绑定码持久化文件失败: " + file, e);
+        }
+        codes.forEach((code, value) -> visitor.visit(code, value[0], value[1]));
+        logger.info("绑定码持久化文件重放完成: records={}, codes={}", records, codes.size());
+    }
+
+    @Override
+    public synchronized void saved(String code, long telegramUserId, long expiresAt) {
+        try {
+            DataOutputStream out = output();
+            out.writeByte(SAVED);
+            out.writeUTF(code);
+            out.writeLong(telegramUserId);
+            out.writeLong(expiresAt);
+            out.flush();
+        } catch (IOException e) {
+            logger.error("写入绑定码持久化文件失败", e);
+        }
+    }
+
+    @Override
+    public synchronized void removed(String code) {
+        try {
+            DataOutputStream out = output();
+            out.writeByte(REMOVED);
+            out.writeUTF(code);
+            out.flush();
+        } catch (IOException e) {
+            logger.error("写入绑定码持久化文件失败", e);
+        }
+    }
+
+    @Override
+    public synchronized void compact(Consumer<BindingCodeStore.Visitor> snapshot) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int[] count = new int[1];
+        try {
+            closeOutput();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                IOException[] failure = new IOException[1];
+                snapshot.accept((code, telegramUserId, expiresAt) -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        out.writeByte(SAVED);
+                        out.writeUTF(code);
+                        out.writeLong(telegramUserId);
+                        out.writeLong(expiresAt);
+                        count[0]++;
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                });
+                if (failure[0] != null) {
+                    throw failure[0];
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("绑定码持久化文件已重写: codes={}", count[0]);
+        } catch (IOException e) {
+            logger.error("重写绑定码持久化文件失败", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        closeOutput();
+    }
+
+    private DataOutputStream output() throws IOException {
+        if (output == null) {
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        }
+        return output;
+    }
+
+    private void closeOutput() throws IOException {
+        if (output != null) {
+            output.close();
+            output = null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * 基于本地文件的订阅者数据源
+ * <p>
+ * 每个集合是 subscriber-directory 下的一个文本文件 {名称}.txt，每行一个chat_id（群组为负数），
+ * 空行和以 # 开头的行忽略。由业务系统按订阅关系导出，按字节流式解析，内存占用与集合大小无关；
+ * 游标位置为文件中的字节偏移量。
+ */
+@Component
+public class FileSubscriberSource implements SubscriberSource {
+
+    /**
+     * 集合名称只允许字母、数字、下划线和连字符，避免访问目录之外的文件
+     */
+    private static final Pattern SET_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    private Path directory;
+
+    @PostConstruct
+    public void init() {
+        directory = Path.of(telegramBotConfig.getBroadcast().getSubscriberDirectory()).toAbsolutePath();
+    }
+
+    @Override
+    public boolean exists(String set) {
+        return set != null && SET_NAME.matcher(set).matches() && Files.isRegularFile(file(set));
+    }
+
+    @Override
+    public long count(String set) throws IOException {
+        long count = 0;
+        try (Cursor cursor = open(set, 0)) {
+            while (cursor.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Cursor open(String set, long position) throws IOException {
+        if (!exists(set)) {
+            throw new IOException("Subscriber set not found: " + set);
+        }
+        FileChannel channel = FileChannel.open(file(set), StandardOpenOption.READ);
+        channel.position(position);
+        return new FileCursor(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE), position);
+    }
+
+    private Path file(String set) {
+        return directory.resolve(set + ".txt");
+    }
+
+    /**
+     * 逐字节解析的游标，行内只允许可选的负号和数字，其他内容的行跳过
+     */
+    private static final class FileCursor implements Cursor {
+
+        private final InputStream input;
+
+        private long position;
+
+        private long chatId;
+
+        private FileCursor(InputStream input, long position) {
+            this.input = input;
+            this.position = position;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (true) {
+                long value = 0;
+                int digits = 0;
+                boolean negative = false;
+                boolean valid = true;
+                boolean comment = false;
+                int c;
+                while ((c = input.read()) != -1) {
+                    position++;
+                    if (c == '\n') {
+                        break;
+                    }
+                    if (comment || c == '\r' || c == ' ' || c == '\t') {
+                        continue;
+                    }
+                    if (c == '#' && digits == 0 && !negative) {
+                        comment = true;
+                    } else if (c == '-' && digits == 0 && !negative) {
+                        negative = true;
+                    } else if (c >= '0' && c <= '9' && digits < 19) {
+                        value = value * 10 + (c - '0');
+                        digits++;
+                    } else {
+                        valid = false;
+                    }
+                }
+                if (valid && !comment && digits > 0) {
+                    chatId = negative ? -value : value;
+                    return true;
+                }
+                if (c == -1) {
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public long chatId() {
+            return chatId;
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
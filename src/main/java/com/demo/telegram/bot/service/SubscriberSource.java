@@ -0,0 +1,53 @@
+package com.demo.telegram.bot.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 群发的订阅者数据源
+ * <p>
+ * 订阅者集合按名称区分，以游标顺序读取，不需要一次载入全部订阅者。游标位置是不透明的long值，
+ * {@link BroadcastService} 把它作为进度保存，重启后从该位置继续读取。
+ */
+public interface SubscriberSource {
+
+    /**
+     * 集合是否存在
+     */
+    boolean exists(String set);
+
+    /**
+     * 统计集合中的订阅者数量（用于进度和预计剩余时间）
+     */
+    long count(String set) throws IOException;
+
+    /**
+     * 从指定位置开始读取集合
+     *
+     * @param position 起始位置，0表示从头读取
+     */
+    Cursor open(String set, long position) throws IOException;
+
+    /**
+     * 订阅者游标
+     */
+    interface Cursor extends Closeable {
+
+        /**
+         * 读取下一个订阅者
+         *
+         * @return 已读完时返回false
+         */
+        boolean next() throws IOException;
+
+        /**
+         * 当前订阅者的chat_id
+         */
+        long chatId();
+
+        /**
+         * 下一个订阅者的位置，当前订阅者处理完后从这里继续
+         */
+        long position();
+    }
+}
@@ -0,0 +1,250 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.handler.CommandDefinition;
+import com.demo.telegram.bot.handler.TelegramCommandHandlerFactory;
+import com.demo.telegram.bot.util.IpAllowList;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.TokenBucketRateLimiter;
+import com.demo.telegram.bot.util.UpdateIdDeduplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个Bot的运行时上下文
+ * <p>
+ * 由 {@link TelegramBotRegistry} 在启动时按配置创建，包含该Bot的密钥、IP白名单、启用的命令，以及独立的
+ * 去重窗口、限流器、异步排队配额和指标。除排队计数外创建后只读，请求路径上直接读取字段，不加锁。
+ */
+public class TelegramBotContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramBotContext.class);
+
+    private final int index;
+
+    private final String id;
+
+    private final String botToken;
+
+    private final String botUsername;
+
+    private final String secretToken;
+
+    private final IpAllowList ipAllowList;
+
+    /**
+     * IP维度限流器，未配置时为null
+     */
+    private final TokenBucketRateLimiter ipRateLimiter;
+
+    /**
+     * 用户维度限流器，未配置时为null
+     */
+    private final TokenBucketRateLimiter userRateLimiter;
+
+    /**
+     * (用户, 命令) 维度限流器，按命令下标索引，未配置的命令为null；没有任何命令配置时为null
+     */
+    private final TokenBucketRateLimiter[] commandRateLimiters;
+
+    private final UpdateIdDeduplicator updateIdDeduplicator;
+
+    /**
+     * 命令下标 -> 实际处理的命令，未启用的命令映射为兜底处理器
+     */
+    private final CommandDefinition[] routes;
+
+    private final String helpListing;
+
+    private final Map<String, Object> myCommands;
+
+    private final TelegramBotMetrics.BotMeters meters;
+
+    /**
+     * 最多排队的update数，不大于0表示不限制
+     */
+    private final int queueCapacity;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    TelegramBotContext(int index, String id, TelegramBotConfig.BotConfig config, TelegramBotConfig defaults,
+                       TelegramCommandHandlerFactory commandHandlerFactory, TelegramBotMetrics metrics) {
+        this.index = index;
+        this.id = id;
+        this.botToken = config.getBotToken();
+        this.botUsername = config.getBotUsername();
+        this.secretToken = config.getSecretToken();
+        this.ipAllowList = IpAllowList.compile(
+                config.getAllowedIps() != null ? config.getAllowedIps() : defaults.getAllowedIps());
+
+        TelegramBotConfig.RateLimitConfig rateLimit =
+                config.getRateLimit() != null ? config.getRateLimit() : defaults.getRateLimit();
+        this.ipRateLimiter = rateLimit.getIpRequestsPerMinute() > 0
+                ? new TokenBucketRateLimiter(rateLimit.getIpRequestsPerMinute(), 1, TimeUnit.MINUTES) : null;
+        this.userRateLimiter = rateLimit.getUserRequestsPerMinute() > 0
+                ? new TokenBucketRateLimiter(rateLimit.getUserRequestsPerMinute(), 1, TimeUnit.MINUTES) : null;
+
+        List<CommandDefinition> definitions = commandHandlerFactory.getDefinitions();
+        CommandDefinition fallback = commandHandlerFactory.getFallback();
+        this.routes = definitions.toArray(new CommandDefinition[0]);
+        List<CommandDefinition> enabled = new ArrayList<>(definitions);
+        if (!config.getCommands().isEmpty()) {
+            Arrays.fill(routes, fallback);
+            enabled.clear();
+            for (String name : config.getCommands()) {
+                CommandDefinition definition = commandHandlerFactory.find(name);
+                if (definition == null) {
+                    throw new IllegalStateException("Unknown command '" + name + "' enabled for bot " + id);
+                }
+                routes[definition.index()] = definition;
+            }
+            for (CommandDefinition definition : definitions) {
+                if (routes[definition.index()] == definition) {
+                    enabled.add(definition);
+                }
+            }
+        }
+        this.helpListing = commandHandlerFactory.helpListingOf(enabled);
+        this.myCommands = commandHandlerFactory.myCommandsOf(enabled);
+
+        TokenBucketRateLimiter[] limiters = new TokenBucketRateLimiter[definitions.size()];
+        List<String> limited = new ArrayList<>();
+        rateLimit.getCommands().forEach((command, limit) -> {
+            // 未知命令统一由兜底处理器处理，可以用其名称配置
+            CommandDefinition definition = TelegramCommandHandlerFactory.FALLBACK_NAME.equals(command)
+                    ? fallback : commandHandlerFactory.find(command);
+            if (definition == null) {
+                logger.warn("忽略未知命令的频率限制配置: bot={}, command={}", id, command);
+                return;
+            }
+            if (limit.getMaxRequests() > 0 && limit.getTimeWindow() > 0) {
+                limiters[definition.index()] =
+                        new TokenBucketRateLimiter(limit.getMaxRequests(), limit.getTimeWindow(), TimeUnit.MINUTES);
+                limited.add(definition.name());
+            }
+        });
+        this.commandRateLimiters = limited.isEmpty() ? null : limiters;
+
+        TelegramBotConfig.AntiReplayConfig antiReplay =
+                config.getAntiReplay() != null ? config.getAntiReplay() : defaults.getAntiReplay();
+        this.updateIdDeduplicator = new UpdateIdDeduplicator(antiReplay.getWindowSize(), antiReplay.getOverflowSize());
+        this.queueCapacity = defaults.getAsync().getBotQueueCapacity();
+        this.meters = metrics.botMeters(id);
+
+        if (ipAllowList.isEmpty()) {
+            logger.warn("Bot {} 未配置IP白名单，Webhook请求将跳过IP验证", id);
+        }
+        logger.info("Bot上下文初始化完成: bot={}, commands={}, allowedIpRanges={}, ipRequestsPerMinute={}, "
+                        + "userRequestsPerMinute={}, commandRateLimits={}, antiReplayWindow={}",
+                id, enabled.stream().map(CommandDefinition::name).toList(), ipAllowList.size(),
+                rateLimit.getIpRequestsPerMinute(), rateLimit.getUserRequestsPerMinute(), limited,
+                updateIdDeduplicator.getWindowSize());
+    }
+
+    /**
+     * 按启用的命令转换查找结果，未启用的命令返回兜底处理器
+     */
+    public CommandDefinition route(CommandDefinition definition) {
+        return routes[definition.index()];
+    }
+
+    /**
+     * 占用一个异步排队配额
+     *
+     * @return 该Bot排队的update已达上限时返回false
+     */
+    public boolean tryAcquireQueueSlot() {
+        if (queued.incrementAndGet() > queueCapacity && queueCapacity > 0) {
+            queued.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 释放 {@link #tryAcquireQueueSlot()} 占用的配额
+     */
+    public void releaseQueueSlot() {
+        queued.decrementAndGet();
+    }
+
+    /**
+     * 注册顺序下标，默认Bot为0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getBotToken() {
+        return botToken;
+    }
+
+    public String getBotUsername() {
+        return botUsername;
+    }
+
+    public String getSecretToken() {
+        return secretToken;
+    }
+
+    public IpAllowList getIpAllowList() {
+        return ipAllowList;
+    }
+
+    public TokenBucketRateLimiter getIpRateLimiter() {
+        return ipRateLimiter;
+    }
+
+    public TokenBucketRateLimiter getUserRateLimiter() {
+        return userRateLimiter;
+    }
+
+    public TokenBucketRateLimiter[] getCommandRateLimiters() {
+        return commandRateLimiters;
+    }
+
+    public UpdateIdDeduplicator getUpdateIdDeduplicator() {
+        return updateIdDeduplicator;
+    }
+
+    /**
+     * /help 中的命令列表（该Bot启用的命令）
+     */
+    public String getHelpListing() {
+        return helpListing;
+    }
+
+    /**
+     * 该Bot的 setMyCommands 请求体
+     */
+    public Map<String, Object> getMyCommands() {
+        return myCommands;
+    }
+
+    public TelegramBotMetrics.BotMeters getMeters() {
+        return meters;
+    }
+
+    /**
+     * 当前排队的update数
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
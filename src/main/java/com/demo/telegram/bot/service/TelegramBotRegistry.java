@@ -0,0 +1,113 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.handler.TelegramCommandHandlerFactory;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Bot注册表
+ * <p>
+ * 同一进程中运行多个Bot：顶层配置为默认Bot（ID为 {@value TelegramBotConfig#DEFAULT_BOT_ID}），
+ * telegram.bot.bots 下每项为一个独立的Bot。启动时为每个Bot创建 {@link TelegramBotContext}，
+ * 之后注册表只读，按Bot ID查找是一次不可变哈希表查询，不加锁。
+ */
+@Service
+public class TelegramBotRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramBotRegistry.class);
+
+    /**
+     * Bot ID用作URL路径和指标标签，只允许字母、数字、下划线和连字符
+     */
+    private static final Pattern BOT_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramCommandHandlerFactory commandHandlerFactory;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    private Map<String, TelegramBotContext> botsById;
+
+    /**
+     * 按注册顺序排列，默认Bot在最前
+     */
+    private List<TelegramBotContext> bots;
+
+    private TelegramBotContext defaultBot;
+
+    @PostConstruct
+    public void init() {
+        TelegramBotConfig.BotConfig defaults = new TelegramBotConfig.BotConfig();
+        defaults.setBotToken(telegramBotConfig.getBotToken());
+        defaults.setBotUsername(telegramBotConfig.getBotUsername());
+        defaults.setSecretToken(telegramBotConfig.getSecretToken());
+
+        List<TelegramBotContext> contexts = new ArrayList<>();
+        defaultBot = create(contexts, TelegramBotConfig.DEFAULT_BOT_ID, defaults);
+        telegramBotConfig.getBots().forEach((botId, config) -> {
+            if (!BOT_ID.matcher(botId).matches()) {
+                throw new IllegalStateException("Invalid bot id: " + botId);
+            }
+            if (TelegramBotConfig.DEFAULT_BOT_ID.equals(botId)) {
+                throw new IllegalStateException("Bot id '" + botId + "' is reserved for the top-level bot");
+            }
+            create(contexts, botId, config);
+        });
+
+        Map<String, TelegramBotContext> byId = new HashMap<>();
+        for (TelegramBotContext context : contexts) {
+            byId.put(context.getId(), context);
+            metrics.gauge("telegram.bot.queued", "各Bot异步排队的update数", context, TelegramBotContext::getQueued,
+                    "bot", context.getId());
+        }
+        botsById = Map.copyOf(byId);
+        bots = List.copyOf(contexts);
+        logger.info("Bot注册表初始化完成: bots={}", bots);
+    }
+
+    private TelegramBotContext create(List<TelegramBotContext> contexts, String botId,
+                                      TelegramBotConfig.BotConfig config) {
+        TelegramBotContext context = new TelegramBotContext(contexts.size(), botId, config, telegramBotConfig,
+                commandHandlerFactory, metrics);
+        contexts.add(context);
+        return context;
+    }
+
+    /**
+     * 按Bot ID查找
+     *
+     * @return 未配置时返回null
+     */
+    public TelegramBotContext get(String botId) {
+        return botId != null ? botsById.get(botId) : null;
+    }
+
+    /**
+     * 默认Bot（顶层配置），/bot/rest/webhook 和长轮询使用
+     */
+    public TelegramBotContext getDefault() {
+        return defaultBot;
+    }
+
+    /**
+     * 所有Bot，默认Bot在最前
+     */
+    public List<TelegramBotContext> getBots() {
+        return bots;
+    }
+}
@@ -1,15 +1,31 @@
 package com.demo.telegram.bot.service;
 
+import com.demo.telegram.bot.client.TelegramBotApiClient;
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.handler.CommandDefinition;
 import com.demo.telegram.bot.handler.TelegramCommandHandlerFactory;
 import com.demo.telegram.bot.model.TelegramBotResponse;
-import com.demo.telegram.bot.model.TelegramOperationType;
-import com.demo.telegram.bot.util.TelegramWebhookValidator;
-import com.alibaba.fastjson.JSONObject;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.model.TelegramUpdateEvent;
+import com.demo.telegram.bot.util.ChatLaneExecutor;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.UpdateEventLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Telegram Bot Webhook处理服务 - 简化版本
  */
@@ -19,24 +35,194 @@ public class TelegramBotWebhookService {
     private static final Logger logger = LoggerFactory.getLogger(TelegramBotWebhookService.class);
 
     @Autowired
-    private TelegramWebhookValidator webhookValidator;
+    private TelegramCommandHandlerFactory commandHandlerFactory;
 
     @Autowired
-    private TelegramCommandHandlerFactory commandHandlerFactory;
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotApiClient botApiClient;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    @Autowired
+    private UpdateEventLogger updateEventLogger;
+
+    @Autowired
+    private TelegramBotRegistry botRegistry;
+
+    @Autowired
+    private UpdateJournalService updateJournalService;
+
+    /**
+     * 按聊天分区的工作线程池，异步模式或长轮询启用时才创建
+     */
+    private ExecutorService laneWorkers;
+
+    private ChatLaneExecutor chatLaneExecutor;
+
+    @PostConstruct
+    public void init() {
+        metrics.gauge("telegram.send.pending", "等待发送的Bot API回复数", botApiClient,
+                TelegramBotApiClient::getPendingSends);
+
+        TelegramBotConfig.AsyncConfig async = telegramBotConfig.getAsync();
+        if (!async.isEnabled() && !telegramBotConfig.getPolling().isEnabled()) {
+            return;
+        }
+
+        if (async.isVirtualThreads()) {
+            laneWorkers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("telegram-lane-", 0).factory());
+        } else {
+            AtomicInteger counter = new AtomicInteger();
+            laneWorkers = Executors.newFixedThreadPool(Math.max(1, async.getWorkerThreads()), runnable -> {
+                Thread thread = new Thread(runnable, "telegram-lane-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        chatLaneExecutor = new ChatLaneExecutor(laneWorkers, async.getMailboxCapacity(), async.getQueueCapacity(),
+                this::discard);
+        metrics.gauge("telegram.lanes.depth", "聊天分区排队的update总数", chatLaneExecutor,
+                ChatLaneExecutor::getTotalDepth);
+        metrics.gauge("telegram.lanes.active", "有排队update的聊天分区数", chatLaneExecutor,
+                ChatLaneExecutor::getLaneCount);
+        logger.info("聊天分区执行器初始化完成: workerThreads={}, virtualThreads={}, mailboxCapacity={}, queueCapacity={}",
+                async.getWorkerThreads(), async.isVirtualThreads(), async.getMailboxCapacity(), async.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (laneWorkers == null) {
+            return;
+        }
+        laneWorkers.shutdown();
+        if (!laneWorkers.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("聊天分区执行器关闭超时，剩余排队update: {}", chatLaneExecutor.getTotalDepth());
+            laneWorkers.shutdownNow();
+        }
+        // 已提交但不再执行的邮箱中的任务，结束其处理结果
+        int discarded = chatLaneExecutor.discardAll();
+        if (discarded > 0) {
+            logger.warn("聊天分区执行器已停止，丢弃排队update: {}", discarded);
+        }
+    }
+
+    /**
+     * 按聊天分区异步处理update并通过Bot API回复
+     * 同一聊天的update严格按提交顺序处理，不同聊天并行处理
+     * 入队成功后由工作线程在处理结束时输出该update的处理日志
+     *
+     * @param bot 接收update的Bot，回复以该Bot的身份发送
+     * @return 处理结果；聊天队列、总队列或该Bot的排队配额已满时返回null
+     */
+    public CompletableFuture<TelegramBotResponse> dispatch(TelegramBotContext bot, TelegramUpdate update,
+                                                           TelegramUpdateEvent event) {
+        if (!bot.tryAcquireQueueSlot()) {
+            return null;
+        }
+        LaneTask task = new LaneTask(bot, update, event);
+        if (!chatLaneExecutor.execute(laneKey(bot, update), task)) {
+            bot.releaseQueueSlot();
+            return null;
+        }
+        return task.future;
+    }
+
+    /**
+     * 已入队但未执行就被移出聊天分区的任务（DROP_OLDEST策略、执行器关闭）：归还排队配额，
+     * 以 {@link RejectedExecutionException} 结束其处理结果，并把日志中的记录标记为完成
+     */
+    private void discard(Runnable task) {
+        if (task instanceof LaneTask laneTask) {
+            laneTask.bot.releaseQueueSlot();
+            laneTask.event.setOutcome(TelegramBotMetrics.Outcome.OVERLOADED);
+            laneTask.future.completeExceptionally(new RejectedExecutionException(
+                    "Update dropped from chat lane: bot=" + laneTask.bot.getId() + ", updateId="
+                            + laneTask.update.updateId()));
+            updateJournalService.complete(laneTask.event.getJournalOffset());
+            updateEventLogger.log(laneTask.event);
+        }
+    }
+
+    /**
+     * update所属的执行分区：聊天ID，没有聊天的update（如内联查询）按用户分区
+     * 同一用户与不同Bot的私聊chat_id相同，分区键混入Bot下标，避免不同Bot的update排在同一分区
+     */
+    public static long laneKey(TelegramBotContext bot, TelegramUpdate update) {
+        long key;
+        if (update.chatId() != null) {
+            key = update.chatId();
+        } else {
+            key = update.userId() != null ? update.userId() : 0L;
+        }
+        return key ^ ((long) bot.getIndex() << 48);
+    }
+
+    /**
+     * 聊天分区执行器，未启用异步模式和长轮询时为null
+     */
+    public ChatLaneExecutor getChatLaneExecutor() {
+        return chatLaneExecutor;
+    }
+
+    /**
+     * 处理update并通过Bot API发送回复（异步模式、长轮询等不经过Webhook响应回复的场景）
+     * 回复由发送调度器按频率限制异步发出，不阻塞当前线程
+     */
+    public TelegramBotResponse processAndReply(TelegramBotContext bot, TelegramUpdate update, TelegramUpdateEvent event) {
+        TelegramBotResponse response = processWebhook(bot, update, event);
+        if (response.getMethod() == null) {
+            return response;
+        }
+        botApiClient.send(bot.getId(), response).whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("发送Telegram回复失败: bot={}, updateId={}, method={}",
+                        bot.getId(), update.updateId(), response.getMethod(), error);
+            }
+        });
+        return response;
+    }
+
+    /**
+     * 处理发给默认Bot的Telegram Webhook请求
+     */
+    public TelegramBotResponse processWebhook(TelegramUpdate update) {
+        return processWebhook(botRegistry.getDefault(), update, null);
+    }
+
+    /**
+     * 处理Telegram Webhook请求，并把命令类型、处理耗时和回复方法记录到处理记录中
+     *
+     * @param bot   接收update的Bot，只分发该Bot启用的命令
+     * @param event update处理记录，可为null
+     */
+    public TelegramBotResponse processWebhook(TelegramBotContext bot, TelegramUpdate update, TelegramUpdateEvent event) {
+        return processWebhook(bot, update, event, false);
+    }
 
     /**
      * 处理Telegram Webhook请求
+     *
+     * @param dryRun 是否为重放：命令处理器不产生副作用（见 {@link com.demo.telegram.bot.handler.TelegramCommandHandler#handleDryRun}）
      */
-    public TelegramBotResponse processWebhook(JSONObject webhook) {
+    public TelegramBotResponse processWebhook(TelegramBotContext bot, TelegramUpdate update, TelegramUpdateEvent event,
+                                              boolean dryRun) {
         Long telegramUserId = null;
-        TelegramOperationType operationType = TelegramOperationType.INVALID;
+        String commandName = null;
         long startTime = System.currentTimeMillis();
 
         try {
-            // 提取用户ID、聊天ID和消息文本
-            telegramUserId = webhookValidator.extractTelegramUserId(webhook);
-            Long chatId = webhookValidator.extractChatId(webhook);
-            String messageText = webhookValidator.extractMessageText(webhook);
+            // 只处理新消息和回调查询
+            if (!update.isCommandSource()) {
+                return TelegramBotResponse.empty();
+            }
+
+            // 用户ID、聊天ID和消息文本已在解码时提取
+            telegramUserId = update.userId();
+            Long chatId = update.chatId();
+            String messageText = update.text();
 
             if (telegramUserId == null) {
                 logger.warn("无法提取Telegram用户ID");
@@ -48,55 +234,111 @@ public class TelegramBotWebhookService {
                 return TelegramBotResponse.empty();
             }
 
-            if (messageText == null || messageText.trim().isEmpty()) {
-                logger.info("收到空消息，忽略处理");
+            if (messageText == null || messageText.isBlank()) {
+                logger.debug("收到空消息，忽略处理");
                 return TelegramBotResponse.empty();
             }
 
-            messageText = messageText.trim();
-
-            // 只处理命令消息（以/开头）
-            if (!messageText.startsWith("/")) {
+            // 只处理命令消息（以/开头），一次扫描解析出命令名、@botname和参数
+            TelegramCommand command = TelegramCommand.parse(messageText);
+            if (command == null) {
                 return TelegramBotResponse.empty();
             }
 
-            logger.info("处理Telegram消息: userId={}, chatId={}, text={}", telegramUserId, chatId, messageText);
+            // 群组中发给其他Bot的命令不处理
+            if (!command.isAddressedTo(bot.getBotUsername())) {
+                logger.debug("忽略发给其他Bot的命令: {}", command);
+                return TelegramBotResponse.empty();
+            }
 
-            // 匹配命令类型
-            operationType = TelegramOperationType.matchCommand(messageText);
-            logger.info("匹配到命令类型: {}", operationType);
+            // 查找命令，未注册或该Bot未启用的命令由兜底处理器处理
+            CommandDefinition definition = bot.route(commandHandlerFactory.resolve(command));
+            commandName = definition.name();
+            logger.debug("处理Telegram消息: userId={}, chatId={}, command={}", telegramUserId, chatId, commandName);
 
-            // 获取对应的处理器并处理
-            String responseText = commandHandlerFactory.handle(operationType, telegramUserId, messageText, webhook);
+            long handlerStart = System.nanoTime();
+            String responseText = commandHandlerFactory.handle(bot, definition, command, telegramUserId, update,
+                    dryRun);
+            if (event != null) {
+                event.setCommand(commandName);
+                event.setHandlerNanos(System.nanoTime() - handlerStart);
+            }
 
             // 构造Telegram Bot API响应
             TelegramBotResponse response;
             if (responseText != null && !responseText.trim().isEmpty()) {
                 response = TelegramBotResponse.sendMessage(chatId, responseText);
+                response.setStaticReply(definition.isStaticReply());
             } else {
                 response = TelegramBotResponse.empty();
             }
 
             long executionTime = System.currentTimeMillis() - startTime;
-            logger.info("Webhook处理完成: operationType={}, userId={}, executionTime={}ms",
-                    operationType, telegramUserId, executionTime);
+            logger.debug("Webhook处理完成: command={}, userId={}, executionTime={}ms",
+                    commandName, telegramUserId, executionTime);
 
+            if (event != null) {
+                event.setResponseMethod(response.getMethod());
+            }
             return response;
 
         } catch (Exception e) {
             long executionTime = System.currentTimeMillis() - startTime;
-            logger.error("处理Telegram webhook异常: operationType={}, userId={}, executionTime={}ms",
-                    operationType, telegramUserId, executionTime, e);
+            logger.error("处理Telegram webhook异常: command={}, userId={}, executionTime={}ms",
+                    commandName, telegramUserId, executionTime, e);
+            if (event != null) {
+                event.setCommand(commandName);
+                event.setErrorCode(TelegramWebhookException.ERROR_CODE);
+            }
 
             // 构造错误响应
-            Long chatId = webhookValidator.extractChatId(webhook);
+            Long chatId = update.chatId();
             if (chatId != null) {
-                return TelegramBotResponse.sendMessage(chatId, "抱歉，系统遇到了一些问题，请稍后重试。");
+                return TelegramBotResponse.sendStaticMessage(chatId, "抱歉，系统遇到了一些问题，请稍后重试。");
             } else if (telegramUserId != null) {
-                return TelegramBotResponse.sendMessage(telegramUserId, "抱歉，系统遇到了一些问题，请稍后重试。");
+                return TelegramBotResponse.sendStaticMessage(telegramUserId, "抱歉，系统遇到了一些问题，请稍后重试。");
             } else {
                 return TelegramBotResponse.empty();
             }
         }
     }
+
+    /**
+     * 聊天分区中排队的update
+     */
+    private final class LaneTask implements Runnable {
+
+        private final TelegramBotContext bot;
+
+        private final TelegramUpdate update;
+
+        private final TelegramUpdateEvent event;
+
+        private final CompletableFuture<TelegramBotResponse> future = new CompletableFuture<>();
+
+        private final long enqueuedAt = System.nanoTime();
+
+        private LaneTask(TelegramBotContext bot, TelegramUpdate update, TelegramUpdateEvent event) {
+            this.bot = bot;
+            this.update = update;
+            this.event = event;
+        }
+
+        @Override
+        public void run() {
+            bot.releaseQueueSlot();
+            event.setQueueNanos(System.nanoTime() - enqueuedAt);
+            try {
+                future.complete(processAndReply(bot, update, event));
+                event.setOutcome(TelegramBotMetrics.Outcome.PROCESSED);
+            } catch (RuntimeException e) {
+                logger.error("Telegram update处理异常: bot={}, updateId={}", bot.getId(), update.updateId(), e);
+                event.setOutcome(TelegramBotMetrics.Outcome.FAILED);
+                future.completeExceptionally(e);
+            } finally {
+                updateJournalService.complete(event.getJournalOffset());
+                updateEventLogger.log(event);
+            }
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package com.demo.telegram.bot.service;
+
+import com.alibaba.fastjson.JSON;
+import com.demo.telegram.bot.client.TelegramBotApiClient;
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Bot命令菜单同步服务
+ * 启动后按各Bot启用的命令调用 setMyCommands，命令菜单与 /help 保持一致，无需手工维护
+ */
+@Service
+public class TelegramCommandMenuService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramCommandMenuService.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotApiClient botApiClient;
+
+    @Autowired
+    private TelegramBotRegistry botRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncCommands() {
+        if (!telegramBotConfig.getApi().isSyncCommands()) {
+            return;
+        }
+
+        for (TelegramBotContext bot : botRegistry.getBots()) {
+            botApiClient.callAsync(bot.getId(), "setMyCommands", JSON.toJSONBytes(bot.getMyCommands()))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            logger.warn("同步Bot命令菜单失败: bot={}", bot.getId(), e);
+                        } else {
+                            logger.info("Bot命令菜单已同步: bot={}, commands={}", bot.getId(),
+                                    ((List<?>) bot.getMyCommands().get("commands")).size());
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.model.TelegramUpdateEvent;
+import com.demo.telegram.bot.util.ChatLaneExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Telegram Update异步分发服务
+ * 异步模式下Webhook请求线程只负责验证和入队，由按聊天分区的执行器调用
+ * {@link TelegramBotWebhookService#processWebhook} 并通过Bot API发送回复
+ */
+@Service
+public class TelegramUpdateDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramUpdateDispatcher.class);
+
+    /**
+     * 入队结果
+     */
+    public enum SubmitResult {
+        /**
+         * 已入队
+         */
+        ACCEPTED,
+
+        /**
+         * 队列已满，拒绝
+         */
+        REJECTED,
+
+        /**
+         * 队列已满，update被丢弃
+         */
+        DROPPED,
+
+        /**
+         * 队列已满，由调用方同步处理
+         */
+        CALLER_RUNS
+    }
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotWebhookService webhookService;
+
+    private boolean enabled;
+
+    private TelegramBotConfig.AsyncConfig.DropPolicy dropPolicy;
+
+    @PostConstruct
+    public void init() {
+        TelegramBotConfig.AsyncConfig async = telegramBotConfig.getAsync();
+        enabled = async.isEnabled();
+        dropPolicy = async.getDropPolicy();
+        if (enabled) {
+            logger.info("Telegram异步处理已启用: dropPolicy={}", dropPolicy);
+        }
+    }
+
+    /**
+     * 是否启用了异步模式
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 当前排队的update数量
+     */
+    public int getQueueDepth() {
+        ChatLaneExecutor lanes = webhookService.getChatLaneExecutor();
+        return lanes != null ? lanes.getTotalDepth() : 0;
+    }
+
+    /**
+     * 提交update到所属聊天的队列（该Bot的排队配额已满时同样按队列已满处理）
+     * 返回 {@link SubmitResult#ACCEPTED} 时处理记录交给工作线程输出，其余结果由调用方输出
+     */
+    public SubmitResult submit(TelegramBotContext bot, TelegramUpdate update, TelegramUpdateEvent event) {
+        if (webhookService.dispatch(bot, update, event) != null) {
+            return SubmitResult.ACCEPTED;
+        }
+        logger.warn("Telegram异步队列已满: bot={}, updateId={}, dropPolicy={}", bot.getId(), update.updateId(), dropPolicy);
+
+        switch (dropPolicy) {
+            case DROP_NEWEST:
+                return SubmitResult.DROPPED;
+            case DROP_OLDEST:
+                // 被丢弃的update由执行器的丢弃回调归还排队配额并结束其处理结果
+                webhookService.getChatLaneExecutor().dropOldest(TelegramBotWebhookService.laneKey(bot, update));
+                return webhookService.dispatch(bot, update, event) != null ? SubmitResult.ACCEPTED : SubmitResult.DROPPED;
+            case CALLER_RUNS:
+                return SubmitResult.CALLER_RUNS;
+            default:
+                return SubmitResult.REJECTED;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.client.TelegramApiException;
+import com.demo.telegram.bot.client.TelegramBotApiClient;
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.PolledUpdate;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.model.TelegramUpdateEvent;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.TelegramWebhookValidator;
+import com.demo.telegram.bot.util.UpdateEventLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Telegram长轮询（getUpdates）接收服务
+ * <p>
+ * 用于无法暴露公网HTTPS地址的部署环境，获取到的update与Webhook走同一套验证和处理流程。
+ * 只接收默认Bot（顶层配置）的update，其他Bot使用Webhook。
+ * 批内通过聊天分区执行器并行处理（同一聊天内保持顺序）。Telegram在收到offset大于update_id的请求时确认该update：
+ * <ul>
+ *     <li>启用update日志时，批次通过验证的update写入日志并落盘后立即确认，下一次长轮询与当前批次的处理重叠；
+ *     处理中途崩溃或停止时，未处理完的update由 {@link UpdateJournalReplayer} 在下次启动时重新处理</li>
+ *     <li>未启用日志时，整批处理完成后才以新的offset发出下一次请求；处理中途崩溃或停止时批次未被确认，
+ *     重启后由Telegram重新投递</li>
+ * </ul>
+ * 两种情况都是至少一次处理，重复的update由去重状态过滤。
+ */
+@Service
+public class TelegramUpdatePoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramUpdatePoller.class);
+
+    /**
+     * 轮询失败后的重试间隔（毫秒）
+     */
+    private static final long RETRY_DELAY_MILLIS = 3000;
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotApiClient botApiClient;
+
+    @Autowired
+    private TelegramWebhookValidator webhookValidator;
+
+    @Autowired
+    private TelegramBotWebhookService webhookService;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    @Autowired
+    private UpdateEventLogger updateEventLogger;
+
+    @Autowired
+    private TelegramBotRegistry botRegistry;
+
+    @Autowired
+    private UpdateJournalService updateJournalService;
+
+    @Autowired
+    private UpdateJournalReplayer journalReplayer;
+
+    private Thread pollThread;
+
+    private volatile boolean running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        TelegramBotConfig.PollingConfig polling = telegramBotConfig.getPolling();
+        if (!polling.isEnabled()) {
+            return;
+        }
+
+        running = true;
+        pollThread = new Thread(this::pollLoop, "telegram-poller");
+        pollThread.setDaemon(true);
+        pollThread.start();
+        logger.info("Telegram长轮询已启动: timeout={}s, limit={}", polling.getTimeoutSeconds(), polling.getLimit());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        pollThread.interrupt();
+        pollThread.join(TimeUnit.SECONDS.toMillis(10));
+        logger.info("Telegram长轮询已停止");
+    }
+
+    private void pollLoop() {
+        TelegramBotConfig.PollingConfig polling = telegramBotConfig.getPolling();
+        // 日志中上次未处理完的update先重新处理，同一聊天中新获取的update排在它们之后
+        if (!awaitRecovery()) {
+            return;
+        }
+        TelegramBotContext bot = botRegistry.getDefault();
+        // 从0开始请求，Telegram返回所有尚未确认的update
+        long nextOffset = 0;
+        long requestedOffset = 0;
+        CompletableFuture<List<PolledUpdate>> inFlight = null;
+
+        while (running) {
+            if (inFlight == null) {
+                inFlight = fetch(nextOffset, polling);
+                requestedOffset = nextOffset;
+            }
+            List<PolledUpdate> batch;
+            try {
+                batch = inFlight.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                inFlight = null;
+                Throwable cause = e.getCause();
+                long delay = RETRY_DELAY_MILLIS;
+                if (cause instanceof TelegramApiException apiException && apiException.getRetryAfter() != null) {
+                    delay = TimeUnit.SECONDS.toMillis(apiException.getRetryAfter());
+                }
+                logger.warn("Telegram长轮询失败，{}ms后重试: {}", delay, cause.getMessage());
+                if (!sleep(delay)) {
+                    break;
+                }
+                continue;
+            }
+            inFlight = null;
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            long batchEnd = maxUpdateId(batch) + 1;
+            List<Accepted> accepted = validateBatch(bot, batch);
+            if (journal(bot, accepted)) {
+                // 批次已落盘，崩溃后从日志重新处理：立即确认，下一次长轮询与当前批次的处理重叠
+                nextOffset = Math.max(nextOffset, batchEnd);
+                inFlight = fetch(nextOffset, polling);
+                requestedOffset = nextOffset;
+                if (!processBatch(bot, accepted)) {
+                    logger.info("Telegram长轮询停止，未处理完的update在下次启动时从日志重新处理: updates={}", batch.size());
+                    break;
+                }
+            } else {
+                // 整批处理完成后才推进偏移量，处理中途停止时不确认，重启后Telegram重新投递整个批次
+                if (!processBatch(bot, accepted)) {
+                    logger.info("Telegram长轮询停止，未处理完的批次不确认，由Telegram重新投递: updates={}", batch.size());
+                    break;
+                }
+                nextOffset = Math.max(nextOffset, batchEnd);
+            }
+        }
+
+        if (inFlight != null) {
+            inFlight.cancel(true);
+        }
+        if (nextOffset > requestedOffset) {
+            confirm(nextOffset, polling);
+        }
+    }
+
+    private boolean awaitRecovery() {
+        try {
+            journalReplayer.awaitRecovery();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long maxUpdateId(List<PolledUpdate> batch) {
+        long maxId = -1;
+        for (PolledUpdate polled : batch) {
+            if (polled.update().updateId() != null) {
+                maxId = Math.max(maxId, polled.update().updateId());
+            }
+        }
+        return maxId;
+    }
+
+    /**
+     * 停止前确认最后一个已处理完成的批次，否则重启后Telegram会重新投递
+     * 使用timeout=0的请求，返回的update不处理也不会被确认
+     */
+    private void confirm(long offset, TelegramBotConfig.PollingConfig polling) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            botApiClient.getUpdatesAsync(offset, 1, 0, polling.getAllowedUpdates())
+                    .get(telegramBotConfig.getApi().getRequestTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Telegram长轮询确认偏移量失败，重启后将重新投递已处理的update: offset={}", offset);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private CompletableFuture<List<PolledUpdate>> fetch(long offset, TelegramBotConfig.PollingConfig polling) {
+        return botApiClient.getUpdatesAsync(offset, polling.getLimit(), polling.getTimeoutSeconds(),
+                polling.getAllowedUpdates());
+    }
+
+    /**
+     * 在轮询线程中按update_id顺序验证一个批次，验证失败或重复的update不再处理
+     */
+    private List<Accepted> validateBatch(TelegramBotContext bot, List<PolledUpdate> batch) {
+        List<Accepted> accepted = new ArrayList<>(batch.size());
+        for (PolledUpdate polled : batch) {
+            TelegramUpdateEvent event = new TelegramUpdateEvent(TelegramUpdateEvent.Source.POLLING);
+            event.setBot(bot.getId());
+            event.setUpdate(polled.update());
+            if (polled.malformed()) {
+                // 跳过无法解码的update，偏移量照常越过它，不会反复获取同一批次
+                logger.warn("Telegram长轮询update无法解码，已跳过: updateId={}, bytes={}", polled.update().updateId(),
+                        polled.payload().length);
+                metrics.recordError(bot.getMeters(), TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
+                event.setOutcome(TelegramBotMetrics.Outcome.REJECTED);
+                event.setErrorCode(TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
+                updateEventLogger.log(event);
+                continue;
+            }
+            if (validate(bot, polled.update(), event)) {
+                accepted.add(new Accepted(polled, event));
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 通过验证的update写入日志，等待整批落盘（一次组提交）
+     *
+     * @return 全部写入并已落盘；未启用日志、写入失败或落盘超时返回false，此时批次处理完成后才确认
+     */
+    private boolean journal(TelegramBotContext bot, List<Accepted> accepted) {
+        if (!updateJournalService.isEnabled()) {
+            return false;
+        }
+        boolean appended = true;
+        long lastOffset = -1;
+        for (Accepted update : accepted) {
+            long offset = updateJournalService.append(bot, update.polled().payload());
+            update.event().setJournalOffset(offset);
+            if (offset < 0) {
+                appended = false;
+            } else {
+                lastOffset = offset;
+            }
+        }
+        return appended && (lastOffset < 0 || updateJournalService.awaitDurable(lastOffset));
+    }
+
+    /**
+     * 把通过验证的update交给聊天分区执行器并等待全部完成
+     *
+     * @return 整批都已处理完成；停止轮询导致批次中途放弃时返回false
+     */
+    private boolean processBatch(TelegramBotContext bot, List<Accepted> accepted) {
+        List<CompletableFuture<TelegramBotResponse>> futures = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Accepted update = accepted.get(i);
+            CompletableFuture<TelegramBotResponse> future = webhookService.dispatch(bot, update.polled().update(),
+                    update.event());
+            // 队列已满时等待处理腾出空间，长轮询不丢弃update
+            while (future == null) {
+                if (!running || !sleep(10)) {
+                    abandon(bot, accepted.subList(i, accepted.size()));
+                    return false;
+                }
+                future = webhookService.dispatch(bot, update.polled().update(), update.event());
+            }
+            futures.add(future);
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            // 单个update的处理异常已在处理流程中记录，不影响批次完成
+        }
+        logger.debug("Telegram长轮询批次处理完成: processed={}", futures.size());
+        return true;
+    }
+
+    /**
+     * 撤销未交给执行器的update的去重登记（共享状态存储中的登记在重启后仍然有效），
+     * 重新投递或从日志重新处理时不会被当作重复update跳过；日志中的记录保持未完成
+     */
+    private void abandon(TelegramBotContext bot, List<Accepted> remaining) {
+        for (Accepted update : remaining) {
+            webhookValidator.releaseUpdate(bot, update.polled().update());
+        }
+    }
+
+    /**
+     * 验证update，验证失败或重复的update在这里输出处理日志
+     */
+    private boolean validate(TelegramBotContext bot, TelegramUpdate update, TelegramUpdateEvent event) {
+        try {
+            TelegramRequestParam param = new TelegramRequestParam();
+            param.setBot(bot);
+            param.setUpdate(update);
+            param.setEvent(event);
+            webhookValidator.validatePolledUpdate(param);
+            if (param.getReplayResponse() == null) {
+                return true;
+            }
+            event.setOutcome(TelegramBotMetrics.Outcome.REPLAYED);
+        } catch (TelegramWebhookException e) {
+            metrics.recordError(bot.getMeters(), e.getCode());
+            event.setOutcome(TelegramBotMetrics.Outcome.REJECTED);
+            event.setErrorCode(e.getCode());
+        }
+        updateEventLogger.log(event);
+        return false;
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 通过验证、等待处理的update
+     */
+    private record Accepted(PolledUpdate polled, TelegramUpdateEvent event) {
+    }
+}
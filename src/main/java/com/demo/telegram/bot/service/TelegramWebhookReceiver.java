@@ -0,0 +1,149 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.model.TelegramUpdateEvent;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.TelegramBotMetrics.Outcome;
+import com.demo.telegram.bot.util.TelegramUpdateDecoder;
+import com.demo.telegram.bot.util.TelegramWebhookValidator;
+import com.demo.telegram.bot.util.UpdateEventLogger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Webhook请求处理流程：请求头验证、解码、验证、写入日志，再异步分发或同步处理
+ * <p>
+ * 与Web栈无关，Spring MVC入口（{@link com.demo.telegram.bot.controller.TelegramBotController}）
+ * 和响应式入口（{@link com.demo.telegram.bot.controller.ReactiveTelegramBotController}）读取请求体后都调用本类，
+ * 验证步骤和命令处理器在两种入口下完全相同。
+ */
+@Service
+public class TelegramWebhookReceiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelegramWebhookReceiver.class);
+
+    @Autowired
+    private TelegramBotWebhookService webhookService;
+    @Autowired
+    private TelegramWebhookValidator telegramWebhookValidator;
+    @Autowired
+    private TelegramUpdateDispatcher updateDispatcher;
+    @Autowired
+    private TelegramBotMetrics metrics;
+    @Autowired
+    private UpdateEventLogger updateEventLogger;
+    @Autowired
+    private UpdateJournalService updateJournalService;
+
+    /**
+     * 处理一个Webhook请求
+     *
+     * @param bot      接收请求的Bot
+     * @param clientIp 客户端IP
+     * @param headers  按名称查找请求头
+     * @param body     原始请求体
+     * @return 响应结果；异步模式队列已满且策略为REJECT，或启用日志但update未能落盘时返回503
+     */
+    public ResponseEntity<TelegramBotResponse> receive(TelegramBotContext bot, String clientIp,
+                                                       UnaryOperator<String> headers, byte[] body) {
+        long start = metrics.requestStarted();
+        Outcome outcome = Outcome.FAILED;
+        TelegramUpdateEvent event = new TelegramUpdateEvent(TelegramUpdateEvent.Source.WEBHOOK);
+        event.setBot(bot.getId());
+        event.setClientIp(clientIp);
+        // 异步入队成功后处理记录交给工作线程输出
+        boolean handedOff = false;
+        long journalOffset = -1;
+        try {
+            TelegramRequestParam param = new TelegramRequestParam();
+            param.setBot(bot);
+            param.setHeaders(headers);
+            param.setClientIp(clientIp);
+            param.setBodyLength(body.length);
+            param.setEvent(event);
+            // 请求头验证在解码之前执行，被拒绝的请求不解码请求体
+            telegramWebhookValidator.validateWebhookHeaders(param);
+
+            TelegramUpdate update = TelegramUpdateDecoder.decode(body);
+            event.setUpdate(update);
+            param.setUpdate(update);
+            // telegram 请求信息验证
+            telegramWebhookValidator.validateWebhookUpdate(param);
+            if (param.getReplayResponse() != null) {
+                // Telegram重试的update，返回首次处理的响应，不再重复处理
+                outcome = Outcome.REPLAYED;
+                return ResponseEntity.ok(param.getReplayResponse());
+            }
+
+            // 通过验证的update写入日志，进程崩溃后从日志重新处理
+            journalOffset = updateJournalService.append(bot, body);
+            event.setJournalOffset(journalOffset);
+
+            // 异步模式：入队后立即返回，由工作线程处理并通过Bot API回复
+            if (updateDispatcher.isEnabled()) {
+                // 返回200后Telegram不再重发，入队前先确认update已落盘（同时到达的请求共用一次落盘）；
+                // 写入或落盘失败时撤销去重登记并返回503，由Telegram重试，避免入队后再失败造成重复处理
+                if (updateJournalService.isEnabled() && !updateJournalService.awaitDurable(journalOffset)) {
+                    telegramWebhookValidator.releaseUpdate(bot, update);
+                    outcome = Outcome.OVERLOADED;
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                }
+                TelegramUpdateDispatcher.SubmitResult result = updateDispatcher.submit(bot, update, event);
+                switch (result) {
+                    case ACCEPTED:
+                        outcome = Outcome.QUEUED;
+                        handedOff = true;
+                        return ResponseEntity.ok(TelegramBotResponse.empty());
+                    case DROPPED:
+                        outcome = Outcome.OVERLOADED;
+                        return ResponseEntity.ok(TelegramBotResponse.empty());
+                    case REJECTED:
+                        // 撤销去重登记，Telegram收到503后会重试该update
+                        telegramWebhookValidator.releaseUpdate(bot, update);
+                        outcome = Outcome.OVERLOADED;
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                    default:
+                        // CALLER_RUNS：继续在请求线程中同步处理
+                        break;
+                }
+            }
+
+            // 处理webhook请求
+            TelegramBotResponse response = webhookService.processWebhook(bot, update, event);
+            telegramWebhookValidator.recordResponse(bot, update, response);
+
+            // 返回响应
+            outcome = Outcome.PROCESSED;
+            return ResponseEntity.ok(response);
+
+        } catch (TelegramWebhookException e) {
+            // 验证失败，原因已在验证器中记录
+            metrics.recordError(bot.getMeters(), e.getCode());
+            event.setErrorCode(e.getCode());
+            outcome = Outcome.REJECTED;
+            return ResponseEntity.ok(TelegramBotResponse.empty());
+        } catch (Exception e) {
+            logger.error("处理Telegram webhook异常", e);
+            metrics.recordError(bot.getMeters(), TelegramWebhookException.ERROR_CODE);
+            event.setErrorCode(TelegramWebhookException.ERROR_CODE);
+            // 返回空响应，HTTP 200状态码告知Telegram处理完成
+            return ResponseEntity.ok(TelegramBotResponse.empty());
+        } finally {
+            metrics.requestFinished(bot.getMeters(), outcome, start);
+            if (!handedOff) {
+                updateJournalService.complete(journalOffset);
+                event.setOutcome(outcome);
+                updateEventLogger.log(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.model.TelegramUpdateEvent;
+import com.demo.telegram.bot.state.StateStore;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.TelegramUpdateDecoder;
+import com.demo.telegram.bot.util.UpdateEventLogger;
+import com.demo.telegram.bot.util.UpdateJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * update日志的重新处理与重放
+ * <ul>
+ *     <li>重新处理：启动完成后把上次检查点之后的update通过 {@link TelegramBotWebhookService#processAndReply}
+ *     重新处理并回复，已由状态存储登记的update（如其他节点已处理）跳过</li>
+ *     <li>重放：按时间范围以最快速度处理日志中的update，用于性能测试。在单独的线程中执行并返回任务ID，
+ *     命令处理器以无副作用方式执行（{@link com.demo.telegram.bot.handler.TelegramCommandHandler#handleDryRun}），
+ *     不生成绑定码、不查询余额数据源、不发送回复</li>
+ * </ul>
+ */
+@Service
+public class UpdateJournalReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdateJournalReplayer.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private UpdateJournalService journalService;
+
+    @Autowired
+    private TelegramBotRegistry botRegistry;
+
+    @Autowired
+    private TelegramBotWebhookService webhookService;
+
+    @Autowired
+    private StateStore stateStore;
+
+    @Autowired
+    private UpdateEventLogger updateEventLogger;
+
+    /**
+     * 保留的重放任务数，超出时清理最早结束的任务
+     */
+    private static final int MAX_REPLAY_JOBS = 32;
+
+    /**
+     * 重放任务，按提交顺序排列
+     */
+    private final Map<String, ReplayJob> replayJobs = new LinkedHashMap<>();
+
+    /**
+     * 执行重放任务的线程，重放不占用请求线程
+     */
+    private final ExecutorService replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-replay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 启动时的重新处理，处理完成或不需要重新处理时完成
+     */
+    private final CompletableFuture<Void> recovery = new CompletableFuture<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!journalService.isEnabled() || !telegramBotConfig.getJournal().isRecover()) {
+            recovery.complete(null);
+            return;
+        }
+        long from = journalService.getRecoveredCheckpoint();
+        // 只处理启动时已有的记录，之后追加的update由正常流程处理
+        long to = journalService.getJournal().getEnd();
+        if (from >= to) {
+            recovery.complete(null);
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                redrive(from, to);
+            } finally {
+                recovery.complete(null);
+            }
+        }, "journal-redrive");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        replayExecutor.shutdownNow();
+    }
+
+    /**
+     * 等待启动时的重新处理结束，长轮询在此之后才获取新的update
+     */
+    public void awaitRecovery() throws InterruptedException {
+        try {
+            recovery.get();
+        } catch (ExecutionException e) {
+            // 不会异常完成
+        }
+    }
+
+    private void redrive(long from, long to) {
+        long start = System.nanoTime();
+        AtomicLong processed = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        journalService.getJournal().read(from, (offset, timestamp, botId, payload) -> {
+            if (offset >= to) {
+                return false;
+            }
+            try {
+                if (redrive(offset, botId, payload)) {
+                    processed.incrementAndGet();
+                } else {
+                    skipped.incrementAndGet();
+                }
+            } finally {
+                journalService.complete(offset);
+            }
+            return true;
+        });
+        logger.info("update日志重新处理完成: from={}, to={}, processed={}, skipped={}, elapsed={}ms",
+                from, to, processed.get(), skipped.get(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 重新处理一条记录
+     *
+     * @return 是否处理；Bot未配置、无法解码或已登记时返回false
+     */
+    private boolean redrive(long offset, String botId, byte[] payload) {
+        TelegramBotContext bot = botRegistry.get(botId);
+        if (bot == null) {
+            logger.warn("日志中的update所属Bot未配置，跳过: offset={}, bot={}", offset, botId);
+            return false;
+        }
+        TelegramUpdate update;
+        try {
+            update = TelegramUpdateDecoder.decode(payload);
+        } catch (RuntimeException e) {
+            logger.warn("日志中的update无法解码，跳过: offset={}, bot={}", offset, botId, e);
+            return false;
+        }
+        Long updateId = update.updateId();
+        long routingKey = StateStore.routingKey(update);
+        if (updateId != null && stateStore.acquireUpdate(bot, routingKey, updateId) != null) {
+            return false;
+        }
+
+        TelegramUpdateEvent event = new TelegramUpdateEvent(TelegramUpdateEvent.Source.JOURNAL);
+        event.setBot(bot.getId());
+        event.setUpdate(update);
+        event.setJournalOffset(offset);
+        try {
+            TelegramBotResponse response = webhookService.processAndReply(bot, update, event);
+            if (updateId != null) {
+                stateStore.completeUpdate(bot, routingKey, updateId, response);
+            }
+            event.setOutcome(TelegramBotMetrics.Outcome.PROCESSED);
+        } catch (RuntimeException e) {
+            logger.error("重新处理update异常: offset={}, bot={}, updateId={}", offset, botId, updateId, e);
+            if (updateId != null) {
+                stateStore.releaseUpdate(bot, routingKey, updateId);
+            }
+            event.setOutcome(TelegramBotMetrics.Outcome.FAILED);
+        } finally {
+            updateEventLogger.log(event);
+        }
+        return true;
+    }
+
+    /**
+     * 提交重放任务：在单独的线程中以最快速度处理时间范围内的update，命令处理器以无副作用方式执行，
+     * 不发送回复，不经过去重和限流。任务按提交顺序逐个执行
+     *
+     * @param fromMillis 起始时间（含），毫秒时间戳
+     * @param toMillis   结束时间（不含），毫秒时间戳
+     * @return 任务ID
+     */
+    public String submitReplay(long fromMillis, long toMillis) {
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString().replace("-", "").substring(0, 16),
+                fromMillis, toMillis);
+        synchronized (replayJobs) {
+            replayJobs.put(job.id, job);
+            // 只保留最近的任务
+            Iterator<ReplayJob> iterator = replayJobs.values().iterator();
+            while (replayJobs.size() > MAX_REPLAY_JOBS && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                }
+            }
+        }
+        replayExecutor.execute(() -> replay(job));
+        return job.id;
+    }
+
+    /**
+     * 重放任务的状态和统计：记录数、处理数、耗时和吞吐
+     *
+     * @return 任务不存在（或已被清理）时返回null
+     */
+    public Map<String, Object> replayProgress(String id) {
+        ReplayJob job;
+        synchronized (replayJobs) {
+            job = replayJobs.get(id);
+        }
+        return job != null ? job.progress() : null;
+    }
+
+    private void replay(ReplayJob job) {
+        job.status = ReplayStatus.RUNNING;
+        long start = System.nanoTime();
+        try {
+            UpdateJournal journal = journalService.getJournal();
+            long limit = journal.getEnd();
+            journal.read(journal.getStart(), (offset, timestamp, botId, payload) -> {
+                if (offset >= limit || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                if (timestamp < job.fromMillis || timestamp >= job.toMillis) {
+                    return true;
+                }
+                job.records++;
+                TelegramBotContext bot = botRegistry.get(botId);
+                if (bot == null) {
+                    job.skipped++;
+                    return true;
+                }
+                try {
+                    webhookService.processWebhook(bot, TelegramUpdateDecoder.decode(payload), null, true);
+                    job.processed++;
+                } catch (RuntimeException e) {
+                    job.skipped++;
+                }
+                job.elapsedNanos = System.nanoTime() - start;
+                return true;
+            });
+            job.status = Thread.currentThread().isInterrupted() ? ReplayStatus.CANCELLED : ReplayStatus.COMPLETED;
+        } catch (RuntimeException e) {
+            logger.error("update日志重放失败: id={}", job.id, e);
+            job.status = ReplayStatus.FAILED;
+        } finally {
+            job.elapsedNanos = System.nanoTime() - start;
+        }
+        logger.info("update日志重放结束: {}", job.progress());
+    }
+
+    /**
+     * 重放任务状态
+     */
+    public enum ReplayStatus {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    /**
+     * 重放任务，统计只由执行线程写入
+     */
+    private static final class ReplayJob {
+
+        private final String id;
+
+        private final long fromMillis;
+
+        private final long toMillis;
+
+        private volatile ReplayStatus status = ReplayStatus.QUEUED;
+
+        private volatile long records;
+
+        private volatile long processed;
+
+        private volatile long skipped;
+
+        private volatile long elapsedNanos;
+
+        private ReplayJob(String id, long fromMillis, long toMillis) {
+            this.id = id;
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+        }
+
+        private boolean isFinished() {
+            return status != ReplayStatus.QUEUED && status != ReplayStatus.RUNNING;
+        }
+
+        private Map<String, Object> progress() {
+            long elapsed = elapsedNanos;
+            long processedCount = processed;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", id);
+            result.put("status", status);
+            result.put("from", fromMillis);
+            result.put("to", toMillis);
+            result.put("records", records);
+            result.put("processed", processedCount);
+            result.put("skipped", skipped);
+            result.put("elapsedMillis", elapsed / 1_000_000);
+            result.put("updatesPerSecond", elapsed > 0 ? Math.round(processedCount * 1e9 / elapsed) : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.UpdateJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * update日志服务
+ * <p>
+ * 通过验证的update按原始请求体追加到 {@link UpdateJournal}，处理结束（含丢弃）后标记完成。
+ * 落盘由单独的线程完成：异步模式在返回200之前等待落盘，等待期间到达的其他请求由同一次落盘覆盖（组提交），
+ * 没有请求等待时按固定间隔落盘。
+ * <p>
+ * 未完成的最小偏移量作为检查点写入日志目录，检查点之前的update都已处理完；启动时检查点之后的update
+ * 由 {@link UpdateJournalReplayer} 重新处理。处理完成的顺序与追加顺序不同，检查点之后可能有已处理的update，
+ * 重新处理为至少一次语义。总大小超过上限时删除检查点之前最早的段。
+ */
+@Service
+public class UpdateJournalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdateJournalService.class);
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    /**
+     * 未启用时为null
+     */
+    private UpdateJournal journal;
+
+    /**
+     * 已追加、尚未处理完的偏移量
+     */
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+
+    /**
+     * 组提交的等待和通知
+     */
+    private final Object commitLock = new Object();
+
+    private boolean flushRequested;
+
+    private volatile long durableEnd;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    /**
+     * 启动时读取的检查点，之后的update需要重新处理
+     */
+    private long recoveredCheckpoint;
+
+    private long checkpoint;
+
+    private long flushIntervalMillis;
+
+    private long syncTimeoutNanos;
+
+    private long maxTotalBytes;
+
+    private final LongAdder appended = new LongAdder();
+
+    private final LongAdder flushes = new LongAdder();
+
+    private final LongAdder appendFailures = new LongAdder();
+
+    private final LongAdder syncFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        TelegramBotConfig.JournalConfig config = telegramBotConfig.getJournal();
+        if (!config.isEnabled()) {
+            return;
+        }
+        Path directory = Path.of(config.getDirectory()).toAbsolutePath();
+        journal = new UpdateJournal(directory, config.getSegmentSizeMb() * 1024 * 1024);
+        flushIntervalMillis = Math.max(1, config.getFlushIntervalMillis());
+        syncTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getSyncTimeoutMillis());
+        maxTotalBytes = config.getMaxTotalSizeMb() * 1024 * 1024;
+        durableEnd = journal.getEnd();
+
+        recoveredCheckpoint = Math.min(Math.max(readCheckpoint(), journal.getStart()), journal.getEnd());
+        checkpoint = recoveredCheckpoint;
+        // 上次未处理完的update在重新处理结束前保持未完成，检查点不会越过它们
+        journal.read(recoveredCheckpoint, (offset, timestamp, botId, payload) -> pending.add(offset));
+
+        metrics.functionCounter("telegram.journal.appended", "写入日志的update数", appended, LongAdder::sum);
+        metrics.functionCounter("telegram.journal.flushes", "日志落盘次数", flushes, LongAdder::sum);
+        metrics.functionCounter("telegram.journal.append.failures", "写入日志失败的update数", appendFailures,
+                LongAdder::sum);
+        metrics.functionCounter("telegram.journal.sync.failures", "等待落盘超时或日志已关闭的次数", syncFailures,
+                LongAdder::sum);
+        metrics.gauge("telegram.journal.pending", "日志中尚未处理完的update数", pending,
+                ConcurrentSkipListSet::size);
+        metrics.gauge("telegram.journal.size", "日志段文件总大小（字节）", journal, UpdateJournal::getSize);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("update日志初始化完成: directory={}, segments={}, start={}, end={}, checkpoint={}, unfinished={}",
+                directory, journal.getSegmentCount(), journal.getStart(), journal.getEnd(), checkpoint, pending.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (journal == null) {
+            return;
+        }
+        running = false;
+        synchronized (commitLock) {
+            commitLock.notifyAll();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        journal.close();
+        writeCheckpoint();
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * 追加update的原始请求体
+     *
+     * @return 日志偏移量；未启用或写入失败时返回-1（同步处理照常进行，异步模式返回503）
+     */
+    public long append(TelegramBotContext bot, byte[] body) {
+        if (journal == null) {
+            return -1;
+        }
+        try {
+            long offset;
+            synchronized (pending) {
+                // 偏移量按追加顺序登记，计算检查点时不会漏掉正在追加的update
+                offset = journal.append(System.currentTimeMillis(), bot.getId(), body);
+                pending.add(offset);
+            }
+            appended.increment();
+            return offset;
+        } catch (IOException | IllegalArgumentException e) {
+            appendFailures.increment();
+            logger.error("写入update日志失败: bot={}, size={}", bot.getId(), body.length, e);
+            return -1;
+        }
+    }
+
+    /**
+     * 等待日志落盘到包含该偏移量的记录（组提交），最长等待 sync-timeout-millis
+     *
+     * @return 是否已落盘；偏移量无效、等待超时或日志已关闭时返回false
+     */
+    public boolean awaitDurable(long offset) {
+        if (offset < 0) {
+            return false;
+        }
+        if (durableEnd > offset) {
+            return true;
+        }
+        if (waitDurable(offset)) {
+            return true;
+        }
+        syncFailures.increment();
+        return false;
+    }
+
+    private boolean waitDurable(long offset) {
+        long deadline = System.nanoTime() + syncTimeoutNanos;
+        synchronized (commitLock) {
+            flushRequested = true;
+            commitLock.notifyAll();
+            while (durableEnd <= offset && running) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    logger.warn("等待update日志落盘超时: offset={}", offset);
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(commitLock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return durableEnd > offset;
+        }
+    }
+
+    /**
+     * 标记update处理完成（包括被丢弃、拒绝的update）
+     */
+    public void complete(long offset) {
+        if (offset >= 0) {
+            pending.remove(offset);
+        }
+    }
+
+    /**
+     * 启动时读取的检查点，从这里开始的update需要重新处理
+     */
+    public long getRecoveredCheckpoint() {
+        return recoveredCheckpoint;
+    }
+
+    /**
+     * 日志，未启用时为null
+     */
+    public UpdateJournal getJournal() {
+        return journal;
+    }
+
+    private void flushLoop() {
+        long lastMaintenance = System.nanoTime();
+        while (running) {
+            synchronized (commitLock) {
+                if (!flushRequested) {
+                    try {
+                        commitLock.wait(flushIntervalMillis);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                flushRequested = false;
+            }
+            try {
+                long end = journal.force();
+                if (end != durableEnd) {
+                    flushes.increment();
+                }
+                synchronized (commitLock) {
+                    durableEnd = end;
+                    commitLock.notifyAll();
+                }
+                // 检查点和段清理不需要每次组提交都执行
+                long now = System.nanoTime();
+                if (now - lastMaintenance >= TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis)) {
+                    lastMaintenance = now;
+                    writeCheckpoint();
+                    int removed = journal.retain(maxTotalBytes, checkpoint);
+                    if (removed > 0) {
+                        logger.info("删除已处理的update日志段: count={}, checkpoint={}", removed, checkpoint);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("update日志落盘失败", e);
+            }
+        }
+    }
+
+    /**
+     * 写入检查点：最小的未完成偏移量，没有未完成的update时为日志末尾
+     */
+    private void writeCheckpoint() {
+        long end;
+        Long first;
+        synchronized (pending) {
+            end = journal.getEnd();
+            first = pending.ceiling(0L);
+        }
+        long next = first != null ? first : end;
+        if (next == checkpoint) {
+            return;
+        }
+        Path file = journal.getDirectory().resolve(CHECKPOINT_FILE);
+        Path temp = journal.getDirectory().resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(next).array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            checkpoint = next;
+        } catch (IOException e) {
+            logger.error("写入update日志检查点失败: {}", file, e);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = journal.getDirectory().resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+}
@@ -0,0 +1,35 @@
+package com.demo.telegram.bot.state;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 共享状态使用的键值操作
+ * <p>
+ * 对应Redis的 SET NX PX、INCR + PEXPIRE、DEL，进程内分片和远程分片实现同一接口，
+ * 由 {@link com.demo.telegram.bot.state.impl.SharedStateStore} 按分片键选择。
+ * 远程实现的操作异步完成，进程内实现返回已完成的 future。
+ */
+public interface KeyValueStore {
+
+    /**
+     * 键不存在时写入
+     *
+     * @param ttlMillis 过期时间
+     * @return 写入成功返回true，键已存在返回false
+     */
+    CompletableFuture<Boolean> setIfAbsent(String key, long ttlMillis);
+
+    /**
+     * 计数加一，并把过期时间重置为 ttlMillis
+     *
+     * @return 加一后的计数
+     */
+    CompletableFuture<Long> increment(String key, long ttlMillis);
+
+    /**
+     * 删除键
+     *
+     * @return 键存在时返回true
+     */
+    CompletableFuture<Boolean> delete(String key);
+}
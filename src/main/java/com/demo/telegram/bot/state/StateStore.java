@@ -0,0 +1,59 @@
+package com.demo.telegram.bot.state;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.util.TokenBucketRateLimiter;
+
+/**
+ * Webhook验证使用的状态存储（update_id去重、限流计数）
+ * <p>
+ * 按 telegram.bot.state.type 选择实现：进程内实现直接使用 {@link TelegramBotContext} 中各Bot的去重窗口和
+ * 限流器；共享实现把状态按一致性哈希分片到多个节点，多个副本看到同一份去重和限流状态。
+ * 所有方法都在请求线程中同步调用，实现类在共享状态不可用时应退回进程内状态，不能阻塞或拒绝请求。
+ */
+public interface StateStore {
+
+    /**
+     * 登记update_id
+     *
+     * @param routingKey 分片键，见 {@link #routingKey(TelegramUpdate)}
+     * @return 首次出现返回null；重复出现返回应重放的响应
+     */
+    TelegramBotResponse acquireUpdate(TelegramBotContext bot, long routingKey, long updateId);
+
+    /**
+     * 记录update处理完成后的响应，Telegram重试同一update时返回
+     */
+    void completeUpdate(TelegramBotContext bot, long routingKey, long updateId, TelegramBotResponse response);
+
+    /**
+     * 撤销update_id的登记，使Telegram重试时重新处理
+     */
+    void releaseUpdate(TelegramBotContext bot, long routingKey, long updateId);
+
+    /**
+     * 获取一次请求配额
+     *
+     * @param scope   限流维度名称（ip、user、命令名），与key一起区分计数
+     * @param limiter 该维度的进程内限流器，提供容量和时间窗口
+     * @param key     限流键（IP、用户ID），同时作为分片键
+     * @return 超出频率限制时返回false
+     */
+    boolean tryAcquire(TelegramBotContext bot, String scope, TokenBucketRateLimiter limiter, long key);
+
+    /**
+     * update的分片键：聊天ID，没有聊天时依次使用用户ID、update_id
+     * <p>
+     * 私聊的聊天ID与用户ID相同，同一用户的去重和用户限流落在同一分片上
+     */
+    static long routingKey(TelegramUpdate update) {
+        if (update.chatId() != null) {
+            return update.chatId();
+        }
+        if (update.userId() != null) {
+            return update.userId();
+        }
+        return update.updateId() != null ? update.updateId() : 0;
+    }
+}
@@ -0,0 +1,220 @@
+package com.demo.telegram.bot.state.impl;
+
+import com.demo.telegram.bot.state.KeyValueStore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内的键值分片
+ * <p>
+ * 本节点持有的分片：{@link SharedStateStore} 直接调用，{@link RespKeyValueServer} 为其他节点提供同样的操作。
+ * 条目按键放在 ConcurrentHashMap 中，修改时只锁单个条目；过期条目在访问时视为不存在，
+ * 由 {@link #sweep()} 定期移除。值为字节串或计数，与Redis一样INCR可作用于数字字符串。
+ */
+public class InMemoryKeyValueStore implements KeyValueStore {
+
+    private static final CompletableFuture<Boolean> TRUE = CompletableFuture.completedFuture(Boolean.TRUE);
+
+    private static final CompletableFuture<Boolean> FALSE = CompletableFuture.completedFuture(Boolean.FALSE);
+
+    private static final byte[] PRESENT = {'1'};
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsent(String key, long ttlMillis) {
+        return set(key, PRESENT, ttlMillis, true) ? TRUE : FALSE;
+    }
+
+    @Override
+    public CompletableFuture<Long> increment(String key, long ttlMillis) {
+        return CompletableFuture.completedFuture(increment(key, ttlMillis, true));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String key) {
+        return remove(key) ? TRUE : FALSE;
+    }
+
+    /**
+     * 写入键值
+     *
+     * @param ttlMillis   过期时间，不大于0表示不过期
+     * @param onlyIfAbsent 键已存在时不写入
+     * @return 是否写入
+     */
+    public boolean set(String key, byte[] value, long ttlMillis, boolean onlyIfAbsent) {
+        long now = System.nanoTime();
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                if (onlyIfAbsent && entry.isLive(now)) {
+                    return false;
+                }
+                entry.bytes = value;
+                entry.counter = 0;
+                entry.expiresAt = deadline(now, ttlMillis);
+                entry.initialized = true;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 读取值，计数以十进制字符串返回
+     *
+     * @return 不存在或已过期时返回null
+     */
+    public byte[] get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            if (entry.removed || !entry.isLive(System.nanoTime())) {
+                return null;
+            }
+            return entry.bytes != null ? entry.bytes : Long.toString(entry.counter).getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * 计数加一，键不存在时从0开始且不过期
+     *
+     * @throws NumberFormatException 值不是整数
+     */
+    public long increment(String key) {
+        return increment(key, 0, false);
+    }
+
+    private long increment(String key, long ttlMillis, boolean resetTtl) {
+        long now = System.nanoTime();
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                if (!entry.isLive(now)) {
+                    entry.bytes = null;
+                    entry.counter = 0;
+                    entry.expiresAt = 0;
+                    entry.initialized = true;
+                } else if (entry.bytes != null) {
+                    entry.counter = Long.parseLong(new String(entry.bytes, StandardCharsets.US_ASCII));
+                    entry.bytes = null;
+                }
+                if (resetTtl) {
+                    entry.expiresAt = deadline(now, ttlMillis);
+                }
+                return ++entry.counter;
+            }
+        }
+    }
+
+    /**
+     * 设置过期时间
+     *
+     * @return 键不存在时返回false
+     */
+    public boolean expire(String key, long ttlMillis) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            long now = System.nanoTime();
+            if (entry.removed || !entry.isLive(now)) {
+                return false;
+            }
+            entry.expiresAt = deadline(now, ttlMillis);
+            return true;
+        }
+    }
+
+    /**
+     * 删除键
+     *
+     * @return 键存在且未过期时返回true
+     */
+    public boolean remove(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            if (entry.removed) {
+                return false;
+            }
+            boolean live = entry.isLive(System.nanoTime());
+            entry.removed = true;
+            entries.remove(key, entry);
+            return live;
+        }
+    }
+
+    /**
+     * 移除已过期的条目
+     *
+     * @return 移除的条目数
+     */
+    public int sweep() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Map.Entry<String, Entry> item : entries.entrySet()) {
+            Entry entry = item.getValue();
+            synchronized (entry) {
+                if (!entry.removed && entry.initialized && !entry.isLive(now)) {
+                    entry.removed = true;
+                    entries.remove(item.getKey(), entry);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 当前条目数（含尚未移除的过期条目）
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static long deadline(long now, long ttlMillis) {
+        return ttlMillis > 0 ? now + TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0;
+    }
+
+    private static final class Entry {
+
+        byte[] bytes;
+
+        long counter;
+
+        /**
+         * 过期时间（System.nanoTime()），0表示不过期
+         */
+        long expiresAt;
+
+        /**
+         * 新建条目在首次写入前视为不存在
+         */
+        boolean initialized;
+
+        /**
+         * 已从表中移除，持有旧引用的调用方需重新获取
+         */
+        boolean removed;
+
+        boolean isLive(long now) {
+            return initialized && (expiresAt == 0 || expiresAt - now > 0);
+        }
+    }
+}
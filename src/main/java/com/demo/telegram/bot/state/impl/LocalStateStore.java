@@ -0,0 +1,38 @@
+package com.demo.telegram.bot.state.impl;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.state.StateStore;
+import com.demo.telegram.bot.util.TokenBucketRateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进程内状态存储（默认）
+ * <p>
+ * 直接使用各Bot的去重窗口和令牌桶限流器，不产生网络调用；单实例部署或每个副本独立限流时使用。
+ */
+@Component
+@ConditionalOnProperty(prefix = "telegram.bot.state", name = "type", havingValue = "local", matchIfMissing = true)
+public class LocalStateStore implements StateStore {
+
+    @Override
+    public TelegramBotResponse acquireUpdate(TelegramBotContext bot, long routingKey, long updateId) {
+        return bot.getUpdateIdDeduplicator().tryAcquire(updateId);
+    }
+
+    @Override
+    public void completeUpdate(TelegramBotContext bot, long routingKey, long updateId, TelegramBotResponse response) {
+        bot.getUpdateIdDeduplicator().complete(updateId, response);
+    }
+
+    @Override
+    public void releaseUpdate(TelegramBotContext bot, long routingKey, long updateId) {
+        bot.getUpdateIdDeduplicator().release(updateId);
+    }
+
+    @Override
+    public boolean tryAcquire(TelegramBotContext bot, String scope, TokenBucketRateLimiter limiter, long key) {
+        return limiter.tryAcquire(key, System.nanoTime());
+    }
+}
@@ -0,0 +1,255 @@
+package com.demo.telegram.bot.state.impl;
+
+import com.demo.telegram.bot.util.RespCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以RESP协议提供 {@link InMemoryKeyValueStore} 的服务
+ * <p>
+ * 本节点持有的分片通过它为其他节点提供访问；只实现状态存储用到的命令
+ * （AUTH、PING、GET、SET [NX] [PX|EX]、INCR、PEXPIRE、DEL），客户端可以是 {@link RespKeyValueStore} 或 redis-cli，
+ * 本地开发和测试时也可以单独启动代替Redis。
+ * <p>
+ * 只绑定在配置的地址上；配置了密码时，连接在 AUTH 成功之前执行其他命令都返回 NOAUTH 错误。
+ * <p>
+ * 每条连接由一个虚拟线程处理：按顺序执行命令，输入缓冲中没有更多命令时才刷新输出，
+ * 客户端流水线发送的一批命令只产生一次写出。
+ */
+public class RespKeyValueServer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RespKeyValueServer.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InMemoryKeyValueStore store;
+
+    private final ServerSocket serverSocket;
+
+    /**
+     * 密码，null表示不需要认证
+     */
+    private final byte[] password;
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean closed;
+
+    /**
+     * 绑定地址，调用 {@link #start()} 后开始接受连接
+     *
+     * @param host     监听地址
+     * @param port     监听端口，0表示由系统分配
+     * @param password 密码，null或空表示不需要认证
+     */
+    public RespKeyValueServer(InMemoryKeyValueStore store, String host, int port, String password)
+            throws IOException {
+        this.store = store;
+        this.password = password == null || password.isEmpty() ? null : password.getBytes(StandardCharsets.UTF_8);
+        this.serverSocket = new ServerSocket();
+        try {
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(host, port));
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 启动接受连接的线程
+     */
+    public void start() {
+        Thread acceptor = new Thread(this::acceptLoop, "resp-server-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("RESP状态分片服务已启动: address={}, auth={}",
+                serverSocket.getLocalSocketAddress(), password != null);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                // close() 遍历连接时可能还没看到这个刚接受的连接，由这里关闭
+                if (closed) {
+                    socket.close();
+                    break;
+                }
+                Thread.ofVirtual().name("resp-connection").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("接受RESP连接失败", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+            boolean authenticated = password == null;
+            byte[][] command;
+            while ((command = RespCodec.readCommand(in)) != null) {
+                if (authenticated) {
+                    execute(socket, command, out);
+                } else {
+                    authenticated = authenticate(socket, command, out);
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            if (!closed) {
+                logger.debug("RESP连接断开: {}", e.toString());
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * 未认证连接的命令：只接受 AUTH [username] password，用户名只能是 default
+     *
+     * @return 认证是否成功
+     */
+    private boolean authenticate(Socket socket, byte[][] command, OutputStream out) throws IOException {
+        if (command.length == 0 || !"AUTH".equalsIgnoreCase(new String(command[0], StandardCharsets.US_ASCII))) {
+            RespCodec.writeError(out, "NOAUTH Authentication required.");
+            return false;
+        }
+        if (command.length != 2 && command.length != 3) {
+            RespCodec.writeError(out, "ERR wrong number of arguments for 'AUTH' command");
+            return false;
+        }
+        boolean defaultUser = command.length == 2 || "default".equals(key(command[1]));
+        if (!defaultUser || !MessageDigest.isEqual(password, command[command.length - 1])) {
+            logger.warn("RESP连接认证失败: remote={}", socket.getRemoteSocketAddress());
+            RespCodec.writeError(out, "WRONGPASS invalid username-password pair or user is disabled.");
+            return false;
+        }
+        RespCodec.writeSimple(out, "OK");
+        return true;
+    }
+
+    private void execute(Socket socket, byte[][] command, OutputStream out) throws IOException {
+        if (command.length == 0) {
+            RespCodec.writeError(out, "ERR empty command");
+            return;
+        }
+        String name = new String(command[0], StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+        try {
+            switch (name) {
+                case "PING" -> RespCodec.writeSimple(out, "PONG");
+                case "AUTH" -> {
+                    if (password == null) {
+                        RespCodec.writeError(out, "ERR AUTH called without any password configured");
+                    } else {
+                        authenticate(socket, command, out);
+                    }
+                }
+                case "GET" -> {
+                    requireArgs(command, 2);
+                    RespCodec.writeBulk(out, store.get(key(command[1])));
+                }
+                case "SET" -> set(command, out);
+                case "INCR" -> {
+                    requireArgs(command, 2);
+                    RespCodec.writeInteger(out, store.increment(key(command[1])));
+                }
+                case "PEXPIRE" -> {
+                    requireArgs(command, 3);
+                    RespCodec.writeInteger(out, store.expire(key(command[1]), number(command[2])) ? 1 : 0);
+                }
+                case "DEL" -> {
+                    int removed = 0;
+                    for (int i = 1; i < command.length; i++) {
+                        removed += store.remove(key(command[i])) ? 1 : 0;
+                    }
+                    RespCodec.writeInteger(out, removed);
+                }
+                default -> RespCodec.writeError(out, "ERR unknown command '" + name + "'");
+            }
+        } catch (NumberFormatException e) {
+            RespCodec.writeError(out, "ERR value is not an integer or out of range");
+        } catch (IllegalArgumentException e) {
+            RespCodec.writeError(out, "ERR " + e.getMessage());
+        }
+    }
+
+    /**
+     * SET key value [NX] [PX milliseconds | EX seconds]
+     */
+    private void set(byte[][] command, OutputStream out) throws IOException {
+        if (command.length < 3) {
+            throw new IllegalArgumentException("wrong number of arguments for 'SET' command");
+        }
+        boolean onlyIfAbsent = false;
+        long ttlMillis = 0;
+        for (int i = 3; i < command.length; i++) {
+            String option = new String(command[i], StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "NX" -> onlyIfAbsent = true;
+                case "PX", "EX" -> {
+                    if (++i >= command.length) {
+                        throw new IllegalArgumentException("syntax error");
+                    }
+                    ttlMillis = number(command[i]) * ("EX".equals(option) ? 1000 : 1);
+                }
+                default -> throw new IllegalArgumentException("syntax error");
+            }
+        }
+        if (store.set(key(command[1]), command[2], ttlMillis, onlyIfAbsent)) {
+            RespCodec.writeSimple(out, "OK");
+        } else {
+            RespCodec.writeBulk(out, null);
+        }
+    }
+
+    private static void requireArgs(byte[][] command, int count) {
+        if (command.length != count) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+    }
+
+    private static String key(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static long number(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.telegram.bot.state.impl;
+
+import com.demo.telegram.bot.client.RespClient;
+import com.demo.telegram.bot.state.KeyValueStore;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 通过RESP协议访问的远程分片（其他节点的 {@link RespKeyValueServer} 或Redis）
+ * <p>
+ * 每个操作对应一到两条命令，由 {@link RespClient} 与其他请求的命令合并写出；
+ * 递增的 INCR 和 PEXPIRE 连续发送，只等待 INCR 的响应，不增加往返次数。
+ */
+public class RespKeyValueStore implements KeyValueStore {
+
+    private final RespClient client;
+
+    public RespKeyValueStore(RespClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfAbsent(String key, long ttlMillis) {
+        return client.execute("SET", key, "1", "NX", "PX", Long.toString(ttlMillis))
+                .thenApply("OK"::equals);
+    }
+
+    @Override
+    public CompletableFuture<Long> increment(String key, long ttlMillis) {
+        CompletableFuture<Object> count = client.execute("INCR", key);
+        client.execute("PEXPIRE", key, Long.toString(ttlMillis));
+        return count.thenApply(reply -> (Long) reply);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(String key) {
+        return client.execute("DEL", key).thenApply(reply -> (Long) reply > 0);
+    }
+
+    public RespClient getClient() {
+        return client;
+    }
+}
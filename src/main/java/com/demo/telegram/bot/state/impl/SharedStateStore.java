@@ -0,0 +1,222 @@
+package com.demo.telegram.bot.state.impl;
+
+import com.demo.telegram.bot.client.RespClient;
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.state.KeyValueStore;
+import com.demo.telegram.bot.state.StateStore;
+import com.demo.telegram.bot.util.ConsistentHashRing;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.TokenBucketRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多节点共享的状态存储
+ * <p>
+ * 按分片键（update的聊天ID、限流键）在一致性哈希环上选择节点：本节点持有的分片直接访问进程内的
+ * {@link InMemoryKeyValueStore}，其他分片通过流水线RESP连接访问，并发请求的命令合并写出。
+ * 负载均衡按聊天ID把请求转发到持有该分片的节点时，绝大多数检查在本节点完成，不产生网络往返。
+ * <ul>
+ *     <li>去重：先查本节点的去重窗口（保存响应，重放本节点处理过的update），新的update_id再以 SET NX
+ *     在分片上登记；已由其他节点登记的update返回空响应</li>
+ *     <li>限流：按时间窗口编号计数（INCR），与令牌桶相比窗口边界处最多允许两倍的突发</li>
+ * </ul>
+ * 远程分片超时或不可用时退回进程内的去重窗口和限流器，请求不会因为状态存储故障被阻塞或拒绝。
+ * 本节点的分片服务绑定在本节点配置的地址上，配置 password 后节点之间以 AUTH 认证。
+ */
+@Component
+@ConditionalOnProperty(prefix = "telegram.bot.state", name = "type", havingValue = "shared")
+public class SharedStateStore implements StateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedStateStore.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Autowired
+    private TelegramBotMetrics metrics;
+
+    private ConsistentHashRing<KeyValueStore> ring;
+
+    /**
+     * 本节点持有的分片，未配置本节点ID时为null
+     */
+    private InMemoryKeyValueStore localShard;
+
+    private RespKeyValueServer server;
+
+    private ScheduledExecutorService sweeper;
+
+    private final List<RespClient> clients = new ArrayList<>();
+
+    private long timeoutNanos;
+
+    private long updateTtlMillis;
+
+    private final LongAdder localOperations = new LongAdder();
+
+    private final LongAdder remoteOperations = new LongAdder();
+
+    private final LongAdder fallbacks = new LongAdder();
+
+    @PostConstruct
+    public void init() throws IOException {
+        TelegramBotConfig.StateConfig config = telegramBotConfig.getState();
+        if (config.getNodes().isEmpty()) {
+            throw new IllegalStateException("telegram.bot.state.nodes must not be empty when state type is SHARED");
+        }
+        timeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getTimeoutMillis());
+        updateTtlMillis = TimeUnit.SECONDS.toMillis(config.getUpdateTtlSeconds());
+
+        Map<String, KeyValueStore> shards = new LinkedHashMap<>();
+        for (TelegramBotConfig.StateNodeConfig node : config.getNodes()) {
+            if (shards.containsKey(node.getId())) {
+                throw new IllegalStateException("Duplicate state node id: " + node.getId());
+            }
+            String address = node.getAddress();
+            int separator = address != null ? address.lastIndexOf(':') : -1;
+            if (separator <= 0) {
+                throw new IllegalStateException("Invalid address for state node " + node.getId() + ": " + address);
+            }
+            String host = address.substring(0, separator).replace("[", "").replace("]", "");
+            int port = Integer.parseInt(address.substring(separator + 1));
+
+            if (node.getId().equals(config.getNodeId())) {
+                localShard = new InMemoryKeyValueStore();
+                server = new RespKeyValueServer(localShard, host, port, config.getPassword());
+                server.start();
+                shards.put(node.getId(), localShard);
+            } else {
+                RespClient client = new RespClient(node.getId(), host, port, config.getConnectTimeoutMillis(),
+                        config.getMaxBatchSize(), config.getMaxPending(), config.getPassword());
+                clients.add(client);
+                shards.put(node.getId(), new RespKeyValueStore(client));
+                metrics.functionCounter("telegram.state.commands", "写往远程分片的命令数", client,
+                        RespClient::getCommandCount, "node", node.getId());
+                metrics.functionCounter("telegram.state.batches", "写往远程分片的批次数", client,
+                        RespClient::getBatchCount, "node", node.getId());
+                metrics.gauge("telegram.state.pending", "等待远程分片响应的命令数", client,
+                        RespClient::getPending, "node", node.getId());
+            }
+        }
+        if (config.getNodeId() != null && localShard == null) {
+            throw new IllegalStateException("telegram.bot.state.node-id " + config.getNodeId()
+                    + " is not listed in telegram.bot.state.nodes");
+        }
+        ring = new ConsistentHashRing<>(shards, config.getVirtualNodes());
+
+        if (localShard != null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "state-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(localShard::sweep, 1, 1, TimeUnit.SECONDS);
+            metrics.gauge("telegram.state.local.keys", "本节点分片的键数量", localShard, InMemoryKeyValueStore::size);
+        }
+        metrics.functionCounter("telegram.state.operations", "状态存储操作数", localOperations, LongAdder::sum,
+                "shard", "local");
+        metrics.functionCounter("telegram.state.operations", "状态存储操作数", remoteOperations, LongAdder::sum,
+                "shard", "remote");
+        metrics.functionCounter("telegram.state.fallbacks", "远程分片不可用时退回进程内状态的次数", fallbacks,
+                LongAdder::sum);
+        logger.info("共享状态存储初始化完成: nodeId={}, nodes={}, virtualNodes={}, timeoutMillis={}",
+                config.getNodeId(), ring.getNodeIds(), config.getVirtualNodes(), config.getTimeoutMillis());
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        clients.forEach(RespClient::close);
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Override
+    public TelegramBotResponse acquireUpdate(TelegramBotContext bot, long routingKey, long updateId) {
+        TelegramBotResponse cached = bot.getUpdateIdDeduplicator().tryAcquire(updateId);
+        if (cached != null) {
+            return cached;
+        }
+        Boolean first = await(shard(routingKey).setIfAbsent(updateKey(bot, updateId), updateTtlMillis));
+        if (Boolean.FALSE.equals(first)) {
+            // 已由其他节点登记，本节点的去重窗口保留登记，之后的重试直接返回空响应
+            return TelegramBotResponse.empty();
+        }
+        return null;
+    }
+
+    @Override
+    public void completeUpdate(TelegramBotContext bot, long routingKey, long updateId, TelegramBotResponse response) {
+        bot.getUpdateIdDeduplicator().complete(updateId, response);
+    }
+
+    @Override
+    public void releaseUpdate(TelegramBotContext bot, long routingKey, long updateId) {
+        bot.getUpdateIdDeduplicator().release(updateId);
+        // 不等待结果，删除失败时该登记在过期后失效
+        shard(routingKey).delete(updateKey(bot, updateId));
+    }
+
+    @Override
+    public boolean tryAcquire(TelegramBotContext bot, String scope, TokenBucketRateLimiter limiter, long key) {
+        long windowMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(limiter.getWindowNanos()));
+        long window = System.currentTimeMillis() / windowMillis;
+        String counterKey = "tg:" + bot.getId() + ":r:" + scope + ":" + key + ":" + window;
+        Long count = await(shard(key).increment(counterKey, windowMillis));
+        if (count == null) {
+            return limiter.tryAcquire(key, System.nanoTime());
+        }
+        return count <= limiter.getCapacity();
+    }
+
+    private KeyValueStore shard(long routingKey) {
+        KeyValueStore shard = ring.nodeFor(routingKey);
+        (shard == localShard ? localOperations : remoteOperations).increment();
+        return shard;
+    }
+
+    /**
+     * 等待分片的结果
+     *
+     * @return 超时或失败时返回null，由调用方退回进程内状态
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.isDone() ? future.join() : future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            logger.debug("状态分片不可用，退回进程内状态: {}", e.toString());
+        }
+        fallbacks.increment();
+        return null;
+    }
+
+    private static String updateKey(TelegramBotContext bot, long updateId) {
+        return "tg:" + bot.getId() + ":u:" + updateId;
+    }
+}
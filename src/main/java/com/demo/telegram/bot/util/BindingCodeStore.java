@@ -0,0 +1,478 @@
+package com.demo.telegram.bot.util;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 绑定码存储
+ * <p>
+ * 绑定码由 128 位随机数编码而成（Crockford Base32，不区分大小写），随机数本身即索引键，不保存码字符串。
+ * 条目按列存放在原始类型数组中（随机数高/低 64 位、用户ID、码长度），空位通过空闲链表复用；
+ * 码到条目的索引是线性探测的开放寻址表，删除时回移后续条目，不留墓碑；过期由 {@link TimingWheel} 驱动。
+ * 条目数量只影响数组长度，不产生单条目对象，过期处理耗时只与到期的条目数有关。
+ * <p>
+ * 时间以秒为刻度。非线程安全，由调用方加锁。
+ */
+public class BindingCodeStore {
+
+    /**
+     * 未找到
+     */
+    public static final long NOT_FOUND = Long.MIN_VALUE;
+
+    /**
+     * Crockford Base32 字母表（不含 I、L、O、U）
+     */
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final byte[] DECODE = new byte[128];
+
+    /**
+     * 承载 128 位随机数所需的字符数，更长的码其余字符为校验字符
+     */
+    private static final int RANDOM_CHARS = 26;
+
+    private static final int MAX_LENGTH = 64;
+
+    private static final int NO_ENTRY = -1;
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // 易混淆字符按 Crockford 规则归一
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    /**
+     * 每次从 SecureRandom 批量取出的随机字节数，摊薄单次调用的开销
+     */
+    private static final int RANDOM_BATCH = 4096;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final ByteBuffer randomBytes = ByteBuffer.allocate(RANDOM_BATCH).position(RANDOM_BATCH);
+
+    private final int codeLengthMin;
+
+    private final int codeLengthMax;
+
+    private final TimingWheel wheel;
+
+    private long[] codeHigh;
+
+    private long[] codeLow;
+
+    private long[] userIds;
+
+    private byte[] lengths;
+
+    /**
+     * 空闲条目链表
+     */
+    private int[] freeNext;
+
+    private int freeHead = NO_ENTRY;
+
+    /**
+     * 从未使用过的条目下标起点
+     */
+    private int allocated;
+
+    /**
+     * 开放寻址索引：条目下标+1，0表示空
+     */
+    private int[] index;
+
+    private int indexMask;
+
+    private int size;
+
+    /**
+     * 本次推进中过期的条目数
+     */
+    private int expiredInAdvance;
+
+    private final IntConsumer onExpire = entry -> {
+        release(entry);
+        expiredInAdvance++;
+    };
+
+    /**
+     * @param codeLengthMin   绑定码最小长度
+     * @param codeLengthMax   绑定码最大长度
+     * @param nowSecond       当前时间（秒）
+     * @param initialCapacity 初始容量
+     */
+    public BindingCodeStore(int codeLengthMin, int codeLengthMax, long nowSecond, int initialCapacity) {
+        if (codeLengthMin < 8 || codeLengthMax < codeLengthMin || codeLengthMax > MAX_LENGTH) {
+            throw new IllegalArgumentException("Binding code length must satisfy 8 <= min <= max <= " + MAX_LENGTH);
+        }
+        this.codeLengthMin = codeLengthMin;
+        this.codeLengthMax = codeLengthMax;
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity) - 1) << 1);
+        this.wheel = new TimingWheel(nowSecond, capacity);
+        this.codeHigh = new long[capacity];
+        this.codeLow = new long[capacity];
+        this.userIds = new long[capacity];
+        this.lengths = new byte[capacity];
+        this.freeNext = new int[capacity];
+        this.index = new int[capacity * 2];
+        this.indexMask = index.length - 1;
+    }
+
+    /**
+     * 为用户生成绑定码
+     *
+     * @param expiresAt 过期时间（秒）
+     */
+    public String generate(long telegramUserId, long expiresAt) {
+        int length = codeLengthMin + (int) Long.remainderUnsigned(nextRandomLong(), codeLengthMax - codeLengthMin + 1);
+        long high;
+        long low;
+        do {
+            high = nextRandomLong();
+            low = nextRandomLong();
+            if (length < RANDOM_CHARS) {
+                // 码长度不足以承载128位时，只保留能编码的高位
+                int bits = length * 5;
+                if (bits <= 64) {
+                    high &= -1L << (64 - bits);
+                    low = 0;
+                } else {
+                    low &= -1L << (128 - bits);
+                }
+            }
+        } while (find(high, low, length) != NO_ENTRY);
+
+        insert(high, low, length, telegramUserId, expiresAt);
+        return encode(high, low, length);
+    }
+
+    /**
+     * 载入已有的绑定码（如从持久化存储恢复），码格式不合法或已存在时忽略
+     *
+     * @return 是否载入成功
+     */
+    public boolean put(CharSequence code, long telegramUserId, long expiresAt) {
+        long[] key = decode(code);
+        if (key == null) {
+            return false;
+        }
+        int length = code.length();
+        if (find(key[0], key[1], length) != NO_ENTRY) {
+            return false;
+        }
+        insert(key[0], key[1], length, telegramUserId, expiresAt);
+        return true;
+    }
+
+    /**
+     * 查询并移除绑定码（绑定码只能使用一次）
+     *
+     * @param nowSecond 当前时间（秒），时间轮尚未推进到的已过期条目同样视为不存在
+     * @return 绑定码对应的用户ID，不存在或已过期时返回 {@link #NOT_FOUND}
+     */
+    public long redeem(CharSequence code, long nowSecond) {
+        long[] key = decode(code);
+        if (key == null) {
+            return NOT_FOUND;
+        }
+        int entry = find(key[0], key[1], code.length());
+        if (entry == NO_ENTRY) {
+            return NOT_FOUND;
+        }
+        boolean expired = wheel.deadline(entry) <= nowSecond;
+        long userId = userIds[entry];
+        wheel.cancel(entry);
+        release(entry);
+        return expired ? NOT_FOUND : userId;
+    }
+
+    /**
+     * 推进时间，移除到期的绑定码
+     *
+     * @return 本次移除的数量
+     */
+    public int advance(long nowSecond) {
+        expiredInAdvance = 0;
+        wheel.advance(nowSecond, onExpire);
+        return expiredInAdvance;
+    }
+
+    /**
+     * 遍历未过期的绑定码（用于持久化时重写快照）
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < allocated; i++) {
+            if (wheel.isScheduled(i)) {
+                visitor.visit(encode(codeHigh[i], codeLow[i], lengths[i]), userIds[i], wheel.deadline(i));
+            }
+        }
+    }
+
+    /**
+     * 复制未过期的绑定码，只复制原始类型数组，不生成码字符串
+     * <p>
+     * 调用方在锁内复制，之后在锁外通过 {@link Snapshot#forEach} 编码和写出，重写持久化数据不阻塞生成和使用绑定码。
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(size);
+        int count = 0;
+        for (int i = 0; i < allocated && count < size; i++) {
+            if (wheel.isScheduled(i)) {
+                snapshot.codeHigh[count] = codeHigh[i];
+                snapshot.codeLow[count] = codeLow[i];
+                snapshot.lengths[count] = lengths[i];
+                snapshot.userIds[count] = userIds[i];
+                snapshot.expiresAt[count] = wheel.deadline(i);
+                count++;
+            }
+        }
+        snapshot.size = count;
+        return snapshot;
+    }
+
+    /**
+     * 未过期的绑定码数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 某一时刻未过期绑定码的副本，与存储本身无共享状态
+     */
+    public static final class Snapshot {
+
+        private final long[] codeHigh;
+
+        private final long[] codeLow;
+
+        private final byte[] lengths;
+
+        private final long[] userIds;
+
+        private final long[] expiresAt;
+
+        private int size;
+
+        private Snapshot(int capacity) {
+            codeHigh = new long[capacity];
+            codeLow = new long[capacity];
+            lengths = new byte[capacity];
+            userIds = new long[capacity];
+            expiresAt = new long[capacity];
+        }
+
+        public void forEach(Visitor visitor) {
+            for (int i = 0; i < size; i++) {
+                visitor.visit(encode(codeHigh[i], codeLow[i], lengths[i]), userIds[i], expiresAt[i]);
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * 绑定码遍历回调
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(String code, long telegramUserId, long expiresAt);
+    }
+
+    private long nextRandomLong() {
+        if (randomBytes.remaining() < Long.BYTES) {
+            random.nextBytes(randomBytes.array());
+            randomBytes.clear();
+        }
+        return randomBytes.getLong();
+    }
+
+    private void insert(long high, long low, int length, long telegramUserId, long expiresAt) {
+        if ((size + 1) * 2 > index.length) {
+            resizeIndex(index.length * 2);
+        }
+        int entry = allocate();
+        codeHigh[entry] = high;
+        codeLow[entry] = low;
+        lengths[entry] = (byte) length;
+        userIds[entry] = telegramUserId;
+        wheel.schedule(entry, expiresAt);
+
+        int slot = hash(high, low, length) & indexMask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & indexMask;
+        }
+        index[slot] = entry + 1;
+        size++;
+    }
+
+    private int allocate() {
+        if (freeHead != NO_ENTRY) {
+            int entry = freeHead;
+            freeHead = freeNext[entry];
+            return entry;
+        }
+        if (allocated == codeHigh.length) {
+            int capacity = codeHigh.length * 2;
+            codeHigh = Arrays.copyOf(codeHigh, capacity);
+            codeLow = Arrays.copyOf(codeLow, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            freeNext = Arrays.copyOf(freeNext, capacity);
+        }
+        return allocated++;
+    }
+
+    /**
+     * 从索引中移除条目并放回空闲链表（条目已从时间轮中移除）
+     */
+    private void release(int entry) {
+        int slot = hash(codeHigh[entry], codeLow[entry], lengths[entry]) & indexMask;
+        while (index[slot] != entry + 1) {
+            slot = (slot + 1) & indexMask;
+        }
+        // 回移删除：把探测链上后续的条目前移填补空位
+        int gap = slot;
+        int current = (gap + 1) & indexMask;
+        while (index[current] != 0) {
+            int other = index[current] - 1;
+            int home = hash(codeHigh[other], codeLow[other], lengths[other]) & indexMask;
+            if (((current - home) & indexMask) >= ((current - gap) & indexMask)) {
+                index[gap] = index[current];
+                gap = current;
+            }
+            current = (current + 1) & indexMask;
+        }
+        index[gap] = 0;
+
+        freeNext[entry] = freeHead;
+        freeHead = entry;
+        size--;
+    }
+
+    private int find(long high, long low, int length) {
+        int slot = hash(high, low, length) & indexMask;
+        int value;
+        while ((value = index[slot]) != 0) {
+            int entry = value - 1;
+            if (codeHigh[entry] == high && codeLow[entry] == low && lengths[entry] == length) {
+                return entry;
+            }
+            slot = (slot + 1) & indexMask;
+        }
+        return NO_ENTRY;
+    }
+
+    private void resizeIndex(int capacity) {
+        index = new int[capacity];
+        indexMask = capacity - 1;
+        for (int entry = 0; entry < allocated; entry++) {
+            if (!wheel.isScheduled(entry)) {
+                continue;
+            }
+            int slot = hash(codeHigh[entry], codeLow[entry], lengths[entry]) & indexMask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & indexMask;
+            }
+            index[slot] = entry + 1;
+        }
+    }
+
+    private static int hash(long high, long low, int length) {
+        long h = (high ^ Long.rotateLeft(low, 29) ^ length) * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 编码：前 26 个字符依次承载 128 位随机数（每字符 5 位，不足补 0），其余字符为校验字符
+     */
+    private static String encode(long high, long low, int length) {
+        char[] chars = new char[length];
+        int randomChars = Math.min(length, RANDOM_CHARS);
+        for (int i = 0; i < randomChars; i++) {
+            chars[i] = ALPHABET[bits(high, low, i * 5)];
+        }
+        for (int i = randomChars; i < length; i++) {
+            chars[i] = ALPHABET[checkSymbol(high, low, i)];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 解码出 128 位随机数，长度、字符或校验字符不合法时返回null
+     */
+    private long[] decode(CharSequence code) {
+        int length = code == null ? 0 : code.length();
+        if (length < codeLengthMin || length > codeLengthMax) {
+            return null;
+        }
+        long high = 0;
+        long low = 0;
+        int randomChars = Math.min(length, RANDOM_CHARS);
+        for (int i = 0; i < randomChars; i++) {
+            int symbol = symbol(code.charAt(i));
+            if (symbol < 0) {
+                return null;
+            }
+            int position = i * 5;
+            // 128 位之外的补位必须为 0
+            if (position + 5 > 128 && (symbol & ((1 << (position + 5 - 128)) - 1)) != 0) {
+                return null;
+            }
+            for (int bit = 0; bit < 5 && position + bit < 128; bit++) {
+                if ((symbol & (0x10 >>> bit)) != 0) {
+                    int p = position + bit;
+                    if (p < 64) {
+                        high |= 1L << (63 - p);
+                    } else {
+                        low |= 1L << (127 - p);
+                    }
+                }
+            }
+        }
+        for (int i = randomChars; i < length; i++) {
+            if (symbol(code.charAt(i)) != checkSymbol(high, low, i)) {
+                return null;
+            }
+        }
+        return new long[]{high, low};
+    }
+
+    private static int symbol(char c) {
+        return c < DECODE.length ? DECODE[c] : -1;
+    }
+
+    /**
+     * 取出第 position 位起的 5 位（位 0 为 high 的最高位），超出 128 位的部分补 0
+     */
+    private static int bits(long high, long low, int position) {
+        int value = 0;
+        for (int bit = 0; bit < 5; bit++) {
+            int p = position + bit;
+            value <<= 1;
+            if (p < 64) {
+                value |= (int) (high >>> (63 - p)) & 1;
+            } else if (p < 128) {
+                value |= (int) (low >>> (127 - p)) & 1;
+            }
+        }
+        return value;
+    }
+
+    private static int checkSymbol(long high, long low, int position) {
+        long h = (high * 0xc2b2ae3d27d4eb4fL) ^ (low * 0x165667b19e3779f9L) ^ position;
+        h ^= h >>> 29;
+        h *= 0xbf58476d1ce4e5b9L;
+        return (int) (h >>> 59);
+    }
+}
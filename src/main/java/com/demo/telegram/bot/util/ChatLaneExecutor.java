@@ -0,0 +1,262 @@
+package com.demo.telegram.bot.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 按聊天ID分区的有序执行器
+ * <p>
+ * 每个聊天一个轻量邮箱，同一聊天的任务严格按提交顺序执行，不同聊天的邮箱调度到共享的工作线程池并行执行。
+ * 邮箱在任务执行完后如果为空会立即从表中移除，活跃聊天之外不占用内存。
+ * 入队和移除都在 {@link ConcurrentHashMap#compute} 中完成，保证不会把任务放进已经被移除的邮箱。
+ * 没有执行就移出邮箱的任务（丢弃最早的任务、工作线程池关闭）都交给丢弃回调，由提交方结束任务的处理结果。
+ */
+public class ChatLaneExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatLaneExecutor.class);
+
+    /**
+     * 单个邮箱一次调度最多连续执行的任务数，避免繁忙聊天长期占用工作线程
+     */
+    private static final int BATCH_SIZE = 32;
+
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final Executor workers;
+
+    private final int mailboxCapacity;
+
+    private final int totalCapacity;
+
+    private final AtomicInteger totalDepth = new AtomicInteger();
+
+    private final Consumer<Runnable> discarded;
+
+    /**
+     * @param workers         共享工作线程池（可以是虚拟线程执行器）
+     * @param mailboxCapacity 单个聊天邮箱最多排队任务数
+     * @param totalCapacity   所有邮箱合计最多排队任务数
+     * @param discarded       未执行就被移出邮箱的任务的回调
+     */
+    public ChatLaneExecutor(Executor workers, int mailboxCapacity, int totalCapacity, Consumer<Runnable> discarded) {
+        this.workers = workers;
+        this.mailboxCapacity = Math.max(1, mailboxCapacity);
+        this.totalCapacity = Math.max(1, totalCapacity);
+        this.discarded = discarded;
+    }
+
+    /**
+     * 提交任务到指定聊天的邮箱
+     *
+     * @return 邮箱或总队列已满时返回false，任务不会执行；工作线程池已关闭时任务交给丢弃回调
+     */
+    public boolean execute(long chatId, Runnable task) {
+        if (totalDepth.incrementAndGet() > totalCapacity) {
+            totalDepth.decrementAndGet();
+            return false;
+        }
+
+        // [0]: 已入队, [1]: 需要调度的邮箱
+        Object[] result = new Object[2];
+        mailboxes.compute(chatId, (key, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox(key);
+            }
+            // 已满的邮箱必然非空，不会因拒绝而残留空邮箱
+            if (mailbox.depth.get() >= mailboxCapacity) {
+                return mailbox;
+            }
+            mailbox.queue.add(task);
+            mailbox.depth.incrementAndGet();
+            result[0] = Boolean.TRUE;
+            if (!mailbox.scheduled) {
+                mailbox.scheduled = true;
+                result[1] = mailbox;
+            }
+            return mailbox;
+        });
+
+        if (result[0] == null) {
+            totalDepth.decrementAndGet();
+            return false;
+        }
+        if (result[1] != null) {
+            schedule((Mailbox) result[1]);
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃指定聊天邮箱中最早的一个任务，被丢弃的任务交给丢弃回调
+     *
+     * @return 邮箱为空时返回false
+     */
+    public boolean dropOldest(long chatId) {
+        Mailbox mailbox = mailboxes.get(chatId);
+        Runnable dropped = mailbox != null ? mailbox.queue.poll() : null;
+        if (dropped == null) {
+            return false;
+        }
+        mailbox.depth.decrementAndGet();
+        totalDepth.decrementAndGet();
+        discarded.accept(dropped);
+        return true;
+    }
+
+    /**
+     * 丢弃所有邮箱中尚未执行的任务，在工作线程池停止后调用
+     *
+     * @return 丢弃的任务数
+     */
+    public int discardAll() {
+        int dropped = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            Runnable task;
+            while ((task = mailbox.queue.poll()) != null) {
+                mailbox.depth.decrementAndGet();
+                totalDepth.decrementAndGet();
+                discarded.accept(task);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * 当前存在的聊天邮箱数
+     */
+    public int getLaneCount() {
+        return mailboxes.size();
+    }
+
+    /**
+     * 所有邮箱排队任务总数
+     */
+    public int getTotalDepth() {
+        return totalDepth.get();
+    }
+
+    /**
+     * 指定聊天邮箱的排队任务数
+     */
+    public int getQueueDepth(long chatId) {
+        Mailbox mailbox = mailboxes.get(chatId);
+        return mailbox != null ? mailbox.depth.get() : 0;
+    }
+
+    /**
+     * 排队任务最多的若干聊天及其队列深度
+     */
+    public Map<Long, Integer> getDeepestLanes(int limit) {
+        List<Mailbox> snapshot = new ArrayList<>(mailboxes.values());
+        snapshot.sort(Comparator.comparingInt((Mailbox mailbox) -> mailbox.depth.get()).reversed());
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(limit, snapshot.size()); i++) {
+            result.put(snapshot.get(i).chatId, snapshot.get(i).depth.get());
+        }
+        return result;
+    }
+
+    public int getMailboxCapacity() {
+        return mailboxCapacity;
+    }
+
+    public int getTotalCapacity() {
+        return totalCapacity;
+    }
+
+    private void schedule(Mailbox mailbox) {
+        try {
+            workers.execute(() -> drain(mailbox));
+        } catch (RuntimeException e) {
+            // 工作线程池已关闭：在 compute 中取出任务并移除邮箱，避免并发入队的任务留在无人调度的邮箱中
+            List<Runnable> dropped = new ArrayList<>();
+            mailboxes.compute(mailbox.chatId, (key, current) -> {
+                Runnable task;
+                while ((task = mailbox.queue.poll()) != null) {
+                    dropped.add(task);
+                }
+                mailbox.scheduled = false;
+                return current == mailbox ? null : current;
+            });
+            mailbox.depth.addAndGet(-dropped.size());
+            totalDepth.addAndGet(-dropped.size());
+            logger.warn("聊天分区工作线程池已关闭，丢弃排队任务: chatId={}, dropped={}", mailbox.chatId, dropped.size());
+            dropped.forEach(discarded);
+        }
+    }
+
+    private void drain(Mailbox mailbox) {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = mailbox.queue.poll();
+                if (task == null) {
+                    break;
+                }
+                mailbox.depth.decrementAndGet();
+                totalDepth.decrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    // 任务应自行处理异常；漏出的异常只记录，Error 在释放邮箱后继续抛出
+                    logger.error("聊天分区任务异常: chatId={}", mailbox.chatId, e);
+                    if (e instanceof Error error) {
+                        throw error;
+                    }
+                }
+            }
+        } finally {
+            release(mailbox);
+        }
+    }
+
+    /**
+     * 一次调度结束：邮箱仍有任务时重新调度，否则清除调度标记并移除空邮箱
+     */
+    private void release(Mailbox mailbox) {
+        boolean[] reschedule = new boolean[1];
+        mailboxes.compute(mailbox.chatId, (key, current) -> {
+            if (!mailbox.queue.isEmpty()) {
+                reschedule[0] = true;
+                return current;
+            }
+            mailbox.scheduled = false;
+            return current == mailbox ? null : current;
+        });
+        if (reschedule[0]) {
+            schedule(mailbox);
+        }
+    }
+
+    /**
+     * 单个聊天的邮箱
+     */
+    private static final class Mailbox {
+
+        private final long chatId;
+
+        private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger depth = new AtomicInteger();
+
+        /**
+         * 是否已提交给工作线程，只在 compute 中读写
+         */
+        private boolean scheduled;
+
+        private Mailbox(long chatId) {
+            this.chatId = chatId;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.demo.telegram.bot.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 命令名前缀树
+ * <p>
+ * Telegram命令名只包含字母、数字和下划线（不区分大小写），节点子表按字符下标平铺在一个int数组中，
+ * 查找时间只与命令名长度有关，与命令数量无关，查找过程不产生对象分配。
+ * 构建后只读，可以在多个线程间无锁共享。
+ */
+public final class CommandNameTrie {
+
+    /**
+     * 未找到
+     */
+    public static final int NOT_FOUND = -1;
+
+    /**
+     * a-z、0-9、_
+     */
+    private static final int ALPHABET = 37;
+
+    private int[] children = new int[ALPHABET * 16];
+
+    /**
+     * 节点对应的值+1，0表示该节点不是命令名结尾
+     */
+    private int[] terminals = new int[16];
+
+    private int nodeCount = 1;
+
+    private CommandNameTrie() {
+    }
+
+    /**
+     * 构建前缀树，命令名在列表中的下标即查找结果
+     *
+     * @throws IllegalArgumentException 命令名为空或包含非法字符
+     */
+    public static CommandNameTrie of(List<String> names) {
+        CommandNameTrie trie = new CommandNameTrie();
+        for (int i = 0; i < names.size(); i++) {
+            trie.insert(names.get(i), i);
+        }
+        return trie;
+    }
+
+    /**
+     * 是否为合法的命令名
+     */
+    public static boolean isValidName(CharSequence name) {
+        if (name == null || name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (symbol(name.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(String name, int value) {
+        if (!isValidName(name)) {
+            throw new IllegalArgumentException("Invalid command name: " + name);
+        }
+        int node = 0;
+        for (int i = 0; i < name.length(); i++) {
+            int index = node * ALPHABET + symbol(name.charAt(i));
+            if (children[index] == 0) {
+                if (nodeCount == terminals.length) {
+                    children = Arrays.copyOf(children, children.length * 2);
+                    terminals = Arrays.copyOf(terminals, terminals.length * 2);
+                }
+                children[index] = nodeCount++;
+            }
+            node = children[index];
+        }
+        terminals[node] = value + 1;
+    }
+
+    /**
+     * 查找 text[from, to) 对应的值
+     *
+     * @return 未找到时返回 {@link #NOT_FOUND}
+     */
+    public int find(CharSequence text, int from, int to) {
+        if (from >= to) {
+            return NOT_FOUND;
+        }
+        int node = 0;
+        for (int i = from; i < to; i++) {
+            int symbol = symbol(text.charAt(i));
+            if (symbol < 0) {
+                return NOT_FOUND;
+            }
+            node = children[node * ALPHABET + symbol];
+            if (node == 0) {
+                return NOT_FOUND;
+            }
+        }
+        return terminals[node] - 1;
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= '0' && c <= '9') {
+            return 26 + (c - '0');
+        }
+        return c == '_' ? 36 : -1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.demo.telegram.bot.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一致性哈希环
+ * <p>
+ * 以 long 为键（聊天ID、用户ID等）把键分配给节点。每个节点按 "节点ID#序号" 在环上放置若干虚拟节点，
+ * 键落在顺时针方向的第一个虚拟节点上。增减节点时只有相邻区间的键改变归属，其余键保持不变。
+ * 环在构造后只读，查找是一次有序数组上的二分查找，不加锁。
+ *
+ * @param <T> 节点类型
+ */
+public class ConsistentHashRing<T> {
+
+    /**
+     * 虚拟节点在环上的位置，升序
+     */
+    private final long[] points;
+
+    /**
+     * 与 points 对应的节点
+     */
+    private final T[] owners;
+
+    private final List<String> nodeIds;
+
+    /**
+     * @param nodes        节点ID -> 节点
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    @SuppressWarnings("unchecked")
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("nodes must not be empty and virtualNodes must be positive");
+        }
+        int total = nodes.size() * virtualNodes;
+        long[] hashes = new long[total];
+        Object[] values = new Object[total];
+        Integer[] order = new Integer[total];
+        int n = 0;
+        for (Map.Entry<String, T> node : nodes.entrySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                hashes[n] = hash(node.getKey() + "#" + i);
+                values[n] = node.getValue();
+                order[n] = n;
+                n++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+        this.points = new long[total];
+        this.owners = (T[]) new Object[total];
+        for (int i = 0; i < total; i++) {
+            points[i] = hashes[order[i]];
+            owners[i] = (T) values[order[i]];
+        }
+        this.nodeIds = List.copyOf(nodes.keySet());
+    }
+
+    /**
+     * 键所属的节点
+     */
+    public T nodeFor(long key) {
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                index = 0;
+            }
+        }
+        return owners[index];
+    }
+
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    private static long hash(String label) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : label.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+}
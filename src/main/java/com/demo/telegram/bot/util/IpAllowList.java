@@ -0,0 +1,233 @@
+package com.demo.telegram.bot.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 预编译的IP白名单
+ * <p>
+ * 启动时将CIDR列表解析为按起始地址排序、合并后的不重叠区间数组（IPv4、IPv6各一份），
+ * 请求时解析客户端地址不产生对象分配，再二分查找所在区间，即使白名单有上千条也只需 O(log n) 次比较。
+ */
+public class IpAllowList {
+
+    private static final IpAllowList EMPTY = new IpAllowList(new long[0], new long[0], new long[0][], new long[0][]);
+
+    /**
+     * IPv6地址解析缓冲区，避免每次解析分配数组
+     */
+    private static final ThreadLocal<long[]> IPV6_BUFFER = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final long[] v4Starts;
+
+    private final long[] v4Ends;
+
+    /**
+     * IPv6区间，每个元素为 {startHi, startLo, endHi, endLo}，按列拆开存放
+     */
+    private final long[] v6StartHi;
+    private final long[] v6StartLo;
+    private final long[] v6EndHi;
+    private final long[] v6EndLo;
+
+    private IpAllowList(long[] v4Starts, long[] v4Ends, long[][] v6Starts, long[][] v6Ends) {
+        this.v4Starts = v4Starts;
+        this.v4Ends = v4Ends;
+        int n = v6Starts.length;
+        this.v6StartHi = new long[n];
+        this.v6StartLo = new long[n];
+        this.v6EndHi = new long[n];
+        this.v6EndLo = new long[n];
+        for (int i = 0; i < n; i++) {
+            v6StartHi[i] = v6Starts[i][0];
+            v6StartLo[i] = v6Starts[i][1];
+            v6EndHi[i] = v6Ends[i][0];
+            v6EndLo[i] = v6Ends[i][1];
+        }
+    }
+
+    /**
+     * 编译白名单
+     *
+     * @param entries 单个IP或CIDR，支持IPv4和IPv6
+     * @throws IllegalArgumentException 存在无法解析的条目
+     */
+    public static IpAllowList compile(List<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<long[]> v4 = new ArrayList<>();
+        List<long[]> v6 = new ArrayList<>();
+        long[] address = new long[2];
+        for (String raw : entries) {
+            String entry = raw.trim();
+            int slash = entry.indexOf('/');
+            int end = slash >= 0 ? slash : entry.length();
+
+            long v4Address = IpUtil.parseIpv4(entry, 0, end);
+            if (v4Address >= 0) {
+                int prefix = slash >= 0 ? parsePrefix(entry, slash + 1, 32) : 32;
+                long hostMask = prefix == 32 ? 0L : (0xFFFFFFFFL >>> prefix);
+                long start = v4Address & ~hostMask & 0xFFFFFFFFL;
+                v4.add(new long[]{start, start | hostMask});
+                continue;
+            }
+
+            if (IpUtil.parseIpv6(entry, 0, end, address)) {
+                int prefix = slash >= 0 ? parsePrefix(entry, slash + 1, 128) : 128;
+                long hiHostMask = prefix >= 64 ? 0L : (prefix == 0 ? -1L : (-1L >>> prefix));
+                long loHostMask = prefix >= 128 ? 0L : (prefix <= 64 ? -1L : (-1L >>> (prefix - 64)));
+                long startHi = address[0] & ~hiHostMask;
+                long startLo = address[1] & ~loHostMask;
+                v6.add(new long[]{startHi, startLo, startHi | hiHostMask, startLo | loHostMask});
+                continue;
+            }
+
+            throw new IllegalArgumentException("Invalid IP allow-list entry: " + raw);
+        }
+
+        // IPv4：排序后合并重叠或相邻区间
+        v4.sort(Comparator.comparingLong(r -> r[0]));
+        List<long[]> mergedV4 = new ArrayList<>();
+        for (long[] range : v4) {
+            long[] last = mergedV4.isEmpty() ? null : mergedV4.get(mergedV4.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                mergedV4.add(range);
+            }
+        }
+
+        // IPv6：按无符号128位比较排序后合并
+        v6.sort((a, b) -> compare128(a[0], a[1], b[0], b[1]));
+        List<long[]> mergedV6 = new ArrayList<>();
+        for (long[] range : v6) {
+            long[] last = mergedV6.isEmpty() ? null : mergedV6.get(mergedV6.size() - 1);
+            if (last != null && compare128(range[0], range[1], last[2], last[3]) <= 0) {
+                if (compare128(range[2], range[3], last[2], last[3]) > 0) {
+                    last[2] = range[2];
+                    last[3] = range[3];
+                }
+            } else {
+                mergedV6.add(range);
+            }
+        }
+
+        long[] v4Starts = new long[mergedV4.size()];
+        long[] v4Ends = new long[mergedV4.size()];
+        for (int i = 0; i < mergedV4.size(); i++) {
+            v4Starts[i] = mergedV4.get(i)[0];
+            v4Ends[i] = mergedV4.get(i)[1];
+        }
+        long[][] v6Starts = new long[mergedV6.size()][];
+        long[][] v6Ends = new long[mergedV6.size()][];
+        for (int i = 0; i < mergedV6.size(); i++) {
+            long[] range = mergedV6.get(i);
+            v6Starts[i] = new long[]{range[0], range[1]};
+            v6Ends[i] = new long[]{range[2], range[3]};
+        }
+        return new IpAllowList(v4Starts, v4Ends, v6Starts, v6Ends);
+    }
+
+    /**
+     * 白名单是否为空
+     */
+    public boolean isEmpty() {
+        return v4Starts.length == 0 && v6StartHi.length == 0;
+    }
+
+    /**
+     * 合并后的区间数量
+     */
+    public int size() {
+        return v4Starts.length + v6StartHi.length;
+    }
+
+    /**
+     * 检查IP是否在白名单内，无法解析的地址视为不允许
+     */
+    public boolean contains(String ip) {
+        if (ip == null) {
+            return false;
+        }
+        int from = 0;
+        int to = ip.length();
+        // 去除首尾空白以及IPv6的方括号
+        while (from < to && ip.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && ip.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (to - from > 2 && ip.charAt(from) == '[' && ip.charAt(to - 1) == ']') {
+            from++;
+            to--;
+        }
+
+        long v4Address = IpUtil.parseIpv4(ip, from, to);
+        if (v4Address >= 0) {
+            return containsV4(v4Address);
+        }
+
+        long[] address = IPV6_BUFFER.get();
+        if (!IpUtil.parseIpv6(ip, from, to, address)) {
+            return false;
+        }
+        // IPv4映射的IPv6地址（::ffff:a.b.c.d）按IPv4匹配
+        if (address[0] == 0 && (address[1] >>> 32) == 0xFFFFL) {
+            return containsV4(address[1] & 0xFFFFFFFFL);
+        }
+        return containsV6(address[0], address[1]);
+    }
+
+    private boolean containsV4(long address) {
+        int index = Arrays.binarySearch(v4Starts, address);
+        if (index >= 0) {
+            return true;
+        }
+        index = -index - 2;
+        return index >= 0 && address <= v4Ends[index];
+    }
+
+    private boolean containsV6(long hi, long lo) {
+        int low = 0;
+        int high = v6StartHi.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare128(v6StartHi[mid], v6StartLo[mid], hi, lo) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return candidate >= 0 && compare128(hi, lo, v6EndHi[candidate], v6EndLo[candidate]) <= 0;
+    }
+
+    private static int compare128(long aHi, long aLo, long bHi, long bLo) {
+        int result = Long.compareUnsigned(aHi, bHi);
+        return result != 0 ? result : Long.compareUnsigned(aLo, bLo);
+    }
+
+    private static int parsePrefix(String entry, int from, int max) {
+        int prefix = 0;
+        if (from >= entry.length() || entry.length() - from > 3) {
+            throw new IllegalArgumentException("Invalid CIDR prefix: " + entry);
+        }
+        for (int i = from; i < entry.length(); i++) {
+            char c = entry.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid CIDR prefix: " + entry);
+            }
+            prefix = prefix * 10 + (c - '0');
+        }
+        if (prefix > max) {
+            throw new IllegalArgumentException("Invalid CIDR prefix: " + entry);
+        }
+        return prefix;
+    }
+}
@@ -2,8 +2,11 @@ package com.demo.telegram.bot.util;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 
-import java.util.List;
+import java.net.InetSocketAddress;
+
+import java.util.function.UnaryOperator;
 
 public class IpUtil {
 
@@ -11,7 +14,27 @@ public class IpUtil {
      * 获取客户端真实IP地址
      */
     public static String getClientIp(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
+        return getClientIp(request::getHeader, request.getRemoteAddr());
+    }
+
+    /**
+     * 获取响应式请求的客户端真实IP地址
+     */
+    public static String getClientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String remoteIp = remoteAddress == null ? null : remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress() : remoteAddress.getHostString();
+        return getClientIp(request.getHeaders()::getFirst, remoteIp);
+    }
+
+    /**
+     * 依次取 X-Forwarded-For 的第一个地址、X-Real-IP 和连接的对端地址
+     *
+     * @param headers  按名称查找请求头
+     * @param remoteIp 连接的对端地址
+     */
+    public static String getClientIp(UnaryOperator<String> headers, String remoteIp) {
+        String ip = headers.apply("X-Forwarded-For");
         if (StringUtils.isNotBlank(ip) && !"unknown".equalsIgnoreCase(ip)) {
             // 多级反向代理时，取第一个IP
             int index = ip.indexOf(",");
@@ -22,61 +45,186 @@ public class IpUtil {
             }
         }
 
-        ip = request.getHeader("X-Real-IP");
+        ip = headers.apply("X-Real-IP");
         if (StringUtils.isNotBlank(ip) && !"unknown".equalsIgnoreCase(ip)) {
             return ip;
         }
 
-        return request.getRemoteAddr();
+        return remoteIp;
     }
 
     /**
-     * 检查IP是否在指定的IP段内
+     * 解析IPv4地址
+     *
+     * @return 32位地址值，格式不正确时返回-1
      */
-    private static boolean isIpInRange(String ip, String cidr) {
-        if (!cidr.contains("/")) {
-            // 单个IP地址比较
-            return ip.equals(cidr);
+    public static long parseIpv4(CharSequence ip, int from, int to) {
+        long value = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = from; i < to; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9' && digits < 3) {
+                octet = octet * 10 + (c - '0');
+                digits++;
+            } else if (c == '.' && digits > 0 && octet <= 255 && dots < 3) {
+                value = (value << 8) | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return -1;
+            }
         }
+        if (dots != 3 || digits == 0 || octet > 255) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
 
-        String[] parts = cidr.split("/");
-        String network = parts[0];
-        int prefixLength = Integer.parseInt(parts[1]);
+    /**
+     * 解析IPv6地址（支持 :: 缩写、末尾内嵌IPv4以及 %zone 后缀）
+     *
+     * @param out 输出的128位地址，out[0]为高64位，out[1]为低64位
+     * @return 格式是否正确
+     */
+    public static boolean parseIpv6(CharSequence ip, int from, int to, long[] out) {
+        for (int i = from; i < to; i++) {
+            if (ip.charAt(i) == '%') {
+                to = i;
+                break;
+            }
+        }
+        if (to - from < 2) {
+            return false;
+        }
 
-        long ipLong = ipToLong(ip);
-        long networkLong = ipToLong(network);
-        long mask = (0xFFFFFFFFL << (32 - prefixLength)) & 0xFFFFFFFFL;
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+        int i = from;
+        if (ip.charAt(i) == ':') {
+            if (ip.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
 
-        return (ipLong & mask) == (networkLong & mask);
+        while (i < to) {
+            // 解析一个分组，遇到'.'说明是末尾内嵌的IPv4地址
+            int groupStart = i;
+            int group = 0;
+            while (i < to && i - groupStart < 5) {
+                int digit = Character.digit(ip.charAt(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                group = (group << 4) | digit;
+                i++;
+            }
+            if (i < to && ip.charAt(i) == '.') {
+                long v4 = parseIpv4(ip, groupStart, to);
+                if (v4 < 0) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHi = (tailHi << 32) | (tailLo >>> 32);
+                    tailLo = (tailLo << 32) | v4;
+                    tailGroups += 2;
+                } else {
+                    headHi = (headHi << 32) | (headLo >>> 32);
+                    headLo = (headLo << 32) | v4;
+                    headGroups += 2;
+                }
+                i = to;
+                break;
+            }
+            int length = i - groupStart;
+            if (length == 0 || length > 4) {
+                return false;
+            }
+            if (compressed) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | group;
+                tailGroups++;
+            } else {
+                headHi = (headHi << 16) | (headLo >>> 48);
+                headLo = (headLo << 16) | group;
+                headGroups++;
+            }
+            if (i == to) {
+                break;
+            }
+            if (ip.charAt(i) != ':') {
+                return false;
+            }
+            i++;
+            if (i < to && ip.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            } else if (i == to) {
+                // 以单个':'结尾
+                return false;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+
+        // 将 :: 之前的分组左移到高位，再与 :: 之后的分组合并
+        int shift = 16 * (8 - headGroups);
+        long hi;
+        long lo;
+        if (shift == 0) {
+            hi = headHi;
+            lo = headLo;
+        } else if (shift < 64) {
+            hi = (headHi << shift) | (headLo >>> (64 - shift));
+            lo = headLo << shift;
+        } else if (shift < 128) {
+            hi = headLo << (shift - 64);
+            lo = 0;
+        } else {
+            hi = 0;
+            lo = 0;
+        }
+        out[0] = hi | tailHi;
+        out[1] = lo | tailLo;
+        return true;
     }
 
     /**
-     * 将IP地址转换为长整型
+     * 将IP地址转换为限流使用的long键
+     * IPv4直接使用32位地址值，其它地址使用64位哈希并置最高位以区分
      */
-    private static long ipToLong(String ip) {
-        String[] parts = ip.split("\\.");
-        long result = 0;
-        for (int i = 0; i < 4; i++) {
-            result += Long.parseLong(parts[i]) << (8 * (3 - i));
-        }
-        return result & 0xFFFFFFFFL;
+    public static long toRateLimitKey(String ip) {
+        long v4Address = parseIpv4(ip, 0, ip.length());
+        return v4Address >= 0 ? v4Address : hashKey(ip);
     }
 
+    private static long hashKey(String ip) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < ip.length(); i++) {
+            hash = (hash ^ ip.charAt(i)) * 0x100000001b3L;
+        }
+        return hash | Long.MIN_VALUE;
+    }
 
     /**
-     * 检查IP是否在允许的范围内
+     * 检查IP是否在预编译的白名单内
      */
-    public static boolean isIpAllowed(String ip, List<String> allowedIps) {
+    public static boolean isIpAllowed(String ip, IpAllowList allowList) {
         if (StringUtils.isBlank(ip)) {
             return false;
         }
 
-        for (String allowedIp : allowedIps) {
-            if (isIpInRange(ip, allowedIp)) {
-                return true;
-            }
-        }
-
-        return false;
+        return allowList.contains(ip);
     }
 }
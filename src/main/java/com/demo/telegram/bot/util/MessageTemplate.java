@@ -0,0 +1,312 @@
+package com.demo.telegram.bot.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 预编译的消息模板
+ * <p>
+ * 启动时把模板解析为字面量段和占位符段，渲染时按段顺序写入线程复用的 StringBuilder，
+ * 不再每次解析格式串（String.format）或创建 DateTimeFormatter。
+ * 不含占位符的模板（包括通过 {@link #bind} 填满全部占位符的模板）视为常量，渲染直接返回缓存的字符串。
+ * <p>
+ * 占位符语法：{@code {序号}} 或 {@code {序号:类型}}，{@code {{} 表示字面量 {。支持的类型：
+ * <ul>
+ *     <li>无类型：字符串原样输出，整数按十进制输出</li>
+ *     <li>number：整数，千分位分组，如 1,234,567</li>
+ *     <li>money：金额，千分位分组、两位小数（四舍五入），如 12,345.60</li>
+ *     <li>datetime：日期时间，yyyy-MM-dd HH:mm:ss</li>
+ * </ul>
+ */
+public final class MessageTemplate {
+
+    /**
+     * 占位符类型
+     */
+    private enum Format {
+        PLAIN, NUMBER, MONEY, DATETIME
+    }
+
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 复用的渲染缓冲区超过该容量后不再保留，避免个别超长消息长期占用内存
+     */
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    /**
+     * 字面量段为 String，占位符段为 Placeholder
+     */
+    private final Object[] segments;
+
+    private final int placeholderCount;
+
+    private final int estimatedLength;
+
+    /**
+     * 常量模板的渲染结果，非常量模板为null
+     */
+    private final String constant;
+
+    private MessageTemplate(List<Object> segments) {
+        this.segments = segments.toArray();
+        int placeholders = 0;
+        int length = 0;
+        for (Object segment : this.segments) {
+            if (segment instanceof Placeholder) {
+                placeholders++;
+                length += 16;
+            } else {
+                length += ((String) segment).length();
+            }
+        }
+        this.placeholderCount = placeholders;
+        this.estimatedLength = length;
+        this.constant = placeholders == 0 ? String.join("", segments.stream().map(String.class::cast).toList()) : null;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @throws IllegalArgumentException 占位符格式错误
+     */
+    public static MessageTemplate compile(String pattern) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '{') {
+                literal.append('{');
+                i += 2;
+                continue;
+            }
+            int close = pattern.indexOf('}', i);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template at " + i);
+            }
+            if (literal.length() > 0) {
+                segments.add(literal.toString());
+                literal.setLength(0);
+            }
+            segments.add(parsePlaceholder(pattern.substring(i + 1, close)));
+            i = close + 1;
+        }
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+        }
+        return new MessageTemplate(segments);
+    }
+
+    private static Placeholder parsePlaceholder(String spec) {
+        int colon = spec.indexOf(':');
+        String index = colon >= 0 ? spec.substring(0, colon) : spec;
+        Format format = Format.PLAIN;
+        if (colon >= 0) {
+            format = switch (spec.substring(colon + 1)) {
+                case "number" -> Format.NUMBER;
+                case "money" -> Format.MONEY;
+                case "datetime" -> Format.DATETIME;
+                default -> throw new IllegalArgumentException("Unknown placeholder format: " + spec);
+            };
+        }
+        try {
+            return new Placeholder(Integer.parseInt(index), format);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid placeholder index: " + spec);
+        }
+    }
+
+    /**
+     * 用给定参数填充对应序号的占位符，返回新模板；填满全部占位符后得到常量模板
+     */
+    public MessageTemplate bind(Object... args) {
+        List<Object> bound = new ArrayList<>(segments.length);
+        StringBuilder literal = new StringBuilder();
+        for (Object segment : segments) {
+            if (segment instanceof Placeholder placeholder && placeholder.index >= args.length) {
+                if (literal.length() > 0) {
+                    bound.add(literal.toString());
+                    literal.setLength(0);
+                }
+                bound.add(placeholder);
+            } else {
+                appendSegment(literal, segment, args);
+            }
+        }
+        if (literal.length() > 0) {
+            bound.add(literal.toString());
+        }
+        return new MessageTemplate(bound);
+    }
+
+    /**
+     * 渲染模板
+     */
+    public String render(Object... args) {
+        if (constant != null) {
+            return constant;
+        }
+        StringBuilder builder = BUFFER.get();
+        builder.setLength(0);
+        renderTo(builder, args);
+        String result = builder.toString();
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * 渲染模板并追加到给定的 StringBuilder
+     */
+    public void renderTo(StringBuilder builder, Object... args) {
+        if (constant != null) {
+            builder.append(constant);
+            return;
+        }
+        builder.ensureCapacity(builder.length() + estimatedLength);
+        for (Object segment : segments) {
+            appendSegment(builder, segment, args);
+        }
+    }
+
+    /**
+     * 是否为常量模板（不含占位符）
+     */
+    public boolean isConstant() {
+        return constant != null;
+    }
+
+    public int getPlaceholderCount() {
+        return placeholderCount;
+    }
+
+    private static void appendSegment(StringBuilder builder, Object segment, Object[] args) {
+        if (segment instanceof String literal) {
+            builder.append(literal);
+            return;
+        }
+        Placeholder placeholder = (Placeholder) segment;
+        if (placeholder.index >= args.length) {
+            throw new IllegalArgumentException("Missing template argument " + placeholder.index);
+        }
+        Object value = args[placeholder.index];
+        switch (placeholder.format) {
+            case NUMBER -> appendNumber(builder, value);
+            case MONEY -> appendMoney(builder, value);
+            case DATETIME -> appendDateTime(builder, value);
+            default -> appendPlain(builder, value);
+        }
+    }
+
+    private static void appendPlain(StringBuilder builder, Object value) {
+        if (value instanceof CharSequence text) {
+            builder.append(text);
+        } else if (value instanceof Long || value instanceof Integer) {
+            builder.append(((Number) value).longValue());
+        } else {
+            builder.append(value);
+        }
+    }
+
+    private static void appendNumber(StringBuilder builder, Object value) {
+        if (value instanceof Long || value instanceof Integer) {
+            appendGrouped(builder, ((Number) value).longValue());
+        } else {
+            appendPlain(builder, value);
+        }
+    }
+
+    private static void appendMoney(StringBuilder builder, Object value) {
+        BigDecimal amount;
+        if (value instanceof BigDecimal decimal) {
+            amount = decimal;
+        } else if (value instanceof Long || value instanceof Integer) {
+            amount = BigDecimal.valueOf(((Number) value).longValue());
+        } else {
+            appendPlain(builder, value);
+            return;
+        }
+        BigDecimal scaled = amount.setScale(2, RoundingMode.HALF_UP);
+        if (scaled.precision() > 18) {
+            // 超出long范围的金额很少见，退回通用格式化
+            builder.append(String.format(Locale.ROOT, "%,.2f", scaled));
+            return;
+        }
+        long cents = scaled.unscaledValue().longValue();
+        if (cents < 0) {
+            builder.append('-');
+            cents = -cents;
+        }
+        appendGrouped(builder, cents / 100);
+        long fraction = cents % 100;
+        builder.append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+    }
+
+    private static void appendDateTime(StringBuilder builder, Object value) {
+        if (value instanceof LocalDateTime time) {
+            builder.append(time.getYear()).append('-');
+            appendTwoDigits(builder, time.getMonthValue());
+            builder.append('-');
+            appendTwoDigits(builder, time.getDayOfMonth());
+            builder.append(' ');
+            appendTwoDigits(builder, time.getHour());
+            builder.append(':');
+            appendTwoDigits(builder, time.getMinute());
+            builder.append(':');
+            appendTwoDigits(builder, time.getSecond());
+        } else if (value instanceof TemporalAccessor temporal) {
+            DATETIME_FORMATTER.formatTo(temporal, builder);
+        } else {
+            appendPlain(builder, value);
+        }
+    }
+
+    private static void appendTwoDigits(StringBuilder builder, int value) {
+        builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * 按千分位分组输出整数
+     */
+    private static void appendGrouped(StringBuilder builder, long value) {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                builder.append(String.format(Locale.ROOT, "%,d", value));
+                return;
+            }
+            builder.append('-');
+            value = -value;
+        }
+        if (value < 1000) {
+            builder.append(value);
+            return;
+        }
+        appendGrouped(builder, value / 1000);
+        long group = value % 1000;
+        builder.append(',')
+                .append((char) ('0' + group / 100))
+                .append((char) ('0' + group / 10 % 10))
+                .append((char) ('0' + group % 10));
+    }
+
+    /**
+     * 占位符段
+     */
+    private record Placeholder(int index, Format format) {
+    }
+}
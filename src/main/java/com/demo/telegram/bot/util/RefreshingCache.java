@@ -0,0 +1,285 @@
+package com.demo.telegram.bot.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * 以 long 为键的有界加载缓存
+ * <p>
+ * 条目按加载时间分为三个阶段：
+ * <ul>
+ *     <li>加载后 refreshAfter 之内：直接返回缓存值</li>
+ *     <li>refreshAfter 到 expireAfter 之间：仍返回缓存值，同时在后台刷新</li>
+ *     <li>超过 expireAfter 或不存在：调用方同步加载</li>
+ * </ul>
+ * 同一个键同时只有一次加载（含后台刷新），并发请求等待同一次加载的结果，慢数据源上的重复请求只产生一次调用。
+ * 加载失败不缓存，后台刷新失败时保留旧值直到过期。
+ * <p>
+ * 与 {@link TokenBucketRateLimiter} 相同，按键的哈希分散到多个独立加锁的分段，每个分段是按访问顺序排列的
+ * LinkedHashMap，超出分段容量时淘汰最久未访问的条目。锁只保护表操作，加载在锁外执行。
+ *
+ * @param <V> 缓存值类型
+ */
+public class RefreshingCache<V> {
+
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final Stripe<V>[] stripes;
+
+    private final int stripeMask;
+
+    private final LongFunction<V> loader;
+
+    /**
+     * 后台刷新使用的执行器
+     */
+    private final Executor refreshExecutor;
+
+    private final long refreshAfterNanos;
+
+    private final long expireAfterNanos;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder staleHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder loadFailures = new LongAdder();
+
+    /**
+     * @param maxSize         最大条目数
+     * @param refreshAfter    加载后超过该时间的条目在返回时触发后台刷新
+     * @param expireAfter     加载后超过该时间的条目不再返回，须不小于 refreshAfter
+     * @param unit            时间单位
+     * @param loader          加载函数，失败时抛出异常
+     * @param refreshExecutor 后台刷新使用的执行器
+     */
+    @SuppressWarnings("unchecked")
+    public RefreshingCache(int maxSize, long refreshAfter, long expireAfter, TimeUnit unit,
+                           LongFunction<V> loader, Executor refreshExecutor) {
+        if (maxSize <= 0 || refreshAfter < 0 || expireAfter < refreshAfter) {
+            throw new IllegalArgumentException("maxSize must be positive and 0 <= refreshAfter <= expireAfter");
+        }
+        int count = Integer.highestOneBit(Math.min(DEFAULT_STRIPES, maxSize));
+        this.stripes = (Stripe<V>[]) new Stripe<?>[count];
+        int stripeCapacity = (maxSize + count - 1) / count;
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe<>(stripeCapacity);
+        }
+        this.stripeMask = count - 1;
+        this.refreshAfterNanos = unit.toNanos(refreshAfter);
+        this.expireAfterNanos = unit.toNanos(expireAfter);
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期时在当前线程加载（已有加载进行中时等待其结果）
+     *
+     * @throws RuntimeException 加载失败时抛出加载函数的异常
+     */
+    public V get(long key) {
+        Stripe<V> stripe = stripeOf(key);
+        long now = System.nanoTime();
+        Entry<V> entry;
+        CompletableFuture<V> loading;
+        boolean leader = false;
+        synchronized (stripe) {
+            entry = stripe.entries.get(key);
+            if (entry != null && entry.value != null) {
+                long age = now - entry.loadedAt;
+                if (age < refreshAfterNanos) {
+                    hits.increment();
+                    return entry.value;
+                }
+                if (age < expireAfterNanos) {
+                    staleHits.increment();
+                    V stale = entry.value;
+                    if (entry.loading == null) {
+                        entry.loading = new CompletableFuture<>();
+                        refreshLater(stripe, key, entry);
+                    }
+                    return stale;
+                }
+            }
+
+            if (entry == null) {
+                entry = new Entry<>();
+                stripe.entries.put(key, entry);
+            }
+            if (entry.loading == null) {
+                entry.loading = new CompletableFuture<>();
+                leader = true;
+                misses.increment();
+            } else {
+                coalesced.increment();
+            }
+            loading = entry.loading;
+        }
+
+        if (leader) {
+            return load(stripe, key, entry);
+        }
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * 在锁内调用：提交后台刷新，执行器拒绝时放弃本次刷新
+     */
+    private void refreshLater(Stripe<V> stripe, long key, Entry<V> entry) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(stripe, key, entry);
+                } catch (RuntimeException ignored) {
+                    // 刷新失败时保留旧值，已计入 loadFailures
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<V> loading = entry.loading;
+            entry.loading = null;
+            loading.completeExceptionally(e);
+        }
+    }
+
+    private V load(Stripe<V> stripe, long key, Entry<V> entry) {
+        CompletableFuture<V> loading = entry.loading;
+        V value;
+        try {
+            value = loader.apply(key);
+            if (value == null) {
+                throw new IllegalStateException("Loader returned null for key " + key);
+            }
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            synchronized (stripe) {
+                entry.loading = null;
+                if (entry.value == null) {
+                    stripe.entries.remove(key, entry);
+                }
+            }
+            loading.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (stripe) {
+            entry.value = value;
+            entry.loadedAt = System.nanoTime();
+            entry.loading = null;
+        }
+        loading.complete(value);
+        return value;
+    }
+
+    /**
+     * 移除缓存值，下次访问时重新加载
+     */
+    public void invalidate(long key) {
+        Stripe<V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            Entry<V> entry = stripe.entries.get(key);
+            if (entry != null && entry.loading == null) {
+                stripe.entries.remove(key);
+            } else if (entry != null) {
+                // 进行中的加载仍会写回该条目，这里只让已有值立即过期
+                entry.loadedAt = System.nanoTime() - expireAfterNanos;
+            }
+        }
+    }
+
+    /**
+     * 当前条目数（含加载中的条目）
+     */
+    public int size() {
+        int total = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.entries.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 直接返回未到刷新时间的缓存值的次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * 返回旧值并触发后台刷新的次数
+     */
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    /**
+     * 调用方同步加载的次数
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * 等待已有加载结果、未发起新加载的次数
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    private Stripe<V> stripeOf(long key) {
+        long hash = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    private static final class Entry<V> {
+
+        /**
+         * 缓存值，首次加载完成前为null
+         */
+        V value;
+
+        /**
+         * 加载完成时间（System.nanoTime()）
+         */
+        long loadedAt;
+
+        /**
+         * 进行中的加载，没有时为null
+         */
+        CompletableFuture<V> loading;
+    }
+
+    private static final class Stripe<V> {
+
+        private final Map<Long, Entry<V>> entries;
+
+        Stripe(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry<V>> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.demo.telegram.bot.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RESP（Redis序列化协议）编解码
+ * <p>
+ * 只包含状态存储用到的部分：命令编码为批量字符串数组；响应解码为
+ * {@code String}（简单字符串）、{@link ErrorReply}、{@code Long}、{@code byte[]}（批量字符串，nil为null）、
+ * {@code Object[]}（数组）。调用方传入带缓冲的流，这里逐字节读写不再额外缓冲。
+ */
+public final class RespCodec {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    /**
+     * 单个批量字符串的上限，防止损坏的长度字段导致大量分配
+     */
+    private static final int MAX_BULK_LENGTH = 16 * 1024 * 1024;
+
+    private RespCodec() {
+    }
+
+    /**
+     * 错误响应（-ERR ...）
+     */
+    public record ErrorReply(String message) {
+    }
+
+    /**
+     * 写出一条命令
+     */
+    public static void writeCommand(OutputStream out, byte[][] args) throws IOException {
+        out.write('*');
+        writeDecimal(out, args.length);
+        for (byte[] arg : args) {
+            writeBulk(out, arg);
+        }
+    }
+
+    public static void writeSimple(OutputStream out, String value) throws IOException {
+        out.write('+');
+        out.write(value.getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    public static void writeError(OutputStream out, String message) throws IOException {
+        out.write('-');
+        out.write(message.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+    }
+
+    public static void writeInteger(OutputStream out, long value) throws IOException {
+        out.write(':');
+        writeDecimal(out, value);
+    }
+
+    /**
+     * 写出批量字符串，null写为nil
+     */
+    public static void writeBulk(OutputStream out, byte[] value) throws IOException {
+        out.write('$');
+        if (value == null) {
+            writeDecimal(out, -1);
+            return;
+        }
+        writeDecimal(out, value.length);
+        out.write(value);
+        out.write(CRLF);
+    }
+
+    /**
+     * 读取一个响应
+     *
+     * @throws EOFException 连接已关闭
+     */
+    public static Object read(InputStream in) throws IOException {
+        int type = in.read();
+        switch (type) {
+            case '+':
+                return readLine(in);
+            case '-':
+                return new ErrorReply(readLine(in));
+            case ':':
+                return readLong(in);
+            case '$':
+                return readBulk(in, readLong(in));
+            case '*': {
+                long count = readLong(in);
+                if (count < 0) {
+                    return null;
+                }
+                Object[] items = new Object[checkLength(count)];
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = read(in);
+                }
+                return items;
+            }
+            case -1:
+                throw new EOFException();
+            default:
+                throw new IOException("Unexpected RESP type: " + (char) type);
+        }
+    }
+
+    /**
+     * 读取一条命令（批量字符串数组）
+     *
+     * @return 连接正常关闭时返回null
+     */
+    public static byte[][] readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type == -1) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Expected RESP array, got: " + (char) type);
+        }
+        byte[][] args = new byte[checkLength(readLong(in))][];
+        for (int i = 0; i < args.length; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected RESP bulk string");
+            }
+            args[i] = readBulk(in, readLong(in));
+        }
+        return args;
+    }
+
+    private static byte[] readBulk(InputStream in, long length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = in.readNBytes(checkLength(length));
+        if (value.length != length || in.read() != '\r' || in.read() != '\n') {
+            throw new EOFException();
+        }
+        return value;
+    }
+
+    private static int checkLength(long length) throws IOException {
+        if (length < 0 || length > MAX_BULK_LENGTH) {
+            throw new IOException("Invalid RESP length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new EOFException();
+            }
+            line.append((char) b);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Malformed RESP line");
+        }
+        return line.toString();
+    }
+
+    private static long readLong(InputStream in) throws IOException {
+        int b = in.read();
+        boolean negative = b == '-';
+        if (negative) {
+            b = in.read();
+        }
+        long value = 0;
+        while (b != '\r') {
+            if (b < '0' || b > '9') {
+                throw b == -1 ? new EOFException() : new IOException("Malformed RESP integer");
+            }
+            value = value * 10 + (b - '0');
+            b = in.read();
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Malformed RESP line");
+        }
+        return negative ? -value : value;
+    }
+
+    private static void writeDecimal(OutputStream out, long value) throws IOException {
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        byte[] digits = new byte[20];
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        out.write(digits, position, digits.length - position);
+        out.write(CRLF);
+    }
+}
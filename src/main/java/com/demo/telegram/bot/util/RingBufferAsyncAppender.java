@@ -0,0 +1,276 @@
+package com.demo.telegram.bot.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于有界环形缓冲区的无锁异步Appender
+ * <p>
+ * 业务线程只做一次CAS占位并写入槽位，不获取锁、不做IO；单个后台线程按顺序取出日志事件交给下游Appender
+ * （控制台、文件）。logback自带的 AsyncAppender 基于 ArrayBlockingQueue，高并发下入队锁本身会成为争用点。
+ * <p>
+ * 缓冲区满时不阻塞业务线程：低于 {@link #setNeverDropLevel 不丢弃级别}（默认WARN）的事件被丢弃并计数，
+ * 达到该级别的事件在当前线程同步写入下游，保证错误日志不丢失。
+ * <p>
+ * 配置示例（logback-spring.xml）：
+ * <pre>
+ * &lt;appender name="ASYNC" class="com.demo.telegram.bot.util.RingBufferAsyncAppender"&gt;
+ *     &lt;bufferSize&gt;8192&lt;/bufferSize&gt;
+ *     &lt;appender-ref ref="FILE"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class RingBufferAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    /**
+     * 后台线程空闲时的最长休眠时间，作为唤醒丢失时的兜底
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private int bufferSize = 8192;
+
+    private Level neverDropLevel = Level.WARN;
+
+    private boolean includeCallerData = false;
+
+    private long maxFlushTimeMillis = 1000;
+
+    private int mask;
+
+    private AtomicReferenceArray<ILoggingEvent> slots;
+
+    /**
+     * 每个槽位的序号：等于写入位置时可写，等于写入位置+1时可读（Vyukov有界队列）
+     */
+    private AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 只由后台线程读写
+     */
+    private long head;
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private volatile boolean workerParked;
+
+    private Thread worker;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender attached to [" + name + "]");
+            return;
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        mask = capacity - 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        tail.set(0);
+        head = 0;
+
+        super.start();
+        worker = new Thread(this::drainLoop, "log-ring-" + name);
+        worker.setDaemon(true);
+        worker.start();
+        addInfo("Ring buffer async appender [" + name + "] started with capacity " + capacity);
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTimeMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            addWarn("Ring buffer async appender [" + name + "] did not flush within " + maxFlushTimeMillis + "ms");
+        }
+        long dropped = droppedCount.get();
+        if (dropped > 0) {
+            addWarn("Ring buffer async appender [" + name + "] dropped " + dropped + " events");
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (offer(event)) {
+            if (workerParked) {
+                LockSupport.unpark(worker);
+            }
+            return;
+        }
+        if (event.getLevel().isGreaterOrEqual(neverDropLevel)) {
+            appenders.appendLoopOnAppenders(event);
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 占位并写入，缓冲区满时返回false
+     */
+    private boolean offer(ILoggingEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 取出下一个事件，暂无可读事件时返回null
+     */
+    private ILoggingEvent poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        ILoggingEvent event = slots.get(index);
+        slots.lazySet(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return event;
+    }
+
+    private void drainLoop() {
+        while (true) {
+            ILoggingEvent event = poll();
+            if (event != null) {
+                appenders.appendLoopOnAppenders(event);
+                continue;
+            }
+            if (!isStarted()) {
+                // 已停止且缓冲区已清空（停止后仍可能有正在写入的槽位，下一轮poll会读到）
+                if (head == tail.get()) {
+                    return;
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            workerParked = true;
+            // 设置标记后再检查一次，避免与生产者的唤醒错过
+            if (head == tail.get()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            workerParked = false;
+        }
+    }
+
+    /**
+     * 因缓冲区满被丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public String getNeverDropLevel() {
+        return neverDropLevel.toString();
+    }
+
+    public void setNeverDropLevel(String neverDropLevel) {
+        this.neverDropLevel = Level.toLevel(neverDropLevel, Level.WARN);
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public long getMaxFlushTimeMillis() {
+        return maxFlushTimeMillis;
+    }
+
+    public void setMaxFlushTimeMillis(long maxFlushTimeMillis) {
+        this.maxFlushTimeMillis = maxFlushTimeMillis;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
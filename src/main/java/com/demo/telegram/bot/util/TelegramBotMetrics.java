@@ -0,0 +1,199 @@
+package com.demo.telegram.bot.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Telegram Bot业务指标
+ * <p>
+ * 所有计时器和计数器在启动时创建并按枚举（验证步骤由验证链、Bot由 {@link BotMeters} 按数组）缓存，请求路径上不按名称和标签查找注册表。
+ * 计时器发布直方图桶，Prometheus端可以用 histogram_quantile 计算任意分位数。
+ */
+@Component
+public class TelegramBotMetrics {
+
+    /**
+     * Webhook请求结果
+     */
+    public enum Outcome {
+        /**
+         * 同步处理完成
+         */
+        PROCESSED,
+
+        /**
+         * 异步入队
+         */
+        QUEUED,
+
+        /**
+         * 重复的update，返回缓存响应
+         */
+        REPLAYED,
+
+        /**
+         * 验证失败
+         */
+        REJECTED,
+
+        /**
+         * 异步队列或响应式入口的处理队列已满
+         */
+        OVERLOADED,
+
+        /**
+         * 处理异常
+         */
+        FAILED;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Counter unrouted;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("telegram.webhook.in.flight", inFlight, AtomicInteger::get)
+                .description("正在处理的Webhook请求数")
+                .register(meterRegistry);
+        unrouted = Counter.builder("telegram.webhook.unrouted")
+                .description("Bot ID未配置的Webhook请求数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 创建单个Bot的请求指标（标签 bot），由Bot注册表在启动时为每个Bot调用一次
+     */
+    public BotMeters botMeters(String bot) {
+        Timer[] webhookTimers = new Timer[Outcome.values().length];
+        for (Outcome outcome : Outcome.values()) {
+            webhookTimers[outcome.ordinal()] = Timer.builder("telegram.webhook.requests")
+                    .description("Webhook请求端到端耗时")
+                    .tag("bot", bot)
+                    .tag("outcome", outcome.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        return new BotMeters(bot, webhookTimers);
+    }
+
+    /**
+     * Webhook验证步骤耗时（含验证失败的请求），由验证链在构建时获取
+     */
+    public Timer validationTimer(String step) {
+        return Timer.builder("telegram.webhook.validation")
+                .description("Webhook验证步骤耗时")
+                .tag("step", step)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Webhook验证步骤拒绝次数，由验证链在构建时获取
+     */
+    public Counter validationRejections(String step) {
+        return Counter.builder("telegram.webhook.validation.rejections")
+                .description("Webhook验证步骤拒绝次数")
+                .tag("step", step)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 命令处理器耗时，由命令处理器工厂在注册命令时获取
+     */
+    public Timer commandTimer(String command) {
+        return Timer.builder("telegram.command")
+                .description("命令处理器耗时")
+                .tag("command", command)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按Bot和错误码计数
+     */
+    public void recordError(BotMeters bot, String code) {
+        bot.errorCounters.computeIfAbsent(code != null ? code : "unknown", key -> Counter.builder("telegram.webhook.errors")
+                .description("Webhook处理错误数")
+                .tag("bot", bot.bot)
+                .tag("code", key)
+                .register(meterRegistry)).increment();
+    }
+
+    /**
+     * Bot ID未配置的请求
+     */
+    public void recordUnrouted() {
+        unrouted.increment();
+    }
+
+    /**
+     * 请求开始处理，返回开始时间（纳秒）
+     */
+    public long requestStarted() {
+        inFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * 请求处理结束
+     */
+    public void requestFinished(BotMeters bot, Outcome outcome, long startNanos) {
+        inFlight.decrementAndGet();
+        bot.webhookTimers[outcome.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 注册由其他组件提供数值的仪表（队列深度等）
+     *
+     * @param tags 标签键值对
+     */
+    public <T> void gauge(String name, String description, T target, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, target, value).description(description).tags(tags).register(meterRegistry);
+    }
+
+    /**
+     * 注册由其他组件自行累计的计数器（缓存命中数等）
+     *
+     * @param tags 标签键值对
+     */
+    public <T> void functionCounter(String name, String description, T target, ToDoubleFunction<T> count,
+                                    String... tags) {
+        FunctionCounter.builder(name, target, count).description(description).tags(tags).register(meterRegistry);
+    }
+
+    /**
+     * 单个Bot的请求指标，计时器按 {@link Outcome} 下标缓存
+     */
+    public static final class BotMeters {
+
+        private final String bot;
+
+        private final Timer[] webhookTimers;
+
+        private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+        private BotMeters(String bot, Timer[] webhookTimers) {
+            this.bot = bot;
+            this.webhookTimers = webhookTimers;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.demo.telegram.bot.util;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Webhook响应写出器
+ * <p>
+ * 内容固定的回复（/start、/help、未知命令等，见 {@link TelegramBotResponse#isStaticReply()}）对所有用户只有 chat_id 不同，
+ * 首次写出时用同一个 ObjectMapper 序列化一次，以 chat_id 为界切成前后两段字节缓存，
+ * 之后只需写入前段、chat_id 数字和后段，不再经过Jackson序列化。空响应整体缓存。
+ * 其余响应交给 ObjectMapper 直接写入输出流，输出与默认的Jackson转换器一致。
+ */
+public class TelegramBotResponseConverter extends AbstractHttpMessageConverter<TelegramBotResponse> {
+
+    /**
+     * 缓存的固定回复种类上限，超出后不再缓存，按普通响应序列化
+     */
+    private static final int MAX_CACHED_REPLIES = 1024;
+
+    /**
+     * 切分用的占位 chat_id，不会出现在真实请求中
+     */
+    private static final long SENTINEL_CHAT_ID = Long.MIN_VALUE;
+
+    private static final byte[] SENTINEL_MARKER =
+            ("\"chat_id\":" + SENTINEL_CHAT_ID).getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectMapper objectMapper;
+
+    private final byte[] emptyResponse;
+
+    private final ConcurrentHashMap<ReplyKey, Fragments> cache = new ConcurrentHashMap<>();
+
+    public TelegramBotResponseConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+        try {
+            this.emptyResponse = objectMapper.writeValueAsBytes(TelegramBotResponse.empty());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode empty response", e);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TelegramBotResponse.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TelegramBotResponse readInternal(Class<? extends TelegramBotResponse> clazz,
+                                               HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("TelegramBotResponse is write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(TelegramBotResponse response, MediaType contentType) {
+        if (response.isEmpty()) {
+            return (long) emptyResponse.length;
+        }
+        Fragments fragments = fragmentsOf(response);
+        if (fragments == null) {
+            return null;
+        }
+        return (long) fragments.prefix.length + Long.toString(response.getChatId()).length() + fragments.suffix.length;
+    }
+
+    @Override
+    protected void writeInternal(TelegramBotResponse response, HttpOutputMessage outputMessage) throws IOException {
+        writeTo(response, outputMessage.getBody());
+    }
+
+    /**
+     * 将响应写入输出流，不关闭输出流；响应式入口的 {@link TelegramBotResponseEncoder} 也通过本方法写出
+     */
+    public void writeTo(TelegramBotResponse response, OutputStream body) throws IOException {
+        if (response.isEmpty()) {
+            body.write(emptyResponse);
+            return;
+        }
+        Fragments fragments = fragmentsOf(response);
+        if (fragments == null) {
+            // 输出流由调用方（Servlet容器或编码器）负责关闭
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(body)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                objectMapper.writeValue(generator, response);
+            }
+            return;
+        }
+        body.write(fragments.prefix);
+        body.write(Long.toString(response.getChatId()).getBytes(StandardCharsets.US_ASCII));
+        body.write(fragments.suffix);
+    }
+
+    /**
+     * 当前缓存的固定回复种类数
+     */
+    public int getCachedReplyCount() {
+        return cache.size();
+    }
+
+    /**
+     * 固定回复的缓存字节段，不可缓存时返回null
+     */
+    private Fragments fragmentsOf(TelegramBotResponse response) {
+        if (!response.isStaticReply() || response.getChatId() == null) {
+            return null;
+        }
+        ReplyKey key = ReplyKey.of(response);
+        Fragments fragments = cache.get(key);
+        if (fragments != null || cache.size() >= MAX_CACHED_REPLIES) {
+            return fragments;
+        }
+        fragments = encode(response);
+        if (fragments != null) {
+            cache.putIfAbsent(key, fragments);
+        }
+        return fragments;
+    }
+
+    /**
+     * 以占位 chat_id 序列化一次，在 chat_id 值处切分；占位值不是恰好出现一次时放弃缓存
+     */
+    private Fragments encode(TelegramBotResponse response) {
+        TelegramBotResponse template = new TelegramBotResponse(response.getMethod(), SENTINEL_CHAT_ID, response.getText());
+        template.setParseMode(response.getParseMode());
+        template.setMessageId(response.getMessageId());
+        template.setCallbackQueryId(response.getCallbackQueryId());
+        template.setDisableWebPagePreview(response.getDisableWebPagePreview());
+        template.setDisableNotification(response.getDisableNotification());
+
+        byte[] encoded;
+        try {
+            encoded = objectMapper.writeValueAsBytes(template);
+        } catch (IOException e) {
+            logger.warn("Failed to pre-encode static reply", e);
+            return null;
+        }
+        int index = indexOf(encoded, SENTINEL_MARKER, 0);
+        if (index < 0 || indexOf(encoded, SENTINEL_MARKER, index + 1) >= 0) {
+            return null;
+        }
+        int valueEnd = index + SENTINEL_MARKER.length;
+        int valueStart = valueEnd - Long.toString(SENTINEL_CHAT_ID).length();
+        return new Fragments(Arrays.copyOfRange(encoded, 0, valueStart),
+                Arrays.copyOfRange(encoded, valueEnd, encoded.length));
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = from; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 除 chat_id 外决定响应内容的全部字段
+     */
+    private record ReplyKey(String method, String text, String parseMode, Integer messageId,
+                            String callbackQueryId, Boolean disableWebPagePreview, Boolean disableNotification) {
+
+        static ReplyKey of(TelegramBotResponse response) {
+            return new ReplyKey(response.getMethod(), response.getText(), response.getParseMode(),
+                    response.getMessageId(), response.getCallbackQueryId(),
+                    response.getDisableWebPagePreview(), response.getDisableNotification());
+        }
+    }
+
+    /**
+     * chat_id 前后的编码字节
+     */
+    private record Fragments(byte[] prefix, byte[] suffix) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.telegram.bot.util;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应式入口的Webhook响应编码器
+ * <p>
+ * 与Spring MVC入口共用 {@link TelegramBotResponseConverter} 的写出逻辑（固定回复的预编码字节段），
+ * 直接写入Netty分配的缓冲区，单个响应编码为一个缓冲区，由框架据此设置 Content-Length。
+ */
+public class TelegramBotResponseEncoder implements Encoder<TelegramBotResponse> {
+
+    /**
+     * 初始缓冲区大小，足够容纳常见回复，超出时缓冲区自动扩容
+     */
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private static final List<MimeType> MIME_TYPES = List.of(MimeTypeUtils.APPLICATION_JSON);
+
+    private final TelegramBotResponseConverter converter;
+
+    public TelegramBotResponseEncoder(TelegramBotResponseConverter converter) {
+        this.converter = converter;
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return elementType.toClass() == TelegramBotResponse.class
+                && (mimeType == null || MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(mimeType));
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends TelegramBotResponse> inputStream,
+                                   DataBufferFactory bufferFactory, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+        return Flux.from(inputStream).map(response -> encodeValue(response, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(TelegramBotResponse response, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(INITIAL_BUFFER_SIZE);
+        try (OutputStream body = buffer.asOutputStream()) {
+            converter.writeTo(response, body);
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw new EncodingException("Failed to encode TelegramBotResponse", e);
+        }
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+}
@@ -0,0 +1,278 @@
+package com.demo.telegram.bot.util;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.PolledUpdate;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.model.TelegramUpdateType;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Telegram Update流式解码器
+ * 顺序读取一遍请求体，只提取业务需要的字段，其余字段直接跳过，不构建JSON对象树
+ */
+public final class TelegramUpdateDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private TelegramUpdateDecoder() {
+    }
+
+    /**
+     * 解码请求体
+     *
+     * @throws TelegramWebhookException 请求体为空或不是合法的JSON对象
+     */
+    public static TelegramUpdate decode(byte[] body) {
+        if (body == null || body.length == 0) {
+            throw new TelegramWebhookException(TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new TelegramWebhookException(TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
+            }
+            return decode(parser);
+        } catch (IOException e) {
+            throw new TelegramWebhookException(TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
+        }
+    }
+
+    /**
+     * 解码 getUpdates 的 result 数组，同时按解析位置截取每个Update的原始JSON
+     * <p>
+     * 单个元素的字段无法解码（如数值超出范围、元素不是对象）时不影响其他元素：该元素以
+     * {@link PolledUpdate#malformed()} 返回，只带尽量读出的 update_id，由调用方记录并跳过
+     *
+     * @param result 由 {@link #createParser(byte[])} 基于 source 创建、位于 result 字段值（START_ARRAY）的解析器
+     * @param source 整个响应体
+     * @throws IOException 响应不是合法的JSON
+     */
+    public static List<PolledUpdate> decodeArray(JsonParser result, byte[] source) throws IOException {
+        List<PolledUpdate> updates = new ArrayList<>();
+        if (result.currentToken() != JsonToken.START_ARRAY) {
+            result.skipChildren();
+            return updates;
+        }
+        JsonStreamContext array = result.getParsingContext();
+        JsonToken token;
+        while ((token = result.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new EOFException("Unexpected end of getUpdates result");
+            }
+            int start = (int) result.currentTokenLocation().getByteOffset();
+            TelegramUpdate update = null;
+            if (token == JsonToken.START_OBJECT) {
+                try {
+                    update = decode(result);
+                } catch (IOException | RuntimeException e) {
+                    skipElement(result, array);
+                }
+            } else {
+                result.skipChildren();
+            }
+            int end = (int) result.currentLocation().getByteOffset();
+            byte[] payload = Arrays.copyOfRange(source, start, end);
+            updates.add(update != null ? new PolledUpdate(update, payload)
+                    : PolledUpdate.malformed(readUpdateId(payload), payload));
+        }
+        return updates;
+    }
+
+    /**
+     * 解码中途失败后跳到当前元素的 END_OBJECT
+     */
+    private static void skipElement(JsonParser parser, JsonStreamContext array) throws IOException {
+        while (parser.currentToken() != JsonToken.END_OBJECT || parser.getParsingContext() != array) {
+            if (parser.nextToken() == null) {
+                throw new EOFException("Unexpected end of getUpdates result");
+            }
+        }
+    }
+
+    /**
+     * 从无法解码的元素中读取顶层的 update_id
+     *
+     * @return 元素不是对象或没有有效的 update_id 时返回null
+     */
+    private static Long readUpdateId(byte[] payload) {
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("update_id".equals(name)) {
+                    return value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // update_id本身无效
+        }
+        return null;
+    }
+
+    /**
+     * 创建流式解析器
+     */
+    public static JsonParser createParser(byte[] body) throws IOException {
+        return JSON_FACTORY.createParser(body);
+    }
+
+    /**
+     * 从当前位于 START_OBJECT 的解析器读取一个Update，读取完成后解析器位于对应的 END_OBJECT
+     */
+    public static TelegramUpdate decode(JsonParser parser) throws IOException {
+        Fields fields = new Fields();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("update_id".equals(name)) {
+                fields.updateId = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                continue;
+            }
+            if (value == JsonToken.START_OBJECT && fields.type == null) {
+                TelegramUpdateType type = typeOf(name);
+                if (type == TelegramUpdateType.MESSAGE || type == TelegramUpdateType.EDITED_MESSAGE) {
+                    fields.type = type;
+                    readMessage(parser, fields);
+                    continue;
+                }
+                if (type == TelegramUpdateType.CALLBACK_QUERY || type == TelegramUpdateType.INLINE_QUERY) {
+                    fields.type = type;
+                    readQuery(parser, fields);
+                    continue;
+                }
+            }
+            parser.skipChildren();
+        }
+        return new TelegramUpdate(fields.updateId, fields.type != null ? fields.type : TelegramUpdateType.UNKNOWN,
+                fields.userId, fields.chatId, fields.messageId, fields.text, fields.date, fields.fromBot,
+                fields.callbackQueryId);
+    }
+
+    private static TelegramUpdateType typeOf(String field) {
+        return switch (field) {
+            case "message" -> TelegramUpdateType.MESSAGE;
+            case "edited_message" -> TelegramUpdateType.EDITED_MESSAGE;
+            case "callback_query" -> TelegramUpdateType.CALLBACK_QUERY;
+            case "inline_query" -> TelegramUpdateType.INLINE_QUERY;
+            default -> TelegramUpdateType.UNKNOWN;
+        };
+    }
+
+    /**
+     * 读取 message / edited_message 对象
+     */
+    private static void readMessage(JsonParser parser, Fields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "message_id" -> fields.messageId = value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+                case "date" -> fields.date = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                case "text" -> fields.text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "from" -> readUser(parser, value, fields);
+                case "chat" -> fields.chatId = readId(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 读取 callback_query / inline_query 对象
+     */
+    private static void readQuery(JsonParser parser, Fields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "id" -> fields.callbackQueryId = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "data", "query" -> fields.text = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "from" -> readUser(parser, value, fields);
+                case "message" -> readCallbackMessage(parser, value, fields);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 读取回调查询所属的消息，只需要聊天ID和消息ID
+     */
+    private static void readCallbackMessage(JsonParser parser, JsonToken value, Fields fields) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken fieldValue = parser.nextToken();
+            switch (name) {
+                case "message_id" -> fields.messageId = fieldValue == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+                case "chat" -> fields.chatId = readId(parser, fieldValue);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readUser(JsonParser parser, JsonToken value, Fields fields) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken fieldValue = parser.nextToken();
+            switch (name) {
+                case "id" -> fields.userId = fieldValue == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                case "is_bot" -> fields.fromBot = fieldValue == JsonToken.VALUE_TRUE;
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 读取对象中的 id 字段，其余字段跳过
+     */
+    private static Long readId(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        Long id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken fieldValue = parser.nextToken();
+            if ("id".equals(name) && fieldValue == JsonToken.VALUE_NUMBER_INT) {
+                id = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 解码过程中的临时字段
+     */
+    private static final class Fields {
+        private Long updateId;
+        private TelegramUpdateType type;
+        private Long userId;
+        private Long chatId;
+        private Integer messageId;
+        private String text;
+        private Long date;
+        private boolean fromBot;
+        private String callbackQueryId;
+    }
+}
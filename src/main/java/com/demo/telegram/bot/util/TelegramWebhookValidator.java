@@ -1,19 +1,30 @@
 package com.demo.telegram.bot.util;
 
 import com.demo.telegram.bot.config.TelegramBotConfig;
-import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramBotResponse;
 import com.demo.telegram.bot.model.TelegramRequestParam;
-import com.alibaba.fastjson.JSONObject;
-import org.apache.commons.lang3.StringUtils;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import com.demo.telegram.bot.validator.WebhookValidatorChain;
+import com.demo.telegram.bot.validator.impl.AntiReplayValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.TimeUnit;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Telegram Webhook数据验证工具类
+ * <p>
+ * 验证步骤由 {@link WebhookValidator} Bean提供，启动时按配置过滤并构建Webhook和长轮询两条验证链，
+ * 执行顺序见 {@link WebhookValidatorChain}。
  */
 @Component
 public class TelegramWebhookValidator {
@@ -23,294 +34,131 @@ public class TelegramWebhookValidator {
     @Autowired
     private TelegramBotConfig  telegramBotConfig;
 
-    /**
-     * 验证Telegram Webhook请求
-     */
-    public void validateWebhook(TelegramRequestParam param) {
-        // 1. IP白名单验证（必须）
-        validateIpWhitelist(param);
-
-        // 2. 请求格式验证（必须）
-        validateRequestFormat(param);
-
-        // 3. Secret Token验证（必须）
-        validateSecretToken(param);
-
-        // 4. 防重放攻击验证
-        validateAntiReplay(param);
+    @Autowired
+    private TelegramBotMetrics metrics;
 
-        // 5. 频率限制验证
-        validateRateLimit(param);
+    @Autowired
+    private List<WebhookValidator> validators;
 
-        // 6. 消息内容安全检查
-        validateMessageContent(param);
+    @Autowired
+    private AntiReplayValidator antiReplayValidator;
 
-        // 7. 时间戳验证
-        validateTimestamp(param);
+    private WebhookValidatorChain webhookChain;
 
-        logger.info("Telegram webhook验证通过");
-    }
+    private WebhookValidatorChain pollingChain;
 
     /**
-     * 从webhook数据中提取Telegram用户ID
+     * 防重放步骤是否启用，未启用时不记录处理结果
      */
-    public Long extractTelegramUserId(JSONObject webhook) {
-        try {
-            // 尝试从消息中获取用户ID
-            JSONObject message = webhook.getJSONObject("message");
-            if (message != null) {
-                JSONObject from = message.getJSONObject("from");
-                if (from != null) {
-                    return from.getLong("id");
-                }
+    private boolean antiReplayEnabled;
+
+    @PostConstruct
+    public void init() {
+        Map<String, Boolean> steps = telegramBotConfig.getValidation().getSteps();
+        Set<String> names = new HashSet<>();
+        List<WebhookValidator> enabled = new ArrayList<>();
+        for (WebhookValidator validator : validators) {
+            names.add(validator.getName());
+            if (steps.getOrDefault(validator.getName(), Boolean.TRUE)) {
+                enabled.add(validator);
+            } else {
+                logger.warn("Webhook验证步骤已禁用: {}", validator.getName());
             }
-
-            // 尝试从回调查询中获取用户ID
-            JSONObject callbackQuery = webhook.getJSONObject("callback_query");
-            if (callbackQuery != null) {
-                JSONObject from = callbackQuery.getJSONObject("from");
-                if (from != null) {
-                    return from.getLong("id");
-                }
-            }
-
-            return null;
-        } catch (Exception e) {
-            return null;
         }
-    }
-
-    /**
-     * 从webhook数据中提取聊天ID
-     */
-    public Long extractChatId(JSONObject webhook) {
-        try {
-            // 尝试从消息中获取聊天ID
-            JSONObject message = webhook.getJSONObject("message");
-            if (message != null) {
-                JSONObject chat = message.getJSONObject("chat");
-                if (chat != null) {
-                    return chat.getLong("id");
-                }
+        for (String step : steps.keySet()) {
+            if (!names.contains(step)) {
+                logger.warn("忽略未知验证步骤的配置: {}", step);
             }
-
-            // 尝试从回调查询中获取聊天ID
-            JSONObject callbackQuery = webhook.getJSONObject("callback_query");
-            if (callbackQuery != null) {
-                JSONObject callbackMessage = callbackQuery.getJSONObject("message");
-                if (callbackMessage != null) {
-                    JSONObject chat = callbackMessage.getJSONObject("chat");
-                    if (chat != null) {
-                        return chat.getLong("id");
-                    }
+        }
+        for (WebhookValidator validator : enabled) {
+            for (String dependency : validator.getDependencies()) {
+                if (!enabled.contains(validatorNamed(dependency))) {
+                    logger.warn("验证步骤 {} 依赖的 {} 未启用", validator.getName(), dependency);
                 }
             }
-
-            return null;
-        } catch (Exception e) {
-            return null;
         }
-    }
-
-    /**
-     * 从webhook数据中提取消息文本
-     */
-    public String extractMessageText(JSONObject webhook) {
-        try {
-            // 尝试从消息中获取文本
-            JSONObject message = webhook.getJSONObject("message");
-            if (message != null) {
-                return message.getString("text");
-            }
-
-            // 尝试从回调查询中获取数据
-            JSONObject callbackQuery = webhook.getJSONObject("callback_query");
-            if (callbackQuery != null) {
-                return callbackQuery.getString("data");
-            }
+        antiReplayEnabled = enabled.contains(antiReplayValidator);
 
-            return null;
-        } catch (Exception e) {
-            return null;
-        }
+        webhookChain = WebhookValidatorChain.build(enabled, metrics);
+        pollingChain = WebhookValidatorChain.build(
+                enabled.stream().filter(WebhookValidator::appliesToPolling).toList(), metrics);
+        logger.info("Webhook验证链构建完成: webhook={}, polling={}",
+                webhookChain.getStepNames(), pollingChain.getStepNames());
     }
 
-    /**
-     * 验证IP白名单
-     */
-    private void validateIpWhitelist(TelegramRequestParam param) {
-        // 如果没有配置IP白名单，则跳过验证
-        if (telegramBotConfig.getAllowedIps().isEmpty()) {
-            logger.warn("未配置IP白名单，跳过IP验证");
-            return;
-        }
-
-        if (!IpUtil.isIpAllowed(param.getClientIp(), telegramBotConfig.getAllowedIps())) {
-            logger.warn("TelegramBotCheck error.  IP白名单验证失败: " + param.getClientIp() );
-            throw new TelegramWebhookException(TelegramWebhookException.IP_WHITELIST_VALIDATION_FAILED);
+    private WebhookValidator validatorNamed(String name) {
+        for (WebhookValidator validator : validators) {
+            if (validator.getName().equals(name)) {
+                return validator;
+            }
         }
+        return null;
     }
 
     /**
-     * 验证请求格式
+     * 验证Telegram Webhook请求
      */
-    private void validateRequestFormat(TelegramRequestParam param) {
-        JSONObject body = param.getBody();
-        if (body == null) {
-            logger.warn("TelegramBotCheck error. 请求体为空");
-            throw new TelegramWebhookException(TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
-        }
-
-        // 验证Telegram webhook必需的字段
-        if (!body.containsKey("update_id")) {
-            logger.warn("TelegramBotCheck error. 缺少update_id字段");
-            throw new TelegramWebhookException(TelegramWebhookException.UPDATE_ID_NOT_FOUND);
-        }
-
-        // 至少要有message或者callback_query等字段之一
-        if (!body.containsKey("message") &&
-                !body.containsKey("callback_query") &&
-                !body.containsKey("edited_message") &&
-                !body.containsKey("inline_query")) {
-            logger.warn("TelegramBotCheck error. 缺少有效的消息类型字段");
-            throw new TelegramWebhookException(TelegramWebhookException.MESSAGE_TYPE_NOT_FOUND);
-        }
+    public void validateWebhook(TelegramRequestParam param) {
+        webhookChain.validate(param);
+        logger.debug("Telegram webhook验证通过");
     }
 
     /**
-     * 验证Secret Token
+     * 解码请求体之前执行的请求头验证（请求体大小、IP白名单、Secret Token等），
+     * 之后须调用 {@link #validateWebhookUpdate} 完成其余验证
      */
-    private void validateSecretToken(TelegramRequestParam param) {
-        if (StringUtils.isBlank(telegramBotConfig.getSecretToken())) {
-            logger.warn("TelegramBotCheck error. 未配置Telegram Bot Secret Token");
-            throw new TelegramWebhookException(TelegramWebhookException.SECRET_TOKEN_VALIDATION_FAILED);
-        }
-
-        String requestToken = param.getRequest().getHeader("X-Telegram-Bot-Api-Secret-Token");
-
-        // 添加调试信息：尝试不同的header名称变体
-        if (requestToken == null) {
-            requestToken = param.getRequest().getHeader("x-telegram-bot-api-secret-token");
-            logger.info("尝试小写header名称获取到的token: {}", requestToken);
-        }
-
-        if (!telegramBotConfig.getSecretToken().equals(requestToken)) {
-            logger.warn("TelegramBotCheck error. Secret Token验证失败, requestToken:{}, configToken:{}",
-                    requestToken, telegramBotConfig.getSecretToken());
-            throw new TelegramWebhookException(TelegramWebhookException.SECRET_TOKEN_VALIDATION_FAILED);
-        }
+    public void validateWebhookHeaders(TelegramRequestParam param) {
+        webhookChain.validateHeaders(param);
     }
 
     /**
-     * 验证webhook数据基本格式
+     * 验证解码后的update，执行 {@link #validateWebhookHeaders} 之后的其余步骤
      */
-    public boolean validateWebhookFormat(JSONObject webhook) {
-        if (webhook == null) {
-            return false;
-        }
-
-        // 检查是否包含update_id
-        if (!webhook.containsKey("update_id")) {
-            return false;
-        }
-
-        // 检查是否包含消息或回调查询
-        return webhook.containsKey("message") || webhook.containsKey("callback_query");
+    public void validateWebhookUpdate(TelegramRequestParam param) {
+        webhookChain.validateUpdate(param);
+        logger.debug("Telegram webhook验证通过");
     }
 
-
     /**
-     * 防重放攻击验证
+     * 验证通过长轮询（getUpdates）获取的update
+     * 请求直接由Bot API返回，不需要IP白名单、Secret Token和IP频率限制验证
      */
-    private void validateAntiReplay(TelegramRequestParam param) {
-        JSONObject body = param.getBody();
-        Long updateId = body.getLong("update_id");
-
-        if (updateId == null) {
-            logger.warn("TelegramBotCheck error. 缺少update_id字段");
-            throw new TelegramWebhookException(TelegramWebhookException.UPDATE_ID_NOT_FOUND);
-        }
-
-        // todo 判断 update_id 在指定时间内是否重复
+    public void validatePolledUpdate(TelegramRequestParam param) {
+        pollingChain.validate(param);
     }
 
     /**
-     * 频率限制验证
+     * 撤销update的去重登记，Telegram重试时重新处理
      */
-    private void validateRateLimit(TelegramRequestParam param) {
-        if (StringUtils.isBlank(param.getClientIp())) {
-            logger.warn("TelegramBotCheck error. 无法获取客户端IP");
-            throw new TelegramWebhookException(TelegramWebhookException.RATE_LIMIT_VALIDATION_FAILED);
+    public void releaseUpdate(TelegramBotContext bot, TelegramUpdate update) {
+        if (antiReplayEnabled && update.updateId() != null) {
+            antiReplayValidator.release(bot, update);
         }
-
-        // todo 可以使用Redis进行频率限制检查
     }
 
     /**
-     * 消息内容安全检查
+     * 记录update处理完成后的响应，Telegram重试同一update时直接返回
      */
-    private void validateMessageContent(TelegramRequestParam param) {
-        JSONObject body = param.getBody();
-        JSONObject message = body.getJSONObject("message");
-
-        if (message == null) {
-            return; // 非消息类型的update
-        }
-
-        // 检查消息长度
-        String text = message.getString("text");
-        if (text != null && text.length() > 4096) {
-            logger.warn("TelegramBotCheck error. 消息长度超限: {}", text.length());
-            throw new TelegramWebhookException(TelegramWebhookException.MESSAGE_LENGTH_EXCEEDED);
-        }
-
-        // 检查用户信息完整性
-        JSONObject from = message.getJSONObject("from");
-        if (from == null || from.getLong("id") == null) {
-            logger.warn("TelegramBotCheck error. 用户信息不完整");
-            throw new TelegramWebhookException(TelegramWebhookException.USER_INFO_INCOMPLETE);
-        }
-
-        // 检查是否是机器人发送的消息
-        Boolean isBot = from.getBoolean("is_bot");
-        if (Boolean.TRUE.equals(isBot)) {
-            logger.warn("TelegramBotCheck error. 检测到机器人发送的消息");
-            throw new TelegramWebhookException(TelegramWebhookException.BOT_MESSAGE_DETECTED);
+    public void recordResponse(TelegramBotContext bot, TelegramUpdate update, TelegramBotResponse response) {
+        if (antiReplayEnabled && update.updateId() != null && response != null) {
+            antiReplayValidator.complete(bot, update, response);
         }
     }
 
     /**
-     * 时间戳验证（消息不能太旧）
+     * 验证webhook数据基本格式
      */
-    private void validateTimestamp(TelegramRequestParam param) {
-        JSONObject body = param.getBody();
-        JSONObject message = body.getJSONObject("message");
-
-        if (message == null) {
-            return; // 非消息类型的update
-        }
-
-        Long messageDate = message.getLong("date");
-        if (messageDate == null) {
-            return; // 没有时间戳的消息
+    public boolean validateWebhookFormat(TelegramUpdate update) {
+        if (update == null) {
+            return false;
         }
 
-        // 消息时间戳（秒）转换为毫秒
-        long messageTime = messageDate * 1000;
-        long currentTime = System.currentTimeMillis();
-
-        // 消息不能超过5分钟
-        long maxAge = TimeUnit.MINUTES.toMillis(5);
-        if (currentTime - messageTime > maxAge) {
-            logger.warn("TelegramBotCheck error. 消息过期: messageTime={}, currentTime={}, age={}ms",
-                    messageTime, currentTime, currentTime - messageTime);
-            throw new TelegramWebhookException(TelegramWebhookException.TIMESTAMP_VALIDATION_FAILED);
+        // 检查是否包含update_id
+        if (update.updateId() == null) {
+            return false;
         }
 
-        // 消息不能来自未来（允许30秒的时间误差）
-        if (messageTime > currentTime + 30000) {
-            logger.warn("TelegramBotCheck error. 消息来自未来: messageTime={}, currentTime={}", messageTime, currentTime);
-            throw new TelegramWebhookException(TelegramWebhookException.TIMESTAMP_VALIDATION_FAILED);
-        }
+        // 检查是否包含消息或回调查询
+        return update.isCommandSource();
     }
 }
@@ -0,0 +1,204 @@
+package com.demo.telegram.bot.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 管理以 int 编号的定时项（由调用方分配，通常是对象池中的下标）。共 {@value #LEVELS} 层，每层 64 个槽，
+ * 第 n 层每个槽覆盖 64^n 个刻度；到期时间超出时间轮范围的定时项先放在最高层，随层间下沉重新计算。
+ * 槽内的定时项用数组实现的双向链表串联，登记、取消都是 O(1)；推进一个刻度只处理当前槽和需要下沉的槽，
+ * 耗时与到期的定时项数量成正比，与定时项总数无关。不创建任何单项对象。
+ * <p>
+ * 非线程安全，由调用方加锁。
+ */
+public class TimingWheel {
+
+    private static final int LEVELS = 4;
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static final int NONE = -1;
+
+    /**
+     * 时间轮能直接表示的最大到期距离（刻度）
+     */
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * 各槽链表头，下标为 level * SLOTS + slot
+     */
+    private final int[] heads = new int[LEVELS * SLOTS];
+
+    private int[] next;
+
+    private int[] prev;
+
+    /**
+     * 定时项所在的槽，未登记时为 NONE
+     */
+    private int[] bucketOf;
+
+    private long[] deadlines;
+
+    private long currentTick;
+
+    private int size;
+
+    public TimingWheel(long startTick, int capacity) {
+        Arrays.fill(heads, NONE);
+        int initial = Math.max(16, capacity);
+        next = new int[initial];
+        prev = new int[initial];
+        bucketOf = new int[initial];
+        Arrays.fill(bucketOf, NONE);
+        deadlines = new long[initial];
+        currentTick = startTick;
+    }
+
+    /**
+     * 登记定时项，到期刻度不大于当前刻度时在下一个刻度到期
+     *
+     * @param id       定时项编号（非负），已登记时先取消
+     * @param deadline 到期刻度
+     */
+    public void schedule(int id, long deadline) {
+        ensureCapacity(id + 1);
+        if (bucketOf[id] != NONE) {
+            cancel(id);
+        }
+        deadlines[id] = deadline;
+        place(id);
+        size++;
+    }
+
+    /**
+     * 取消定时项
+     *
+     * @return 定时项未登记时返回 false
+     */
+    public boolean cancel(int id) {
+        if (id >= bucketOf.length || bucketOf[id] == NONE) {
+            return false;
+        }
+        unlink(id);
+        size--;
+        return true;
+    }
+
+    /**
+     * 推进到指定刻度，依次回调到期的定时项（回调前已从时间轮中移除）
+     */
+    public void advance(long tick, IntConsumer expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    drain(level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK), expired);
+                }
+            }
+            drain((int) (currentTick & SLOT_MASK), expired);
+        }
+    }
+
+    /**
+     * 定时项的到期刻度
+     */
+    public long deadline(int id) {
+        return deadlines[id];
+    }
+
+    /**
+     * 定时项是否已登记
+     */
+    public boolean isScheduled(int id) {
+        return id < bucketOf.length && bucketOf[id] != NONE;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * 已登记的定时项数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空一个槽：已到期的定时项回调，其余（高层槽中的定时项）按剩余时间下沉到低层
+     */
+    private void drain(int bucket, IntConsumer expired) {
+        int id = heads[bucket];
+        heads[bucket] = NONE;
+        while (id != NONE) {
+            int following = next[id];
+            bucketOf[id] = NONE;
+            if (deadlines[id] <= currentTick) {
+                size--;
+                expired.accept(id);
+            } else {
+                place(id);
+            }
+            id = following;
+        }
+    }
+
+    private void place(int id) {
+        long deadline = Math.max(deadlines[id], currentTick + 1);
+        long delta = deadline - currentTick;
+        if (delta >= SPAN) {
+            deadline = currentTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int bucket = level * SLOTS + (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        int head = heads[bucket];
+        next[id] = head;
+        prev[id] = NONE;
+        if (head != NONE) {
+            prev[head] = id;
+        }
+        heads[bucket] = id;
+        bucketOf[id] = bucket;
+    }
+
+    private void unlink(int id) {
+        int bucket = bucketOf[id];
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[bucket] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        bucketOf[id] = NONE;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= next.length) {
+            return;
+        }
+        int capacity = next.length;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        int oldLength = bucketOf.length;
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        bucketOf = Arrays.copyOf(bucketOf, capacity);
+        Arrays.fill(bucketOf, oldLength, capacity, NONE);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+    }
+}
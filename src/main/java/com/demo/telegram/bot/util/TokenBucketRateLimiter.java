@@ -0,0 +1,192 @@
+package com.demo.telegram.bot.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分段锁令牌桶限流器
+ * <p>
+ * 以原始 long 作为键（IP、用户ID等），按键的哈希分散到多个分段，每个分段是一张独立加锁的开放寻址表，
+ * 不同分段之间互不竞争。桶容量为时间窗口内允许的请求数，令牌按窗口匀速补充。
+ * 分段表需要扩容时先淘汰已经补满令牌的空闲桶，键数量只随活跃键增长。
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    /**
+     * 桶容量（时间窗口内最大请求数）
+     */
+    private final int capacity;
+
+    /**
+     * 时间窗口（纳秒），空闲超过该时间的桶已补满，可被淘汰
+     */
+    private final long windowNanos;
+
+    /**
+     * 每纳秒补充的令牌数
+     */
+    private final double refillPerNano;
+
+    public TokenBucketRateLimiter(int maxRequests, long window, TimeUnit unit) {
+        this(maxRequests, window, unit, DEFAULT_STRIPES);
+    }
+
+    public TokenBucketRateLimiter(int maxRequests, long window, TimeUnit unit, int stripeCount) {
+        if (maxRequests <= 0 || window <= 0) {
+            throw new IllegalArgumentException("maxRequests and window must be positive");
+        }
+        int count = Integer.highestOneBit(Math.max(1, stripeCount));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.capacity = maxRequests;
+        this.windowNanos = unit.toNanos(window);
+        this.refillPerNano = (double) maxRequests / windowNanos;
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key      限流键
+     * @param nowNanos 当前时间（System.nanoTime()）
+     * @return 获取成功返回 true，超出频率限制返回 false
+     */
+    public boolean tryAcquire(long key, long nowNanos) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        synchronized (stripe) {
+            return stripe.tryAcquire(key, (int) hash, nowNanos);
+        }
+    }
+
+    public boolean tryAcquire(long key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    /**
+     * 当前保存的桶数量
+     */
+    public int size() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size;
+            }
+        }
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 时间窗口（纳秒）
+     */
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    private static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    /**
+     * 单个分段：线性探测的开放寻址表，数组按列存放以避免每个键一个对象
+     */
+    private final class Stripe {
+
+        private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+
+        private double[] tokens = new double[INITIAL_STRIPE_CAPACITY];
+
+        private long[] lastRefill = new long[INITIAL_STRIPE_CAPACITY];
+
+        private boolean[] used = new boolean[INITIAL_STRIPE_CAPACITY];
+
+        private int size;
+
+        boolean tryAcquire(long key, int hash, long now) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (used[index]) {
+                if (keys[index] == key) {
+                    double available = Math.min(capacity, tokens[index] + (now - lastRefill[index]) * refillPerNano);
+                    lastRefill[index] = now;
+                    if (available >= 1.0) {
+                        tokens[index] = available - 1.0;
+                        return true;
+                    }
+                    tokens[index] = available;
+                    return false;
+                }
+                index = (index + 1) & mask;
+            }
+
+            if ((size + 1) * 4 > keys.length * 3) {
+                rebuild(now);
+                return tryAcquire(key, hash, now);
+            }
+
+            used[index] = true;
+            keys[index] = key;
+            tokens[index] = capacity - 1.0;
+            lastRefill[index] = now;
+            size++;
+            return true;
+        }
+
+        /**
+         * 淘汰空闲桶后重建分段表，存活的桶仍然过多时扩容
+         */
+        private void rebuild(long now) {
+            int live = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i] && now - lastRefill[i] < windowNanos) {
+                    live++;
+                }
+            }
+            int newCapacity = keys.length;
+            while ((live + 1) * 2 > newCapacity) {
+                newCapacity <<= 1;
+            }
+
+            long[] oldKeys = keys;
+            double[] oldTokens = tokens;
+            long[] oldLastRefill = lastRefill;
+            boolean[] oldUsed = used;
+            keys = new long[newCapacity];
+            tokens = new double[newCapacity];
+            lastRefill = new long[newCapacity];
+            used = new boolean[newCapacity];
+            size = 0;
+
+            int mask = newCapacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (!oldUsed[i] || now - oldLastRefill[i] >= windowNanos) {
+                    continue;
+                }
+                int index = (int) mix(oldKeys[i]) & mask;
+                while (used[index]) {
+                    index = (index + 1) & mask;
+                }
+                used[index] = true;
+                keys[index] = oldKeys[i];
+                tokens[index] = oldTokens[i];
+                lastRefill[index] = oldLastRefill[i];
+                size++;
+            }
+        }
+    }
+}
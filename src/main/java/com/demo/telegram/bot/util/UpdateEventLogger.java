@@ -0,0 +1,97 @@
+package com.demo.telegram.bot.util;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.TelegramUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * update处理日志
+ * <p>
+ * 每个update处理结束后输出一条 key=value 格式的汇总日志，代替各环节分散的INFO日志。
+ * 失败、被拒绝和慢请求始终输出（WARN），成功的update按配置比例采样输出（INFO），
+ * 未采样的update不拼接日志内容，日志开销不随流量线性增长。
+ */
+@Component
+public class UpdateEventLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdateEventLogger.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    private double successSampleRate;
+
+    private long slowThresholdNanos;
+
+    @PostConstruct
+    public void init() {
+        TelegramBotConfig.RequestLogConfig requestLog = telegramBotConfig.getRequestLog();
+        successSampleRate = Math.max(0, Math.min(1, requestLog.getSuccessSampleRate()));
+        slowThresholdNanos = requestLog.getSlowThresholdMillis() > 0
+                ? TimeUnit.MILLISECONDS.toNanos(requestLog.getSlowThresholdMillis()) : Long.MAX_VALUE;
+        logger.info("请求日志初始化完成: successSampleRate={}, slowThresholdMillis={}",
+                successSampleRate, requestLog.getSlowThresholdMillis());
+    }
+
+    /**
+     * 处理结束，按采样规则输出
+     */
+    public void log(TelegramUpdateEvent event) {
+        long totalNanos = event.elapsedNanos();
+        if (event.isFailure() || totalNanos >= slowThresholdNanos) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format(event, totalNanos));
+            }
+            return;
+        }
+        if (logger.isInfoEnabled() && sampled()) {
+            logger.info(format(event, totalNanos));
+        }
+    }
+
+    private boolean sampled() {
+        return successSampleRate >= 1 || (successSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < successSampleRate);
+    }
+
+    private static String format(TelegramUpdateEvent event, long totalNanos) {
+        StringBuilder builder = new StringBuilder(256);
+        builder.append("update source=").append(event.getSource())
+                .append(" bot=").append(event.getBot())
+                .append(" updateId=").append(event.getUpdateId())
+                .append(" type=").append(event.getUpdateType())
+                .append(" outcome=").append(event.getOutcome());
+        if (event.getErrorCode() != null) {
+            builder.append(" code=").append(event.getErrorCode());
+        }
+        if (event.getCommand() != null) {
+            builder.append(" command=").append(event.getCommand());
+        }
+        if (event.getResponseMethod() != null) {
+            builder.append(" reply=").append(event.getResponseMethod());
+        }
+        builder.append(" userId=").append(event.getUserId())
+                .append(" chatId=").append(event.getChatId())
+                .append(" textLength=").append(event.getTextLength());
+        if (event.getClientIp() != null) {
+            builder.append(" ip=").append(event.getClientIp());
+        }
+        appendMicros(builder, " validationUs=", event.getValidationNanos());
+        if (event.getQueueNanos() > 0) {
+            appendMicros(builder, " queueUs=", event.getQueueNanos());
+        }
+        appendMicros(builder, " handlerUs=", event.getHandlerNanos());
+        appendMicros(builder, " totalUs=", totalNanos);
+        return builder.toString();
+    }
+
+    private static void appendMicros(StringBuilder builder, String key, long nanos) {
+        builder.append(key).append(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+}
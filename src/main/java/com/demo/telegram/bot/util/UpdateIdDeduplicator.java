@@ -0,0 +1,169 @@
+package com.demo.telegram.bot.util;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * update_id 去重窗口
+ * <p>
+ * Telegram 的 update_id 单调递增，使用以最大 update_id 为上界的滑动位图记录最近窗口内出现过的 update_id，
+ * 落在窗口之外的迟到 update_id 记录在有界溢出集合中。同时缓存每个 update 已构造的响应，
+ * Telegram 重试时直接返回该响应，不再重复处理。内存占用只与窗口大小有关，与请求总量无关。
+ */
+public class UpdateIdDeduplicator {
+
+    /**
+     * 新 update_id 落后窗口上界超过该距离时视为 Telegram 重新随机分配了 update_id，重置窗口
+     */
+    private static final long RESET_DISTANCE = 1L << 24;
+
+    private final int windowSize;
+
+    private final int mask;
+
+    /**
+     * 窗口内 update_id 出现标记，下标为 update_id & mask
+     */
+    private final long[] bitmap;
+
+    /**
+     * 窗口内 update_id 对应的已构造响应
+     */
+    private final TelegramBotResponse[] responses;
+
+    /**
+     * 窗口之外迟到的 update_id，超出容量时淘汰最早加入的
+     */
+    private final Map<Long, TelegramBotResponse> overflow;
+
+    /**
+     * 当前窗口上界（已见过的最大 update_id），窗口范围为 (highest - windowSize, highest]
+     */
+    private long highest = Long.MIN_VALUE;
+
+    public UpdateIdDeduplicator(int windowSize, int overflowSize) {
+        int size = 64;
+        while (size < windowSize) {
+            size <<= 1;
+        }
+        this.windowSize = size;
+        this.mask = this.windowSize - 1;
+        this.bitmap = new long[this.windowSize >>> 6];
+        this.responses = new TelegramBotResponse[this.windowSize];
+        int overflowCapacity = Math.max(1, overflowSize);
+        this.overflow = new LinkedHashMap<>(overflowCapacity * 4 / 3 + 1) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TelegramBotResponse> eldest) {
+                return size() > overflowCapacity;
+            }
+        };
+    }
+
+    /**
+     * 登记 update_id
+     *
+     * @return 首次出现返回 null；重复出现返回之前缓存的响应，尚未处理完成时返回空响应
+     */
+    public synchronized TelegramBotResponse tryAcquire(long updateId) {
+        if (highest == Long.MIN_VALUE || updateId > highest) {
+            advance(updateId);
+            mark(updateId);
+            return null;
+        }
+
+        if (updateId > highest - windowSize) {
+            if (isMarked(updateId)) {
+                return replay(responses[slot(updateId)]);
+            }
+            mark(updateId);
+            return null;
+        }
+
+        if (overflow.containsKey(updateId)) {
+            return replay(overflow.get(updateId));
+        }
+
+        if (highest - updateId > RESET_DISTANCE) {
+            reset();
+            advance(updateId);
+            mark(updateId);
+            return null;
+        }
+
+        overflow.put(updateId, null);
+        return null;
+    }
+
+    /**
+     * 记录 update 处理完成后构造的响应，供重试时返回
+     */
+    public synchronized void complete(long updateId, TelegramBotResponse response) {
+        if (highest != Long.MIN_VALUE && updateId <= highest && updateId > highest - windowSize) {
+            if (isMarked(updateId)) {
+                responses[slot(updateId)] = response;
+            }
+        } else if (overflow.containsKey(updateId)) {
+            overflow.put(updateId, response);
+        }
+    }
+
+    /**
+     * 撤销 update_id 的登记，使 Telegram 重试时重新处理（如异步队列已满拒绝了该update）
+     */
+    public synchronized void release(long updateId) {
+        if (highest != Long.MIN_VALUE && updateId <= highest && updateId > highest - windowSize) {
+            int slot = slot(updateId);
+            bitmap[slot >>> 6] &= ~(1L << slot);
+            responses[slot] = null;
+        } else {
+            overflow.remove(updateId);
+        }
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * 将窗口上界推进到 updateId，清除滑出窗口的位置
+     */
+    private void advance(long updateId) {
+        if (highest == Long.MIN_VALUE || updateId - highest >= windowSize) {
+            reset();
+        } else {
+            for (long id = highest + 1; id <= updateId; id++) {
+                int slot = slot(id);
+                bitmap[slot >>> 6] &= ~(1L << slot);
+                responses[slot] = null;
+            }
+        }
+        highest = updateId;
+    }
+
+    private void reset() {
+        Arrays.fill(bitmap, 0L);
+        Arrays.fill(responses, null);
+        highest = Long.MIN_VALUE;
+    }
+
+    private void mark(long updateId) {
+        int slot = slot(updateId);
+        bitmap[slot >>> 6] |= 1L << slot;
+    }
+
+    private boolean isMarked(long updateId) {
+        int slot = slot(updateId);
+        return (bitmap[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private int slot(long updateId) {
+        return (int) (updateId & mask);
+    }
+
+    private static TelegramBotResponse replay(TelegramBotResponse cached) {
+        return cached != null ? cached : TelegramBotResponse.empty();
+    }
+}
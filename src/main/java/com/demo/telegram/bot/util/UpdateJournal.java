@@ -0,0 +1,373 @@
+package com.demo.telegram.bot.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 分段的内存映射追加日志，按原始字节记录收到的update
+ * <p>
+ * 日志由目录中的多个定长段文件组成，文件名为该段的起始偏移量（20位十进制，后缀 .journal）。
+ * 偏移量在所有段之间连续编号，记录写满当前段时新建一段，从当前偏移量开始。每条记录的格式为：
+ * <pre>
+ * int 长度 | int CRC32C | long 时间戳（毫秒） | byte Bot ID长度 | Bot ID | 原始请求体
+ * </pre>
+ * 长度与CRC覆盖时间戳之后的部分。段文件创建时按段大小预分配（内容为0），读取遇到长度为0或校验失败时
+ * 视为该段结束；打开时最后一段按此规则找到写入位置，并清除进程崩溃时写了一半的记录。
+ * <p>
+ * 追加由调用方串行化（方法已加锁），只写入页缓存，{@link #force()} 时才落盘；读取不加锁，
+ * 只读取到调用时已追加的位置。
+ */
+public class UpdateJournal implements Closeable {
+
+    private static final String SUFFIX = ".journal";
+
+    /**
+     * 长度、CRC
+     */
+    private static final int FRAME_HEADER = 8;
+
+    /**
+     * 时间戳、Bot ID长度
+     */
+    private static final int RECORD_HEADER = 9;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    /**
+     * 起始偏移量 -> 段，按偏移量升序
+     */
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private Segment active;
+
+    /**
+     * 下一条记录的偏移量
+     */
+    private volatile long end;
+
+    /**
+     * 已落盘的位置
+     */
+    private long forcedEnd;
+
+    /**
+     * 记录访问器
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * @return 返回false时停止遍历
+         */
+        boolean visit(long offset, long timestamp, String botId, byte[] payload);
+    }
+
+    /**
+     * 打开目录中的日志，目录不存在时创建
+     *
+     * @param segmentSize 段大小（字节）
+     */
+    public UpdateJournal(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("segmentSize must be at least 4096 bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            long size = Files.size(file);
+            if (i == files.size() - 1) {
+                // 最后一段继续写入，预分配时崩溃可能留下不完整的文件
+                size = Math.max(size, segmentSize);
+            }
+            segments.put(base, Segment.map(file, base, (int) Math.min(size, Integer.MAX_VALUE)));
+        }
+        if (segments.isEmpty()) {
+            active = createSegment(0);
+            end = 0;
+        } else {
+            active = segments.lastEntry().getValue();
+            end = active.base + recover(active);
+        }
+        forcedEnd = end;
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @return 记录的偏移量
+     * @throws IllegalArgumentException 记录超过段大小
+     */
+    public synchronized long append(long timestamp, String botId, byte[] payload) throws IOException {
+        byte[] bot = botId.getBytes(StandardCharsets.UTF_8);
+        if (bot.length > 255) {
+            throw new IllegalArgumentException("Bot id too long");
+        }
+        int length = RECORD_HEADER + bot.length + payload.length;
+        int size = FRAME_HEADER + length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + size + " bytes exceeds segment size");
+        }
+        if (end - active.base + size > active.size) {
+            active = createSegment(end);
+        }
+
+        byte[] record = new byte[size];
+        putInt(record, 0, length);
+        putLong(record, FRAME_HEADER, timestamp);
+        record[FRAME_HEADER + 8] = (byte) bot.length;
+        System.arraycopy(bot, 0, record, FRAME_HEADER + RECORD_HEADER, bot.length);
+        System.arraycopy(payload, 0, record, FRAME_HEADER + RECORD_HEADER + bot.length, payload.length);
+        CRC32C crc = new CRC32C();
+        crc.update(record, FRAME_HEADER, length);
+        putInt(record, 4, (int) crc.getValue());
+
+        long offset = end;
+        active.buffer.put((int) (offset - active.base), record);
+        end = offset + size;
+        return offset;
+    }
+
+    /**
+     * 把已追加的记录写入磁盘
+     *
+     * @return 已落盘的位置，之前的记录在系统崩溃后仍然存在
+     */
+    public long force() {
+        long target;
+        long from;
+        List<Segment> dirty = new ArrayList<>();
+        synchronized (this) {
+            target = end;
+            from = forcedEnd;
+            if (target == from) {
+                return target;
+            }
+            // 上次落盘后新建的段也需要写入
+            Long first = segments.floorKey(from);
+            dirty.addAll(segments.tailMap(first != null ? first : from, true).values());
+        }
+        for (Segment segment : dirty) {
+            int start = (int) Math.max(0, from - segment.base);
+            int stop = (int) Math.min(segment.size, target - segment.base);
+            if (stop > start) {
+                segment.buffer.force(start, stop - start);
+            }
+        }
+        synchronized (this) {
+            forcedEnd = Math.max(forcedEnd, target);
+        }
+        return target;
+    }
+
+    /**
+     * 从指定偏移量开始按顺序遍历记录，到调用时已追加的位置为止
+     *
+     * @param from 起始偏移量，小于最早一段的起点时从最早一段开始
+     */
+    public void read(long from, Visitor visitor) {
+        long limit = end;
+        List<Segment> candidates;
+        synchronized (this) {
+            Long first = segments.floorKey(from);
+            candidates = new ArrayList<>(segments.tailMap(first != null ? first : from, true).values());
+        }
+        for (Segment segment : candidates) {
+            int position = (int) Math.max(0, from - segment.base);
+            while (segment.base + position < limit && position + FRAME_HEADER <= segment.size) {
+                int length = segment.buffer.getInt(position);
+                if (length <= RECORD_HEADER || position + FRAME_HEADER + length > segment.size) {
+                    break;
+                }
+                byte[] record = new byte[length];
+                segment.buffer.get(position + FRAME_HEADER, record);
+                CRC32C crc = new CRC32C();
+                crc.update(record);
+                if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                    break;
+                }
+                long timestamp = getLong(record, 0);
+                int botLength = record[8] & 0xff;
+                String botId = new String(record, RECORD_HEADER, botLength, StandardCharsets.UTF_8);
+                byte[] payload = new byte[length - RECORD_HEADER - botLength];
+                System.arraycopy(record, RECORD_HEADER + botLength, payload, 0, payload.length);
+                if (!visitor.visit(segment.base + position, timestamp, botId, payload)) {
+                    return;
+                }
+                position += FRAME_HEADER + length;
+            }
+        }
+    }
+
+    /**
+     * 按总大小删除最早的段，只删除完全位于 before 之前且不是当前写入段的段
+     *
+     * @param maxTotalBytes 所有段的总大小上限
+     * @return 删除的段数
+     */
+    public int retain(long maxTotalBytes, long before) throws IOException {
+        List<Segment> removed = new ArrayList<>();
+        synchronized (this) {
+            long total = 0;
+            for (Segment segment : segments.values()) {
+                total += segment.size;
+            }
+            while (total > maxTotalBytes && segments.size() > 1) {
+                Map.Entry<Long, Segment> oldest = segments.firstEntry();
+                Long next = segments.higherKey(oldest.getKey());
+                if (next == null || next > before) {
+                    break;
+                }
+                segments.pollFirstEntry();
+                removed.add(oldest.getValue());
+                total -= oldest.getValue().size;
+            }
+        }
+        for (Segment segment : removed) {
+            Files.deleteIfExists(segment.file);
+        }
+        return removed.size();
+    }
+
+    /**
+     * 最早一条记录可能的偏移量
+     */
+    public synchronized long getStart() {
+        return segments.firstKey();
+    }
+
+    /**
+     * 下一条记录的偏移量
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * 段文件总大小（字节）
+     */
+    public synchronized long getSize() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.size;
+        }
+        return total;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", base, SUFFIX));
+        Segment segment = Segment.map(file, base, segmentSize);
+        segments.put(base, segment);
+        return segment;
+    }
+
+    /**
+     * 找到段中最后一条完整记录之后的位置，并清除其后写了一半的记录
+     */
+    private static int recover(Segment segment) {
+        int position = 0;
+        while (position + FRAME_HEADER <= segment.size) {
+            int length = segment.buffer.getInt(position);
+            if (length <= RECORD_HEADER || position + FRAME_HEADER + length > segment.size) {
+                break;
+            }
+            byte[] record = new byte[length];
+            segment.buffer.get(position + FRAME_HEADER, record);
+            CRC32C crc = new CRC32C();
+            crc.update(record);
+            if ((int) crc.getValue() != segment.buffer.getInt(position + 4)) {
+                break;
+            }
+            position += FRAME_HEADER + length;
+        }
+        int torn = position;
+        if (position + FRAME_HEADER <= segment.size) {
+            int length = segment.buffer.getInt(position);
+            torn = (int) Math.min(segment.size, position + FRAME_HEADER + (long) Math.max(0, length));
+        }
+        for (int i = position; i < torn; i++) {
+            segment.buffer.put(i, (byte) 0);
+        }
+        return position;
+    }
+
+    private static void putInt(byte[] target, int index, int value) {
+        target[index] = (byte) (value >>> 24);
+        target[index + 1] = (byte) (value >>> 16);
+        target[index + 2] = (byte) (value >>> 8);
+        target[index + 3] = (byte) value;
+    }
+
+    private static void putLong(byte[] target, int index, long value) {
+        putInt(target, index, (int) (value >>> 32));
+        putInt(target, index + 4, (int) value);
+    }
+
+    private static long getLong(byte[] source, int index) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (source[index + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+
+        private final long base;
+
+        private final int size;
+
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path file, long base, int size, MappedByteBuffer buffer) {
+            this.file = file;
+            this.base = base;
+            this.size = size;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path file, long base, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // 映射在通道关闭后仍然有效
+                return new Segment(file, base, size, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.demo.telegram.bot.validator;
+
+import com.demo.telegram.bot.model.TelegramRequestParam;
+
+import java.util.Set;
+
+/**
+ * Webhook验证步骤接口
+ * <p>
+ * 实现类注册为Spring Bean即可加入验证链。验证链在启动时构建一次：先按 {@link Cost 成本} 从低到高排序，
+ * 同一成本内按名称排序，再保证每个步骤排在其 {@link #getDependencies() 依赖} 之后。
+ * 每个步骤可通过 telegram.bot.validation.steps.&lt;名称&gt; 配置启用或禁用。
+ */
+public interface WebhookValidator {
+
+    /**
+     * 验证成本
+     */
+    enum Cost {
+        /**
+         * 只比较请求头、客户端IP等常量，不依赖请求体
+         */
+        HEADER,
+
+        /**
+         * 检查解码后的update字段
+         */
+        FIELD,
+
+        /**
+         * 读写共享状态（去重窗口、限流器），放在最后，避免被前面步骤拒绝的请求占用状态
+         */
+        STATEFUL
+    }
+
+    /**
+     * 步骤名称，用于配置开关和指标标签，如 secret-token
+     */
+    String getName();
+
+    /**
+     * 验证成本
+     */
+    Cost getCost();
+
+    /**
+     * 必须先于本步骤执行的步骤名称
+     */
+    default Set<String> getDependencies() {
+        return Set.of();
+    }
+
+    /**
+     * 是否同时用于验证长轮询（getUpdates）获取的update
+     * 长轮询的update直接由Bot API返回，不需要请求头和IP相关的验证
+     */
+    default boolean appliesToPolling() {
+        return true;
+    }
+
+    /**
+     * 执行验证，验证失败抛出 {@link com.demo.telegram.bot.exception.TelegramWebhookException}
+     * 设置了 {@link TelegramRequestParam#setReplayResponse 重放响应} 时验证链提前结束
+     */
+    void validate(TelegramRequestParam param);
+}
@@ -0,0 +1,169 @@
+package com.demo.telegram.bot.validator;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动时构建的不可变验证链
+ * <p>
+ * 步骤、计时器和拒绝计数器保存在按执行顺序排列的数组中，请求路径上只做顺序遍历。
+ * 排在最前面的 {@link WebhookValidator.Cost#HEADER HEADER} 步骤可以在解码请求体之前单独执行，
+ * 被拒绝的请求不必付出解码的开销。
+ */
+public final class WebhookValidatorChain {
+
+    private static final Comparator<WebhookValidator> COST_ORDER =
+            Comparator.comparing(WebhookValidator::getCost).thenComparing(WebhookValidator::getName);
+
+    private final WebhookValidator[] steps;
+
+    private final Timer[] timers;
+
+    private final Counter[] rejections;
+
+    /**
+     * 开头连续的HEADER步骤数，这些步骤不依赖解码后的update
+     */
+    private final int headerSteps;
+
+    private WebhookValidatorChain(WebhookValidator[] steps, Timer[] timers, Counter[] rejections) {
+        this.steps = steps;
+        this.timers = timers;
+        this.rejections = rejections;
+        int count = 0;
+        while (count < steps.length && steps[count].getCost() == WebhookValidator.Cost.HEADER) {
+            count++;
+        }
+        this.headerSteps = count;
+    }
+
+    /**
+     * 构建验证链
+     *
+     * @param validators 已启用的步骤
+     * @throws IllegalStateException 步骤名称重复或依赖存在环
+     */
+    public static WebhookValidatorChain build(Collection<WebhookValidator> validators, TelegramBotMetrics metrics) {
+        List<WebhookValidator> ordered = order(validators);
+        WebhookValidator[] steps = ordered.toArray(new WebhookValidator[0]);
+        Timer[] timers = new Timer[steps.length];
+        Counter[] rejections = new Counter[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            timers[i] = metrics.validationTimer(steps[i].getName());
+            rejections[i] = metrics.validationRejections(steps[i].getName());
+        }
+        return new WebhookValidatorChain(steps, timers, rejections);
+    }
+
+    /**
+     * 按成本排序并满足依赖关系（拓扑排序，每次取出成本最低的可执行步骤）
+     * 未启用的依赖不参与排序
+     */
+    private static List<WebhookValidator> order(Collection<WebhookValidator> validators) {
+        Map<String, WebhookValidator> byName = new HashMap<>();
+        for (WebhookValidator validator : validators) {
+            if (byName.put(validator.getName(), validator) != null) {
+                throw new IllegalStateException("Duplicate webhook validator name: " + validator.getName());
+            }
+        }
+
+        Map<String, Integer> pending = new HashMap<>();
+        Map<String, List<WebhookValidator>> dependents = new HashMap<>();
+        PriorityQueue<WebhookValidator> ready = new PriorityQueue<>(COST_ORDER);
+        for (WebhookValidator validator : validators) {
+            int count = 0;
+            for (String dependency : validator.getDependencies()) {
+                if (byName.containsKey(dependency)) {
+                    dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(validator);
+                    count++;
+                }
+            }
+            pending.put(validator.getName(), count);
+            if (count == 0) {
+                ready.add(validator);
+            }
+        }
+
+        List<WebhookValidator> ordered = new ArrayList<>(validators.size());
+        while (!ready.isEmpty()) {
+            WebhookValidator next = ready.poll();
+            ordered.add(next);
+            for (WebhookValidator dependent : dependents.getOrDefault(next.getName(), List.of())) {
+                if (pending.merge(dependent.getName(), -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (ordered.size() != validators.size()) {
+            throw new IllegalStateException("Cyclic webhook validator dependencies among: " + pending.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0).map(Map.Entry::getKey).toList());
+        }
+        return ordered;
+    }
+
+    /**
+     * 依次执行各步骤，记录每个步骤的耗时，失败时记录拒绝次数并抛出原异常
+     */
+    public void validate(TelegramRequestParam param) {
+        validate(param, 0, steps.length);
+    }
+
+    /**
+     * 执行开头的HEADER步骤，在解码请求体之前调用，此时参数中还没有update
+     */
+    public void validateHeaders(TelegramRequestParam param) {
+        validate(param, 0, headerSteps);
+    }
+
+    /**
+     * 执行 {@link #validateHeaders} 之后的其余步骤
+     */
+    public void validateUpdate(TelegramRequestParam param) {
+        validate(param, headerSteps, steps.length);
+    }
+
+    private void validate(TelegramRequestParam param, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long start = System.nanoTime();
+            try {
+                steps[i].validate(param);
+            } catch (TelegramWebhookException e) {
+                rejections[i].increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                timers[i].record(elapsed, TimeUnit.NANOSECONDS);
+                if (param.getEvent() != null) {
+                    param.getEvent().addValidationNanos(elapsed);
+                }
+            }
+            if (param.getReplayResponse() != null) {
+                // 重复的update已处理过，直接返回缓存响应，无需继续验证
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按执行顺序排列的步骤名称
+     */
+    public List<String> getStepNames() {
+        List<String> names = new ArrayList<>(steps.length);
+        for (WebhookValidator step : steps) {
+            names.add(step.getName());
+        }
+        return names;
+    }
+}
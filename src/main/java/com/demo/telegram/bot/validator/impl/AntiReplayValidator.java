@@ -0,0 +1,76 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.state.StateStore;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * 防重放攻击验证（按update_id去重，Telegram重试时返回首次处理的响应）
+ * update_id由各Bot独立编号，去重窗口按Bot独立；多副本部署时通过 {@link StateStore} 共享登记
+ */
+@Component
+public class AntiReplayValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AntiReplayValidator.class);
+
+    public static final String NAME = "anti-replay";
+
+    @Autowired
+    private StateStore stateStore;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.STATEFUL;
+    }
+
+    @Override
+    public Set<String> getDependencies() {
+        return Set.of(RequestFormatValidator.NAME);
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        Long updateId = param.getUpdate().updateId();
+
+        if (updateId == null) {
+            logger.warn("TelegramBotCheck error. 缺少update_id字段");
+            throw new TelegramWebhookException(TelegramWebhookException.UPDATE_ID_NOT_FOUND);
+        }
+
+        TelegramBotResponse cached =
+                stateStore.acquireUpdate(param.getBot(), StateStore.routingKey(param.getUpdate()), updateId);
+        if (cached != null) {
+            logger.debug("检测到重复的update_id，返回缓存响应: bot={}, updateId={}", param.getBot().getId(), updateId);
+            param.setReplayResponse(cached);
+        }
+    }
+
+    /**
+     * 记录update处理完成后的响应
+     */
+    public void complete(TelegramBotContext bot, TelegramUpdate update, TelegramBotResponse response) {
+        stateStore.completeUpdate(bot, StateStore.routingKey(update), update.updateId(), response);
+    }
+
+    /**
+     * 撤销update的去重登记
+     */
+    public void release(TelegramBotContext bot, TelegramUpdate update) {
+        stateStore.releaseUpdate(bot, StateStore.routingKey(update), update.updateId());
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求体大小验证，在解码之前拒绝超过 telegram.bot.validation.max-body-bytes 的请求
+ */
+@Component
+public class BodySizeValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BodySizeValidator.class);
+
+    @Autowired
+    private TelegramBotConfig telegramBotConfig;
+
+    @Override
+    public String getName() {
+        return "body-size";
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.HEADER;
+    }
+
+    @Override
+    public boolean appliesToPolling() {
+        return false;
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        int maxBodyBytes = telegramBotConfig.getValidation().getMaxBodyBytes();
+        if (param.getBodyLength() > maxBodyBytes) {
+            logger.warn("TelegramBotCheck error. 请求体过大: bot={}, ip={}, bytes={}, max={}",
+                    param.getBot().getId(), param.getClientIp(), param.getBodyLength(), maxBodyBytes);
+            throw new TelegramWebhookException(TelegramWebhookException.REQUEST_BODY_TOO_LARGE);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.state.StateStore;
+import com.demo.telegram.bot.util.IpUtil;
+import com.demo.telegram.bot.util.TokenBucketRateLimiter;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * IP维度频率限制验证
+ * 排在去重之后，Telegram重试的update不消耗令牌；每个Bot使用独立的限流器，
+ * 所有Bot的请求都来自Telegram的同一批IP，共用限流器时一个Bot的流量会挤占其他Bot的配额。
+ * 超限的update以200应答，Telegram不会重试，因此默认关闭（ip-requests-per-minute 为0）
+ */
+@Component
+public class IpRateLimitValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IpRateLimitValidator.class);
+
+    @Autowired
+    private StateStore stateStore;
+
+    @Override
+    public String getName() {
+        return "ip-rate-limit";
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.STATEFUL;
+    }
+
+    @Override
+    public Set<String> getDependencies() {
+        return Set.of(AntiReplayValidator.NAME);
+    }
+
+    @Override
+    public boolean appliesToPolling() {
+        return false;
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        if (StringUtils.isBlank(param.getClientIp())) {
+            logger.warn("TelegramBotCheck error. 无法获取客户端IP");
+            throw new TelegramWebhookException(TelegramWebhookException.RATE_LIMIT_VALIDATION_FAILED);
+        }
+
+        TokenBucketRateLimiter ipRateLimiter = param.getBot().getIpRateLimiter();
+        if (ipRateLimiter != null && !stateStore.tryAcquire(param.getBot(), "ip", ipRateLimiter,
+                IpUtil.toRateLimitKey(param.getClientIp()))) {
+            logger.warn("TelegramBotCheck error. IP请求过于频繁: bot={}, ip={}", param.getBot().getId(), param.getClientIp());
+            throw new TelegramWebhookException(TelegramWebhookException.RATE_LIMIT_VALIDATION_FAILED);
+        }
+    }
+}
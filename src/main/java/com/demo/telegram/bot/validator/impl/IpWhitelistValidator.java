@@ -0,0 +1,48 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.util.IpAllowList;
+import com.demo.telegram.bot.util.IpUtil;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * IP白名单验证（每个Bot使用各自的白名单，启动时预编译，见 {@link com.demo.telegram.bot.service.TelegramBotContext}）
+ */
+@Component
+public class IpWhitelistValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IpWhitelistValidator.class);
+
+    @Override
+    public String getName() {
+        return "ip-whitelist";
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.HEADER;
+    }
+
+    @Override
+    public boolean appliesToPolling() {
+        return false;
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        IpAllowList ipAllowList = param.getBot().getIpAllowList();
+        // 如果没有配置IP白名单，则跳过验证（启动时已提示）
+        if (ipAllowList.isEmpty()) {
+            return;
+        }
+
+        if (!IpUtil.isIpAllowed(param.getClientIp(), ipAllowList)) {
+            logger.warn("TelegramBotCheck error.  IP白名单验证失败: bot={}, ip={}", param.getBot().getId(), param.getClientIp());
+            throw new TelegramWebhookException(TelegramWebhookException.IP_WHITELIST_VALIDATION_FAILED);
+        }
+    }
+}
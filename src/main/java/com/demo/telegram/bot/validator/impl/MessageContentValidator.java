@@ -0,0 +1,67 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * 消息内容安全检查
+ */
+@Component
+public class MessageContentValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageContentValidator.class);
+
+    /**
+     * Telegram单条消息最大长度
+     */
+    private static final int MAX_TEXT_LENGTH = 4096;
+
+    @Override
+    public String getName() {
+        return "message-content";
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.FIELD;
+    }
+
+    @Override
+    public Set<String> getDependencies() {
+        return Set.of(RequestFormatValidator.NAME);
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        TelegramUpdate update = param.getUpdate();
+        if (!update.isMessage()) {
+            return; // 非消息类型的update
+        }
+
+        // 检查消息长度
+        String text = update.text();
+        if (text != null && text.length() > MAX_TEXT_LENGTH) {
+            logger.warn("TelegramBotCheck error. 消息长度超限: {}", text.length());
+            throw new TelegramWebhookException(TelegramWebhookException.MESSAGE_LENGTH_EXCEEDED);
+        }
+
+        // 检查用户信息完整性
+        if (update.userId() == null) {
+            logger.warn("TelegramBotCheck error. 用户信息不完整");
+            throw new TelegramWebhookException(TelegramWebhookException.USER_INFO_INCOMPLETE);
+        }
+
+        // 检查是否是机器人发送的消息
+        if (update.fromBot()) {
+            logger.warn("TelegramBotCheck error. 检测到机器人发送的消息");
+            throw new TelegramWebhookException(TelegramWebhookException.BOT_MESSAGE_DETECTED);
+        }
+    }
+}
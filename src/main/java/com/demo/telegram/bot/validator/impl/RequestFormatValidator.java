@@ -0,0 +1,52 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.model.TelegramUpdateType;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求格式验证
+ */
+@Component
+public class RequestFormatValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestFormatValidator.class);
+
+    public static final String NAME = "request-format";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.FIELD;
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        TelegramUpdate update = param.getUpdate();
+        if (update == null) {
+            logger.warn("TelegramBotCheck error. 请求体为空");
+            throw new TelegramWebhookException(TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
+        }
+
+        // 验证Telegram webhook必需的字段
+        if (update.updateId() == null) {
+            logger.warn("TelegramBotCheck error. 缺少update_id字段");
+            throw new TelegramWebhookException(TelegramWebhookException.UPDATE_ID_NOT_FOUND);
+        }
+
+        // 至少要有message或者callback_query等字段之一
+        if (update.type() == TelegramUpdateType.UNKNOWN) {
+            logger.warn("TelegramBotCheck error. 缺少有效的消息类型字段");
+            throw new TelegramWebhookException(TelegramWebhookException.MESSAGE_TYPE_NOT_FOUND);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Secret Token验证（每个Bot使用各自的密钥）
+ */
+@Component
+public class SecretTokenValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretTokenValidator.class);
+
+    private static final String SECRET_TOKEN_HEADER = "X-Telegram-Bot-Api-Secret-Token";
+
+    @Override
+    public String getName() {
+        return "secret-token";
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.HEADER;
+    }
+
+    @Override
+    public boolean appliesToPolling() {
+        return false;
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        String secretToken = param.getBot().getSecretToken();
+        if (StringUtils.isBlank(secretToken)) {
+            logger.warn("TelegramBotCheck error. 未配置Telegram Bot Secret Token: bot={}", param.getBot().getId());
+            throw new TelegramWebhookException(TelegramWebhookException.SECRET_TOKEN_VALIDATION_FAILED);
+        }
+
+        // Servlet容器和响应式入口按名称查找请求头时都不区分大小写
+        String requestToken = param.getHeader(SECRET_TOKEN_HEADER);
+        if (!secretToken.equals(requestToken)) {
+            logger.warn("TelegramBotCheck error. Secret Token验证失败, requestToken:{}", requestToken);
+            throw new TelegramWebhookException(TelegramWebhookException.SECRET_TOKEN_VALIDATION_FAILED);
+        }
+    }
+}
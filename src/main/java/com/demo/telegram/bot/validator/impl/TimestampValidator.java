@@ -0,0 +1,84 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间戳验证（消息不能太旧）
+ */
+@Component
+public class TimestampValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimestampValidator.class);
+
+    /**
+     * 消息最大存活时间
+     */
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 允许的时钟误差
+     */
+    private static final long MAX_CLOCK_SKEW_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    @Override
+    public String getName() {
+        return "timestamp";
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.FIELD;
+    }
+
+    @Override
+    public Set<String> getDependencies() {
+        return Set.of(RequestFormatValidator.NAME);
+    }
+
+    /**
+     * 长轮询的update由Bot API保存，停机后拉取的积压消息本来就可能超过5分钟，不做过期检查
+     */
+    @Override
+    public boolean appliesToPolling() {
+        return false;
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        TelegramUpdate update = param.getUpdate();
+        if (!update.isMessage()) {
+            return; // 非消息类型的update
+        }
+
+        Long messageDate = update.date();
+        if (messageDate == null) {
+            return; // 没有时间戳的消息
+        }
+
+        // 消息时间戳（秒）转换为毫秒
+        long messageTime = messageDate * 1000;
+        long currentTime = System.currentTimeMillis();
+
+        // 消息不能超过5分钟
+        if (currentTime - messageTime > MAX_AGE_MILLIS) {
+            logger.warn("TelegramBotCheck error. 消息过期: messageTime={}, currentTime={}, age={}ms",
+                    messageTime, currentTime, currentTime - messageTime);
+            throw new TelegramWebhookException(TelegramWebhookException.TIMESTAMP_VALIDATION_FAILED);
+        }
+
+        // 消息不能来自未来（允许30秒的时间误差）
+        if (messageTime > currentTime + MAX_CLOCK_SKEW_MILLIS) {
+            logger.warn("TelegramBotCheck error. 消息来自未来: messageTime={}, currentTime={}", messageTime, currentTime);
+            throw new TelegramWebhookException(TelegramWebhookException.TIMESTAMP_VALIDATION_FAILED);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.demo.telegram.bot.validator.impl;
+
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.handler.CommandDefinition;
+import com.demo.telegram.bot.handler.TelegramCommandHandlerFactory;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.state.StateStore;
+import com.demo.telegram.bot.util.TokenBucketRateLimiter;
+import com.demo.telegram.bot.validator.WebhookValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * 用户及 (用户, 命令) 维度的频率限制验证
+ * 排在去重之后，Telegram重试的update不消耗令牌；限流器按Bot独立，见 {@link TelegramBotContext}
+ */
+@Component
+public class UserRateLimitValidator implements WebhookValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRateLimitValidator.class);
+
+    @Autowired
+    private TelegramCommandHandlerFactory commandHandlerFactory;
+
+    @Autowired
+    private StateStore stateStore;
+
+    @Override
+    public String getName() {
+        return "user-rate-limit";
+    }
+
+    @Override
+    public Cost getCost() {
+        return Cost.STATEFUL;
+    }
+
+    @Override
+    public Set<String> getDependencies() {
+        return Set.of(AntiReplayValidator.NAME);
+    }
+
+    @Override
+    public void validate(TelegramRequestParam param) {
+        TelegramUpdate update = param.getUpdate();
+        Long telegramUserId = update.isCommandSource() ? update.userId() : null;
+        if (telegramUserId == null) {
+            return;
+        }
+
+        TelegramBotContext bot = param.getBot();
+        TokenBucketRateLimiter userRateLimiter = bot.getUserRateLimiter();
+        if (userRateLimiter != null && !stateStore.tryAcquire(bot, "user", userRateLimiter, telegramUserId)) {
+            logger.warn("TelegramBotCheck error. 用户请求过于频繁: bot={}, userId={}", bot.getId(), telegramUserId);
+            throw new TelegramWebhookException(TelegramWebhookException.RATE_LIMIT_VALIDATION_FAILED);
+        }
+
+        TokenBucketRateLimiter[] commandRateLimiters = bot.getCommandRateLimiters();
+        if (commandRateLimiters == null) {
+            return;
+        }
+        CommandDefinition definition = bot.route(commandHandlerFactory.match(update.text()));
+        TokenBucketRateLimiter commandRateLimiter = commandRateLimiters[definition.index()];
+        if (commandRateLimiter != null
+                && !stateStore.tryAcquire(bot, definition.name(), commandRateLimiter, telegramUserId)) {
+            logger.warn("TelegramBotCheck error. 命令请求过于频繁: bot={}, command={}, userId={}",
+                    bot.getId(), definition.name(), telegramUserId);
+            throw new TelegramWebhookException(TelegramWebhookException.RATE_LIMIT_VALIDATION_FAILED);
+        }
+    }
+}
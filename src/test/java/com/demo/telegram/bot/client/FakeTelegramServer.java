@@ -0,0 +1,232 @@
+package com.demo.telegram.bot.client;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+
+/**
+ * 本地模拟的Bot API服务，用于测试长轮询和发送调度
+ * <p>
+ * getUpdates 按Telegram的语义实现：请求的offset确认（删除）所有更小的update_id，没有update时等待到timeout；
+ * 其他方法记录请求后返回成功，可以预先为某个方法排入错误响应（如429）。
+ */
+public class FakeTelegramServer implements AutoCloseable {
+
+    public static final String TOKEN = "TEST_TOKEN";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * 尚未确认的update，按update_id排序，访问时对自身加锁
+     */
+    private final TreeMap<Long, JSONObject> updates = new TreeMap<>();
+
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+
+    private final List<Long> requestedOffsets = new CopyOnWriteArrayList<>();
+
+    private final Map<String, Deque<Reply>> scripted = new HashMap<>();
+
+    /**
+     * 每次收到 getUpdates 时记录的测试侧计数（如已处理的update数），与 requestedOffsets 一一对应
+     */
+    private final List<Integer> countersAtOffsets = new CopyOnWriteArrayList<>();
+
+    private volatile IntSupplier offsetCounter = () -> 0;
+
+    private long messageId;
+
+    public FakeTelegramServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/bot" + TOKEN + "/", this::handle);
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 加入一条私聊文本消息update
+     */
+    public void addMessage(long updateId, long chatId, String text) {
+        addMessage(updateId, chatId, chatId, "private", text);
+    }
+
+    public void addMessage(long updateId, long chatId, long userId, String chatType, String text) {
+        JSONObject message = new JSONObject();
+        message.put("message_id", updateId);
+        message.put("date", System.currentTimeMillis() / 1000);
+        message.put("text", text);
+        message.put("chat", JSONObject.of("id", chatId, "type", chatType));
+        message.put("from", JSONObject.of("id", userId, "is_bot", false, "first_name", "test"));
+        addUpdate(JSONObject.of("update_id", updateId, "message", message));
+    }
+
+    /**
+     * 加入任意内容的update（如字段无法解码的update）
+     */
+    public void addUpdate(JSONObject update) {
+        synchronized (updates) {
+            updates.put(update.getLongValue("update_id"), update);
+            updates.notifyAll();
+        }
+    }
+
+    /**
+     * 为指定方法排入一个响应，按排入顺序依次使用，用完后恢复默认的成功响应
+     */
+    public void enqueueReply(String method, int status, String body) {
+        synchronized (scripted) {
+            scripted.computeIfAbsent(method, key -> new ArrayDeque<>()).add(new Reply(status, body));
+        }
+    }
+
+    /**
+     * 返回429和retry_after的响应
+     */
+    public void enqueueTooManyRequests(String method, int retryAfterSeconds) {
+        enqueueReply(method, 429, JSONObject.of("ok", false, "error_code", 429,
+                "description", "Too Many Requests: retry after " + retryAfterSeconds,
+                "parameters", JSONObject.of("retry_after", retryAfterSeconds)).toJSONString());
+    }
+
+    /**
+     * 设置收到 getUpdates 时记录的计数
+     */
+    public void setOffsetCounter(IntSupplier offsetCounter) {
+        this.offsetCounter = offsetCounter;
+    }
+
+    /**
+     * 依次收到的 getUpdates 请求的offset
+     */
+    public List<Long> getRequestedOffsets() {
+        return requestedOffsets;
+    }
+
+    public List<Integer> getCountersAtOffsets() {
+        return countersAtOffsets;
+    }
+
+    /**
+     * 收到的指定方法的请求（不含 getUpdates）
+     */
+    public List<Call> getCalls(String method) {
+        List<Call> result = new ArrayList<>();
+        for (Call call : calls) {
+            if (call.method().equals(method)) {
+                result.add(call);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = path.substring(path.lastIndexOf('/') + 1);
+            JSONObject body = JSON.parseObject(exchange.getRequestBody().readAllBytes());
+            if ("getUpdates".equals(method)) {
+                respond(exchange, 200, getUpdates(body));
+                return;
+            }
+            calls.add(new Call(method, body, System.nanoTime()));
+            Reply reply;
+            synchronized (scripted) {
+                Deque<Reply> queue = scripted.get(method);
+                reply = queue != null ? queue.poll() : null;
+            }
+            if (reply != null) {
+                respond(exchange, reply.status(), reply.body());
+                return;
+            }
+            long id;
+            synchronized (this) {
+                id = ++messageId;
+            }
+            respond(exchange, 200, JSONObject.of("ok", true, "result", JSONObject.of("message_id", id)).toJSONString());
+        }
+    }
+
+    private String getUpdates(JSONObject body) {
+        long offset = body.getLongValue("offset");
+        int limit = body.getIntValue("limit", 100);
+        long deadline = System.currentTimeMillis() + body.getLongValue("timeout") * 1000;
+        requestedOffsets.add(offset);
+        countersAtOffsets.add(offsetCounter.getAsInt());
+        List<JSONObject> result = new ArrayList<>();
+        synchronized (updates) {
+            updates.headMap(offset).clear();
+            try {
+                while (updates.isEmpty() && System.currentTimeMillis() < deadline) {
+                    updates.wait(Math.max(1, deadline - System.currentTimeMillis()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (JSONObject update : updates.values()) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(update);
+            }
+        }
+        return JSONObject.of("ok", true, "result", result).toJSONString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * 收到的一次Bot API调用
+     *
+     * @param receivedAt 收到请求时的 {@link System#nanoTime()}
+     */
+    public record Call(String method, JSONObject body, long receivedAt) {
+
+        public long chatId() {
+            return body.getLongValue("chat_id");
+        }
+
+        public String text() {
+            return body.getString("text");
+        }
+    }
+
+    private record Reply(int status, String body) {
+    }
+}
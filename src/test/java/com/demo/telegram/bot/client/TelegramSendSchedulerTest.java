@@ -0,0 +1,217 @@
+package com.demo.telegram.bot.client;
+
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 发送调度测试：{@link TelegramBotApiClient} 经 {@link TelegramSendScheduler} 调用本地模拟的Bot API
+ */
+class TelegramSendSchedulerTest {
+
+    /**
+     * 比较请求到达间隔时允许的误差（请求发出到模拟服务收到之间的抖动）
+     */
+    private static final long TOLERANCE_MILLIS = 30;
+
+    private FakeTelegramServer telegram;
+
+    private TelegramBotApiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        telegram = new FakeTelegramServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        telegram.close();
+    }
+
+    @Test
+    void completesFutureWithApiResult() throws Exception {
+        startClient(1000, 1000, 6000, 3, 100);
+
+        Object result = client.send(TelegramBotResponse.sendMessage(1L, "hello")).get(5, TimeUnit.SECONDS);
+
+        // 结果为Bot API响应的 result 字段
+        assertThat(result).isInstanceOfSatisfying(Map.class, message -> assertThat(message).containsKey("message_id"));
+        assertThat(telegram.getCalls("sendMessage")).singleElement()
+                .satisfies(call -> assertThat(call.text()).isEqualTo("hello"));
+    }
+
+    @Test
+    void failsFutureOnApiErrorWithoutRetrying() throws Exception {
+        startClient(1000, 1000, 6000, 3, 100);
+        telegram.enqueueReply("sendMessage", 400,
+                "{\"ok\":false,\"error_code\":400,\"description\":\"Bad Request: chat not found\"}");
+
+        CompletableFuture<Object> future = client.send(TelegramBotResponse.sendMessage(1L, "hello"));
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(TelegramApiException.class);
+        assertThat(telegram.getCalls("sendMessage")).hasSize(1);
+    }
+
+    @Test
+    void requeuesAtHeadOfChatAfterTooManyRequests() throws Exception {
+        startClient(1000, 1000, 6000, 3, 100);
+        telegram.enqueueTooManyRequests("sendMessage", 1);
+
+        CompletableFuture<Object> first = client.send(TelegramBotResponse.sendMessage(1L, "first"));
+        CompletableFuture<Object> second = client.send(TelegramBotResponse.sendMessage(1L, "second"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> !telegram.getCalls("sendMessage").isEmpty());
+        CompletableFuture<Object> otherChat = client.send(TelegramBotResponse.sendMessage(2L, "other"));
+        CompletableFuture.allOf(first, second, otherChat).get(10, TimeUnit.SECONDS);
+
+        List<FakeTelegramServer.Call> calls = callsTo(1L);
+        // 429的消息放回队首按retry_after重试，同一聊天后面的消息不会越过它
+        assertThat(calls).extracting(FakeTelegramServer.Call::text).containsExactly("first", "first", "second");
+        assertThat(millisBetween(calls.get(0), calls.get(1))).isGreaterThanOrEqualTo(1000 - TOLERANCE_MILLIS);
+        // 其他聊天不受该聊天暂停的影响，在重试之前发出
+        assertThat(callsTo(2L).get(0).receivedAt()).isLessThan(calls.get(1).receivedAt());
+    }
+
+    @Test
+    void failsAfterMaxRetries() throws Exception {
+        startClient(1000, 1000, 6000, 1, 100);
+        telegram.enqueueTooManyRequests("sendMessage", 1);
+        telegram.enqueueTooManyRequests("sendMessage", 1);
+
+        CompletableFuture<Object> future = client.send(TelegramBotResponse.sendMessage(1L, "hello"));
+
+        assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .cause().isInstanceOfSatisfying(TelegramApiException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(1));
+        assertThat(telegram.getCalls("sendMessage")).hasSize(2);
+    }
+
+    @Test
+    void spacesMessagesGlobally() throws Exception {
+        startClient(10, 1000, 6000, 3, 100);
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (long chatId = 1; chatId <= 5; chatId++) {
+            futures.add(client.send(TelegramBotResponse.sendMessage(chatId, "hello")));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        assertMinimumSpacing(telegram.getCalls("sendMessage"), 100);
+    }
+
+    @Test
+    void spacesMessagesPerPrivateChat() throws Exception {
+        startClient(1000, 5, 6000, 3, 100);
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(client.send(TelegramBotResponse.sendMessage(1L, "chat-1-" + i)));
+        }
+        futures.add(client.send(TelegramBotResponse.sendMessage(2L, "chat-2")));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        List<FakeTelegramServer.Call> chat = callsTo(1L);
+        assertThat(chat).extracting(FakeTelegramServer.Call::text).containsExactly("chat-1-0", "chat-1-1", "chat-1-2");
+        assertMinimumSpacing(chat, 200);
+        // 另一个私聊不排在该聊天的间隔之后
+        assertThat(millisBetween(chat.get(0), callsTo(2L).get(0))).isLessThan(200 - TOLERANCE_MILLIS);
+    }
+
+    @Test
+    void spacesGroupChatsByPerMinuteLimit() throws Exception {
+        startClient(1000, 1000, 300, 3, 100);
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(client.send(TelegramBotResponse.sendMessage(-100L, "group-" + i)));
+            futures.add(client.send(TelegramBotResponse.sendMessage(1L, "private-" + i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        // 群组按每分钟300条即200ms间隔，私聊按每秒1000条
+        assertMinimumSpacing(callsTo(-100L), 200);
+        List<FakeTelegramServer.Call> privateChat = callsTo(1L);
+        assertThat(millisBetween(privateChat.get(0), privateChat.get(2))).isLessThan(200);
+    }
+
+    @Test
+    void rejectsWhenPendingLimitIsReached() throws Exception {
+        startClient(1000, 1, 6000, 3, 2);
+
+        CompletableFuture<Object> first = client.send(TelegramBotResponse.sendMessage(1L, "first"));
+        CompletableFuture<Object> second = client.send(TelegramBotResponse.sendMessage(1L, "second"));
+        CompletableFuture<Object> rejected = client.send(TelegramBotResponse.sendMessage(1L, "third"));
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).cause().isInstanceOf(TelegramApiException.class);
+        assertThat(client.getPendingSends()).isEqualTo(2);
+
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+        assertThat(client.getPendingSends()).isZero();
+        assertThat(callsTo(1L)).extracting(FakeTelegramServer.Call::text).containsExactly("first", "second");
+    }
+
+    private void startClient(int globalPerSecond, int chatPerSecond, int groupPerMinute, int maxRetries,
+                             int maxPending) throws Exception {
+        TelegramBotConfig config = new TelegramBotConfig();
+        config.setBotToken(FakeTelegramServer.TOKEN);
+        TelegramBotConfig.ApiConfig api = config.getApi();
+        api.setBaseUrl(telegram.getBaseUrl());
+        api.setGlobalMessagesPerSecond(globalPerSecond);
+        api.setChatMessagesPerSecond(chatPerSecond);
+        api.setGroupMessagesPerMinute(groupPerMinute);
+        api.setMaxRetries(maxRetries);
+        api.setMaxPendingSends(maxPending);
+
+        client = new TelegramBotApiClient();
+        ReflectionTestUtils.setField(client, "telegramBotConfig", config);
+        ReflectionTestUtils.setField(client, "objectMapper", new ObjectMapper());
+        client.init();
+        // 预先建立连接，首次建连的耗时不计入请求到达间隔
+        client.callAsync("getMe", "{}".getBytes(StandardCharsets.UTF_8)).get(5, TimeUnit.SECONDS);
+    }
+
+    private List<FakeTelegramServer.Call> callsTo(long chatId) {
+        List<FakeTelegramServer.Call> calls = new ArrayList<>();
+        for (FakeTelegramServer.Call call : telegram.getCalls("sendMessage")) {
+            if (call.chatId() == chatId) {
+                calls.add(call);
+            }
+        }
+        return calls;
+    }
+
+    private static long millisBetween(FakeTelegramServer.Call earlier, FakeTelegramServer.Call later) {
+        return TimeUnit.NANOSECONDS.toMillis(later.receivedAt() - earlier.receivedAt());
+    }
+
+    private static void assertMinimumSpacing(List<FakeTelegramServer.Call> calls, long intervalMillis) {
+        assertThat(calls).hasSizeGreaterThan(1);
+        for (int i = 1; i < calls.size(); i++) {
+            assertThat(millisBetween(calls.get(i - 1), calls.get(i)))
+                    .as("spacing before call %d", i)
+                    .isGreaterThanOrEqualTo(intervalMillis - TOLERANCE_MILLIS);
+        }
+    }
+}
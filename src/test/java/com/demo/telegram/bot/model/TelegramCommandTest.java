@@ -0,0 +1,79 @@
+package com.demo.telegram.bot.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 命令解析测试：命令名、@botname 后缀和参数拆分
+ */
+class TelegramCommandTest {
+
+    @Test
+    void parsesNameAndArguments() {
+        TelegramCommand command = TelegramCommand.parse("  /bind   code  123 \n");
+        assertThat(command.getName()).isEqualTo("bind");
+        assertThat(command.getBotUsername()).isNull();
+        assertThat(command.getArguments()).isEqualTo("code  123");
+        assertThat(command.getArgs()).containsExactly("code", "123");
+    }
+
+    @Test
+    void keepsLongerNameIntact() {
+        TelegramCommand command = TelegramCommand.parse("/balancexyz");
+        assertThat(command.getName()).isEqualTo("balancexyz");
+        assertThat(command.getArguments()).isEmpty();
+        assertThat(command.getArgs()).isEmpty();
+    }
+
+    @Test
+    void splitsBotUsernameSuffix() {
+        TelegramCommand command = TelegramCommand.parse("/balance@OtherBot 100");
+        assertThat(command.getName()).isEqualTo("balance");
+        assertThat(command.getBotUsername()).isEqualTo("OtherBot");
+        assertThat(command.getArgs()).containsExactly("100");
+
+        assertThat(command.isAddressedTo("MyBot")).isFalse();
+        assertThat(command.isAddressedTo("otherbot")).isTrue();
+        assertThat(command.isAddressedTo("@OTHERBOT")).isTrue();
+        // 未配置Bot用户名时视为发给本Bot
+        assertThat(command.isAddressedTo(null)).isTrue();
+        assertThat(TelegramCommand.parse("/balance").isAddressedTo("MyBot")).isTrue();
+    }
+
+    @Test
+    void keepsNameCaseAsSent() {
+        TelegramCommand command = TelegramCommand.parse("/BALANCE@MyBot");
+        assertThat(command.getName()).isEqualTo("BALANCE");
+        assertThat(command.getBotUsername()).isEqualTo("MyBot");
+        assertThat(command.toString()).isEqualTo("/BALANCE@MyBot");
+    }
+
+    @Test
+    void ignoresNonCommandText() {
+        assertThat(TelegramCommand.parse(null)).isNull();
+        assertThat(TelegramCommand.parse("")).isNull();
+        assertThat(TelegramCommand.parse("   ")).isNull();
+        assertThat(TelegramCommand.parse("balance /balance")).isNull();
+    }
+
+    @Test
+    void treatsBareAtSignAsEmptySuffix() {
+        TelegramCommand command = TelegramCommand.parse("/help@ now");
+        assertThat(command.getName()).isEqualTo("help");
+        assertThat(command.getBotUsername()).isNull();
+        assertThat(command.getArguments()).isEqualTo("now");
+    }
+
+    @Test
+    void materializesPartsOnlyWhenRead() {
+        TelegramCommand command = TelegramCommand.parse("  /bind@MyBot  code 1 ");
+        // 路由使用原文中的位置，不复制命令名
+        assertThat(command.getText().substring(command.getNameStart(), command.getNameEnd())).isEqualTo("bind");
+        assertThat(command.isAddressedTo("mybot")).isTrue();
+        assertThat(command.isAddressedTo("MyBot2")).isFalse();
+        assertThat(command.isAddressedTo("@MyBo")).isFalse();
+        assertThat(command.getArgs()).isSameAs(command.getArgs()).containsExactly("code", "1");
+        assertThat(command.toString()).isEqualTo("/bind@MyBot code 1");
+    }
+}
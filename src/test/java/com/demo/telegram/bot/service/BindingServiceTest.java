@@ -0,0 +1,58 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 绑定码持久化测试：记录由写线程在锁外写入，重启后恢复
+ */
+class BindingServiceTest {
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void restoresCodesWrittenByWriterThreadAfterRestart(@TempDir Path directory) {
+        Path file = directory.resolve("binding-codes.bin");
+        BindingService first = start(file);
+        List<String> codes = new ArrayList<>();
+        for (long userId = 1; userId <= 100; userId++) {
+            codes.add(first.generate(userId));
+        }
+        assertThat(first.redeem(codes.get(0))).isEqualTo(1L);
+        // 关闭时等待写线程写完队列中的记录并重写文件
+        context.close();
+
+        BindingService second = start(file);
+        assertThat(second.size()).isEqualTo(99);
+        assertThat(second.redeem(codes.get(0))).isNull();
+        for (int i = 1; i < codes.size(); i++) {
+            assertThat(second.redeem(codes.get(i))).isEqualTo(i + 1L);
+        }
+        assertThat(second.size()).isZero();
+    }
+
+    private BindingService start(Path file) {
+        context = new SpringApplicationBuilder(TelegramBotApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--telegram.bot.binding.persistence-file=" + file,
+                "--logging.file.name=");
+        return context.getBean(BindingService.class);
+    }
+}
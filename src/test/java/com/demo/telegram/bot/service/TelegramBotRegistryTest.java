@@ -0,0 +1,70 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import com.demo.telegram.bot.config.TelegramBotConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bot注册表测试：Bot ID校验和按ID查找
+ */
+class TelegramBotRegistryTest {
+
+    @Test
+    void registersConfiguredBotsAfterDefault() {
+        try (ConfigurableApplicationContext context = start(
+                "--telegram.bot.bots.shop.bot-token=SHOP_TOKEN",
+                "--telegram.bot.bots.shop.bot-username=ShopBot",
+                "--telegram.bot.bots.support_2-x.bot-token=SUPPORT_TOKEN")) {
+            TelegramBotRegistry registry = context.getBean(TelegramBotRegistry.class);
+
+            assertThat(registry.getBots()).extracting(TelegramBotContext::getId)
+                    .containsExactlyInAnyOrder(TelegramBotConfig.DEFAULT_BOT_ID, "shop", "support_2-x");
+            assertThat(registry.getBots().get(0)).isSameAs(registry.getDefault());
+            assertThat(registry.getDefault().getId()).isEqualTo(TelegramBotConfig.DEFAULT_BOT_ID);
+            assertThat(registry.get(TelegramBotConfig.DEFAULT_BOT_ID)).isSameAs(registry.getDefault());
+
+            TelegramBotContext shop = registry.get("shop");
+            assertThat(shop).isNotNull();
+            assertThat(shop.getBotUsername()).isEqualTo("ShopBot");
+            assertThat(registry.get("Shop")).isNull();
+            assertThat(registry.get("missing")).isNull();
+            assertThat(registry.get(null)).isNull();
+        }
+    }
+
+    @Test
+    void rejectsInvalidBotIds() {
+        for (String botId : List.of("bad.id", "bad id", "bad/id", "x".repeat(65))) {
+            assertThatThrownBy(() -> start("--telegram.bot.bots[" + botId + "].bot-token=TOKEN").close())
+                    .as(botId)
+                    .rootCause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("Invalid bot id");
+        }
+    }
+
+    @Test
+    void reservesDefaultBotId() {
+        assertThatThrownBy(() -> start("--telegram.bot.bots." + TelegramBotConfig.DEFAULT_BOT_ID + ".bot-token=TOKEN")
+                .close())
+                .rootCause()
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("reserved");
+    }
+
+    private static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--logging.file.name="));
+        args.addAll(List.of(properties));
+        return new SpringApplicationBuilder(TelegramBotApplication.class).run(args.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,248 @@
+package com.demo.telegram.bot.service;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.demo.telegram.bot.TelegramBotApplication;
+import com.demo.telegram.bot.client.FakeTelegramServer;
+import com.demo.telegram.bot.handler.BotCommand;
+import com.demo.telegram.bot.handler.impl.AbstractTelegramCommandHandler;
+import com.demo.telegram.bot.model.TelegramCommand;
+import com.demo.telegram.bot.model.TelegramUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 长轮询接收测试，Bot API由本地 {@link FakeTelegramServer} 模拟
+ */
+class TelegramUpdatePollerTest {
+
+    /**
+     * /echo block 的处理在该门闩打开前阻塞
+     */
+    private static volatile CountDownLatch gate = new CountDownLatch(0);
+
+    private FakeTelegramServer telegram;
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        telegram = new FakeTelegramServer();
+        gate = new CountDownLatch(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        contexts.forEach(ConfigurableApplicationContext::close);
+        telegram.close();
+    }
+
+    @Test
+    void confirmsOffsetOnlyAfterBatchIsProcessedAndKeepsChatOrder() {
+        for (int i = 0; i < 6; i++) {
+            telegram.addMessage(100 + i, 1 + i % 2, "/echo " + (1 + i % 2) + "-" + i / 2);
+        }
+        ConfigurableApplicationContext context = startBot();
+        EchoCommandHandler echo = context.getBean(EchoCommandHandler.class);
+        telegram.setOffsetCounter(() -> echo.handled.size());
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> telegram.getRequestedOffsets().size() >= 2);
+
+        // 第一次请求取到整批，下一次请求在整批处理完成后才以 max(update_id)+1 确认
+        assertThat(telegram.getRequestedOffsets().subList(0, 2)).containsExactly(0L, 106L);
+        assertThat(telegram.getCountersAtOffsets().get(1)).isEqualTo(6);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> telegram.getCalls("sendMessage").size() == 6);
+        assertThat(repliesTo(1)).containsExactly("1-0", "1-1", "1-2");
+        assertThat(repliesTo(2)).containsExactly("2-0", "2-1", "2-2");
+    }
+
+    @Test
+    void unfinishedBatchIsRedeliveredAfterRestart() throws Exception {
+        gate = new CountDownLatch(1);
+        telegram.addMessage(200, 7, "/echo block");
+        telegram.addMessage(201, 7, "/echo second");
+        telegram.addMessage(202, 8, "/echo other-chat");
+
+        ConfigurableApplicationContext first = startBot();
+        EchoCommandHandler firstEcho = first.getBean(EchoCommandHandler.class);
+        await().atMost(Duration.ofSeconds(10)).until(() -> firstEcho.handled.contains(200L));
+
+        // 批次处理中途停止：轮询线程退出后才放行阻塞的处理
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(first::close);
+        await().atMost(Duration.ofSeconds(15)).until(() -> !isPollerRunning());
+        gate.countDown();
+        closed.get(30, TimeUnit.SECONDS);
+
+        assertThat(telegram.getRequestedOffsets()).containsOnly(0L);
+
+        int callsBeforeRestart = telegram.getCalls("sendMessage").size();
+        ConfigurableApplicationContext second = startBot();
+        EchoCommandHandler secondEcho = second.getBean(EchoCommandHandler.class);
+        await().atMost(Duration.ofSeconds(10)).until(() -> telegram.getRequestedOffsets().contains(203L));
+
+        assertThat(secondEcho.handled).containsExactlyInAnyOrder(200L, 201L, 202L);
+        assertThat(secondEcho.handled.indexOf(200L)).isLessThan(secondEcho.handled.indexOf(201L));
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> telegram.getCalls("sendMessage").size() >= callsBeforeRestart + 3);
+    }
+
+    @Test
+    void journaledBatchIsConfirmedBeforeProcessingAndRedrivenAfterRestart(@TempDir Path journalDirectory)
+            throws Exception {
+        String[] journal = {
+                "telegram.bot.journal.enabled=true",
+                "telegram.bot.journal.directory=" + journalDirectory,
+                // 300处理期间301占满聊天邮箱，302无法交给执行器
+                "telegram.bot.async.mailbox-capacity=1"};
+        gate = new CountDownLatch(1);
+        telegram.addMessage(300, 9, "/echo block");
+        telegram.addMessage(301, 9, "/echo queued");
+        telegram.addMessage(302, 9, "/echo undispatched");
+
+        ConfigurableApplicationContext first = startBot(journal);
+        EchoCommandHandler firstEcho = first.getBean(EchoCommandHandler.class);
+
+        // 批次落盘后立即确认，下一次长轮询与仍在处理中的批次重叠
+        await().atMost(Duration.ofSeconds(10)).until(() -> telegram.getRequestedOffsets().contains(303L));
+        assertThat(firstEcho.handled).containsExactly(300L);
+
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(first::close);
+        await().atMost(Duration.ofSeconds(15)).until(() -> !isPollerRunning());
+        gate.countDown();
+        closed.get(30, TimeUnit.SECONDS);
+        assertThat(firstEcho.handled).containsExactly(300L, 301L);
+
+        // 已确认但未处理的302由日志重新处理，Telegram不会再投递
+        ConfigurableApplicationContext second = startBot(journal);
+        EchoCommandHandler secondEcho = second.getBean(EchoCommandHandler.class);
+        await().atMost(Duration.ofSeconds(10)).until(() -> secondEcho.handled.contains(302L));
+        await().atMost(Duration.ofSeconds(10)).until(() -> telegram.getRequestedOffsets().size() >= 3);
+        assertThat(secondEcho.handled).containsExactly(302L);
+        List<Long> offsets = telegram.getRequestedOffsets();
+        assertThat(offsets.subList(0, 2)).containsExactly(0L, 303L);
+        assertThat(offsets.subList(2, offsets.size())).containsOnly(0L);
+    }
+
+    @Test
+    void skipsMalformedUpdateAndConfirmsPastIt() {
+        telegram.addMessage(400, 11, "/echo before");
+        // chat.id 超出long范围，该update无法解码
+        telegram.addUpdate(JSONObject.of("update_id", 401L, "message", JSONObject.of(
+                "message_id", 1, "date", System.currentTimeMillis() / 1000, "text", "/echo broken",
+                "chat", JSONObject.of("id", new BigInteger("123456789012345678901234567890"), "type", "private"),
+                "from", JSONObject.of("id", 11, "is_bot", false))));
+
+        ConfigurableApplicationContext context = startBot();
+        EchoCommandHandler echo = context.getBean(EchoCommandHandler.class);
+
+        // 无法解码的update被跳过，偏移量越过它，不会反复获取同一批次
+        await().atMost(Duration.ofSeconds(10)).until(() -> telegram.getRequestedOffsets().contains(402L));
+        assertThat(echo.handled).containsExactly(400L);
+        assertThat(telegram.getRequestedOffsets()).startsWith(0L, 402L);
+        assertThat(repliesTo(11)).containsExactly("before");
+    }
+
+    @Test
+    void handlesBacklogOlderThanWebhookMaxAge() {
+        // 停机一小时后拉取的积压消息
+        telegram.addUpdate(JSONObject.of("update_id", 500L, "message", JSONObject.of(
+                "message_id", 1, "date", System.currentTimeMillis() / 1000 - TimeUnit.HOURS.toSeconds(1),
+                "text", "/echo backlog",
+                "chat", JSONObject.of("id", 12, "type", "private"),
+                "from", JSONObject.of("id", 12, "is_bot", false))));
+
+        ConfigurableApplicationContext context = startBot();
+        EchoCommandHandler echo = context.getBean(EchoCommandHandler.class);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> echo.handled.contains(500L));
+        await().atMost(Duration.ofSeconds(10)).until(() -> repliesTo(12).contains("backlog"));
+    }
+
+    private List<String> repliesTo(long chatId) {
+        List<String> replies = new ArrayList<>();
+        for (FakeTelegramServer.Call call : telegram.getCalls("sendMessage")) {
+            if (call.chatId() == chatId) {
+                replies.add(call.text());
+            }
+        }
+        return replies;
+    }
+
+    private static boolean isPollerRunning() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().equals("telegram-poller") && thread.isAlive());
+    }
+
+    private ConfigurableApplicationContext startBot(String... properties) {
+        // 命令行参数优先于 application.yml
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--telegram.bot.bot-token=" + FakeTelegramServer.TOKEN,
+                "--telegram.bot.api.base-url=" + telegram.getBaseUrl(),
+                "--telegram.bot.api.global-messages-per-second=1000",
+                "--telegram.bot.api.chat-messages-per-second=1000",
+                "--telegram.bot.polling.enabled=true",
+                "--telegram.bot.polling.timeout-seconds=1",
+                "--telegram.bot.rate-limit.user-requests-per-minute=0",
+                "--logging.file.name="));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                TelegramBotApplication.class, EchoCommandConfig.class)
+                .run(args.toArray(new String[0]));
+        contexts.add(context);
+        return context;
+    }
+
+    @TestConfiguration
+    static class EchoCommandConfig {
+
+        @Bean
+        EchoCommandHandler echoCommandHandler() {
+            return new EchoCommandHandler();
+        }
+    }
+
+    /**
+     * 原样回复命令参数，并按处理顺序记录update_id
+     */
+    @BotCommand(value = "echo", hidden = true)
+    static class EchoCommandHandler extends AbstractTelegramCommandHandler {
+
+        final List<Long> handled = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String handle(Long telegramUserId, TelegramCommand command, TelegramUpdate update) {
+            handled.add(update.updateId());
+            if ("block".equals(command.getArguments())) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return command.getArguments();
+        }
+    }
+}
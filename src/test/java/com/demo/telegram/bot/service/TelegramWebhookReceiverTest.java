@@ -0,0 +1,67 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Webhook处理流程测试：异步模式下update未落盘时不入队，返回503由Telegram重试
+ */
+class TelegramWebhookReceiverTest {
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void returnsUnavailableWhenJournalIsNotDurable(@TempDir Path journalDirectory) {
+        context = new SpringApplicationBuilder(TelegramBotApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--telegram.bot.async.enabled=true",
+                "--telegram.bot.journal.enabled=true",
+                "--telegram.bot.journal.directory=" + journalDirectory,
+                "--telegram.bot.validation.steps.secret-token=false",
+                "--telegram.bot.validation.steps.ip-whitelist=false",
+                "--logging.file.name=");
+        TelegramWebhookReceiver receiver = context.getBean(TelegramWebhookReceiver.class);
+        UpdateJournalService journalService = context.getBean(UpdateJournalService.class);
+        TelegramBotContext bot = context.getBean(TelegramBotRegistry.class).getDefault();
+        MeterRegistry meters = context.getBean(MeterRegistry.class);
+
+        assertThat(receiver.receive(bot, "127.0.0.1", name -> null, update(700)).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        // 停止落盘线程，之后写入的update无法落盘
+        ReflectionTestUtils.setField(journalService, "running", false);
+        byte[] body = update(701);
+        assertThat(receiver.receive(bot, "127.0.0.1", name -> null, body).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        // 去重登记已撤销，Telegram重试时重新处理而不是返回缓存响应
+        assertThat(receiver.receive(bot, "127.0.0.1", name -> null, body).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(meters.get("telegram.journal.sync.failures").functionCounter().count()).isEqualTo(2);
+    }
+
+    private static byte[] update(long updateId) {
+        return ("{\"update_id\":" + updateId + ",\"message\":{\"message_id\":1,\"date\":"
+                + System.currentTimeMillis() / 1000 + ",\"text\":\"/help\","
+                + "\"chat\":{\"id\":42,\"type\":\"private\"},\"from\":{\"id\":42,\"is_bot\":false}}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
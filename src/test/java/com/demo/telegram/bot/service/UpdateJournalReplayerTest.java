@@ -0,0 +1,69 @@
+package com.demo.telegram.bot.service;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * update日志重放测试：重放在后台执行，命令处理器不产生副作用
+ */
+class UpdateJournalReplayerTest {
+
+    private ConfigurableApplicationContext context;
+
+    @AfterEach
+    void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void replayRunsInBackgroundWithoutSideEffects(@TempDir Path journalDirectory) {
+        context = new SpringApplicationBuilder(TelegramBotApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--telegram.bot.journal.enabled=true",
+                "--telegram.bot.journal.directory=" + journalDirectory,
+                "--logging.file.name=");
+        UpdateJournalService journalService = context.getBean(UpdateJournalService.class);
+        UpdateJournalReplayer replayer = context.getBean(UpdateJournalReplayer.class);
+        BindingService bindingService = context.getBean(BindingService.class);
+        TelegramBotContext bot = context.getBean(TelegramBotRegistry.class).getDefault();
+
+        long offset = -1;
+        for (int i = 0; i < 3; i++) {
+            offset = journalService.append(bot, update(500 + i, i == 0 ? "/bind" : "/balance"));
+            journalService.complete(offset);
+        }
+        assertThat(journalService.awaitDurable(offset)).isTrue();
+
+        String id = replayer.submitReplay(0, Long.MAX_VALUE);
+        assertThat(id).isNotBlank();
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> replayer.replayProgress(id).get("status") == UpdateJournalReplayer.ReplayStatus.COMPLETED);
+
+        Map<String, Object> progress = replayer.replayProgress(id);
+        assertThat(progress).containsEntry("records", 3L).containsEntry("processed", 3L);
+        // /bind 重放不生成绑定码
+        assertThat(bindingService.size()).isZero();
+        assertThat(replayer.replayProgress("unknown")).isNull();
+    }
+
+    private static byte[] update(long updateId, String text) {
+        return ("{\"update_id\":" + updateId + ",\"message\":{\"message_id\":1,\"date\":"
+                + System.currentTimeMillis() / 1000 + ",\"text\":\"" + text + "\","
+                + "\"chat\":{\"id\":42,\"type\":\"private\"},\"from\":{\"id\":42,\"is_bot\":false}}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,321 @@
+package com.demo.telegram.bot.state.impl;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import com.demo.telegram.bot.client.RespClient;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.service.TelegramBotContext;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import com.demo.telegram.bot.state.StateStore;
+import com.demo.telegram.bot.util.ConsistentHashRing;
+import com.demo.telegram.bot.util.TokenBucketRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 共享状态测试：两个节点各自持有一个分片并通过 {@link RespKeyValueServer} 互相访问
+ */
+class SharedStateStoreTest {
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    private final List<Closeable> sockets = new CopyOnWriteArrayList<>();
+
+    private int port1;
+
+    private int port2;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        port1 = freePort();
+        do {
+            port2 = freePort();
+        } while (port2 == port1);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        contexts.forEach(ConfigurableApplicationContext::close);
+        for (Closeable socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Test
+    void deduplicatesUpdatesAcrossNodes() {
+        Node node1 = startNode("node-1", port1, port2);
+        Node node2 = startNode("node-2", port1, port2);
+        long remoteFor1 = routingKey(node1, false);
+        long remoteFor2 = routingKey(node2, false);
+
+        // 分片在对方节点：第一个节点以 SET NX 登记，另一个节点返回空响应
+        assertThat(node1.store.acquireUpdate(node1.bot, remoteFor1, 1000)).isNull();
+        assertEmpty(node2.store.acquireUpdate(node2.bot, remoteFor1, 1000));
+        assertThat(node2.store.acquireUpdate(node2.bot, remoteFor2, 1001)).isNull();
+        assertEmpty(node1.store.acquireUpdate(node1.bot, remoteFor2, 1001));
+
+        // 释放后分片上的登记删除，另一个节点可以重新处理
+        assertThat(node1.store.acquireUpdate(node1.bot, remoteFor1, 1002)).isNull();
+        node1.store.releaseUpdate(node1.bot, remoteFor1, 1002);
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> node2.store.acquireUpdate(node2.bot, remoteFor1, 1002) == null);
+
+        assertThat(node1.fallbacks()).isZero();
+        assertThat(node2.fallbacks()).isZero();
+    }
+
+    @Test
+    void countsRateLimitWindowsAcrossNodes() {
+        Node node1 = startNode("node-1", port1, port2);
+        Node node2 = startNode("node-2", port1, port2);
+        long key = routingKey(node1, true);
+        // 窗口足够长，测试期间不会跨越窗口边界
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1, TimeUnit.HOURS);
+
+        // 两个节点对同一窗口计数（INCR），合计超过容量后拒绝
+        assertThat(node1.store.tryAcquire(node1.bot, "user", limiter, key)).isTrue();
+        assertThat(node2.store.tryAcquire(node2.bot, "user", limiter, key)).isTrue();
+        assertThat(node2.store.tryAcquire(node2.bot, "user", limiter, key)).isTrue();
+        assertThat(node1.store.tryAcquire(node1.bot, "user", limiter, key)).isFalse();
+        assertThat(node2.store.tryAcquire(node2.bot, "user", limiter, key)).isFalse();
+        assertThat(node2.fallbacks()).isZero();
+    }
+
+    @Test
+    void expiresRateLimitWindowsOnOwningShard() {
+        Node node1 = startNode("node-1", port1, port2);
+        Node node2 = startNode("node-2", port1, port2);
+        long key = routingKey(node1, true);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 200, TimeUnit.MILLISECONDS);
+
+        // 远程节点的 INCR 后紧跟 PEXPIRE，窗口计数在窗口结束后由分片清理
+        assertThat(node2.store.tryAcquire(node2.bot, "user", limiter, key)).isTrue();
+        assertThat(node1.localShard().size()).isEqualTo(1);
+        await().atMost(Duration.ofSeconds(5)).until(() -> node1.localShard().size() == 0);
+        assertThat(node2.store.tryAcquire(node2.bot, "user", limiter, key)).isTrue();
+    }
+
+    @Test
+    void pipelinesConcurrentCommandsToRemoteShard() throws Exception {
+        Node node1 = startNode("node-1", port1, port2);
+        startNode("node-2", port1, port2);
+        long key = routingKey(node1, false);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1_000_000, 1, TimeUnit.HOURS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                results.add(CompletableFuture.supplyAsync(
+                        () -> node1.store.tryAcquire(node1.bot, "user", limiter, key), executor));
+            }
+            for (CompletableFuture<Boolean> result : results) {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 每次 increment 连续写出 INCR 和 PEXPIRE，不等待 INCR 的响应
+        RespClient client = node1.client();
+        assertThat(client.getCommandCount()).isEqualTo(4000);
+        assertThat(client.getBatchCount()).isLessThan(client.getCommandCount());
+        assertThat(client.getPending()).isZero();
+        assertThat(node1.fallbacks()).isZero();
+    }
+
+    @Test
+    void pipelinesCommandsWithoutWaitingForReplies() throws Exception {
+        startNode("node-1", port1, port2);
+
+        try (RespClient client = new RespClient("test", "127.0.0.1", port1, 1000, 256, 10000, null)) {
+            List<CompletableFuture<Object>> replies = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                replies.add(client.execute("INCR", "pipelined"));
+            }
+            // 响应按发送顺序匹配到各自的命令
+            for (int i = 0; i < replies.size(); i++) {
+                assertThat(replies.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i + 1L);
+            }
+            assertThat(client.getCommandCount()).isEqualTo(1000);
+            assertThat(client.getBatchCount()).isLessThan(client.getCommandCount() / 10);
+        }
+    }
+
+    @Test
+    void authenticatesNodesWithSharedPassword() throws Exception {
+        Node node1 = startNode("node-1", port1, port2, "--telegram.bot.state.password=secret");
+        Node node2 = startNode("node-2", port1, port2, "--telegram.bot.state.password=secret");
+        long remoteFor1 = routingKey(node1, false);
+
+        assertThat(node1.store.acquireUpdate(node1.bot, remoteFor1, 3000)).isNull();
+        assertEmpty(node2.store.acquireUpdate(node2.bot, remoteFor1, 3000));
+        assertThat(node1.fallbacks()).isZero();
+
+        // 未认证和密码错误的连接不能访问分片
+        try (RespClient anonymous = new RespClient("anonymous", "127.0.0.1", port1, 1000, 256, 100, null);
+             RespClient wrong = new RespClient("wrong", "127.0.0.1", port1, 1000, 256, 100, "guess");
+             RespClient valid = new RespClient("valid", "127.0.0.1", port1, 1000, 256, 100, "secret")) {
+            assertThat(anonymous.execute("INCR", "auth")).failsWithin(5, TimeUnit.SECONDS)
+                    .withThrowableThat().withMessageContaining("NOAUTH");
+            assertThat(wrong.execute("INCR", "auth")).failsWithin(5, TimeUnit.SECONDS)
+                    .withThrowableThat().withMessageContaining("NOAUTH");
+            assertThat(valid.execute("INCR", "auth").get(5, TimeUnit.SECONDS)).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void bindsOnlyToConfiguredAddress() throws IOException {
+        try (RespKeyValueServer server = new RespKeyValueServer(new InMemoryKeyValueStore(), "127.0.0.1", 0, null)) {
+            assertThat(ReflectionTestUtils.getField(server, "serverSocket"))
+                    .isInstanceOfSatisfying(ServerSocket.class, socket ->
+                            assertThat(socket.getInetAddress().isLoopbackAddress()).isTrue());
+        }
+    }
+
+    @Test
+    void fallsBackToLocalStateWhenRemoteShardIsDown() {
+        Node node1 = startNode("node-1", port1, port2);
+        Node node2 = startNode("node-2", port1, port2);
+        long key = routingKey(node1, false);
+        node2.context.close();
+
+        assertFallsBack(node1, key);
+    }
+
+    @Test
+    void fallsBackToLocalStateWhenRemoteShardTimesOut() throws IOException {
+        // 接受连接但从不响应的节点
+        ServerSocket silent = new ServerSocket();
+        silent.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port2));
+        sockets.add(silent);
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    sockets.add(silent.accept());
+                }
+            } catch (IOException ignored) {
+                // 监听关闭
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        Node node1 = startNode("node-1", port1, port2);
+        long key = routingKey(node1, false);
+
+        long started = System.nanoTime();
+        assertFallsBack(node1, key);
+        // 每次等待以 timeout-millis 为上限
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(3000);
+        assertThat(node1.client().getPending()).isPositive();
+    }
+
+    private static void assertFallsBack(Node node, long key) {
+        // 去重退回本节点的去重窗口：首次处理，重试返回本节点记录的响应
+        assertThat(node.store.acquireUpdate(node.bot, key, 2000)).isNull();
+        TelegramBotResponse response = TelegramBotResponse.sendMessage(key, "cached");
+        node.store.completeUpdate(node.bot, key, 2000, response);
+        assertThat(node.store.acquireUpdate(node.bot, key, 2000)).isSameAs(response);
+
+        // 限流退回进程内的令牌桶
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, TimeUnit.HOURS);
+        assertThat(node.store.tryAcquire(node.bot, "user", limiter, key)).isTrue();
+        assertThat(node.store.tryAcquire(node.bot, "user", limiter, key)).isTrue();
+        assertThat(node.store.tryAcquire(node.bot, "user", limiter, key)).isFalse();
+        assertThat(node.fallbacks()).isEqualTo(4);
+    }
+
+    private static void assertEmpty(TelegramBotResponse response) {
+        assertThat(response).isNotNull().satisfies(value -> assertThat(value.isEmpty()).isTrue());
+    }
+
+    /**
+     * 找到一个由本节点（local为true）或另一个节点持有的路由键
+     */
+    private static long routingKey(Node node, boolean local) {
+        ConsistentHashRing<?> ring = (ConsistentHashRing<?>) ReflectionTestUtils.getField(node.store, "ring");
+        for (long key = 1; ; key++) {
+            if ((ring.nodeFor(key) == node.localShard()) == local) {
+                return key;
+            }
+        }
+    }
+
+    private Node startNode(String nodeId, int port1, int port2, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=none",
+                "--telegram.bot.state.type=SHARED",
+                "--telegram.bot.state.node-id=" + nodeId,
+                "--telegram.bot.state.nodes[0].id=node-1",
+                "--telegram.bot.state.nodes[0].address=127.0.0.1:" + port1,
+                "--telegram.bot.state.nodes[1].id=node-2",
+                "--telegram.bot.state.nodes[1].address=127.0.0.1:" + port2,
+                "--telegram.bot.state.timeout-millis=200",
+                "--logging.file.name="));
+        args.addAll(List.of(extraArgs));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TelegramBotApplication.class)
+                .run(args.toArray(new String[0]));
+        contexts.add(context);
+        StateStore store = context.getBean(StateStore.class);
+        assertThat(store).isInstanceOf(SharedStateStore.class);
+        return new Node(context, (SharedStateStore) store, context.getBean(TelegramBotRegistry.class).getDefault());
+    }
+
+    /**
+     * 在临时端口范围之下选择空闲端口：系统分配的端口可能在节点绑定前被其他连接的本地端口占用，
+     * 节点关闭后连接该端口还可能连到自身
+     */
+    private static int freePort() throws IOException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            int port = ThreadLocalRandom.current().nextInt(20000, 30000);
+            try (ServerSocket socket = new ServerSocket()) {
+                socket.bind(new InetSocketAddress(port));
+                return port;
+            } catch (IOException e) {
+                // 端口已被占用，换一个
+            }
+        }
+        throw new IOException("No free port");
+    }
+
+    private record Node(ConfigurableApplicationContext context, SharedStateStore store, TelegramBotContext bot) {
+
+        InMemoryKeyValueStore localShard() {
+            return (InMemoryKeyValueStore) ReflectionTestUtils.getField(store, "localShard");
+        }
+
+        RespClient client() {
+            @SuppressWarnings("unchecked")
+            List<RespClient> clients = (List<RespClient>) ReflectionTestUtils.getField(store, "clients");
+            assertThat(clients).hasSize(1);
+            return clients.get(0);
+        }
+
+        long fallbacks() {
+            return ((LongAdder) ReflectionTestUtils.getField(store, "fallbacks")).sum();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.demo.telegram.bot.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 绑定码存储测试：回移删除后索引完整、校验字符、过期和快照
+ */
+class BindingCodeStoreTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    @Test
+    void backwardShiftDeleteKeepsRemainingCodesReachable() {
+        BindingCodeStore store = new BindingCodeStore(8, 30, NOW, 4);
+        Map<String, Long> live = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        for (long userId = 0; userId < 5000; userId++) {
+            String code = store.generate(userId, NOW + 3600);
+            codes.add(code);
+            live.put(code, userId);
+        }
+
+        // 随机删除一半，每次删除都回移探测链上的后续条目
+        Random random = new Random(7);
+        for (int i = 0; i < 2500; i++) {
+            String code = codes.remove(random.nextInt(codes.size()));
+            assertThat(store.redeem(code, NOW)).isEqualTo(live.remove(code));
+            assertThat(store.redeem(code, NOW)).isEqualTo(BindingCodeStore.NOT_FOUND);
+        }
+
+        assertThat(store.size()).isEqualTo(live.size());
+        assertThat(occupiedIndexSlots(store)).isEqualTo(live.size());
+        for (Map.Entry<String, Long> entry : live.entrySet()) {
+            assertThat(store.redeem(entry.getKey(), NOW)).isEqualTo(entry.getValue());
+        }
+        assertThat(store.size()).isZero();
+        assertThat(occupiedIndexSlots(store)).isZero();
+    }
+
+    @Test
+    void reusesFreedEntriesForNewCodes() {
+        BindingCodeStore store = new BindingCodeStore(8, 8, NOW, 16);
+        for (int round = 0; round < 100; round++) {
+            String code = store.generate(round, NOW + 60);
+            assertThat(code).hasSize(8);
+            assertThat(store.redeem(code, NOW)).isEqualTo(round);
+        }
+        assertThat((int) ReflectionTestUtils.getField(store, "allocated")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsCodesWithWrongCheckSymbol() {
+        BindingCodeStore store = new BindingCodeStore(30, 30, NOW, 16);
+        String code = store.generate(42, NOW + 60);
+        assertThat(code).hasSize(30).matches("[0-9A-HJKMNP-TV-Z]+");
+
+        // 前26个字符承载随机数，之后为校验字符
+        for (int position = 26; position < 30; position++) {
+            assertThat(store.redeem(replaceAt(code, position), NOW)).isEqualTo(BindingCodeStore.NOT_FOUND);
+        }
+        // 128位之外的补位不为0
+        assertThat(store.redeem(replaceAt(code, 25), NOW)).isEqualTo(BindingCodeStore.NOT_FOUND);
+        assertThat(store.size()).isEqualTo(1);
+
+        // 校验通过的码可以小写输入
+        assertThat(store.redeem(code.toLowerCase(), NOW)).isEqualTo(42);
+    }
+
+    @Test
+    void normalizesConfusableCharactersAndChecksLength() {
+        BindingCodeStore store = new BindingCodeStore(8, 12, NOW, 16);
+        assertThat(store.put("01234ABC", 7, NOW + 60)).isTrue();
+        assertThat(store.put("O1234ABC", 8, NOW + 60)).isFalse();
+        assertThat(store.put("0123UABC", 8, NOW + 60)).isFalse();
+        assertThat(store.put("0123", 8, NOW + 60)).isFalse();
+        assertThat(store.put("0123456789ABC", 8, NOW + 60)).isFalse();
+
+        assertThat(store.redeem("oI234abc", NOW)).isEqualTo(7);
+        assertThat(store.redeem(null, NOW)).isEqualTo(BindingCodeStore.NOT_FOUND);
+    }
+
+    @Test
+    void expiresCodesByWheelAndOnRedeem() {
+        BindingCodeStore store = new BindingCodeStore(8, 12, NOW, 16);
+        String early = store.generate(1, NOW + 10);
+        String late = store.generate(2, NOW + 100);
+        String stale = store.generate(3, NOW + 20);
+
+        assertThat(store.advance(NOW + 10)).isEqualTo(1);
+        assertThat(store.redeem(early, NOW + 10)).isEqualTo(BindingCodeStore.NOT_FOUND);
+
+        // 时间轮尚未推进到的过期条目在使用时同样视为不存在，并被移除
+        assertThat(store.redeem(stale, NOW + 50)).isEqualTo(BindingCodeStore.NOT_FOUND);
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.advance(NOW + 99)).isZero();
+        assertThat(store.redeem(late, NOW + 99)).isEqualTo(2);
+    }
+
+    @Test
+    void snapshotIsIndependentCopyOfLiveCodes() {
+        BindingCodeStore store = new BindingCodeStore(8, 30, NOW, 16);
+        Map<String, Long> expected = new HashMap<>();
+        for (long userId = 1; userId <= 50; userId++) {
+            expected.put(store.generate(userId, NOW + userId), userId);
+        }
+        store.advance(NOW + 10);
+        expected.values().removeIf(userId -> userId <= 10);
+
+        BindingCodeStore.Snapshot snapshot = store.snapshot();
+        // 快照之后的修改不影响快照
+        store.generate(999, NOW + 1000);
+        store.redeem(expected.keySet().iterator().next(), NOW);
+
+        Map<String, Long> visited = new HashMap<>();
+        snapshot.forEach((code, userId, expiresAt) -> {
+            assertThat(expiresAt).isEqualTo(NOW + userId);
+            visited.put(code, userId);
+        });
+        assertThat(snapshot.size()).isEqualTo(40);
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsInvalidLengthConfiguration() {
+        assertThatThrownBy(() -> new BindingCodeStore(7, 10, NOW, 16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BindingCodeStore(10, 9, NOW, 16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BindingCodeStore(8, 65, NOW, 16)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int occupiedIndexSlots(BindingCodeStore store) {
+        int count = 0;
+        for (int value : (int[]) ReflectionTestUtils.getField(store, "index")) {
+            if (value != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 把指定位置的字符换成字母表中的另一个字符
+     */
+    private static String replaceAt(String code, int position) {
+        char replacement = code.charAt(position) == 'Z' ? 'Y' : 'Z';
+        return code.substring(0, position) + replacement + code.substring(position + 1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.demo.telegram.bot.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * 聊天分区执行器测试：任务异常不阻塞邮箱，未执行的任务交给丢弃回调
+ */
+class ChatLaneExecutorTest {
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(2);
+
+    private final List<Runnable> discarded = new CopyOnWriteArrayList<>();
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    private final ChatLaneExecutor lanes = new ChatLaneExecutor(workers, 4, 100, discarded::add);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void laneKeepsRunningAfterTaskThrowsError() {
+        CountDownLatch gate = new CountDownLatch(1);
+        assertThat(lanes.execute(1, () -> block(gate))).isTrue();
+        assertThat(lanes.execute(1, () -> {
+            throw new AssertionError("task failure");
+        })).isTrue();
+        assertThat(lanes.execute(1, () -> executed.add("queued"))).isTrue();
+        gate.countDown();
+
+        // Error 之后排在同一邮箱中的任务继续执行（Error 继续抛给工作线程，不作为测试失败）
+        await().dontCatchUncaughtExceptions().atMost(Duration.ofSeconds(5)).until(() -> executed.contains("queued"));
+        await().atMost(Duration.ofSeconds(5)).until(() -> lanes.getLaneCount() == 0);
+
+        // 邮箱的调度标记已清除，新任务重新调度
+        assertThat(lanes.execute(1, () -> executed.add("later"))).isTrue();
+        await().atMost(Duration.ofSeconds(5)).until(() -> executed.contains("later"));
+        assertThat(lanes.getTotalDepth()).isZero();
+    }
+
+    @Test
+    void dropOldestHandsTaskToDiscardCallback() {
+        CountDownLatch gate = new CountDownLatch(1);
+        lanes.execute(1, () -> block(gate));
+        await().atMost(Duration.ofSeconds(5)).until(() -> lanes.getQueueDepth(1) == 0);
+        Runnable oldest = () -> executed.add("oldest");
+        lanes.execute(1, oldest);
+        lanes.execute(1, () -> executed.add("newest"));
+
+        assertThat(lanes.dropOldest(1)).isTrue();
+        assertThat(discarded).containsExactly(oldest);
+        assertThat(lanes.getQueueDepth(1)).isEqualTo(1);
+        assertThat(lanes.dropOldest(2)).isFalse();
+
+        gate.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> executed.contains("newest"));
+        assertThat(executed).doesNotContain("oldest");
+    }
+
+    @Test
+    void discardsQueuedTasksWhenWorkersStop() throws InterruptedException {
+        // 两个工作线程都被占用，第三个聊天的邮箱停在线程池队列中
+        CountDownLatch gate = new CountDownLatch(1);
+        lanes.execute(1, () -> block(gate));
+        lanes.execute(2, () -> block(gate));
+        await().atMost(Duration.ofSeconds(5)).until(() -> lanes.getTotalDepth() == 0);
+        lanes.execute(3, () -> executed.add("queued"));
+
+        assertThat(workers.shutdownNow()).hasSize(1);
+        assertThat(workers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lanes.discardAll()).isEqualTo(1);
+        assertThat(discarded).hasSize(1);
+
+        // 停止后提交的任务同样交给丢弃回调，不会留在无人调度的邮箱中
+        assertThat(lanes.execute(4, () -> executed.add("after-stop"))).isTrue();
+        assertThat(discarded).hasSize(2);
+        assertThat(lanes.getTotalDepth()).isZero();
+        assertThat(lanes.getQueueDepth(4)).isZero();
+        assertThat(executed).isEmpty();
+    }
+
+    private static void block(CountDownLatch gate) {
+        try {
+            gate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
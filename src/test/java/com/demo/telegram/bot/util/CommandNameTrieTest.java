@@ -0,0 +1,74 @@
+package com.demo.telegram.bot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 命令名前缀树测试：完整匹配、大小写和非法字符
+ */
+class CommandNameTrieTest {
+
+    private final CommandNameTrie trie = CommandNameTrie.of(List.of("balance", "bal", "help", "bind_2fa"));
+
+    @Test
+    void matchesWholeNamesOnly() {
+        assertThat(find("balance")).isEqualTo(0);
+        assertThat(find("bal")).isEqualTo(1);
+        assertThat(find("help")).isEqualTo(2);
+        assertThat(find("bind_2fa")).isEqualTo(3);
+
+        // 前缀和更长的名称都不匹配
+        assertThat(find("balancexyz")).isEqualTo(CommandNameTrie.NOT_FOUND);
+        assertThat(find("bala")).isEqualTo(CommandNameTrie.NOT_FOUND);
+        assertThat(find("b")).isEqualTo(CommandNameTrie.NOT_FOUND);
+        assertThat(find("")).isEqualTo(CommandNameTrie.NOT_FOUND);
+    }
+
+    @Test
+    void ignoresCase() {
+        assertThat(find("BALANCE")).isEqualTo(0);
+        assertThat(find("Help")).isEqualTo(2);
+        assertThat(find("BIND_2FA")).isEqualTo(3);
+    }
+
+    @Test
+    void findsNameWithinRangeOfText() {
+        String text = "/balance@OtherBot 100";
+        assertThat(trie.find(text, 1, text.indexOf('@'))).isEqualTo(0);
+        assertThat(trie.find(text, 1, 4)).isEqualTo(1);
+        assertThat(trie.find(text, 0, text.indexOf('@'))).isEqualTo(CommandNameTrie.NOT_FOUND);
+    }
+
+    @Test
+    void rejectsCharactersOutsideCommandAlphabet() {
+        assertThat(find("balance!")).isEqualTo(CommandNameTrie.NOT_FOUND);
+        assertThat(find("hélp")).isEqualTo(CommandNameTrie.NOT_FOUND);
+        assertThat(CommandNameTrie.isValidName("bind_2fa")).isTrue();
+        assertThat(CommandNameTrie.isValidName("bind-2fa")).isFalse();
+        assertThat(CommandNameTrie.isValidName("")).isFalse();
+        assertThatThrownBy(() -> CommandNameTrie.of(List.of("bad name")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void growsBeyondInitialNodeCapacity() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            names.add("command_" + i);
+        }
+        CommandNameTrie large = CommandNameTrie.of(names);
+        for (int i = 0; i < names.size(); i++) {
+            assertThat(large.find(names.get(i), 0, names.get(i).length())).isEqualTo(i);
+        }
+        assertThat(large.find("command_200", 0, 11)).isEqualTo(CommandNameTrie.NOT_FOUND);
+    }
+
+    private int find(String name) {
+        return trie.find(name, 0, name.length());
+    }
+}
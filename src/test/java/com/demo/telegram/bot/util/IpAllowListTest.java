@@ -0,0 +1,108 @@
+package com.demo.telegram.bot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * IP白名单测试：CIDR区间合并、IPv6地址解析和边界前缀
+ */
+class IpAllowListTest {
+
+    @Test
+    void parsesIpv6WithZeroCompression() {
+        assertThat(parseIpv6("::")).containsExactly(0L, 0L);
+        assertThat(parseIpv6("::1")).containsExactly(0L, 1L);
+        assertThat(parseIpv6("2001:db8::")).containsExactly(0x20010db800000000L, 0L);
+        assertThat(parseIpv6("2001:db8::8a2e:370:7334")).containsExactly(0x20010db800000000L, 0x00008a2e03707334L);
+        assertThat(parseIpv6("2001:0db8:0000:0000:0000:8a2e:0370:7334"))
+                .containsExactly(0x20010db800000000L, 0x00008a2e03707334L);
+        assertThat(parseIpv6("FFFF:ffff:ffff:ffff:ffff:ffff:ffff:ffff")).containsExactly(-1L, -1L);
+    }
+
+    @Test
+    void parsesIpv4MappedIpv6() {
+        assertThat(parseIpv6("::ffff:192.0.2.1")).containsExactly(0L, 0x0000ffffc0000201L);
+    }
+
+    @Test
+    void rejectsInvalidIpv6() {
+        long[] out = new long[2];
+        for (String invalid : List.of("", ":", ":::", "1::2::3", "1:2:3:4:5:6:7:8:9", "1:2:3:4:5:6:7",
+                "12345::", "g::1", "::ffff:300.0.0.1", "1:2:3:4:5:6:7::8:9")) {
+            assertThat(IpUtil.parseIpv6(invalid, 0, invalid.length(), out)).as(invalid).isFalse();
+        }
+    }
+
+    @Test
+    void mergesOverlappingRangesAndMatchesBoundaries() {
+        IpAllowList allowList = IpAllowList.compile(List.of(
+                "149.154.160.0/20", "149.154.168.0/22", "91.108.4.0/22", "91.108.8.0/22", "10.0.0.1"));
+        // 第二个区间包含在第一个中，后两个相邻的区间合并
+        assertThat(allowList.size()).isEqualTo(3);
+
+        assertThat(allowList.contains("149.154.160.0")).isTrue();
+        assertThat(allowList.contains("149.154.175.255")).isTrue();
+        assertThat(allowList.contains("149.154.176.0")).isFalse();
+        assertThat(allowList.contains("149.154.159.255")).isFalse();
+        assertThat(allowList.contains("91.108.11.255")).isTrue();
+        assertThat(allowList.contains("10.0.0.1")).isTrue();
+        assertThat(allowList.contains("10.0.0.2")).isFalse();
+        assertThat(allowList.contains(" 10.0.0.1 ")).isTrue();
+    }
+
+    @Test
+    void matchesIpv4MappedClientAgainstIpv4Ranges() {
+        IpAllowList allowList = IpAllowList.compile(List.of("149.154.160.0/20"));
+        assertThat(allowList.contains("::ffff:149.154.161.1")).isTrue();
+        assertThat(allowList.contains("[::ffff:149.154.161.1]")).isTrue();
+        assertThat(allowList.contains("::ffff:149.154.176.1")).isFalse();
+    }
+
+    @Test
+    void matchesIpv6Prefixes() {
+        IpAllowList allowList = IpAllowList.compile(List.of("2001:b28:f23d::/48", "2001:db8::1/128"));
+        assertThat(allowList.contains("2001:b28:f23d:ffff:ffff:ffff:ffff:ffff")).isTrue();
+        assertThat(allowList.contains("2001:b28:f23e::")).isFalse();
+        assertThat(allowList.contains("2001:db8::1")).isTrue();
+        assertThat(allowList.contains("2001:db8::2")).isFalse();
+        assertThat(allowList.contains("10.0.0.1")).isFalse();
+    }
+
+    @Test
+    void zeroPrefixMatchesWholeAddressFamily() {
+        IpAllowList v4 = IpAllowList.compile(List.of("1.2.3.4/0"));
+        assertThat(v4.contains("0.0.0.0")).isTrue();
+        assertThat(v4.contains("255.255.255.255")).isTrue();
+        assertThat(v4.contains("::1")).isFalse();
+
+        IpAllowList v6 = IpAllowList.compile(List.of("::/0"));
+        assertThat(v6.contains("::")).isTrue();
+        assertThat(v6.contains("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff")).isTrue();
+        assertThat(v6.contains("8000::")).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidEntriesAndAddresses() {
+        for (String entry : List.of("10.0.0.0/33", "::/129", "10.0.0.0/", "10.0.0.0/a", "not-an-ip", "10.0.0")) {
+            assertThatThrownBy(() -> IpAllowList.compile(List.of(entry))).as(entry)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        IpAllowList allowList = IpAllowList.compile(List.of("0.0.0.0/0", "::/0"));
+        assertThat(allowList.contains(null)).isFalse();
+        assertThat(allowList.contains("")).isFalse();
+        assertThat(allowList.contains("256.0.0.1")).isFalse();
+        assertThat(allowList.contains("unknown")).isFalse();
+        assertThat(IpAllowList.compile(List.of()).contains("10.0.0.1")).isFalse();
+    }
+
+    private static long[] parseIpv6(String ip) {
+        long[] out = new long[2];
+        assertThat(IpUtil.parseIpv6(ip, 0, ip.length(), out)).as(ip).isTrue();
+        return out;
+    }
+}
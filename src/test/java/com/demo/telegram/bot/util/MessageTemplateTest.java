@@ -0,0 +1,84 @@
+package com.demo.telegram.bot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 消息模板测试：占位符解析、金额和日期时间格式化、部分绑定
+ */
+class MessageTemplateTest {
+
+    @Test
+    void formatsMoneyWithGroupingAndHalfUpRounding() {
+        MessageTemplate template = MessageTemplate.compile("{0:money}");
+        assertThat(template.render(new BigDecimal("12345.6"))).isEqualTo("12,345.60");
+        assertThat(template.render(new BigDecimal("0.005"))).isEqualTo("0.01");
+        assertThat(template.render(new BigDecimal("0.004"))).isEqualTo("0.00");
+        assertThat(template.render(new BigDecimal("-1234567.125"))).isEqualTo("-1,234,567.13");
+        assertThat(template.render(new BigDecimal("-0.5"))).isEqualTo("-0.50");
+        assertThat(template.render(999L)).isEqualTo("999.00");
+        assertThat(template.render(1000)).isEqualTo("1,000.00");
+        // 超出long范围的金额
+        assertThat(template.render(new BigDecimal("12345678901234567890.125")))
+                .isEqualTo("12,345,678,901,234,567,890.13");
+    }
+
+    @Test
+    void formatsNumbersWithGrouping() {
+        MessageTemplate template = MessageTemplate.compile("{0:number}");
+        assertThat(template.render(0)).isEqualTo("0");
+        assertThat(template.render(1234567L)).isEqualTo("1,234,567");
+        assertThat(template.render(-1000L)).isEqualTo("-1,000");
+        assertThat(template.render(1_000_001L)).isEqualTo("1,000,001");
+        assertThat(template.render(Long.MIN_VALUE)).isEqualTo("-9,223,372,036,854,775,808");
+    }
+
+    @Test
+    void formatsDateTime() {
+        MessageTemplate template = MessageTemplate.compile("时间: {0:datetime}");
+        assertThat(template.render(LocalDateTime.of(2024, 1, 2, 3, 4, 5))).isEqualTo("时间: 2024-01-02 03:04:05");
+        assertThat(template.render(LocalDateTime.of(2024, 12, 31, 23, 59, 59))).isEqualTo("时间: 2024-12-31 23:59:59");
+        assertThat(template.render(OffsetDateTime.of(2024, 6, 7, 8, 9, 10, 0, ZoneOffset.UTC)))
+                .isEqualTo("时间: 2024-06-07 08:09:10");
+    }
+
+    @Test
+    void rendersPlainValuesAndEscapedBraces() {
+        MessageTemplate template = MessageTemplate.compile("{{literal} {1} -> {0}");
+        assertThat(template.getPlaceholderCount()).isEqualTo(2);
+        assertThat(template.render("a", 42L)).isEqualTo("{literal} 42 -> a");
+        assertThat(template.render(null, "b")).isEqualTo("{literal} b -> null");
+    }
+
+    @Test
+    void bindingAllPlaceholdersYieldsConstant() {
+        MessageTemplate template = MessageTemplate.compile("用户 {0} 余额 {1:money}");
+        MessageTemplate partial = template.bind("alice");
+        assertThat(partial.isConstant()).isFalse();
+        assertThat(partial.render("ignored", new BigDecimal("5"))).isEqualTo("用户 alice 余额 5.00");
+
+        MessageTemplate constant = template.bind("bob", 1000L);
+        assertThat(constant.isConstant()).isTrue();
+        assertThat(constant.render()).isSameAs(constant.render()).isEqualTo("用户 bob 余额 1,000.00");
+
+        StringBuilder builder = new StringBuilder(">");
+        constant.renderTo(builder);
+        assertThat(builder).hasToString(">用户 bob 余额 1,000.00");
+    }
+
+    @Test
+    void rejectsMalformedTemplatesAndMissingArguments() {
+        assertThatThrownBy(() -> MessageTemplate.compile("{0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MessageTemplate.compile("{x}")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MessageTemplate.compile("{0:percent}")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MessageTemplate.compile("{1}").render("only-zero"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.telegram.bot.util;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Webhook响应写出器测试：缓存的固定回复与Jackson序列化结果逐字节一致
+ */
+class TelegramBotResponseConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final TelegramBotResponseConverter converter = new TelegramBotResponseConverter(objectMapper);
+
+    @Test
+    void staticReplyMatchesJacksonForEveryChat() throws IOException {
+        String text = "欢迎 \"quoted\" \\ back\nslash\t<b>tag</b> & 😀 \u0001";
+        for (long chatId : new long[]{1L, -1001234567890L, Long.MAX_VALUE, 0L}) {
+            TelegramBotResponse response = TelegramBotResponse.sendStaticMessage(chatId, text);
+            response.setParseMode("HTML");
+            response.setDisableWebPagePreview(true);
+            assertMatchesJackson(response);
+        }
+        assertThat(converter.getCachedReplyCount()).isEqualTo(1);
+    }
+
+    @Test
+    void distinguishesRepliesByEveryField() throws IOException {
+        TelegramBotResponse plain = TelegramBotResponse.sendStaticMessage(1L, "same");
+        TelegramBotResponse markdown = TelegramBotResponse.sendStaticMessage(1L, "same");
+        markdown.setParseMode("MarkdownV2");
+        TelegramBotResponse silent = TelegramBotResponse.sendStaticMessage(1L, "same");
+        silent.setDisableNotification(true);
+        assertMatchesJackson(plain);
+        assertMatchesJackson(markdown);
+        assertMatchesJackson(silent);
+        assertThat(converter.getCachedReplyCount()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotCacheDynamicReplies() throws IOException {
+        assertMatchesJackson(TelegramBotResponse.sendMessage(1L, "dynamic"));
+        assertThat(converter.getContentLength(TelegramBotResponse.sendMessage(1L, "dynamic"), null)).isNull();
+        assertThat(converter.getCachedReplyCount()).isZero();
+    }
+
+    @Test
+    void escapesTextThatLooksLikeChatIdField() throws IOException {
+        // 文本中的引号被转义，不会与 chat_id 字段混淆
+        String text = "\"chat_id\":" + Long.MIN_VALUE;
+        assertMatchesJackson(TelegramBotResponse.sendStaticMessage(2L, text));
+        assertMatchesJackson(TelegramBotResponse.sendStaticMessage(3L, text));
+        assertThat(converter.getCachedReplyCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsCachingAtCapAndKeepsWritingCorrectly() throws IOException {
+        for (int i = 0; i < 1100; i++) {
+            assertMatchesJackson(TelegramBotResponse.sendStaticMessage(42L, "reply " + i));
+        }
+        assertThat(converter.getCachedReplyCount()).isEqualTo(1024);
+        // 已缓存的回复继续使用缓存
+        assertMatchesJackson(TelegramBotResponse.sendStaticMessage(43L, "reply 0"));
+        assertThat(converter.getCachedReplyCount()).isEqualTo(1024);
+    }
+
+    @Test
+    void writesEmptyResponse() throws IOException {
+        TelegramBotResponse empty = TelegramBotResponse.empty();
+        assertThat(write(empty)).isEqualTo(objectMapper.writeValueAsString(empty));
+        assertThat(converter.getContentLength(empty, null)).isEqualTo(write(empty).length());
+    }
+
+    private void assertMatchesJackson(TelegramBotResponse response) throws IOException {
+        byte[] expected = objectMapper.writeValueAsBytes(response);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        converter.writeTo(response, body);
+        assertThat(body.toByteArray()).isEqualTo(expected);
+        Long length = converter.getContentLength(response, null);
+        if (length != null) {
+            assertThat(length).isEqualTo(expected.length);
+        }
+    }
+
+    private String write(TelegramBotResponse response) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        converter.writeTo(response, body);
+        return body.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package com.demo.telegram.bot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分层时间轮测试：定时项在各层之间下沉后准时到期
+ */
+class TimingWheelTest {
+
+    private final Map<Integer, Long> fired = new HashMap<>();
+
+    @Test
+    void firesExactlyAtDeadlineAcrossAllLevels() {
+        long start = 1_000_003;
+        TimingWheel wheel = new TimingWheel(start, 16);
+        // 覆盖每层的边界：64、64^2、64^3 个刻度前后，以及超出时间轮范围的到期时间
+        long[] offsets = {1, 2, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 262_145,
+                (1L << 24) - 1, 1L << 24, (1L << 24) + 12_345, 3L << 24};
+        for (int id = 0; id < offsets.length; id++) {
+            wheel.schedule(id, start + offsets[id]);
+        }
+        assertThat(wheel.size()).isEqualTo(offsets.length);
+
+        advanceOneByOne(wheel, start + offsets[offsets.length - 1] + 10);
+
+        assertThat(wheel.size()).isZero();
+        for (int id = 0; id < offsets.length; id++) {
+            assertThat(fired.get(id)).as("offset %d", offsets[id]).isEqualTo(start + offsets[id]);
+        }
+    }
+
+    @Test
+    void matchesReferenceForRandomDeadlines() {
+        Random random = new Random(42);
+        TimingWheel wheel = new TimingWheel(0, 16);
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int id = 0; id < 2000; id++) {
+            long deadline = 1 + random.nextInt(300_000);
+            wheel.schedule(id, deadline);
+            expected.put(id, deadline);
+        }
+        // 推进过程中登记新的定时项并取消一部分
+        long tick = 0;
+        int nextId = 2000;
+        while (tick < 400_000) {
+            long target = tick + 1 + random.nextInt(5000);
+            advanceOneByOne(wheel, target);
+            tick = target;
+            for (int i = 0; i < 10; i++) {
+                long deadline = tick + 1 + random.nextInt(100_000);
+                wheel.schedule(nextId, deadline);
+                expected.put(nextId++, deadline);
+            }
+            int victim = random.nextInt(nextId);
+            if (wheel.cancel(victim)) {
+                expected.remove(victim);
+            }
+        }
+        advanceOneByOne(wheel, tick + 200_000);
+
+        assertThat(fired).isEqualTo(expected);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advancingInOneStepFiresEverythingDue() {
+        TimingWheel wheel = new TimingWheel(0, 4);
+        wheel.schedule(1, 70);
+        wheel.schedule(2, 5000);
+        wheel.schedule(3, 300_000);
+        List<Integer> order = new ArrayList<>();
+        wheel.advance(5000, order::add);
+        assertThat(order).containsExactly(1, 2);
+        assertThat(wheel.isScheduled(3)).isTrue();
+        assertThat(wheel.getCurrentTick()).isEqualTo(5000);
+    }
+
+    @Test
+    void cancelAndRescheduleMoveItems() {
+        TimingWheel wheel = new TimingWheel(100, 4);
+        wheel.schedule(0, 200);
+        wheel.schedule(1, 200);
+        wheel.schedule(2, 200);
+        // 从链表中间取消
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.cancel(1)).isFalse();
+        assertThat(wheel.cancel(99)).isFalse();
+        // 重新登记会先从原槽位移除
+        wheel.schedule(2, 10_000);
+        assertThat(wheel.deadline(2)).isEqualTo(10_000);
+        assertThat(wheel.size()).isEqualTo(2);
+
+        advanceOneByOne(wheel, 10_000);
+        assertThat(fired).containsOnly(Map.entry(0, 200L), Map.entry(2, 10_000L));
+    }
+
+    @Test
+    void pastDeadlineFiresOnNextTick() {
+        TimingWheel wheel = new TimingWheel(500, 4);
+        wheel.schedule(0, 10);
+        wheel.schedule(1, 500);
+        advanceOneByOne(wheel, 501);
+        assertThat(fired).containsOnlyKeys(0, 1);
+        assertThat(fired.values()).containsOnly(501L);
+    }
+
+    @Test
+    void growsForLargeIds() {
+        TimingWheel wheel = new TimingWheel(0, 1);
+        wheel.schedule(10_000, 3);
+        assertThat(wheel.isScheduled(10_000)).isTrue();
+        assertThat(wheel.isScheduled(20_000)).isFalse();
+        advanceOneByOne(wheel, 3);
+        assertThat(fired).containsExactly(Map.entry(10_000, 3L));
+    }
+
+    /**
+     * 逐个刻度推进，记录每个定时项到期时的刻度
+     */
+    private void advanceOneByOne(TimingWheel wheel, long tick) {
+        while (wheel.getCurrentTick() < tick) {
+            long next = wheel.getCurrentTick() + 1;
+            wheel.advance(next, id -> assertThat(fired.put(id, next)).as("fired twice: %d", id).isNull());
+        }
+    }
+}
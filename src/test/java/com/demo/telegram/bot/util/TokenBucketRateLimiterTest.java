@@ -0,0 +1,85 @@
+package com.demo.telegram.bot.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 令牌桶限流器测试：令牌补充、分段表扩容和空闲桶淘汰
+ */
+class TokenBucketRateLimiterTest {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(3);
+
+    @Test
+    void refillsTokensEvenlyUpToCapacity() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 3, TimeUnit.SECONDS);
+        long start = 1_000_000_000L;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(7, start)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(7, start)).isFalse();
+
+        // 每秒补充一个令牌
+        long oneSecond = TimeUnit.SECONDS.toNanos(1);
+        assertThat(limiter.tryAcquire(7, start + oneSecond / 2)).isFalse();
+        assertThat(limiter.tryAcquire(7, start + oneSecond)).isTrue();
+        assertThat(limiter.tryAcquire(7, start + oneSecond)).isFalse();
+
+        // 空闲很久后最多补满到容量
+        long later = start + 10 * WINDOW;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(7, later)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(7, later)).isFalse();
+
+        // 不同键互不影响
+        assertThat(limiter.tryAcquire(8, later)).isTrue();
+    }
+
+    @Test
+    void growsStripeWhileBucketsAreActive() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 3, TimeUnit.SECONDS, 1);
+        long now = 1_000_000_000L;
+        for (long key = 0; key < 1000; key++) {
+            assertThat(limiter.tryAcquire(key, now)).isTrue();
+        }
+        assertThat(limiter.size()).isEqualTo(1000);
+
+        // 扩容后每个桶的状态保留
+        for (long key = 0; key < 1000; key++) {
+            assertThat(limiter.tryAcquire(key, now + 1)).isFalse();
+        }
+    }
+
+    @Test
+    void evictsIdleBucketsWhenStripeIsRebuilt() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 3, TimeUnit.SECONDS, 1);
+        long now = 1_000_000_000L;
+        for (long key = 0; key < 12; key++) {
+            limiter.tryAcquire(key, now);
+        }
+        assertThat(limiter.size()).isEqualTo(12);
+
+        // 一个窗口之后这些桶都已补满；第13个键触发重建时淘汰它们而不是扩容
+        long later = now + WINDOW;
+        assertThat(limiter.tryAcquire(100, later)).isTrue();
+        assertThat(limiter.size()).isEqualTo(1);
+
+        // 被淘汰的键重新开始计数，等同于补满的桶
+        assertThat(limiter.tryAcquire(0, later)).isTrue();
+        assertThat(limiter.tryAcquire(0, later)).isFalse();
+        assertThat(limiter.tryAcquire(100, later)).isFalse();
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(0, 1, TimeUnit.SECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucketRateLimiter(1, 0, TimeUnit.SECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.demo.telegram.bot.util;
+
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * update_id 去重窗口测试：窗口滑动、窗口外迟到的 update_id 和 update_id 重新分配
+ */
+class UpdateIdDeduplicatorTest {
+
+    private final UpdateIdDeduplicator deduplicator = new UpdateIdDeduplicator(100, 2);
+
+    @Test
+    void roundsWindowUpToPowerOfTwo() {
+        assertThat(deduplicator.getWindowSize()).isEqualTo(128);
+        assertThat(new UpdateIdDeduplicator(1, 1).getWindowSize()).isEqualTo(64);
+    }
+
+    @Test
+    void replaysCachedResponseForRetries() {
+        assertThat(deduplicator.tryAcquire(1000)).isNull();
+        // 处理完成前的重试返回空响应
+        assertEmpty(deduplicator.tryAcquire(1000));
+
+        TelegramBotResponse response = TelegramBotResponse.sendMessage(1L, "done");
+        deduplicator.complete(1000, response);
+        assertThat(deduplicator.tryAcquire(1000)).isSameAs(response);
+
+        // 窗口内乱序到达的较小 update_id 同样只处理一次
+        assertThat(deduplicator.tryAcquire(990)).isNull();
+        assertEmpty(deduplicator.tryAcquire(990));
+    }
+
+    @Test
+    void slidingWindowForgetsIdsThatFallOut() {
+        TelegramBotResponse response = TelegramBotResponse.sendMessage(1L, "first");
+        assertThat(deduplicator.tryAcquire(1000)).isNull();
+        deduplicator.complete(1000, response);
+
+        // 上界推进到 1127 时 1000 仍在窗口 (999, 1127] 内
+        assertThat(deduplicator.tryAcquire(1127)).isNull();
+        assertThat(deduplicator.tryAcquire(1000)).isSameAs(response);
+
+        // 1128 与 1000 共用槽位：推进时先清除槽位，1128 不会被误判为重复
+        assertThat(deduplicator.tryAcquire(1128)).isNull();
+        assertEmpty(deduplicator.tryAcquire(1128));
+        // 1000 滑出窗口后按迟到的 update_id 重新登记
+        assertThat(deduplicator.tryAcquire(1000)).isNull();
+
+        // 一次跳过整个窗口时清空窗口
+        assertThat(deduplicator.tryAcquire(1128 + 128)).isNull();
+        assertThat(deduplicator.tryAcquire(1128 + 1)).isNull();
+    }
+
+    @Test
+    void lateIdsOutsideWindowGoToBoundedOverflow() {
+        assertThat(deduplicator.tryAcquire(10_000)).isNull();
+
+        assertThat(deduplicator.tryAcquire(1)).isNull();
+        assertEmpty(deduplicator.tryAcquire(1));
+        TelegramBotResponse response = TelegramBotResponse.sendMessage(1L, "late");
+        deduplicator.complete(1, response);
+        assertThat(deduplicator.tryAcquire(1)).isSameAs(response);
+
+        // 溢出集合容量为2，超出时淘汰最早加入的
+        assertThat(deduplicator.tryAcquire(2)).isNull();
+        assertThat(deduplicator.tryAcquire(3)).isNull();
+        assertThat(deduplicator.tryAcquire(1)).isNull();
+        assertEmpty(deduplicator.tryAcquire(3));
+    }
+
+    @Test
+    void resetsWindowWhenUpdateIdsAreReassigned() {
+        long highest = 1L << 30;
+        assertThat(deduplicator.tryAcquire(highest)).isNull();
+
+        // 落后超过重置距离的 update_id 视为重新分配：窗口以它为新的上界
+        long reassigned = 5;
+        assertThat(deduplicator.tryAcquire(reassigned)).isNull();
+        assertEmpty(deduplicator.tryAcquire(reassigned));
+        assertThat(deduplicator.tryAcquire(reassigned + 1)).isNull();
+        assertThat(deduplicator.tryAcquire(highest)).isNull();
+    }
+
+    @Test
+    void releasedIdsAreProcessedAgain() {
+        assertThat(deduplicator.tryAcquire(500)).isNull();
+        deduplicator.release(500);
+        assertThat(deduplicator.tryAcquire(500)).isNull();
+
+        assertThat(deduplicator.tryAcquire(1)).isNull();
+        deduplicator.release(1);
+        assertThat(deduplicator.tryAcquire(1)).isNull();
+    }
+
+    private static void assertEmpty(TelegramBotResponse response) {
+        assertThat(response).isNotNull().satisfies(value -> assertThat(value.isEmpty()).isTrue());
+    }
+}
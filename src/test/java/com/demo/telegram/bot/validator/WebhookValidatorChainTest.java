@@ -0,0 +1,242 @@
+package com.demo.telegram.bot.validator;
+
+import com.demo.telegram.bot.TelegramBotApplication;
+import com.demo.telegram.bot.exception.TelegramWebhookException;
+import com.demo.telegram.bot.model.TelegramBotResponse;
+import com.demo.telegram.bot.model.TelegramRequestParam;
+import com.demo.telegram.bot.service.TelegramBotRegistry;
+import com.demo.telegram.bot.service.TelegramWebhookReceiver;
+import com.demo.telegram.bot.util.TelegramBotMetrics;
+import com.demo.telegram.bot.util.TelegramWebhookValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 验证链测试：按成本和依赖排序、依赖环、拒绝计数和配置禁用的步骤
+ */
+class WebhookValidatorChainTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TelegramBotMetrics metrics = new TelegramBotMetrics();
+
+    private final List<String> executed = new ArrayList<>();
+
+    WebhookValidatorChainTest() {
+        ReflectionTestUtils.setField(metrics, "meterRegistry", registry);
+    }
+
+    @Test
+    void ordersByCostThenNameAndRespectsDependencies() {
+        WebhookValidatorChain chain = WebhookValidatorChain.build(List.of(
+                step("rate", WebhookValidator.Cost.STATEFUL),
+                step("format", WebhookValidator.Cost.FIELD),
+                // 低成本步骤依赖字段步骤时排在其后
+                step("header-after-format", WebhookValidator.Cost.HEADER, "format"),
+                step("b-header", WebhookValidator.Cost.HEADER),
+                step("a-header", WebhookValidator.Cost.HEADER),
+                step("content", WebhookValidator.Cost.FIELD, "format"),
+                // 依赖的步骤未启用时忽略该依赖
+                step("missing-dependency", WebhookValidator.Cost.FIELD, "disabled")), metrics);
+
+        assertThat(chain.getStepNames()).containsExactly(
+                "a-header", "b-header", "format", "header-after-format", "content", "missing-dependency", "rate");
+
+        chain.validate(new TelegramRequestParam());
+        assertThat(executed).isEqualTo(chain.getStepNames());
+    }
+
+    @Test
+    void splitsLeadingHeaderStepsFromTheRest() {
+        WebhookValidatorChain chain = WebhookValidatorChain.build(List.of(
+                step("format", WebhookValidator.Cost.FIELD),
+                step("header-after-format", WebhookValidator.Cost.HEADER, "format"),
+                step("b-header", WebhookValidator.Cost.HEADER),
+                step("a-header", WebhookValidator.Cost.HEADER),
+                step("rate", WebhookValidator.Cost.STATEFUL)), metrics);
+
+        chain.validateHeaders(new TelegramRequestParam());
+        assertThat(executed).containsExactly("a-header", "b-header");
+
+        // 依赖字段步骤的HEADER步骤不能在解码之前执行
+        executed.clear();
+        chain.validateUpdate(new TelegramRequestParam());
+        assertThat(executed).containsExactly("format", "header-after-format", "rate");
+    }
+
+    @Test
+    void rejectsOversizedBodyBeforeDecoding() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TelegramBotApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--telegram.bot.validation.max-body-bytes=64",
+                "--logging.file.name=")) {
+            TelegramWebhookReceiver receiver = context.getBean(TelegramWebhookReceiver.class);
+            TelegramBotRegistry registry = context.getBean(TelegramBotRegistry.class);
+            MeterRegistry meters = context.getBean(MeterRegistry.class);
+            TelegramWebhookValidator validator = context.getBean(TelegramWebhookValidator.class);
+            assertThat(stepNames(validator, "webhookChain")).startsWith("body-size");
+            assertThat(stepNames(validator, "pollingChain")).doesNotContain("body-size");
+
+            // 请求体不是JSON，解码会失败；被拒绝时记录的是大小超限而不是解码异常
+            byte[] oversized = new byte[65];
+            Arrays.fill(oversized, (byte) '{');
+            assertThat(receiver.receive(registry.getDefault(), "149.154.167.1", name -> null, oversized)
+                    .getStatusCode().value()).isEqualTo(200);
+            assertThat(errors(meters, TelegramWebhookException.REQUEST_BODY_TOO_LARGE)).isEqualTo(1);
+            assertThat(errors(meters, TelegramWebhookException.ERROR_CODE)).isZero();
+
+            // 未超限时同样先执行Secret Token验证，不解码请求体
+            receiver.receive(registry.getDefault(), "149.154.167.1", name -> null,
+                    "not json".getBytes(StandardCharsets.UTF_8));
+            assertThat(errors(meters, TelegramWebhookException.SECRET_TOKEN_VALIDATION_FAILED)).isEqualTo(1);
+            assertThat(errors(meters, TelegramWebhookException.ERROR_CODE)).isZero();
+        }
+    }
+
+    private static double errors(MeterRegistry meters, String code) {
+        Counter counter = meters.find("telegram.webhook.errors").tag("code", code).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void rejectsDependencyCyclesAndDuplicateNames() {
+        assertThatThrownBy(() -> WebhookValidatorChain.build(List.of(
+                step("a", WebhookValidator.Cost.HEADER, "c"),
+                step("b", WebhookValidator.Cost.HEADER, "a"),
+                step("c", WebhookValidator.Cost.HEADER, "b"),
+                step("free", WebhookValidator.Cost.HEADER)), metrics))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Cyclic")
+                .hasMessageContainingAll("a", "b", "c")
+                .hasMessageNotContaining("free");
+
+        assertThatThrownBy(() -> WebhookValidatorChain.build(List.of(
+                step("self", WebhookValidator.Cost.HEADER, "self")), metrics))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThatThrownBy(() -> WebhookValidatorChain.build(List.of(
+                step("same", WebhookValidator.Cost.HEADER),
+                step("same", WebhookValidator.Cost.FIELD)), metrics))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Duplicate");
+    }
+
+    @Test
+    void stopsAtFirstRejectionAndCountsIt() {
+        WebhookValidatorChain chain = WebhookValidatorChain.build(List.of(
+                step("first", WebhookValidator.Cost.HEADER),
+                rejecting("second", WebhookValidator.Cost.FIELD),
+                step("third", WebhookValidator.Cost.STATEFUL)), metrics);
+
+        assertThatThrownBy(() -> chain.validate(new TelegramRequestParam()))
+                .isInstanceOf(TelegramWebhookException.class);
+        assertThat(executed).containsExactly("first", "second");
+        assertThat(registry.get("telegram.webhook.validation.rejections").tag("step", "second").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("telegram.webhook.validation").tag("step", "second").timer().count()).isEqualTo(1);
+        assertThat(registry.get("telegram.webhook.validation").tag("step", "third").timer().count()).isZero();
+    }
+
+    @Test
+    void stopsAfterReplayResponseIsSet() {
+        WebhookValidatorChain chain = WebhookValidatorChain.build(List.of(
+                new RecordingValidator("replay", WebhookValidator.Cost.FIELD, Set.of()) {
+                    @Override
+                    public void validate(TelegramRequestParam param) {
+                        super.validate(param);
+                        param.setReplayResponse(TelegramBotResponse.empty());
+                    }
+                },
+                step("after", WebhookValidator.Cost.STATEFUL)), metrics);
+
+        chain.validate(new TelegramRequestParam());
+        assertThat(executed).containsExactly("replay");
+    }
+
+    @Test
+    void leavesDisabledStepsOutOfBothChains() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TelegramBotApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--telegram.bot.validation.steps.message-content=false",
+                "--logging.file.name=")) {
+            TelegramWebhookValidator validator = context.getBean(TelegramWebhookValidator.class);
+            List<String> webhook = stepNames(validator, "webhookChain");
+            List<String> polling = stepNames(validator, "pollingChain");
+
+            assertThat(webhook).doesNotContain("message-content").contains("secret-token", "timestamp");
+            assertThat(webhook.indexOf("secret-token")).isLessThan(webhook.indexOf("timestamp"));
+            assertThat(polling).doesNotContain("message-content", "secret-token", "timestamp");
+            assertThat(webhook).containsAll(polling);
+        }
+    }
+
+    private static List<String> stepNames(TelegramWebhookValidator validator, String field) {
+        return ((WebhookValidatorChain) ReflectionTestUtils.getField(validator, field)).getStepNames();
+    }
+
+    private WebhookValidator step(String name, WebhookValidator.Cost cost, String... dependencies) {
+        return new RecordingValidator(name, cost, Set.of(dependencies));
+    }
+
+    private WebhookValidator rejecting(String name, WebhookValidator.Cost cost) {
+        return new RecordingValidator(name, cost, Set.of()) {
+            @Override
+            public void validate(TelegramRequestParam param) {
+                super.validate(param);
+                throw new TelegramWebhookException(TelegramWebhookException.REQUEST_FORMAT_VALIDATION_FAILED);
+            }
+        };
+    }
+
+    /**
+     * 记录执行顺序的步骤
+     */
+    private class RecordingValidator implements WebhookValidator {
+
+        private final String name;
+
+        private final Cost cost;
+
+        private final Set<String> dependencies;
+
+        RecordingValidator(String name, Cost cost, Set<String> dependencies) {
+            this.name = name;
+            this.cost = cost;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Cost getCost() {
+            return cost;
+        }
+
+        @Override
+        public Set<String> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public void validate(TelegramRequestParam param) {
+            executed.add(name);
+        }
+    }
+}